@@ -61,6 +61,7 @@ import java.util.List;
       throw new FfmpegDecoderException("Initialization failed.");
     }
     setInitialInputBufferSize(initialInputBufferSize);
+    setInitialOutputBufferSize(outputBufferSize);
   }
 
   @Override
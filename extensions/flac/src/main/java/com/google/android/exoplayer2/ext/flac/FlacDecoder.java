@@ -62,6 +62,7 @@ import java.util.List;
 
     setInitialInputBufferSize(streamInfo.maxFrameSize);
     maxOutputBufferSize = streamInfo.maxDecodedFrameSize();
+    setInitialOutputBufferSize(maxOutputBufferSize);
   }
 
   @Override
@@ -79,6 +79,7 @@ import java.util.List;
       throw new MpeghDecoderException("Initialization failed.");
     }
     setInitialInputBufferSize(initialInputBufferSize);
+    setInitialOutputBufferSize(outputBufferSize);
   }
 
   @Override
@@ -161,7 +162,7 @@ import java.util.List;
    */
   private static byte[] getExtraData(String mimeType, List<byte[]> initializationData) {
     switch (mimeType) {
-      case MimeTypes.BASE_TYPE_AUDIO + "/mha1":
+      case MimeTypes.AUDIO_MPEGH_MHA1:
         return initializationData.get(0);
       default:
         // Other codecs do not require extra data.
@@ -81,7 +81,7 @@ public final class MpeghLibrary {
    */
   /* package */ static String getCodecName(String mimeType) {
     switch (mimeType) {
-      case MimeTypes.BASE_TYPE_AUDIO + "/mha1":
+      case MimeTypes.AUDIO_MPEGH_MHA1:
         return "mpegh";
       default:
         return null;
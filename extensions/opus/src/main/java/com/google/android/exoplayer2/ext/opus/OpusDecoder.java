@@ -34,6 +34,12 @@ import java.util.List;
 
   private static final int DEFAULT_SEEK_PRE_ROLL_SAMPLES = 3840;
 
+  /**
+   * The maximum number of samples per channel in a decoded Opus packet (120 ms at 48 kHz). Must
+   * match the value used by the native decoder.
+   */
+  private static final int MAX_OUTPUT_PACKET_SIZE_SAMPLES = 960 * 6;
+
   /**
    * Opus streams are always decoded at 48000 Hz.
    */
@@ -127,6 +133,7 @@ import java.util.List;
       throw new OpusDecoderException("Failed to initialize decoder");
     }
     setInitialInputBufferSize(initialInputBufferSize);
+    setInitialOutputBufferSize(MAX_OUTPUT_PACKET_SIZE_SAMPLES * channelCount * 2);
   }
 
   @Override
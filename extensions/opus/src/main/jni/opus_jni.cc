@@ -102,11 +102,6 @@ DECODER_FUNC(jint, opusDecode, jlong jDecoder, jlong jTimeUs,
   const jint outputSize =
       kMaxOpusOutputPacketSizeSamples * kBytesPerSample * channelCount;
 
-  env->CallObjectMethod(jOutputBuffer, outputBufferInit, jTimeUs, outputSize);
-  if (env->ExceptionCheck()) {
-    // Exception is thrown in Java when returning from the native call.
-    return -1;
-  }
   const jobject jOutputBufferData = env->CallObjectMethod(jOutputBuffer,
       outputBufferInit, jTimeUs, outputSize);
   if (env->ExceptionCheck()) {
@@ -0,0 +1,518 @@
+/*
+ * Copyright (C) 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2;
+
+import android.app.ActivityManager;
+import android.content.Context;
+import android.os.Handler;
+import android.support.annotation.Nullable;
+import com.google.android.exoplayer2.source.TrackGroupArray;
+import com.google.android.exoplayer2.trackselection.TrackSelectionArray;
+import com.google.android.exoplayer2.upstream.Allocator;
+import com.google.android.exoplayer2.upstream.BandwidthMeter;
+import com.google.android.exoplayer2.upstream.DefaultAllocator;
+import com.google.android.exoplayer2.util.Assertions;
+import com.google.android.exoplayer2.util.Clock;
+import com.google.android.exoplayer2.util.Util;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * A {@link LoadControl} that adapts its buffer targets to the observed network conditions and to
+ * the memory available to the application.
+ *
+ * <p>The load control derives a rebuffer risk between 0 and 1 from the variability of the bitrate
+ * estimates of a {@link BandwidthMeter} and from the number of recent rebuffers. On stable
+ * networks without rebuffers the risk is low, and less media is buffered to save memory. On
+ * volatile networks or after rebuffers the risk is high, and more media is buffered to avoid
+ * further rebuffers. The targeted buffer size in bytes is additionally limited to a fraction of the
+ * device's memory class.
+ *
+ * <p>If fast start is enabled, playback initially starts as soon as {@link
+ * #FAST_START_BUFFER_FOR_PLAYBACK_MS} of media is buffered. The duration required to start playback
+ * then grows with every bitrate estimate until it reaches the regular value after {@link
+ * #FAST_START_SAMPLE_COUNT} estimates. Fast start ends early if a rebuffer occurs.
+ *
+ * <p>Changes of the buffer targets are reported to {@link EventListener}s added with {@link
+ * #addEventListener(Handler, EventListener)}. Adding the {@link
+ * com.google.android.exoplayer2.analytics.AnalyticsCollector} of the player forwards them to its
+ * {@link com.google.android.exoplayer2.analytics.AnalyticsListener}s.
+ */
+public final class AdaptiveLoadControl implements LoadControl {
+
+  /** Listener of {@link AdaptiveLoadControl} events. */
+  public interface EventListener {
+
+    /**
+     * Called when the buffer targets of the load control changed.
+     *
+     * @param bufferTargets The new {@link BufferTargets}.
+     */
+    void onBufferTargetsChanged(BufferTargets bufferTargets);
+  }
+
+  /** Buffer targets chosen by an {@link AdaptiveLoadControl}. */
+  public static final class BufferTargets {
+
+    /** The rebuffer risk between 0 and 1 from which the targets were derived. */
+    public final float rebufferRisk;
+    /** The minimum duration of media that the player attempts to keep buffered, in microseconds. */
+    public final long minBufferUs;
+    /** The maximum duration of media that the player attempts to buffer, in microseconds. */
+    public final long maxBufferUs;
+    /**
+     * The duration of media that must be buffered for playback to start or resume following a user
+     * action such as a seek, in microseconds.
+     */
+    public final long bufferForPlaybackUs;
+    /**
+     * The duration of media that must be buffered for playback to resume after a rebuffer, in
+     * microseconds.
+     */
+    public final long bufferForPlaybackAfterRebufferUs;
+    /** The target buffer size in bytes. */
+    public final int targetBufferBytes;
+
+    /* package */ BufferTargets(
+        float rebufferRisk,
+        long minBufferUs,
+        long maxBufferUs,
+        long bufferForPlaybackUs,
+        long bufferForPlaybackAfterRebufferUs,
+        int targetBufferBytes) {
+      this.rebufferRisk = rebufferRisk;
+      this.minBufferUs = minBufferUs;
+      this.maxBufferUs = maxBufferUs;
+      this.bufferForPlaybackUs = bufferForPlaybackUs;
+      this.bufferForPlaybackAfterRebufferUs = bufferForPlaybackAfterRebufferUs;
+      this.targetBufferBytes = targetBufferBytes;
+    }
+  }
+
+  /** Builder for {@link AdaptiveLoadControl}. */
+  public static final class Builder {
+
+    private final int memoryClassMb;
+
+    private @Nullable DefaultAllocator allocator;
+    private @Nullable BandwidthMeter bandwidthMeter;
+    private boolean fastStartEnabled;
+    private Clock clock;
+
+    /**
+     * Creates a builder.
+     *
+     * @param context A context, used to query the memory class of the device.
+     */
+    public Builder(Context context) {
+      ActivityManager activityManager =
+          (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+      memoryClassMb = activityManager.getMemoryClass();
+      clock = Clock.DEFAULT;
+    }
+
+    /**
+     * Sets the {@link DefaultAllocator} used by the loader.
+     *
+     * @param allocator The {@link DefaultAllocator}.
+     * @return This builder, for convenience.
+     */
+    public Builder setAllocator(DefaultAllocator allocator) {
+      this.allocator = allocator;
+      return this;
+    }
+
+    /**
+     * Sets the {@link BandwidthMeter} whose bitrate estimates are used to assess the stability of
+     * the network. This should be the bandwidth meter used by the player. If not set, the buffer
+     * targets only depend on the rebuffer history and the memory class.
+     *
+     * @param bandwidthMeter The {@link BandwidthMeter}.
+     * @return This builder, for convenience.
+     */
+    public Builder setBandwidthMeter(BandwidthMeter bandwidthMeter) {
+      this.bandwidthMeter = bandwidthMeter;
+      return this;
+    }
+
+    /**
+     * Sets whether fast start is enabled. If enabled, playback starts with a minimal buffer, and
+     * the buffer required to start playback grows as bitrate estimates become available. Should be
+     * used together with an {@link
+     * com.google.android.exoplayer2.trackselection.AdaptiveTrackSelection} that starts with the
+     * lowest bitrate track. Requires a {@link BandwidthMeter} to be set.
+     *
+     * @param fastStartEnabled Whether fast start is enabled.
+     * @return This builder, for convenience.
+     */
+    public Builder setFastStartEnabled(boolean fastStartEnabled) {
+      this.fastStartEnabled = fastStartEnabled;
+      return this;
+    }
+
+    /**
+     * Sets the {@link Clock} used to weight the rebuffer history. Should only be set for testing.
+     *
+     * @param clock The {@link Clock}.
+     * @return This builder, for convenience.
+     */
+    public Builder setClock(Clock clock) {
+      this.clock = clock;
+      return this;
+    }
+
+    /** Creates an {@link AdaptiveLoadControl}. */
+    public AdaptiveLoadControl createAdaptiveLoadControl() {
+      if (allocator == null) {
+        allocator = new DefaultAllocator(true, C.DEFAULT_BUFFER_SEGMENT_SIZE);
+      }
+      Assertions.checkState(!fastStartEnabled || bandwidthMeter != null);
+      return new AdaptiveLoadControl(
+          allocator, bandwidthMeter, fastStartEnabled, memoryClassMb, clock);
+    }
+  }
+
+  /** The minimum buffer duration at the lowest rebuffer risk, in milliseconds. */
+  public static final int STABLE_MIN_BUFFER_MS = 10000;
+  /** The minimum buffer duration at the highest rebuffer risk, in milliseconds. */
+  public static final int VOLATILE_MIN_BUFFER_MS = 30000;
+  /** The maximum buffer duration at the lowest rebuffer risk, in milliseconds. */
+  public static final int STABLE_MAX_BUFFER_MS = 25000;
+  /** The maximum buffer duration at the highest rebuffer risk, in milliseconds. */
+  public static final int VOLATILE_MAX_BUFFER_MS = 60000;
+  /** The buffer duration to resume after a rebuffer at the lowest risk, in milliseconds. */
+  public static final int STABLE_BUFFER_FOR_PLAYBACK_AFTER_REBUFFER_MS = 2500;
+  /** The buffer duration to resume after a rebuffer at the highest risk, in milliseconds. */
+  public static final int VOLATILE_BUFFER_FOR_PLAYBACK_AFTER_REBUFFER_MS = 5000;
+
+  /** The buffer duration required to start playback when fast start begins, in milliseconds. */
+  public static final int FAST_START_BUFFER_FOR_PLAYBACK_MS = 500;
+  /** The number of bitrate estimates after which fast start ends. */
+  public static final int FAST_START_SAMPLE_COUNT = 5;
+
+  /** The fraction of the device's memory class that may be used for buffering media. */
+  private static final float MEMORY_CLASS_FRACTION = 0.25f;
+  /** The factors applied to the default target buffer size at the lowest and highest risks. */
+  private static final float STABLE_TARGET_BUFFER_FACTOR = 0.5f;
+  private static final float VOLATILE_TARGET_BUFFER_FACTOR = 1.5f;
+  /** The coefficient of variation of the bitrate estimates at which the risk is highest. */
+  private static final double MAX_RISK_COEFFICIENT_OF_VARIATION = 0.5;
+  /** The (decayed) number of recent rebuffers at which the risk is highest. */
+  private static final double MAX_RISK_REBUFFER_SCORE = 3;
+  /** The time after which the weight of a rebuffer has decayed to 1/e, in milliseconds. */
+  private static final double REBUFFER_DECAY_TIME_MS = 5 * 60 * 1000;
+  /** The weight of a new bitrate estimate in the moving average and variance. */
+  private static final double BITRATE_SAMPLE_WEIGHT = 0.2;
+  /** The number of bitrate estimates required before their variability is taken into account. */
+  private static final int MIN_BITRATE_SAMPLE_COUNT = 3;
+  /** The risk assumed while the stability of the network is unknown. */
+  private static final float UNKNOWN_RISK = 0.5f;
+  /** The number of steps to which the risk is quantized, to avoid frequent small changes. */
+  private static final int RISK_STEPS = 10;
+
+  private final DefaultAllocator allocator;
+  private final @Nullable BandwidthMeter bandwidthMeter;
+  private final boolean fastStartEnabled;
+  private final int maxTargetBufferBytes;
+  private final Clock clock;
+  private final CopyOnWriteArrayList<ListenerAndHandler> listeners;
+
+  private int defaultTargetBufferBytes;
+  private volatile BufferTargets bufferTargets;
+  private float fastStartProgress;
+  private boolean isBuffering;
+
+  private long lastBitrateEstimate;
+  private int bitrateSampleCount;
+  private double bitrateMean;
+  private double bitrateVariance;
+
+  private boolean isRebuffering;
+  private boolean hasRebuffered;
+  private double rebufferScore;
+  private long rebufferScoreRealtimeMs;
+
+  private AdaptiveLoadControl(
+      DefaultAllocator allocator,
+      @Nullable BandwidthMeter bandwidthMeter,
+      boolean fastStartEnabled,
+      int memoryClassMb,
+      Clock clock) {
+    this.allocator = allocator;
+    this.bandwidthMeter = bandwidthMeter;
+    this.fastStartEnabled = fastStartEnabled;
+    this.clock = clock;
+    maxTargetBufferBytes = (int) (memoryClassMb * 1024L * 1024L * MEMORY_CLASS_FRACTION);
+    listeners = new CopyOnWriteArrayList<>();
+    // The current estimate is not a new measurement, so only later changes are used as samples.
+    lastBitrateEstimate = bandwidthMeter != null ? bandwidthMeter.getBitrateEstimate() : 0;
+    defaultTargetBufferBytes = C.DEFAULT_MUXED_BUFFER_SIZE;
+    fastStartProgress = getFastStartProgress();
+    bufferTargets = createBufferTargets(getRebufferRisk(), fastStartProgress);
+  }
+
+  /**
+   * Adds a listener to be notified of changes of the buffer targets.
+   *
+   * @param handler The handler on which the listener is called.
+   * @param eventListener The {@link EventListener}.
+   */
+  public void addEventListener(Handler handler, EventListener eventListener) {
+    Assertions.checkArgument(handler != null && eventListener != null);
+    listeners.add(new ListenerAndHandler(eventListener, handler));
+  }
+
+  /**
+   * Removes a listener.
+   *
+   * @param eventListener The {@link EventListener} to remove.
+   */
+  public void removeEventListener(EventListener eventListener) {
+    for (ListenerAndHandler listenerAndHandler : listeners) {
+      if (listenerAndHandler.listener == eventListener) {
+        listeners.remove(listenerAndHandler);
+      }
+    }
+  }
+
+  /** Returns the current {@link BufferTargets}. May be called from any thread. */
+  public BufferTargets getBufferTargets() {
+    return bufferTargets;
+  }
+
+  // LoadControl implementation.
+
+  @Override
+  public void onPrepared() {
+    reset(false);
+  }
+
+  @Override
+  public void onTracksSelected(
+      Renderer[] renderers, TrackGroupArray trackGroups, TrackSelectionArray trackSelections) {
+    int defaultTargetBufferBytes = 0;
+    for (int i = 0; i < renderers.length; i++) {
+      if (trackSelections.get(i) != null) {
+        defaultTargetBufferBytes += Util.getDefaultBufferSize(renderers[i].getTrackType());
+      }
+    }
+    this.defaultTargetBufferBytes = defaultTargetBufferBytes;
+    updateBufferTargets(/* forceUpdate= */ true);
+  }
+
+  @Override
+  public void onStopped() {
+    reset(true);
+  }
+
+  @Override
+  public void onReleased() {
+    reset(true);
+  }
+
+  @Override
+  public Allocator getAllocator() {
+    return allocator;
+  }
+
+  @Override
+  public long getBackBufferDurationUs() {
+    return 0;
+  }
+
+  @Override
+  public boolean retainBackBufferFromKeyframe() {
+    return false;
+  }
+
+  @Override
+  public boolean shouldContinueLoading(long bufferedDurationUs, float playbackSpeed) {
+    maybeAddBitrateSample();
+    // The risk also changes as the weight of past rebuffers decays.
+    updateBufferTargets(/* forceUpdate= */ false);
+    BufferTargets bufferTargets = this.bufferTargets;
+    long minBufferUs = bufferTargets.minBufferUs;
+    if (playbackSpeed > 1) {
+      // The playback speed is faster than real time, so scale up the minimum required media
+      // duration to keep enough media buffered for a playout duration of minBufferUs.
+      long mediaDurationMinBufferUs =
+          Util.getMediaDurationForPlayoutDuration(minBufferUs, playbackSpeed);
+      minBufferUs = Math.min(mediaDurationMinBufferUs, bufferTargets.maxBufferUs);
+    }
+    boolean targetBufferSizeReached =
+        allocator.getTotalBytesAllocated() >= bufferTargets.targetBufferBytes;
+    if (bufferedDurationUs < minBufferUs) {
+      isBuffering = true;
+    } else if (bufferedDurationUs > bufferTargets.maxBufferUs || targetBufferSizeReached) {
+      isBuffering = false;
+    } // Else don't change the buffering state
+    return isBuffering;
+  }
+
+  @Override
+  public boolean shouldStartPlayback(
+      long bufferedDurationUs, float playbackSpeed, boolean rebuffering) {
+    if (rebuffering && !isRebuffering) {
+      onRebufferStarted();
+    }
+    isRebuffering = rebuffering;
+    bufferedDurationUs = Util.getPlayoutDurationForMediaDuration(bufferedDurationUs, playbackSpeed);
+    long minBufferDurationUs =
+        rebuffering
+            ? bufferTargets.bufferForPlaybackAfterRebufferUs
+            : bufferTargets.bufferForPlaybackUs;
+    boolean shouldStartPlayback =
+        minBufferDurationUs <= 0 || bufferedDurationUs >= minBufferDurationUs;
+    if (shouldStartPlayback) {
+      isRebuffering = false;
+    }
+    return shouldStartPlayback;
+  }
+
+  // Internal methods.
+
+  private void reset(boolean resetAllocator) {
+    isBuffering = false;
+    isRebuffering = false;
+    if (resetAllocator) {
+      allocator.reset();
+    }
+  }
+
+  private void onRebufferStarted() {
+    long nowMs = clock.elapsedRealtime();
+    hasRebuffered = true;
+    rebufferScore = getDecayedRebufferScore(nowMs) + 1;
+    rebufferScoreRealtimeMs = nowMs;
+    updateBufferTargets(/* forceUpdate= */ false);
+  }
+
+  private void maybeAddBitrateSample() {
+    if (bandwidthMeter == null) {
+      return;
+    }
+    long bitrateEstimate = bandwidthMeter.getBitrateEstimate();
+    if (bitrateEstimate <= 0 || bitrateEstimate == lastBitrateEstimate) {
+      return;
+    }
+    lastBitrateEstimate = bitrateEstimate;
+    bitrateSampleCount++;
+    if (bitrateSampleCount == 1) {
+      bitrateMean = bitrateEstimate;
+      bitrateVariance = 0;
+    } else {
+      // Exponentially weighted moving average and variance.
+      double deviation = bitrateEstimate - bitrateMean;
+      bitrateMean += BITRATE_SAMPLE_WEIGHT * deviation;
+      bitrateVariance =
+          (1 - BITRATE_SAMPLE_WEIGHT)
+              * (bitrateVariance + BITRATE_SAMPLE_WEIGHT * deviation * deviation);
+    }
+  }
+
+  private void updateBufferTargets(boolean forceUpdate) {
+    float rebufferRisk = getRebufferRisk();
+    float fastStartProgress = getFastStartProgress();
+    if (!forceUpdate
+        && rebufferRisk == bufferTargets.rebufferRisk
+        && fastStartProgress == this.fastStartProgress) {
+      return;
+    }
+    this.fastStartProgress = fastStartProgress;
+    BufferTargets bufferTargets = createBufferTargets(rebufferRisk, fastStartProgress);
+    allocator.setTargetBufferSize(bufferTargets.targetBufferBytes);
+    this.bufferTargets = bufferTargets;
+    notifyBufferTargetsChanged(bufferTargets);
+  }
+
+  private float getRebufferRisk() {
+    double networkRisk;
+    if (bandwidthMeter == null || bitrateSampleCount < MIN_BITRATE_SAMPLE_COUNT) {
+      networkRisk = UNKNOWN_RISK;
+    } else {
+      double coefficientOfVariation = Math.sqrt(bitrateVariance) / bitrateMean;
+      networkRisk = coefficientOfVariation / MAX_RISK_COEFFICIENT_OF_VARIATION;
+    }
+    double rebufferRisk =
+        getDecayedRebufferScore(clock.elapsedRealtime()) / MAX_RISK_REBUFFER_SCORE;
+    double risk = Math.min(1, Math.max(networkRisk, rebufferRisk));
+    return Math.round(risk * RISK_STEPS) / (float) RISK_STEPS;
+  }
+
+  /** Returns the progress of fast start between 0 and 1, where 1 means that fast start ended. */
+  private float getFastStartProgress() {
+    if (!fastStartEnabled || hasRebuffered || bitrateSampleCount >= FAST_START_SAMPLE_COUNT) {
+      return 1;
+    }
+    return bitrateSampleCount / (float) FAST_START_SAMPLE_COUNT;
+  }
+
+  private double getDecayedRebufferScore(long nowMs) {
+    return rebufferScore * Math.exp(-(nowMs - rebufferScoreRealtimeMs) / REBUFFER_DECAY_TIME_MS);
+  }
+
+  private BufferTargets createBufferTargets(float rebufferRisk, float fastStartProgress) {
+    int targetBufferBytes =
+        (int)
+            (defaultTargetBufferBytes
+                * interpolate(
+                    STABLE_TARGET_BUFFER_FACTOR, VOLATILE_TARGET_BUFFER_FACTOR, rebufferRisk));
+    return new BufferTargets(
+        rebufferRisk,
+        C.msToUs((long) interpolate(STABLE_MIN_BUFFER_MS, VOLATILE_MIN_BUFFER_MS, rebufferRisk)),
+        C.msToUs((long) interpolate(STABLE_MAX_BUFFER_MS, VOLATILE_MAX_BUFFER_MS, rebufferRisk)),
+        C.msToUs(
+            (long)
+                interpolate(
+                    FAST_START_BUFFER_FOR_PLAYBACK_MS,
+                    DefaultLoadControl.DEFAULT_BUFFER_FOR_PLAYBACK_MS,
+                    fastStartProgress)),
+        C.msToUs(
+            (long)
+                interpolate(
+                    STABLE_BUFFER_FOR_PLAYBACK_AFTER_REBUFFER_MS,
+                    VOLATILE_BUFFER_FOR_PLAYBACK_AFTER_REBUFFER_MS,
+                    rebufferRisk)),
+        Math.min(targetBufferBytes, maxTargetBufferBytes));
+  }
+
+  private void notifyBufferTargetsChanged(final BufferTargets bufferTargets) {
+    for (final ListenerAndHandler listenerAndHandler : listeners) {
+      listenerAndHandler.handler.post(
+          new Runnable() {
+            @Override
+            public void run() {
+              listenerAndHandler.listener.onBufferTargetsChanged(bufferTargets);
+            }
+          });
+    }
+  }
+
+  private static float interpolate(float startValue, float endValue, float fraction) {
+    return startValue + (endValue - startValue) * fraction;
+  }
+
+  private static final class ListenerAndHandler {
+
+    public final EventListener listener;
+    public final Handler handler;
+
+    public ListenerAndHandler(EventListener listener, Handler handler) {
+      this.listener = listener;
+      this.handler = handler;
+    }
+  }
+
+}
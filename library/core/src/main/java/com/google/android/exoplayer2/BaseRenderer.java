@@ -136,6 +136,28 @@ public abstract class BaseRenderer implements Renderer, RendererCapabilities {
     onPositionReset(positionUs, false);
   }
 
+  /**
+   * Returns the duration after which the renderer next needs {@link #render(long, long)} to be
+   * called to continue rendering without interruption. Returns {@link Long#MAX_VALUE} if nothing
+   * is due until more media has been read, or {@link C#TIME_UNSET} if the renderer may need to be
+   * called again as soon as possible. The player uses this value to reduce the rate at which it
+   * wakes up when dynamic scheduling is enabled, and may call {@link #render(long, long)} earlier.
+   * Renderers that don't extend this class are always treated as returning {@link C#TIME_UNSET}.
+   * <p>
+   * This method may be called when the renderer is in the following states:
+   * {@link #STATE_ENABLED}, {@link #STATE_STARTED}. The default implementation returns {@link
+   * C#TIME_UNSET}.
+   *
+   * @param positionUs The current media time in microseconds, as passed to the most recent call to
+   *     {@link #render(long, long)}.
+   * @param elapsedRealtimeUs {@link android.os.SystemClock#elapsedRealtime()} in microseconds, as
+   *     passed to the most recent call to {@link #render(long, long)}.
+   * @return The duration in microseconds, or {@link C#TIME_UNSET}.
+   */
+  public long getDurationToProgressUs(long positionUs, long elapsedRealtimeUs) {
+    return C.TIME_UNSET;
+  }
+
   @Override
   public final void stop() throws ExoPlaybackException {
     Assertions.checkState(state == STATE_STARTED);
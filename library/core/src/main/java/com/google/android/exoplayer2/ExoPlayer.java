@@ -239,4 +239,29 @@ public interface ExoPlayer extends Player {
    * @param seekParameters The seek parameters, or {@code null} to use the defaults.
    */
   void setSeekParameters(@Nullable SeekParameters seekParameters);
+
+  /**
+   * Sets whether the playback loop is scheduled dynamically. If enabled then during playback the
+   * player sleeps for as long as its renderers allow, as reported by {@link
+   * BaseRenderer#getDurationToProgressUs(long, long)}, rather than waking up every 10
+   * milliseconds. This reduces CPU wake-ups, particularly for audio-only playback. Disabled by
+   * default.
+   *
+   * @param dynamicSchedulingEnabled Whether dynamic scheduling is enabled.
+   */
+  void setDynamicSchedulingEnabled(boolean dynamicSchedulingEnabled);
+
+  /**
+   * Sets how long before the end of the media period being loaded the player creates and prepares
+   * the following media period, for example the next item of a playlist. By default the following
+   * media period is only created once the current one is fully buffered. Preloading it earlier
+   * means that its preparation, which typically requires manifest and initialization loads, is
+   * complete by the time it starts buffering. Preloaded media periods only load further once they
+   * start buffering. Disabled by default.
+   *
+   * @param preloadDurationMs The duration before the end of the media period being loaded at which
+   *     to preload the following media period, in milliseconds, or {@link C#TIME_UNSET} to disable
+   *     preloading.
+   */
+  void setPreloadDurationMs(long preloadDurationMs);
 }
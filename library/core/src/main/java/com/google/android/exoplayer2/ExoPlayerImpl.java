@@ -326,6 +326,16 @@ import java.util.concurrent.CopyOnWriteArraySet;
     internalPlayer.setSeekParameters(seekParameters);
   }
 
+  @Override
+  public void setDynamicSchedulingEnabled(boolean dynamicSchedulingEnabled) {
+    internalPlayer.setDynamicSchedulingEnabled(dynamicSchedulingEnabled);
+  }
+
+  @Override
+  public void setPreloadDurationMs(long preloadDurationMs) {
+    internalPlayer.setPreloadDurationUs(C.msToUs(preloadDurationMs));
+  }
+
   @Override
   public @Nullable Object getCurrentTag() {
     int windowIndex = getCurrentWindowIndex();
@@ -77,10 +77,18 @@ import java.util.Collections;
   private static final int MSG_SET_SHUFFLE_ENABLED = 13;
   private static final int MSG_SEND_MESSAGE = 14;
   private static final int MSG_SEND_MESSAGE_TO_TARGET_THREAD = 15;
+  private static final int MSG_SET_DYNAMIC_SCHEDULING_ENABLED = 16;
+  private static final int MSG_SET_PRELOAD_DURATION = 17;
 
   private static final int PREPARING_SOURCE_INTERVAL_MS = 10;
   private static final int RENDERING_INTERVAL_MS = 10;
   private static final int IDLE_INTERVAL_MS = 1000;
+  /**
+   * The maximum interval between playback loop iterations when dynamic scheduling is enabled,
+   * which bounds how stale the reported playback position and how late position-based player
+   * messages can become.
+   */
+  private static final int MAX_DYNAMIC_RENDERING_INTERVAL_MS = 100;
 
   private final Renderer[] renderers;
   private final RendererCapabilities[] rendererCapabilities;
@@ -112,6 +120,8 @@ import java.util.Collections;
   private boolean rebuffering;
   @Player.RepeatMode private int repeatMode;
   private boolean shuffleModeEnabled;
+  private boolean dynamicSchedulingEnabled;
+  private long preloadDurationUs;
 
   private int pendingPrepareCount;
   private SeekPosition pendingInitialSeekPosition;
@@ -159,6 +169,7 @@ import java.util.Collections;
     }
     mediaClock = new DefaultMediaClock(this, clock);
     pendingMessages = new ArrayList<>();
+    preloadDurationUs = C.TIME_UNSET;
     enabledRenderers = new Renderer[0];
     window = new Timeline.Window();
     period = new Timeline.Period();
@@ -203,6 +214,16 @@ import java.util.Collections;
     handler.obtainMessage(MSG_SET_SEEK_PARAMETERS, seekParameters).sendToTarget();
   }
 
+  public void setDynamicSchedulingEnabled(boolean dynamicSchedulingEnabled) {
+    handler
+        .obtainMessage(MSG_SET_DYNAMIC_SCHEDULING_ENABLED, dynamicSchedulingEnabled ? 1 : 0, 0)
+        .sendToTarget();
+  }
+
+  public void setPreloadDurationUs(long preloadDurationUs) {
+    handler.obtainMessage(MSG_SET_PRELOAD_DURATION, preloadDurationUs).sendToTarget();
+  }
+
   public void stop(boolean reset) {
     handler.obtainMessage(MSG_STOP, reset ? 1 : 0, 0).sendToTarget();
   }
@@ -309,6 +330,12 @@ import java.util.Collections;
         case MSG_SET_SEEK_PARAMETERS:
           setSeekParametersInternal((SeekParameters) msg.obj);
           break;
+        case MSG_SET_DYNAMIC_SCHEDULING_ENABLED:
+          dynamicSchedulingEnabled = msg.arg1 != 0;
+          break;
+        case MSG_SET_PRELOAD_DURATION:
+          preloadDurationUs = (Long) msg.obj;
+          break;
         case MSG_STOP:
           stopInternal(/* reset= */ msg.arg1 != 0, /* acknowledgeStop= */ true);
           break;
@@ -512,9 +539,6 @@ import java.util.Collections;
     boolean renderersEnded = true;
     boolean renderersReadyOrEnded = true;
     for (Renderer renderer : enabledRenderers) {
-      // TODO: Each renderer should return the maximum delay before which it wishes to be called
-      // again. The minimum of these values should then be used as the delay before the next
-      // invocation of this method.
       renderer.render(rendererPositionUs, rendererPositionElapsedRealtimeUs);
       renderersEnded = renderersEnded && renderer.isEnded();
       // Determine whether the renderer is ready (or ended). We override to assume the renderer is
@@ -558,8 +582,11 @@ import java.util.Collections;
       }
     }
 
-    if ((playWhenReady && playbackInfo.playbackState == Player.STATE_READY)
-        || playbackInfo.playbackState == Player.STATE_BUFFERING) {
+    if (playWhenReady && playbackInfo.playbackState == Player.STATE_READY) {
+      scheduleNextWork(
+          operationStartTimeMs, getRenderingIntervalMs(rendererPositionElapsedRealtimeUs));
+    } else if (playbackInfo.playbackState == Player.STATE_BUFFERING) {
+      // Loading progress isn't signalled to the playback thread, so keep polling until ready.
       scheduleNextWork(operationStartTimeMs, RENDERING_INTERVAL_MS);
     } else if (enabledRenderers.length != 0 && playbackInfo.playbackState != Player.STATE_ENDED) {
       scheduleNextWork(operationStartTimeMs, IDLE_INTERVAL_MS);
@@ -570,6 +597,32 @@ import java.util.Collections;
     TraceUtil.endSection();
   }
 
+  /**
+   * Returns the interval until the next iteration of the playback loop while playing. If dynamic
+   * scheduling is enabled and every enabled renderer reports how long it can wait, this is the
+   * shortest of those durations, bounded by {@link #RENDERING_INTERVAL_MS} and {@link
+   * #MAX_DYNAMIC_RENDERING_INTERVAL_MS}. Only renderers that extend {@link BaseRenderer} can report
+   * how long they can wait.
+   */
+  private long getRenderingIntervalMs(long rendererPositionElapsedRealtimeUs) {
+    if (!dynamicSchedulingEnabled || enabledRenderers.length == 0) {
+      return RENDERING_INTERVAL_MS;
+    }
+    long intervalUs = C.msToUs(MAX_DYNAMIC_RENDERING_INTERVAL_MS);
+    for (Renderer renderer : enabledRenderers) {
+      long durationToProgressUs =
+          renderer instanceof BaseRenderer
+              ? ((BaseRenderer) renderer)
+                  .getDurationToProgressUs(rendererPositionUs, rendererPositionElapsedRealtimeUs)
+              : C.TIME_UNSET;
+      if (durationToProgressUs == C.TIME_UNSET) {
+        return RENDERING_INTERVAL_MS;
+      }
+      intervalUs = Math.min(intervalUs, durationToProgressUs);
+    }
+    return Math.max(RENDERING_INTERVAL_MS, C.usToMs(intervalUs));
+  }
+
   private void scheduleNextWork(long thisOperationStartTimeMs, long intervalMs) {
     handler.removeMessages(MSG_DO_SOME_WORK);
     handler.sendEmptyMessageAtTime(MSG_DO_SOME_WORK, thisOperationStartTimeMs + intervalMs);
@@ -1476,7 +1529,7 @@ import java.util.Collections;
     }
   }
 
-  private void maybeUpdateLoadingPeriod() throws IOException {
+  private void maybeUpdateLoadingPeriod() throws IOException, ExoPlaybackException {
     queue.reevaluateBuffer(rendererPositionUs);
     if (queue.shouldLoadNextMediaPeriod()) {
       MediaPeriodInfo info = queue.getNextMediaPeriodInfo(rendererPositionUs, playbackInfo);
@@ -1492,13 +1545,45 @@ import java.util.Collections;
                 mediaSource,
                 uid,
                 info);
-        mediaPeriod.prepare(this, info.startPositionUs);
+        if (!queue.isLoadingPeriodPreloaded()) {
+          mediaPeriod.prepare(this, info.startPositionUs);
+        }
         setIsLoading(true);
+        if (queue.isLoadingPeriodPreparedByPreload()) {
+          handlePeriodPrepared(mediaPeriod);
+        } else if (queue.isLoadingPeriodPreloaded()) {
+          // Continue loading requests made while the media period was preloading were ignored.
+          maybeContinueLoading();
+        }
       }
+    } else if (preloadDurationUs != C.TIME_UNSET) {
+      maybePreloadNextPeriod();
+    }
+  }
+
+  private void maybePreloadNextPeriod() {
+    MediaPeriodInfo info = queue.getPreloadMediaPeriodInfo(rendererPositionUs, preloadDurationUs);
+    if (info != null) {
+      Object uid = playbackInfo.timeline.getPeriod(info.id.periodIndex, period, true).uid;
+      MediaPeriod mediaPeriod =
+          queue.preloadNextMediaPeriod(
+              rendererCapabilities,
+              trackSelector,
+              loadControl.getAllocator(),
+              mediaSource,
+              uid,
+              info);
+      // The media period is prepared now, but only loads further once it's enqueued.
+      mediaPeriod.prepare(this, info.startPositionUs);
     }
   }
 
   private void handlePeriodPrepared(MediaPeriod mediaPeriod) throws ExoPlaybackException {
+    if (queue.isPreloading(mediaPeriod)) {
+      // The media period is handled as prepared once it's enqueued.
+      queue.onPreloadingPeriodPrepared();
+      return;
+    }
     if (!queue.isLoading(mediaPeriod)) {
       // Stale event.
       return;
@@ -50,6 +50,10 @@ import com.google.android.exoplayer2.util.Assertions;
   private MediaPeriodHolder playing;
   private MediaPeriodHolder reading;
   private MediaPeriodHolder loading;
+  private @Nullable MediaPeriodHolder preloading;
+  private boolean preloadingPrepared;
+  private boolean loadingPeriodPreloaded;
+  private boolean loadingPeriodPreparedByPreload;
   private int length;
   private Object oldFrontPeriodUid;
   private long oldFrontPeriodWindowSequenceNumber;
@@ -91,6 +95,11 @@ import com.google.android.exoplayer2.util.Assertions;
     return loading != null && loading.mediaPeriod == mediaPeriod;
   }
 
+  /** Returns whether {@code mediaPeriod} is the media period being preloaded. */
+  public boolean isPreloading(MediaPeriod mediaPeriod) {
+    return preloading != null && preloading.mediaPeriod == mediaPeriod;
+  }
+
   /**
    * If there is a loading period, reevaluates its buffer.
    *
@@ -111,6 +120,89 @@ import com.google.android.exoplayer2.util.Assertions;
             && length < MAXIMUM_BUFFER_AHEAD_PERIODS);
   }
 
+  /**
+   * Returns the {@link MediaPeriodInfo} for a media period to preload, or {@code null} if no media
+   * period should be preloaded. A media period is preloaded if the loading media period ends within
+   * {@code preloadDurationUs} of the playback position but is not yet fully buffered, so that the
+   * following media period can't be enqueued yet.
+   *
+   * @param rendererPositionUs The current renderer position.
+   * @param preloadDurationUs The duration before the end of the loading media period at which to
+   *     preload the following media period, in microseconds.
+   * @return The {@link MediaPeriodInfo} for the media period to preload, or {@code null}.
+   */
+  public @Nullable MediaPeriodInfo getPreloadMediaPeriodInfo(
+      long rendererPositionUs, long preloadDurationUs) {
+    if (preloading != null
+        || loading == null
+        || !hasPlayingPeriod()
+        || loading.info.isFinal
+        || loading.info.durationUs == C.TIME_UNSET
+        || length >= MAXIMUM_BUFFER_AHEAD_PERIODS
+        || shouldLoadNextMediaPeriod()) {
+      return null;
+    }
+    long durationUntilEndUs =
+        loading.getRendererOffset() + loading.info.durationUs - rendererPositionUs;
+    return durationUntilEndUs <= preloadDurationUs
+        ? getFollowingMediaPeriodInfo(loading, rendererPositionUs)
+        : null;
+  }
+
+  /**
+   * Creates a media period that will follow the loading media period, and returns it. The media
+   * period should be prepared, and is enqueued by {@link #enqueueNextMediaPeriod} if it matches
+   * the next media period to load at that time. Otherwise it is released.
+   *
+   * @param rendererCapabilities The renderer capabilities.
+   * @param trackSelector The track selector.
+   * @param allocator The allocator.
+   * @param mediaSource The media source that produced the media period.
+   * @param uid The unique identifier for the containing timeline period.
+   * @param info Information used to identify this media period in its timeline period.
+   */
+  public MediaPeriod preloadNextMediaPeriod(
+      RendererCapabilities[] rendererCapabilities,
+      TrackSelector trackSelector,
+      Allocator allocator,
+      MediaSource mediaSource,
+      Object uid,
+      MediaPeriodInfo info) {
+    Assertions.checkState(preloading == null && loading != null);
+    preloading =
+        new MediaPeriodHolder(
+            rendererCapabilities,
+            loading.getRendererOffset() + loading.info.durationUs,
+            trackSelector,
+            allocator,
+            mediaSource,
+            uid,
+            info);
+    return preloading.mediaPeriod;
+  }
+
+  /** Records that the media period being preloaded has been prepared. */
+  public void onPreloadingPeriodPrepared() {
+    preloadingPrepared = true;
+  }
+
+  /**
+   * Returns whether the loading media period was preloaded, in which case its preparation has
+   * already been started.
+   */
+  public boolean isLoadingPeriodPreloaded() {
+    return loadingPeriodPreloaded;
+  }
+
+  /**
+   * Returns whether the loading media period was preloaded and was prepared before it was
+   * enqueued, in which case {@link MediaPeriod.Callback#onPrepared(MediaPeriod)} won't be called
+   * for it again.
+   */
+  public boolean isLoadingPeriodPreparedByPreload() {
+    return loadingPeriodPreparedByPreload;
+  }
+
   /**
    * Returns the {@link MediaPeriodInfo} for the next media period to load.
    *
@@ -148,15 +240,27 @@ import com.google.android.exoplayer2.util.Assertions;
         loading == null
             ? info.startPositionUs
             : (loading.getRendererOffset() + loading.info.durationUs);
-    MediaPeriodHolder newPeriodHolder =
-        new MediaPeriodHolder(
-            rendererCapabilities,
-            rendererPositionOffsetUs,
-            trackSelector,
-            allocator,
-            mediaSource,
-            uid,
-            info);
+    MediaPeriodHolder newPeriodHolder;
+    loadingPeriodPreloaded =
+        preloading != null && canUsePreloadingPeriod(rendererPositionOffsetUs, uid, info);
+    if (loadingPeriodPreloaded) {
+      newPeriodHolder = preloading;
+      loadingPeriodPreparedByPreload = preloadingPrepared;
+      preloading = null;
+      preloadingPrepared = false;
+    } else {
+      releasePreloadingPeriod();
+      loadingPeriodPreparedByPreload = false;
+      newPeriodHolder =
+          new MediaPeriodHolder(
+              rendererCapabilities,
+              rendererPositionOffsetUs,
+              trackSelector,
+              allocator,
+              mediaSource,
+              uid,
+              info);
+    }
     if (loading != null) {
       Assertions.checkState(hasPlayingPeriod());
       loading.next = newPeriodHolder;
@@ -250,6 +354,7 @@ import com.google.android.exoplayer2.util.Assertions;
    */
   public boolean removeAfter(MediaPeriodHolder mediaPeriodHolder) {
     Assertions.checkState(mediaPeriodHolder != null);
+    releasePreloadingPeriod();
     boolean removedReading = false;
     loading = mediaPeriodHolder;
     while (mediaPeriodHolder.next != null) {
@@ -272,6 +377,7 @@ import com.google.android.exoplayer2.util.Assertions;
    *     of queue (typically the playing one) for later reuse.
    */
   public void clear(boolean keepFrontPeriodUid) {
+    releasePreloadingPeriod();
     MediaPeriodHolder front = getFrontPeriod();
     if (front != null) {
       oldFrontPeriodUid = keepFrontPeriodUid ? front.uid : null;
@@ -441,6 +547,25 @@ import com.google.android.exoplayer2.util.Assertions;
     return nextWindowSequenceNumber++;
   }
 
+  private void releasePreloadingPeriod() {
+    if (preloading != null) {
+      preloading.release();
+      preloading = null;
+      preloadingPrepared = false;
+    }
+  }
+
+  /**
+   * Returns whether the preloading period holder can be enqueued for playing the media period
+   * described by {@code info} at the given renderer position offset.
+   */
+  private boolean canUsePreloadingPeriod(
+      long rendererPositionOffsetUs, Object uid, MediaPeriodInfo info) {
+    return preloading.getRendererOffset() == rendererPositionOffsetUs
+        && preloading.uid.equals(uid)
+        && canKeepMediaPeriodHolder(preloading, info);
+  }
+
   /**
    * Returns whether {@code periodHolder} can be kept for playing the media period described by
    * {@code info}.
@@ -553,6 +678,11 @@ import com.google.android.exoplayer2.util.Assertions;
         startPositionUs = defaultPosition.second;
         if (mediaPeriodHolder.next != null && mediaPeriodHolder.next.uid.equals(nextPeriodUid)) {
           windowSequenceNumber = mediaPeriodHolder.next.info.id.windowSequenceNumber;
+        } else if (mediaPeriodHolder == loading
+            && preloading != null
+            && preloading.uid.equals(nextPeriodUid)) {
+          // Reuse the window sequence number of the preloaded media period so that it matches.
+          windowSequenceNumber = preloading.info.id.windowSequenceNumber;
         } else {
           windowSequenceNumber = nextWindowSequenceNumber++;
         }
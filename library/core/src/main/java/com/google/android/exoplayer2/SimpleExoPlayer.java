@@ -30,6 +30,7 @@ import android.view.TextureView;
 import com.google.android.exoplayer2.analytics.AnalyticsCollector;
 import com.google.android.exoplayer2.analytics.AnalyticsListener;
 import com.google.android.exoplayer2.audio.AudioAttributes;
+import com.google.android.exoplayer2.audio.AudioProcessorStats;
 import com.google.android.exoplayer2.audio.AudioRendererEventListener;
 import com.google.android.exoplayer2.decoder.DecoderCounters;
 import com.google.android.exoplayer2.drm.DefaultDrmSessionManager;
@@ -762,6 +763,16 @@ public class SimpleExoPlayer implements ExoPlayer, Player.VideoComponent, Player
     player.setSeekParameters(seekParameters);
   }
 
+  @Override
+  public void setDynamicSchedulingEnabled(boolean dynamicSchedulingEnabled) {
+    player.setDynamicSchedulingEnabled(dynamicSchedulingEnabled);
+  }
+
+  @Override
+  public void setPreloadDurationMs(long preloadDurationMs) {
+    player.setPreloadDurationMs(preloadDurationMs);
+  }
+
   @Override
   public @Nullable Object getCurrentTag() {
     return player.getCurrentTag();
@@ -1088,6 +1099,20 @@ public class SimpleExoPlayer implements ExoPlayer, Player.VideoComponent, Player
       }
     }
 
+    @Override
+    public void onAudioProcessorStats(AudioProcessorStats[] stats) {
+      for (AudioRendererEventListener audioDebugListener : audioDebugListeners) {
+        audioDebugListener.onAudioProcessorStats(stats);
+      }
+    }
+
+    @Override
+    public void onAudioSilenceSkipped(long skippedDurationUs) {
+      for (AudioRendererEventListener audioDebugListener : audioDebugListeners) {
+        audioDebugListener.onAudioSilenceSkipped(skippedDurationUs);
+      }
+    }
+
     @Override
     public void onAudioDisabled(DecoderCounters counters) {
       for (AudioRendererEventListener audioDebugListener : audioDebugListeners) {
@@ -18,6 +18,7 @@ package com.google.android.exoplayer2.analytics;
 import android.net.NetworkInfo;
 import android.support.annotation.Nullable;
 import android.view.Surface;
+import com.google.android.exoplayer2.AdaptiveLoadControl;
 import com.google.android.exoplayer2.C;
 import com.google.android.exoplayer2.ExoPlaybackException;
 import com.google.android.exoplayer2.Format;
@@ -27,6 +28,7 @@ import com.google.android.exoplayer2.Timeline;
 import com.google.android.exoplayer2.Timeline.Period;
 import com.google.android.exoplayer2.Timeline.Window;
 import com.google.android.exoplayer2.analytics.AnalyticsListener.EventTime;
+import com.google.android.exoplayer2.audio.AudioProcessorStats;
 import com.google.android.exoplayer2.audio.AudioRendererEventListener;
 import com.google.android.exoplayer2.decoder.DecoderCounters;
 import com.google.android.exoplayer2.drm.DefaultDrmSessionEventListener;
@@ -51,6 +53,10 @@ import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
 /**
  * Data collector which is able to forward analytics events to {@link AnalyticsListener}s by
  * listening to all available ExoPlayer listeners.
+ *
+ * <p>An {@link EventTime} is only generated for an event if at least one listener is registered, so
+ * events are not converted and no objects are allocated while no listener is registered. When
+ * listeners are registered, a single {@link EventTime} is shared by all of them.
  */
 public class AnalyticsCollector
     implements Player.EventListener,
@@ -59,6 +65,7 @@ public class AnalyticsCollector
         VideoRendererEventListener,
         MediaSourceEventListener,
         BandwidthMeter.EventListener,
+        AdaptiveLoadControl.EventListener,
         DefaultDrmSessionEventListener {
 
   /** Factory for an analytics collector. */
@@ -137,12 +144,18 @@ public class AnalyticsCollector
    * adjusts its state and position to the seek.
    */
   public final void notifySeekStarted() {
-    if (!mediaPeriodQueueTracker.isSeeking()) {
-      EventTime eventTime = generatePlayingMediaPeriodEventTime();
+    if (mediaPeriodQueueTracker.isSeeking()) {
+      return;
+    }
+    if (listeners.isEmpty()) {
       mediaPeriodQueueTracker.onSeekStarted();
-      for (AnalyticsListener listener : listeners) {
-        listener.onSeekStarted(eventTime);
-      }
+      return;
+    }
+    // The event time needs to be generated before the tracker forgets the playing media period.
+    EventTime eventTime = generatePlayingMediaPeriodEventTime();
+    mediaPeriodQueueTracker.onSeekStarted();
+    for (AnalyticsListener listener : listeners) {
+      listener.onSeekStarted(eventTime);
     }
   }
 
@@ -153,6 +166,9 @@ public class AnalyticsCollector
    * @param height The new height of the viewport in device-independent pixels (dp).
    */
   public final void notifyViewportSizeChanged(int width, int height) {
+    if (listeners.isEmpty()) {
+      return;
+    }
     EventTime eventTime = generatePlayingMediaPeriodEventTime();
     for (AnalyticsListener listener : listeners) {
       listener.onViewportSizeChange(eventTime, width, height);
@@ -165,6 +181,9 @@ public class AnalyticsCollector
    * @param networkInfo The new network info, or null if no network connection exists.
    */
   public final void notifyNetworkTypeChanged(@Nullable NetworkInfo networkInfo) {
+    if (listeners.isEmpty()) {
+      return;
+    }
     EventTime eventTime = generatePlayingMediaPeriodEventTime();
     for (AnalyticsListener listener : listeners) {
       listener.onNetworkTypeChanged(eventTime, networkInfo);
@@ -188,6 +207,9 @@ public class AnalyticsCollector
 
   @Override
   public final void onMetadata(Metadata metadata) {
+    if (listeners.isEmpty()) {
+      return;
+    }
     EventTime eventTime = generatePlayingMediaPeriodEventTime();
     for (AnalyticsListener listener : listeners) {
       listener.onMetadata(eventTime, metadata);
@@ -199,6 +221,9 @@ public class AnalyticsCollector
   @Override
   public final void onAudioEnabled(DecoderCounters counters) {
     // The renderers are only enabled after we changed the playing media period.
+    if (listeners.isEmpty()) {
+      return;
+    }
     EventTime eventTime = generatePlayingMediaPeriodEventTime();
     for (AnalyticsListener listener : listeners) {
       listener.onDecoderEnabled(eventTime, C.TRACK_TYPE_AUDIO, counters);
@@ -207,6 +232,9 @@ public class AnalyticsCollector
 
   @Override
   public final void onAudioSessionId(int audioSessionId) {
+    if (listeners.isEmpty()) {
+      return;
+    }
     EventTime eventTime = generateReadingMediaPeriodEventTime();
     for (AnalyticsListener listener : listeners) {
       listener.onAudioSessionId(eventTime, audioSessionId);
@@ -216,6 +244,9 @@ public class AnalyticsCollector
   @Override
   public final void onAudioDecoderInitialized(
       String decoderName, long initializedTimestampMs, long initializationDurationMs) {
+    if (listeners.isEmpty()) {
+      return;
+    }
     EventTime eventTime = generateReadingMediaPeriodEventTime();
     for (AnalyticsListener listener : listeners) {
       listener.onDecoderInitialized(
@@ -225,6 +256,9 @@ public class AnalyticsCollector
 
   @Override
   public final void onAudioInputFormatChanged(Format format) {
+    if (listeners.isEmpty()) {
+      return;
+    }
     EventTime eventTime = generateReadingMediaPeriodEventTime();
     for (AnalyticsListener listener : listeners) {
       listener.onDecoderInputFormatChanged(eventTime, C.TRACK_TYPE_AUDIO, format);
@@ -234,16 +268,44 @@ public class AnalyticsCollector
   @Override
   public final void onAudioSinkUnderrun(
       int bufferSize, long bufferSizeMs, long elapsedSinceLastFeedMs) {
+    if (listeners.isEmpty()) {
+      return;
+    }
     EventTime eventTime = generateReadingMediaPeriodEventTime();
     for (AnalyticsListener listener : listeners) {
       listener.onAudioUnderrun(eventTime, bufferSize, bufferSizeMs, elapsedSinceLastFeedMs);
     }
   }
 
+  @Override
+  public final void onAudioProcessorStats(AudioProcessorStats[] stats) {
+    if (listeners.isEmpty()) {
+      return;
+    }
+    EventTime eventTime = generatePlayingMediaPeriodEventTime();
+    for (AnalyticsListener listener : listeners) {
+      listener.onAudioProcessorStats(eventTime, stats);
+    }
+  }
+
+  @Override
+  public final void onAudioSilenceSkipped(long skippedDurationUs) {
+    if (listeners.isEmpty()) {
+      return;
+    }
+    EventTime eventTime = generatePlayingMediaPeriodEventTime();
+    for (AnalyticsListener listener : listeners) {
+      listener.onAudioSilenceSkipped(eventTime, skippedDurationUs);
+    }
+  }
+
   @Override
   public final void onAudioDisabled(DecoderCounters counters) {
     // The renderers are disabled after we changed the playing media period on the playback thread
     // but before this change is reported to the app thread.
+    if (listeners.isEmpty()) {
+      return;
+    }
     EventTime eventTime = generateLastReportedPlayingMediaPeriodEventTime();
     for (AnalyticsListener listener : listeners) {
       listener.onDecoderDisabled(eventTime, C.TRACK_TYPE_AUDIO, counters);
@@ -255,6 +317,9 @@ public class AnalyticsCollector
   @Override
   public final void onVideoEnabled(DecoderCounters counters) {
     // The renderers are only enabled after we changed the playing media period.
+    if (listeners.isEmpty()) {
+      return;
+    }
     EventTime eventTime = generatePlayingMediaPeriodEventTime();
     for (AnalyticsListener listener : listeners) {
       listener.onDecoderEnabled(eventTime, C.TRACK_TYPE_VIDEO, counters);
@@ -264,6 +329,9 @@ public class AnalyticsCollector
   @Override
   public final void onVideoDecoderInitialized(
       String decoderName, long initializedTimestampMs, long initializationDurationMs) {
+    if (listeners.isEmpty()) {
+      return;
+    }
     EventTime eventTime = generateReadingMediaPeriodEventTime();
     for (AnalyticsListener listener : listeners) {
       listener.onDecoderInitialized(
@@ -273,6 +341,9 @@ public class AnalyticsCollector
 
   @Override
   public final void onVideoInputFormatChanged(Format format) {
+    if (listeners.isEmpty()) {
+      return;
+    }
     EventTime eventTime = generateReadingMediaPeriodEventTime();
     for (AnalyticsListener listener : listeners) {
       listener.onDecoderInputFormatChanged(eventTime, C.TRACK_TYPE_VIDEO, format);
@@ -281,6 +352,9 @@ public class AnalyticsCollector
 
   @Override
   public final void onDroppedFrames(int count, long elapsedMs) {
+    if (listeners.isEmpty()) {
+      return;
+    }
     EventTime eventTime = generateLastReportedPlayingMediaPeriodEventTime();
     for (AnalyticsListener listener : listeners) {
       listener.onDroppedVideoFrames(eventTime, count, elapsedMs);
@@ -290,6 +364,9 @@ public class AnalyticsCollector
   @Override
   public final void onVideoSizeChanged(
       int width, int height, int unappliedRotationDegrees, float pixelWidthHeightRatio) {
+    if (listeners.isEmpty()) {
+      return;
+    }
     EventTime eventTime = generateReadingMediaPeriodEventTime();
     for (AnalyticsListener listener : listeners) {
       listener.onVideoSizeChanged(
@@ -299,6 +376,9 @@ public class AnalyticsCollector
 
   @Override
   public final void onRenderedFirstFrame(Surface surface) {
+    if (listeners.isEmpty()) {
+      return;
+    }
     EventTime eventTime = generateReadingMediaPeriodEventTime();
     for (AnalyticsListener listener : listeners) {
       listener.onRenderedFirstFrame(eventTime, surface);
@@ -309,6 +389,9 @@ public class AnalyticsCollector
   public final void onVideoDisabled(DecoderCounters counters) {
     // The renderers are disabled after we changed the playing media period on the playback thread
     // but before this change is reported to the app thread.
+    if (listeners.isEmpty()) {
+      return;
+    }
     EventTime eventTime = generateLastReportedPlayingMediaPeriodEventTime();
     for (AnalyticsListener listener : listeners) {
       listener.onDecoderDisabled(eventTime, C.TRACK_TYPE_VIDEO, counters);
@@ -320,6 +403,9 @@ public class AnalyticsCollector
   @Override
   public final void onMediaPeriodCreated(int windowIndex, MediaPeriodId mediaPeriodId) {
     mediaPeriodQueueTracker.onMediaPeriodCreated(windowIndex, mediaPeriodId);
+    if (listeners.isEmpty()) {
+      return;
+    }
     EventTime eventTime = generateEventTime(windowIndex, mediaPeriodId);
     for (AnalyticsListener listener : listeners) {
       listener.onMediaPeriodCreated(eventTime);
@@ -329,6 +415,9 @@ public class AnalyticsCollector
   @Override
   public final void onMediaPeriodReleased(int windowIndex, MediaPeriodId mediaPeriodId) {
     mediaPeriodQueueTracker.onMediaPeriodReleased(windowIndex, mediaPeriodId);
+    if (listeners.isEmpty()) {
+      return;
+    }
     EventTime eventTime = generateEventTime(windowIndex, mediaPeriodId);
     for (AnalyticsListener listener : listeners) {
       listener.onMediaPeriodReleased(eventTime);
@@ -341,6 +430,9 @@ public class AnalyticsCollector
       @Nullable MediaPeriodId mediaPeriodId,
       LoadEventInfo loadEventInfo,
       MediaLoadData mediaLoadData) {
+    if (listeners.isEmpty()) {
+      return;
+    }
     EventTime eventTime = generateEventTime(windowIndex, mediaPeriodId);
     for (AnalyticsListener listener : listeners) {
       listener.onLoadStarted(eventTime, loadEventInfo, mediaLoadData);
@@ -353,6 +445,9 @@ public class AnalyticsCollector
       @Nullable MediaPeriodId mediaPeriodId,
       LoadEventInfo loadEventInfo,
       MediaLoadData mediaLoadData) {
+    if (listeners.isEmpty()) {
+      return;
+    }
     EventTime eventTime = generateEventTime(windowIndex, mediaPeriodId);
     for (AnalyticsListener listener : listeners) {
       listener.onLoadCompleted(eventTime, loadEventInfo, mediaLoadData);
@@ -365,6 +460,9 @@ public class AnalyticsCollector
       @Nullable MediaPeriodId mediaPeriodId,
       LoadEventInfo loadEventInfo,
       MediaLoadData mediaLoadData) {
+    if (listeners.isEmpty()) {
+      return;
+    }
     EventTime eventTime = generateEventTime(windowIndex, mediaPeriodId);
     for (AnalyticsListener listener : listeners) {
       listener.onLoadCanceled(eventTime, loadEventInfo, mediaLoadData);
@@ -379,6 +477,9 @@ public class AnalyticsCollector
       MediaLoadData mediaLoadData,
       IOException error,
       boolean wasCanceled) {
+    if (listeners.isEmpty()) {
+      return;
+    }
     EventTime eventTime = generateEventTime(windowIndex, mediaPeriodId);
     for (AnalyticsListener listener : listeners) {
       listener.onLoadError(eventTime, loadEventInfo, mediaLoadData, error, wasCanceled);
@@ -388,6 +489,9 @@ public class AnalyticsCollector
   @Override
   public final void onReadingStarted(int windowIndex, MediaPeriodId mediaPeriodId) {
     mediaPeriodQueueTracker.onReadingStarted(windowIndex, mediaPeriodId);
+    if (listeners.isEmpty()) {
+      return;
+    }
     EventTime eventTime = generateEventTime(windowIndex, mediaPeriodId);
     for (AnalyticsListener listener : listeners) {
       listener.onReadingStarted(eventTime);
@@ -397,6 +501,9 @@ public class AnalyticsCollector
   @Override
   public final void onUpstreamDiscarded(
       int windowIndex, @Nullable MediaPeriodId mediaPeriodId, MediaLoadData mediaLoadData) {
+    if (listeners.isEmpty()) {
+      return;
+    }
     EventTime eventTime = generateEventTime(windowIndex, mediaPeriodId);
     for (AnalyticsListener listener : listeners) {
       listener.onUpstreamDiscarded(eventTime, mediaLoadData);
@@ -406,6 +513,9 @@ public class AnalyticsCollector
   @Override
   public final void onDownstreamFormatChanged(
       int windowIndex, @Nullable MediaPeriodId mediaPeriodId, MediaLoadData mediaLoadData) {
+    if (listeners.isEmpty()) {
+      return;
+    }
     EventTime eventTime = generateEventTime(windowIndex, mediaPeriodId);
     for (AnalyticsListener listener : listeners) {
       listener.onDownstreamFormatChanged(eventTime, mediaLoadData);
@@ -422,6 +532,9 @@ public class AnalyticsCollector
   public final void onTimelineChanged(
       Timeline timeline, Object manifest, @Player.TimelineChangeReason int reason) {
     mediaPeriodQueueTracker.onTimelineChanged(timeline);
+    if (listeners.isEmpty()) {
+      return;
+    }
     EventTime eventTime = generatePlayingMediaPeriodEventTime();
     for (AnalyticsListener listener : listeners) {
       listener.onTimelineChanged(eventTime, reason);
@@ -431,6 +544,9 @@ public class AnalyticsCollector
   @Override
   public final void onTracksChanged(
       TrackGroupArray trackGroups, TrackSelectionArray trackSelections) {
+    if (listeners.isEmpty()) {
+      return;
+    }
     EventTime eventTime = generatePlayingMediaPeriodEventTime();
     for (AnalyticsListener listener : listeners) {
       listener.onTracksChanged(eventTime, trackGroups, trackSelections);
@@ -439,6 +555,9 @@ public class AnalyticsCollector
 
   @Override
   public final void onLoadingChanged(boolean isLoading) {
+    if (listeners.isEmpty()) {
+      return;
+    }
     EventTime eventTime = generatePlayingMediaPeriodEventTime();
     for (AnalyticsListener listener : listeners) {
       listener.onLoadingChanged(eventTime, isLoading);
@@ -447,6 +566,9 @@ public class AnalyticsCollector
 
   @Override
   public final void onPlayerStateChanged(boolean playWhenReady, int playbackState) {
+    if (listeners.isEmpty()) {
+      return;
+    }
     EventTime eventTime = generatePlayingMediaPeriodEventTime();
     for (AnalyticsListener listener : listeners) {
       listener.onPlayerStateChanged(eventTime, playWhenReady, playbackState);
@@ -455,6 +577,9 @@ public class AnalyticsCollector
 
   @Override
   public final void onRepeatModeChanged(@Player.RepeatMode int repeatMode) {
+    if (listeners.isEmpty()) {
+      return;
+    }
     EventTime eventTime = generatePlayingMediaPeriodEventTime();
     for (AnalyticsListener listener : listeners) {
       listener.onRepeatModeChanged(eventTime, repeatMode);
@@ -463,6 +588,9 @@ public class AnalyticsCollector
 
   @Override
   public final void onShuffleModeEnabledChanged(boolean shuffleModeEnabled) {
+    if (listeners.isEmpty()) {
+      return;
+    }
     EventTime eventTime = generatePlayingMediaPeriodEventTime();
     for (AnalyticsListener listener : listeners) {
       listener.onShuffleModeChanged(eventTime, shuffleModeEnabled);
@@ -471,6 +599,9 @@ public class AnalyticsCollector
 
   @Override
   public final void onPlayerError(ExoPlaybackException error) {
+    if (listeners.isEmpty()) {
+      return;
+    }
     EventTime eventTime = generatePlayingMediaPeriodEventTime();
     for (AnalyticsListener listener : listeners) {
       listener.onPlayerError(eventTime, error);
@@ -480,6 +611,9 @@ public class AnalyticsCollector
   @Override
   public final void onPositionDiscontinuity(@Player.DiscontinuityReason int reason) {
     mediaPeriodQueueTracker.onPositionDiscontinuity(reason);
+    if (listeners.isEmpty()) {
+      return;
+    }
     EventTime eventTime = generatePlayingMediaPeriodEventTime();
     for (AnalyticsListener listener : listeners) {
       listener.onPositionDiscontinuity(eventTime, reason);
@@ -488,6 +622,9 @@ public class AnalyticsCollector
 
   @Override
   public final void onPlaybackParametersChanged(PlaybackParameters playbackParameters) {
+    if (listeners.isEmpty()) {
+      return;
+    }
     EventTime eventTime = generatePlayingMediaPeriodEventTime();
     for (AnalyticsListener listener : listeners) {
       listener.onPlaybackParametersChanged(eventTime, playbackParameters);
@@ -498,6 +635,9 @@ public class AnalyticsCollector
   public final void onSeekProcessed() {
     if (mediaPeriodQueueTracker.isSeeking()) {
       mediaPeriodQueueTracker.onSeekProcessed();
+      if (listeners.isEmpty()) {
+        return;
+      }
       EventTime eventTime = generatePlayingMediaPeriodEventTime();
       for (AnalyticsListener listener : listeners) {
         listener.onSeekProcessed(eventTime);
@@ -509,16 +649,35 @@ public class AnalyticsCollector
 
   @Override
   public final void onBandwidthSample(int elapsedMs, long bytes, long bitrate) {
+    if (listeners.isEmpty()) {
+      return;
+    }
     EventTime eventTime = generateLoadingMediaPeriodEventTime();
     for (AnalyticsListener listener : listeners) {
       listener.onBandwidthEstimate(eventTime, elapsedMs, bytes, bitrate);
     }
   }
 
+  // AdaptiveLoadControl.EventListener implementation.
+
+  @Override
+  public final void onBufferTargetsChanged(AdaptiveLoadControl.BufferTargets bufferTargets) {
+    if (listeners.isEmpty()) {
+      return;
+    }
+    EventTime eventTime = generateLoadingMediaPeriodEventTime();
+    for (AnalyticsListener listener : listeners) {
+      listener.onBufferTargetsChanged(eventTime, bufferTargets);
+    }
+  }
+
   // DefaultDrmSessionManager.EventListener implementation.
 
   @Override
   public final void onDrmKeysLoaded() {
+    if (listeners.isEmpty()) {
+      return;
+    }
     EventTime eventTime = generateReadingMediaPeriodEventTime();
     for (AnalyticsListener listener : listeners) {
       listener.onDrmKeysLoaded(eventTime);
@@ -527,6 +686,9 @@ public class AnalyticsCollector
 
   @Override
   public final void onDrmSessionManagerError(Exception error) {
+    if (listeners.isEmpty()) {
+      return;
+    }
     EventTime eventTime = generateReadingMediaPeriodEventTime();
     for (AnalyticsListener listener : listeners) {
       listener.onDrmSessionManagerError(eventTime, error);
@@ -535,6 +697,9 @@ public class AnalyticsCollector
 
   @Override
   public final void onDrmKeysRestored() {
+    if (listeners.isEmpty()) {
+      return;
+    }
     EventTime eventTime = generateReadingMediaPeriodEventTime();
     for (AnalyticsListener listener : listeners) {
       listener.onDrmKeysRestored(eventTime);
@@ -543,6 +708,9 @@ public class AnalyticsCollector
 
   @Override
   public final void onDrmKeysRemoved() {
+    if (listeners.isEmpty()) {
+      return;
+    }
     EventTime eventTime = generateReadingMediaPeriodEventTime();
     for (AnalyticsListener listener : listeners) {
       listener.onDrmKeysRemoved(eventTime);
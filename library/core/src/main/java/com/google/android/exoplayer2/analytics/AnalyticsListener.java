@@ -18,6 +18,7 @@ package com.google.android.exoplayer2.analytics;
 import android.net.NetworkInfo;
 import android.support.annotation.Nullable;
 import android.view.Surface;
+import com.google.android.exoplayer2.AdaptiveLoadControl;
 import com.google.android.exoplayer2.C;
 import com.google.android.exoplayer2.ExoPlaybackException;
 import com.google.android.exoplayer2.Format;
@@ -26,6 +27,7 @@ import com.google.android.exoplayer2.Player;
 import com.google.android.exoplayer2.Player.DiscontinuityReason;
 import com.google.android.exoplayer2.Player.TimelineChangeReason;
 import com.google.android.exoplayer2.Timeline;
+import com.google.android.exoplayer2.audio.AudioProcessorStats;
 import com.google.android.exoplayer2.audio.AudioSink;
 import com.google.android.exoplayer2.decoder.DecoderCounters;
 import com.google.android.exoplayer2.metadata.Metadata;
@@ -304,6 +306,14 @@ public interface AnalyticsListener {
   void onBandwidthEstimate(
       EventTime eventTime, int totalLoadTimeMs, long totalBytesLoaded, long bitrateEstimate);
 
+  /**
+   * Called when an {@link AdaptiveLoadControl} changed its buffer targets.
+   *
+   * @param eventTime The event time.
+   * @param bufferTargets The new {@link AdaptiveLoadControl.BufferTargets}.
+   */
+  void onBufferTargetsChanged(EventTime eventTime, AdaptiveLoadControl.BufferTargets bufferTargets);
+
   /**
    * Called when the viewport size of the output surface changed.
    *
@@ -392,6 +402,24 @@ public interface AnalyticsListener {
   void onAudioUnderrun(
       EventTime eventTime, int bufferSize, long bufferSizeMs, long elapsedSinceLastFeedMs);
 
+  /**
+   * Called periodically with statistics about the active audio processors of the audio sink, if
+   * the sink reports them.
+   *
+   * @param eventTime The event time.
+   * @param stats Statistics for each active audio processor, in processing order.
+   */
+  void onAudioProcessorStats(EventTime eventTime, AudioProcessorStats[] stats);
+
+  /**
+   * Called when the audio sink has finished skipping a section of audio that was classified as
+   * silence.
+   *
+   * @param eventTime The event time.
+   * @param skippedDurationUs The duration of audio that was skipped, in microseconds.
+   */
+  void onAudioSilenceSkipped(EventTime eventTime, long skippedDurationUs);
+
   /**
    * Called after video frames have been dropped.
    *
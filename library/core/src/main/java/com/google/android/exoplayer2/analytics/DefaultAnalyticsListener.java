@@ -17,9 +17,11 @@ package com.google.android.exoplayer2.analytics;
 
 import android.net.NetworkInfo;
 import android.view.Surface;
+import com.google.android.exoplayer2.AdaptiveLoadControl;
 import com.google.android.exoplayer2.ExoPlaybackException;
 import com.google.android.exoplayer2.Format;
 import com.google.android.exoplayer2.PlaybackParameters;
+import com.google.android.exoplayer2.audio.AudioProcessorStats;
 import com.google.android.exoplayer2.decoder.DecoderCounters;
 import com.google.android.exoplayer2.metadata.Metadata;
 import com.google.android.exoplayer2.source.MediaSourceEventListener.LoadEventInfo;
@@ -107,6 +109,10 @@ public abstract class DefaultAnalyticsListener implements AnalyticsListener {
   public void onBandwidthEstimate(
       EventTime eventTime, int totalLoadTimeMs, long totalBytesLoaded, long bitrateEstimate) {}
 
+  @Override
+  public void onBufferTargetsChanged(
+      EventTime eventTime, AdaptiveLoadControl.BufferTargets bufferTargets) {}
+
   @Override
   public void onViewportSizeChange(EventTime eventTime, int width, int height) {}
 
@@ -138,6 +144,12 @@ public abstract class DefaultAnalyticsListener implements AnalyticsListener {
   public void onAudioUnderrun(
       EventTime eventTime, int bufferSize, long bufferSizeMs, long elapsedSinceLastFeedMs) {}
 
+  @Override
+  public void onAudioProcessorStats(EventTime eventTime, AudioProcessorStats[] stats) {}
+
+  @Override
+  public void onAudioSilenceSkipped(EventTime eventTime, long skippedDurationUs) {}
+
   @Override
   public void onDroppedVideoFrames(EventTime eventTime, int droppedFrames, long elapsedMs) {}
 
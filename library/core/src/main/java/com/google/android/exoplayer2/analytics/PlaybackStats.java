@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2.analytics;
+
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.Format;
+
+/**
+ * Quality of experience statistics of a single playback session, as aggregated by a {@link
+ * PlaybackStatsListener}. All durations are measured in elapsed real time.
+ */
+public final class PlaybackStats {
+
+  /**
+   * The time from the start of the session until the player first became ready, in milliseconds,
+   * or {@link C#TIME_UNSET} if the player has not been ready yet.
+   */
+  public final long startupTimeMs;
+
+  /** The total time the player was ready and playing, in milliseconds. */
+  public final long playingTimeMs;
+
+  /**
+   * The number of rebuffers, which are transitions from ready to buffering while playback is
+   * requested that are not caused by a seek.
+   */
+  public final int rebufferCount;
+
+  /** The total time spent rebuffering, in milliseconds. */
+  public final long rebufferTimeMs;
+
+  /** The number of seeks that became ready. */
+  public final int seekCount;
+
+  /** The total time from the start of each seek until the player became ready, in milliseconds. */
+  public final long seekLatencyMs;
+
+  /** The video formats played during the session. */
+  public final Format[] videoFormats;
+
+  /**
+   * The time spent playing each format in {@link #videoFormats}, in milliseconds. Has the same
+   * length as {@link #videoFormats}.
+   */
+  public final long[] videoFormatPlayingTimesMs;
+
+  /**
+   * The mean bitrate of the played video formats weighted by playing time, in bits per second, or
+   * {@link Format#NO_VALUE} if no format with a known bitrate was played.
+   */
+  public final double meanVideoBitrate;
+
+  /**
+   * The variance of the bitrate of the played video formats weighted by playing time, in bits per
+   * second squared, or {@link Format#NO_VALUE} if no format with a known bitrate was played.
+   */
+  public final double videoBitrateVariance;
+
+  /** The number of dropped video frames. */
+  public final long droppedFrameCount;
+
+  /** The number of bandwidth samples for which an earlier bandwidth estimate was available. */
+  public final int bandwidthSampleCount;
+
+  /**
+   * The mean relative error of the bandwidth estimate available before each bandwidth sample with
+   * respect to the bitrate measured by the sample, or {@link Format#NO_VALUE} if {@link
+   * #bandwidthSampleCount} is zero.
+   */
+  public final double meanBandwidthEstimateError;
+
+  /* package */ PlaybackStats(
+      long startupTimeMs,
+      long playingTimeMs,
+      int rebufferCount,
+      long rebufferTimeMs,
+      int seekCount,
+      long seekLatencyMs,
+      Format[] videoFormats,
+      long[] videoFormatPlayingTimesMs,
+      long droppedFrameCount,
+      int bandwidthSampleCount,
+      double meanBandwidthEstimateError) {
+    this.startupTimeMs = startupTimeMs;
+    this.playingTimeMs = playingTimeMs;
+    this.rebufferCount = rebufferCount;
+    this.rebufferTimeMs = rebufferTimeMs;
+    this.seekCount = seekCount;
+    this.seekLatencyMs = seekLatencyMs;
+    this.videoFormats = videoFormats;
+    this.videoFormatPlayingTimesMs = videoFormatPlayingTimesMs;
+    this.droppedFrameCount = droppedFrameCount;
+    this.bandwidthSampleCount = bandwidthSampleCount;
+    this.meanBandwidthEstimateError = meanBandwidthEstimateError;
+    long bitrateTimeMs = 0;
+    double bitrateSum = 0;
+    for (int i = 0; i < videoFormats.length; i++) {
+      if (videoFormats[i].bitrate != Format.NO_VALUE) {
+        bitrateTimeMs += videoFormatPlayingTimesMs[i];
+        bitrateSum += (double) videoFormats[i].bitrate * videoFormatPlayingTimesMs[i];
+      }
+    }
+    if (bitrateTimeMs == 0) {
+      meanVideoBitrate = Format.NO_VALUE;
+      videoBitrateVariance = Format.NO_VALUE;
+    } else {
+      meanVideoBitrate = bitrateSum / bitrateTimeMs;
+      double squaredDeviationSum = 0;
+      for (int i = 0; i < videoFormats.length; i++) {
+        if (videoFormats[i].bitrate != Format.NO_VALUE) {
+          double deviation = videoFormats[i].bitrate - meanVideoBitrate;
+          squaredDeviationSum += deviation * deviation * videoFormatPlayingTimesMs[i];
+        }
+      }
+      videoBitrateVariance = squaredDeviationSum / bitrateTimeMs;
+    }
+  }
+
+  /**
+   * Returns the mean time from the start of a seek until the player became ready, in milliseconds,
+   * or {@link C#TIME_UNSET} if there were no seeks.
+   */
+  public long getMeanSeekLatencyMs() {
+    return seekCount == 0 ? C.TIME_UNSET : seekLatencyMs / seekCount;
+  }
+
+  /** Returns the number of dropped video frames per second of playing time. */
+  public double getDroppedFramesPerSecond() {
+    return playingTimeMs == 0 ? 0 : droppedFrameCount * 1000.0 / playingTimeMs;
+  }
+
+}
@@ -0,0 +1,275 @@
+/*
+ * Copyright (C) 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2.analytics;
+
+import android.support.annotation.Nullable;
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.Format;
+import com.google.android.exoplayer2.Player;
+import com.google.android.exoplayer2.decoder.DecoderCounters;
+import com.google.android.exoplayer2.util.Clock;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * {@link AnalyticsListener} that aggregates quality of experience statistics into {@link
+ * PlaybackStats}.
+ *
+ * <p>A playback session starts when the player leaves {@link Player#STATE_IDLE} or {@link
+ * Player#STATE_ENDED}, and finishes when the player enters either of these states again. All
+ * events are handled in constant time without allocations, except for the first time a video
+ * format is played in a session, so the listener is suitable for being permanently registered.
+ */
+public final class PlaybackStatsListener extends DefaultAnalyticsListener {
+
+  /** Callback for finished playback sessions. */
+  public interface Callback {
+
+    /**
+     * Called when a playback session finished.
+     *
+     * @param playbackStats The {@link PlaybackStats} of the finished session.
+     */
+    void onPlaybackSessionFinished(PlaybackStats playbackStats);
+  }
+
+  private final Clock clock;
+  private final @Nullable Callback callback;
+  private final ArrayList<Format> videoFormats;
+
+  private long[] videoFormatPlayingTimesMs;
+  private int currentVideoFormatIndex;
+
+  private boolean isSessionActive;
+  private int playbackState;
+  private boolean playWhenReady;
+  private boolean hasBeenReady;
+  private boolean isSeeking;
+  private long lastUpdateRealtimeMs;
+  private long sessionStartRealtimeMs;
+  private long seekStartRealtimeMs;
+
+  private long startupTimeMs;
+  private long playingTimeMs;
+  private int rebufferCount;
+  private long rebufferTimeMs;
+  private int seekCount;
+  private long seekLatencyMs;
+  private long droppedFrameCount;
+  private long lastBitrateEstimate;
+  private int bandwidthSampleCount;
+  private double bandwidthEstimateErrorSum;
+
+  /**
+   * @param callback An optional {@link Callback} to be notified of finished playback sessions.
+   */
+  public PlaybackStatsListener(@Nullable Callback callback) {
+    this(callback, Clock.DEFAULT);
+  }
+
+  /**
+   * @param callback An optional {@link Callback} to be notified of finished playback sessions.
+   * @param clock The {@link Clock} used by the {@link AnalyticsCollector} to generate event times.
+   */
+  public PlaybackStatsListener(@Nullable Callback callback, Clock clock) {
+    this.callback = callback;
+    this.clock = clock;
+    videoFormats = new ArrayList<>();
+    videoFormatPlayingTimesMs = new long[0];
+    currentVideoFormatIndex = C.INDEX_UNSET;
+    playbackState = Player.STATE_IDLE;
+    lastBitrateEstimate = C.LENGTH_UNSET;
+    resetSession();
+  }
+
+  /**
+   * Returns the {@link PlaybackStats} of the current session up to now, or of the last finished
+   * session if no session is active.
+   */
+  public PlaybackStats getPlaybackStats() {
+    updatePlaybackTime(clock.elapsedRealtime());
+    return createPlaybackStats();
+  }
+
+  // AnalyticsListener implementation.
+
+  @Override
+  public void onPlayerStateChanged(EventTime eventTime, boolean playWhenReady, int playbackState) {
+    long realtimeMs = eventTime.realtimeMs;
+    updatePlaybackTime(realtimeMs);
+    boolean isEndState = playbackState == Player.STATE_IDLE || playbackState == Player.STATE_ENDED;
+    if (!isSessionActive && !isEndState) {
+      resetSession();
+      isSessionActive = true;
+      sessionStartRealtimeMs = realtimeMs;
+    }
+    if (playbackState == Player.STATE_READY) {
+      if (!hasBeenReady) {
+        hasBeenReady = true;
+        startupTimeMs = realtimeMs - sessionStartRealtimeMs;
+      }
+      maybeFinishSeek(realtimeMs);
+    } else if (playbackState == Player.STATE_BUFFERING
+        && this.playbackState == Player.STATE_READY
+        && playWhenReady
+        && !isSeeking) {
+      rebufferCount++;
+    }
+    this.playWhenReady = playWhenReady;
+    this.playbackState = playbackState;
+    if (isSessionActive && isEndState) {
+      isSessionActive = false;
+      isSeeking = false;
+      if (callback != null) {
+        callback.onPlaybackSessionFinished(createPlaybackStats());
+      }
+    }
+  }
+
+  @Override
+  public void onSeekStarted(EventTime eventTime) {
+    updatePlaybackTime(eventTime.realtimeMs);
+    if (!isSeeking) {
+      isSeeking = true;
+      seekStartRealtimeMs = eventTime.realtimeMs;
+    }
+  }
+
+  @Override
+  public void onSeekProcessed(EventTime eventTime) {
+    // A seek within the buffered media may not leave the ready state.
+    if (playbackState == Player.STATE_READY) {
+      updatePlaybackTime(eventTime.realtimeMs);
+      maybeFinishSeek(eventTime.realtimeMs);
+    }
+  }
+
+  @Override
+  public void onDecoderInputFormatChanged(EventTime eventTime, int trackType, Format format) {
+    if (trackType != C.TRACK_TYPE_VIDEO) {
+      return;
+    }
+    updatePlaybackTime(eventTime.realtimeMs);
+    currentVideoFormatIndex = videoFormats.indexOf(format);
+    if (currentVideoFormatIndex == C.INDEX_UNSET) {
+      currentVideoFormatIndex = videoFormats.size();
+      videoFormats.add(format);
+      if (videoFormatPlayingTimesMs.length == currentVideoFormatIndex) {
+        videoFormatPlayingTimesMs =
+            Arrays.copyOf(videoFormatPlayingTimesMs, Math.max(4, currentVideoFormatIndex * 2));
+      }
+    }
+  }
+
+  @Override
+  public void onDecoderDisabled(
+      EventTime eventTime, int trackType, DecoderCounters decoderCounters) {
+    if (trackType == C.TRACK_TYPE_VIDEO) {
+      updatePlaybackTime(eventTime.realtimeMs);
+      currentVideoFormatIndex = C.INDEX_UNSET;
+    }
+  }
+
+  @Override
+  public void onDroppedVideoFrames(EventTime eventTime, int droppedFrames, long elapsedMs) {
+    if (isSessionActive) {
+      droppedFrameCount += droppedFrames;
+    }
+  }
+
+  @Override
+  public void onBandwidthEstimate(
+      EventTime eventTime, int totalLoadTimeMs, long totalBytesLoaded, long bitrateEstimate) {
+    // Keep track of the estimate outside sessions too, so the first sample of a session can be
+    // compared with it.
+    if (isSessionActive && totalLoadTimeMs > 0 && lastBitrateEstimate != C.LENGTH_UNSET) {
+      double sampleBitrate = totalBytesLoaded * 8000.0 / totalLoadTimeMs;
+      if (sampleBitrate > 0) {
+        bandwidthSampleCount++;
+        bandwidthEstimateErrorSum += Math.abs(lastBitrateEstimate - sampleBitrate) / sampleBitrate;
+      }
+    }
+    lastBitrateEstimate = bitrateEstimate;
+  }
+
+  // Internal methods.
+
+  private void resetSession() {
+    // Keep the current video format, as it will continue to be played in the new session.
+    Format currentVideoFormat =
+        currentVideoFormatIndex == C.INDEX_UNSET ? null : videoFormats.get(currentVideoFormatIndex);
+    videoFormats.clear();
+    Arrays.fill(videoFormatPlayingTimesMs, 0);
+    currentVideoFormatIndex = C.INDEX_UNSET;
+    if (currentVideoFormat != null) {
+      videoFormats.add(currentVideoFormat);
+      currentVideoFormatIndex = 0;
+    }
+    hasBeenReady = false;
+    startupTimeMs = C.TIME_UNSET;
+    playingTimeMs = 0;
+    rebufferCount = 0;
+    rebufferTimeMs = 0;
+    seekCount = 0;
+    seekLatencyMs = 0;
+    droppedFrameCount = 0;
+    bandwidthSampleCount = 0;
+    bandwidthEstimateErrorSum = 0;
+  }
+
+  private void updatePlaybackTime(long realtimeMs) {
+    long elapsedTimeMs = Math.max(0, realtimeMs - lastUpdateRealtimeMs);
+    lastUpdateRealtimeMs = realtimeMs;
+    if (!isSessionActive || !playWhenReady) {
+      return;
+    }
+    if (playbackState == Player.STATE_READY) {
+      playingTimeMs += elapsedTimeMs;
+      if (currentVideoFormatIndex != C.INDEX_UNSET) {
+        videoFormatPlayingTimesMs[currentVideoFormatIndex] += elapsedTimeMs;
+      }
+    } else if (playbackState == Player.STATE_BUFFERING && hasBeenReady && !isSeeking) {
+      rebufferTimeMs += elapsedTimeMs;
+    }
+  }
+
+  private void maybeFinishSeek(long realtimeMs) {
+    if (isSeeking) {
+      isSeeking = false;
+      seekCount++;
+      seekLatencyMs += realtimeMs - seekStartRealtimeMs;
+    }
+  }
+
+  private PlaybackStats createPlaybackStats() {
+    int videoFormatCount = videoFormats.size();
+    return new PlaybackStats(
+        startupTimeMs,
+        playingTimeMs,
+        rebufferCount,
+        rebufferTimeMs,
+        seekCount,
+        seekLatencyMs,
+        videoFormats.toArray(new Format[videoFormatCount]),
+        Arrays.copyOf(videoFormatPlayingTimesMs, videoFormatCount),
+        droppedFrameCount,
+        bandwidthSampleCount,
+        bandwidthSampleCount == 0
+            ? Format.NO_VALUE
+            : bandwidthEstimateErrorSum / bandwidthSampleCount);
+  }
+
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2.audio;
+
+/**
+ * Statistics describing the work done by one active {@link AudioProcessor} in an {@link
+ * AudioSink} over a reporting interval.
+ */
+public final class AudioProcessorStats {
+
+  /** The name of the audio processor, which is the simple name of its class. */
+  public final String audioProcessorName;
+  /** The duration of the reporting interval, in milliseconds. */
+  public final long intervalMs;
+  /**
+   * The time spent queueing input to and getting output from the processor during the interval, in
+   * microseconds.
+   */
+  public final long processingTimeUs;
+  /** The number of bytes of input consumed by the processor during the interval. */
+  public final long inputBytes;
+  /** The number of bytes of output produced by the processor during the interval. */
+  public final long outputBytes;
+  /**
+   * The duration of audio consumed by the processor but not yet output at the end of the interval,
+   * in microseconds. For processors that change the playback speed this also includes the change
+   * in duration due to the speed adjustment.
+   */
+  public final long bufferedDurationUs;
+
+  /**
+   * @param audioProcessorName The name of the audio processor.
+   * @param intervalMs The duration of the reporting interval, in milliseconds.
+   * @param processingTimeUs The processing time during the interval, in microseconds.
+   * @param inputBytes The number of bytes of input consumed during the interval.
+   * @param outputBytes The number of bytes of output produced during the interval.
+   * @param bufferedDurationUs The duration of audio held by the processor, in microseconds.
+   */
+  public AudioProcessorStats(
+      String audioProcessorName,
+      long intervalMs,
+      long processingTimeUs,
+      long inputBytes,
+      long outputBytes,
+      long bufferedDurationUs) {
+    this.audioProcessorName = audioProcessorName;
+    this.intervalMs = intervalMs;
+    this.processingTimeUs = processingTimeUs;
+    this.inputBytes = inputBytes;
+    this.outputBytes = outputBytes;
+    this.bufferedDurationUs = bufferedDurationUs;
+  }
+
+  @Override
+  public String toString() {
+    return audioProcessorName
+        + "[interval="
+        + intervalMs
+        + "ms, time="
+        + processingTimeUs
+        + "us, in="
+        + inputBytes
+        + ", out="
+        + outputBytes
+        + ", buffered="
+        + bufferedDurationUs
+        + "us]";
+  }
+
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2.audio;
+
+import android.support.annotation.Nullable;
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.util.Util;
+
+/**
+ * Accumulates per-processor {@link AudioProcessorStats} for the active audio processors of a
+ * {@link DefaultAudioSink}.
+ */
+/* package */ final class AudioProcessorStatsTracker {
+
+  private final long reportIntervalMs;
+
+  private String[] names;
+  private int[] inputFrameSizes;
+  private int[] inputSampleRates;
+  private int[] outputFrameSizes;
+  private int[] outputSampleRates;
+  private long[] processingTimesNs;
+  private long[] inputBytes;
+  private long[] outputBytes;
+  private long[] totalInputBytes;
+  private long[] totalOutputBytes;
+  private long lastReportTimeMs;
+
+  /**
+   * @param reportIntervalMs The minimum interval between reports, in milliseconds.
+   */
+  public AudioProcessorStatsTracker(long reportIntervalMs) {
+    this.reportIntervalMs = reportIntervalMs;
+    lastReportTimeMs = C.TIME_UNSET;
+    setAudioProcessors(new AudioProcessor[0], C.LENGTH_UNSET, C.LENGTH_UNSET);
+  }
+
+  /**
+   * Sets the active audio processors to track, and resets all statistics.
+   *
+   * @param audioProcessors The active audio processors, which must be configured.
+   * @param inputSampleRate The sample rate of input to the first processor.
+   * @param inputFrameSize The frame size of input to the first processor, in bytes.
+   */
+  public void setAudioProcessors(
+      AudioProcessor[] audioProcessors, int inputSampleRate, int inputFrameSize) {
+    int count = audioProcessors.length;
+    names = new String[count];
+    inputFrameSizes = new int[count];
+    inputSampleRates = new int[count];
+    outputFrameSizes = new int[count];
+    outputSampleRates = new int[count];
+    processingTimesNs = new long[count];
+    inputBytes = new long[count];
+    outputBytes = new long[count];
+    totalInputBytes = new long[count];
+    totalOutputBytes = new long[count];
+    for (int i = 0; i < count; i++) {
+      AudioProcessor audioProcessor = audioProcessors[i];
+      names[i] = audioProcessor.getClass().getSimpleName();
+      inputFrameSizes[i] = inputFrameSize;
+      inputSampleRates[i] = inputSampleRate;
+      outputFrameSizes[i] =
+          Util.getPcmFrameSize(
+              audioProcessor.getOutputEncoding(), audioProcessor.getOutputChannelCount());
+      outputSampleRates[i] = audioProcessor.getOutputSampleRateHz();
+      inputFrameSize = outputFrameSizes[i];
+      inputSampleRate = outputSampleRates[i];
+    }
+  }
+
+  /**
+   * Records one round of processing by an active audio processor.
+   *
+   * @param index The index of the processor in the array passed to {@link
+   *     #setAudioProcessors(AudioProcessor[], int, int)}.
+   * @param processingTimeNs The time spent processing, in nanoseconds.
+   * @param consumedBytes The number of input bytes consumed.
+   * @param producedBytes The number of output bytes produced.
+   */
+  public void onProcessed(int index, long processingTimeNs, int consumedBytes, int producedBytes) {
+    processingTimesNs[index] += processingTimeNs;
+    inputBytes[index] += consumedBytes;
+    outputBytes[index] += producedBytes;
+    totalInputBytes[index] += consumedBytes;
+    totalOutputBytes[index] += producedBytes;
+  }
+
+  /** Notifies the tracker that the audio processors were flushed, discarding buffered data. */
+  public void onFlush() {
+    for (int i = 0; i < names.length; i++) {
+      totalInputBytes[i] = 0;
+      totalOutputBytes[i] = 0;
+    }
+  }
+
+  /**
+   * Returns statistics for the interval since the last report and starts a new interval, or
+   * returns {@code null} if the report interval has not yet elapsed or there are no active audio
+   * processors.
+   *
+   * @param nowMs The current time, in milliseconds.
+   */
+  public @Nullable AudioProcessorStats[] maybeBuildReport(long nowMs) {
+    if (lastReportTimeMs == C.TIME_UNSET) {
+      lastReportTimeMs = nowMs;
+      return null;
+    }
+    if (names.length == 0 || nowMs - lastReportTimeMs < reportIntervalMs) {
+      return null;
+    }
+    long intervalMs = nowMs - lastReportTimeMs;
+    lastReportTimeMs = nowMs;
+    AudioProcessorStats[] stats = new AudioProcessorStats[names.length];
+    for (int i = 0; i < names.length; i++) {
+      long bufferedDurationUs =
+          framesToDurationUs(totalInputBytes[i] / inputFrameSizes[i], inputSampleRates[i])
+              - framesToDurationUs(totalOutputBytes[i] / outputFrameSizes[i], outputSampleRates[i]);
+      stats[i] =
+          new AudioProcessorStats(
+              names[i],
+              intervalMs,
+              processingTimesNs[i] / 1000,
+              inputBytes[i],
+              outputBytes[i],
+              bufferedDurationUs);
+      processingTimesNs[i] = 0;
+      inputBytes[i] = 0;
+      outputBytes[i] = 0;
+    }
+    return stats;
+  }
+
+  private static long framesToDurationUs(long frameCount, int sampleRate) {
+    return (frameCount * C.MICROS_PER_SECOND) / sampleRate;
+  }
+
+}
@@ -73,6 +73,22 @@ public interface AudioRendererEventListener {
    */
   void onAudioSinkUnderrun(int bufferSize, long bufferSizeMs, long elapsedSinceLastFeedMs);
 
+  /**
+   * Called periodically with statistics about the active {@link AudioProcessor}s of the renderer's
+   * {@link AudioSink}, if the sink reports them.
+   *
+   * @param stats Statistics for each active audio processor, in processing order.
+   */
+  void onAudioProcessorStats(AudioProcessorStats[] stats);
+
+  /**
+   * Called when the renderer's {@link AudioSink} has finished skipping a section of audio that was
+   * classified as silence.
+   *
+   * @param skippedDurationUs The duration of audio that was skipped, in microseconds.
+   */
+  void onAudioSilenceSkipped(long skippedDurationUs);
+
   /**
    * Called when the renderer is disabled.
    *
@@ -158,6 +174,34 @@ public interface AudioRendererEventListener {
       }
     }
 
+    /**
+     * Invokes {@link AudioRendererEventListener#onAudioProcessorStats(AudioProcessorStats[])}.
+     */
+    public void audioProcessorStats(final AudioProcessorStats[] stats) {
+      if (listener != null) {
+        handler.post(new Runnable() {
+          @Override
+          public void run() {
+            listener.onAudioProcessorStats(stats);
+          }
+        });
+      }
+    }
+
+    /**
+     * Invokes {@link AudioRendererEventListener#onAudioSilenceSkipped(long)}.
+     */
+    public void silenceSkipped(final long skippedDurationUs) {
+      if (listener != null) {
+        handler.post(new Runnable() {
+          @Override
+          public void run() {
+            listener.onAudioSilenceSkipped(skippedDurationUs);
+          }
+        });
+      }
+    }
+
     /**
      * Invokes {@link AudioRendererEventListener#onAudioDisabled(DecoderCounters)}.
      */
@@ -81,6 +81,27 @@ public interface AudioSink {
      */
     void onUnderrun(int bufferSize, long bufferSizeMs, long elapsedSinceLastFeedMs);
 
+    /**
+     * Called periodically with statistics about the sink's active {@link AudioProcessor}s.
+     * <p>
+     * An audio sink implementation may never call this method (for example, if it does not
+     * measure the work done by its audio processors).
+     *
+     * @param stats Statistics for each active audio processor, in processing order.
+     */
+    void onAudioProcessorStats(AudioProcessorStats[] stats);
+
+    /**
+     * Called when the sink has finished skipping a section of input audio that was classified as
+     * silence.
+     * <p>
+     * An audio sink implementation may never call this method (for example, if it does not support
+     * skipping silence).
+     *
+     * @param skippedDurationUs The duration of audio that was skipped, in microseconds.
+     */
+    void onSilenceSkipped(long skippedDurationUs);
+
   }
 
   /**
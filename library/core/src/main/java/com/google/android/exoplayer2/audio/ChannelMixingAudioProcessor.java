@@ -0,0 +1,430 @@
+/*
+ * Copyright (C) 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2.audio;
+
+import android.support.annotation.Nullable;
+import android.util.SparseArray;
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.Format;
+import com.google.android.exoplayer2.util.Assertions;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * An {@link AudioProcessor} that mixes input channels into a different number of output channels
+ * by applying a matrix of gain coefficients, for example to downmix multichannel audio to stereo
+ * when the output device can't render it. Input and output are 16-bit or float PCM, with the output
+ * encoding matching the input encoding.
+ *
+ * <p>Default matrices for mixing to mono and stereo are provided for inputs with 1 to 8 channels,
+ * 7.1.4 (12 channels) and 22.2 (24 channels) in the channel orders output by the platform and
+ * extension decoders. Other matrices can be set using {@link #setMixingMatrix(int, int, float[])}.
+ * Input for which no matrix is available is passed through unchanged.
+ */
+public final class ChannelMixingAudioProcessor implements AudioProcessor {
+
+  /** Number of frames mixed per iteration of the inner loop. */
+  private static final int BLOCK_FRAME_COUNT = 256;
+
+  private static final float GAIN_0_DB = 1f;
+  private static final float GAIN_MINUS_3_DB = 0.70710677f;
+  private static final float GAIN_MINUS_6_DB = 0.5f;
+  private static final float GAIN_MINUS_9_DB = 0.35355338f;
+  private static final float GAIN_PAN_NEAR = 0.9238795f;
+  private static final float GAIN_PAN_FAR = 0.38268343f;
+
+  private static final float[] FRONT_LEFT = {GAIN_0_DB, 0f};
+  private static final float[] FRONT_RIGHT = {0f, GAIN_0_DB};
+  private static final float[] CENTER = {GAIN_MINUS_3_DB, GAIN_MINUS_3_DB};
+  private static final float[] LOW_FREQUENCY = {0f, 0f};
+  private static final float[] SURROUND_LEFT = {GAIN_MINUS_3_DB, 0f};
+  private static final float[] SURROUND_RIGHT = {0f, GAIN_MINUS_3_DB};
+  private static final float[] SURROUND_CENTER = {GAIN_MINUS_6_DB, GAIN_MINUS_6_DB};
+  private static final float[] FRONT_LEFT_OF_CENTER = {GAIN_PAN_NEAR, GAIN_PAN_FAR};
+  private static final float[] FRONT_RIGHT_OF_CENTER = {GAIN_PAN_FAR, GAIN_PAN_NEAR};
+  private static final float[] TOP_LEFT = {GAIN_MINUS_6_DB, 0f};
+  private static final float[] TOP_RIGHT = {0f, GAIN_MINUS_6_DB};
+  private static final float[] TOP_CENTER = {GAIN_MINUS_9_DB, GAIN_MINUS_9_DB};
+
+  /**
+   * Left/right gains of each input channel when mixing to stereo, indexed by input channel count.
+   */
+  private static final float[][][] STEREO_CHANNEL_GAINS = new float[25][][];
+
+  static {
+    STEREO_CHANNEL_GAINS[1] = new float[][] {{GAIN_0_DB, GAIN_0_DB}};
+    STEREO_CHANNEL_GAINS[2] = new float[][] {FRONT_LEFT, FRONT_RIGHT};
+    STEREO_CHANNEL_GAINS[3] = new float[][] {FRONT_LEFT, FRONT_RIGHT, CENTER};
+    STEREO_CHANNEL_GAINS[4] =
+        new float[][] {FRONT_LEFT, FRONT_RIGHT, SURROUND_LEFT, SURROUND_RIGHT};
+    STEREO_CHANNEL_GAINS[5] =
+        new float[][] {FRONT_LEFT, FRONT_RIGHT, CENTER, SURROUND_LEFT, SURROUND_RIGHT};
+    // 5.1: FL, FR, FC, LFE, BL, BR.
+    STEREO_CHANNEL_GAINS[6] =
+        new float[][] {
+          FRONT_LEFT, FRONT_RIGHT, CENTER, LOW_FREQUENCY, SURROUND_LEFT, SURROUND_RIGHT
+        };
+    // 6.1: FL, FR, FC, LFE, BC, SL, SR.
+    STEREO_CHANNEL_GAINS[7] =
+        new float[][] {
+          FRONT_LEFT,
+          FRONT_RIGHT,
+          CENTER,
+          LOW_FREQUENCY,
+          SURROUND_CENTER,
+          SURROUND_LEFT,
+          SURROUND_RIGHT
+        };
+    // 7.1: FL, FR, FC, LFE, BL, BR, SL, SR.
+    STEREO_CHANNEL_GAINS[8] =
+        new float[][] {
+          FRONT_LEFT,
+          FRONT_RIGHT,
+          CENTER,
+          LOW_FREQUENCY,
+          SURROUND_LEFT,
+          SURROUND_RIGHT,
+          SURROUND_LEFT,
+          SURROUND_RIGHT
+        };
+    // 7.1.4: 7.1 followed by TFL, TFR, TBL, TBR. All height channels are attenuated by 6 dB.
+    STEREO_CHANNEL_GAINS[12] =
+        new float[][] {
+          FRONT_LEFT,
+          FRONT_RIGHT,
+          CENTER,
+          LOW_FREQUENCY,
+          SURROUND_LEFT,
+          SURROUND_RIGHT,
+          SURROUND_LEFT,
+          SURROUND_RIGHT,
+          TOP_LEFT,
+          TOP_RIGHT,
+          TOP_LEFT,
+          TOP_RIGHT
+        };
+    // 22.2 in SMPTE ST 2036-2 order: FL, FR, FC, LFE1, BL, BR, FLc, FRc, BC, LFE2, SiL, SiR, TpFL,
+    // TpFR, TpFC, TpC, TpBL, TpBR, TpSiL, TpSiR, TpBC, BtFC, BtFL, BtFR. As for 7.1.4, all top
+    // channels are attenuated by 6 dB, and centered top channels by a further 3 dB per side.
+    STEREO_CHANNEL_GAINS[24] =
+        new float[][] {
+          FRONT_LEFT,
+          FRONT_RIGHT,
+          CENTER,
+          LOW_FREQUENCY,
+          SURROUND_LEFT,
+          SURROUND_RIGHT,
+          FRONT_LEFT_OF_CENTER,
+          FRONT_RIGHT_OF_CENTER,
+          SURROUND_CENTER,
+          LOW_FREQUENCY,
+          SURROUND_LEFT,
+          SURROUND_RIGHT,
+          TOP_LEFT,
+          TOP_RIGHT,
+          TOP_CENTER,
+          TOP_CENTER,
+          TOP_LEFT,
+          TOP_RIGHT,
+          TOP_LEFT,
+          TOP_RIGHT,
+          TOP_CENTER,
+          SURROUND_CENTER,
+          SURROUND_LEFT,
+          SURROUND_RIGHT
+        };
+  }
+
+  private final SparseArray<float[]> customMixingMatrices;
+
+  private int pendingOutputChannelCount;
+  private int sampleRateHz;
+  private int inputChannelCount;
+  private int outputChannelCount;
+  private @C.PcmEncoding int encoding;
+  private @Nullable float[] mixingMatrix;
+  private float[] inputSamples;
+  private float[] outputSamples;
+
+  private ByteBuffer buffer;
+  private ByteBuffer outputBuffer;
+  private boolean inputEnded;
+
+  /** Creates a new channel mixing audio processor, which is inactive until configured to mix. */
+  public ChannelMixingAudioProcessor() {
+    customMixingMatrices = new SparseArray<>();
+    pendingOutputChannelCount = Format.NO_VALUE;
+    sampleRateHz = Format.NO_VALUE;
+    inputChannelCount = Format.NO_VALUE;
+    outputChannelCount = Format.NO_VALUE;
+    encoding = C.ENCODING_INVALID;
+    inputSamples = new float[0];
+    outputSamples = new float[0];
+    buffer = EMPTY_BUFFER;
+    outputBuffer = EMPTY_BUFFER;
+  }
+
+  /**
+   * Sets the number of channels to output. After calling this method, call {@link #configure(int,
+   * int, int)} to apply the new setting.
+   *
+   * @param outputChannelCount The number of output channels, or {@link Format#NO_VALUE} to leave
+   *     the input unchanged.
+   */
+  public void setOutputChannelCount(int outputChannelCount) {
+    pendingOutputChannelCount = outputChannelCount;
+  }
+
+  /**
+   * Sets the matrix to use when mixing input with {@code inputChannelCount} channels into {@code
+   * outputChannelCount} channels, overriding any default matrix. After calling this method, call
+   * {@link #configure(int, int, int)} to apply the new matrix.
+   *
+   * @param inputChannelCount The number of input channels.
+   * @param outputChannelCount The number of output channels.
+   * @param coefficients The gain to apply to each input channel for each output channel, with the
+   *     gain of input channel {@code i} in output channel {@code o} at index {@code o *
+   *     inputChannelCount + i}.
+   */
+  public void setMixingMatrix(int inputChannelCount, int outputChannelCount, float[] coefficients) {
+    Assertions.checkArgument(coefficients.length == inputChannelCount * outputChannelCount);
+    customMixingMatrices.put(
+        getMatrixKey(inputChannelCount, outputChannelCount), coefficients.clone());
+  }
+
+  /**
+   * Returns the default matrix for mixing {@code inputChannelCount} channels into {@code
+   * outputChannelCount} channels, in the layout described in {@link #setMixingMatrix(int, int,
+   * float[])}, or {@code null} if there is no default matrix for the specified channel counts.
+   *
+   * <p>Default matrices are provided for mixing to mono and stereo. Each output row is scaled so
+   * that the sum of its coefficients does not exceed one, so full-scale input can't clip.
+   *
+   * @param inputChannelCount The number of input channels.
+   * @param outputChannelCount The number of output channels.
+   * @return The default mixing matrix, or {@code null}.
+   */
+  public static @Nullable float[] getDefaultMixingMatrix(
+      int inputChannelCount, int outputChannelCount) {
+    if (inputChannelCount <= 0
+        || inputChannelCount >= STEREO_CHANNEL_GAINS.length
+        || STEREO_CHANNEL_GAINS[inputChannelCount] == null
+        || (outputChannelCount != 1 && outputChannelCount != 2)) {
+      return null;
+    }
+    float[][] channelGains = STEREO_CHANNEL_GAINS[inputChannelCount];
+    float[] coefficients = new float[inputChannelCount * outputChannelCount];
+    for (int i = 0; i < inputChannelCount; i++) {
+      if (outputChannelCount == 1) {
+        coefficients[i] =
+            inputChannelCount == 1 ? GAIN_0_DB : (channelGains[i][0] + channelGains[i][1]) / 2;
+      } else {
+        coefficients[i] = channelGains[i][0];
+        coefficients[inputChannelCount + i] = channelGains[i][1];
+      }
+    }
+    for (int o = 0; o < outputChannelCount; o++) {
+      float rowSum = 0;
+      for (int i = 0; i < inputChannelCount; i++) {
+        rowSum += coefficients[o * inputChannelCount + i];
+      }
+      if (rowSum > 1) {
+        for (int i = 0; i < inputChannelCount; i++) {
+          coefficients[o * inputChannelCount + i] /= rowSum;
+        }
+      }
+    }
+    return coefficients;
+  }
+
+  // AudioProcessor implementation.
+
+  @Override
+  public boolean configure(int sampleRateHz, int channelCount, @C.Encoding int encoding)
+      throws UnhandledFormatException {
+    if (encoding != C.ENCODING_PCM_16BIT && encoding != C.ENCODING_PCM_FLOAT) {
+      throw new UnhandledFormatException(sampleRateHz, channelCount, encoding);
+    }
+    int outputChannelCount =
+        pendingOutputChannelCount == Format.NO_VALUE ? channelCount : pendingOutputChannelCount;
+    float[] mixingMatrix = null;
+    if (outputChannelCount != channelCount) {
+      mixingMatrix = customMixingMatrices.get(getMatrixKey(channelCount, outputChannelCount));
+      if (mixingMatrix == null) {
+        mixingMatrix = getDefaultMixingMatrix(channelCount, outputChannelCount);
+      }
+      if (mixingMatrix == null) {
+        // The layout isn't supported, so pass the input through unchanged.
+        outputChannelCount = channelCount;
+      }
+    }
+    if (this.sampleRateHz == sampleRateHz
+        && this.inputChannelCount == channelCount
+        && this.outputChannelCount == outputChannelCount
+        && this.encoding == encoding
+        && Arrays.equals(this.mixingMatrix, mixingMatrix)) {
+      return false;
+    }
+    this.sampleRateHz = sampleRateHz;
+    this.inputChannelCount = channelCount;
+    this.outputChannelCount = outputChannelCount;
+    this.encoding = encoding;
+    this.mixingMatrix = mixingMatrix;
+    if (mixingMatrix != null) {
+      inputSamples = new float[BLOCK_FRAME_COUNT * channelCount];
+      outputSamples = new float[BLOCK_FRAME_COUNT * outputChannelCount];
+    }
+    return true;
+  }
+
+  @Override
+  public boolean isActive() {
+    return mixingMatrix != null;
+  }
+
+  @Override
+  public int getOutputChannelCount() {
+    return outputChannelCount;
+  }
+
+  @Override
+  public int getOutputEncoding() {
+    return encoding;
+  }
+
+  @Override
+  public int getOutputSampleRateHz() {
+    return sampleRateHz;
+  }
+
+  @Override
+  public void queueInput(ByteBuffer inputBuffer) {
+    float[] mixingMatrix = Assertions.checkNotNull(this.mixingMatrix);
+    boolean isFloat = encoding == C.ENCODING_PCM_FLOAT;
+    int bytesPerSample = isFloat ? 4 : 2;
+    int position = inputBuffer.position();
+    int limit = inputBuffer.limit();
+    int frameCount = (limit - position) / (inputChannelCount * bytesPerSample);
+    int outputSize = frameCount * outputChannelCount * bytesPerSample;
+    if (buffer.capacity() < outputSize) {
+      buffer = ByteBuffer.allocateDirect(outputSize).order(ByteOrder.nativeOrder());
+    } else {
+      buffer.clear();
+    }
+    int remainingFrameCount = frameCount;
+    while (remainingFrameCount > 0) {
+      int blockFrameCount = Math.min(remainingFrameCount, BLOCK_FRAME_COUNT);
+      int inputSampleCount = blockFrameCount * inputChannelCount;
+      if (isFloat) {
+        for (int i = 0; i < inputSampleCount; i++) {
+          inputSamples[i] = inputBuffer.getFloat(position);
+          position += 4;
+        }
+      } else {
+        for (int i = 0; i < inputSampleCount; i++) {
+          inputSamples[i] = inputBuffer.getShort(position);
+          position += 2;
+        }
+      }
+      mix(mixingMatrix, blockFrameCount);
+      int outputSampleCount = blockFrameCount * outputChannelCount;
+      if (isFloat) {
+        for (int i = 0; i < outputSampleCount; i++) {
+          buffer.putFloat(outputSamples[i]);
+        }
+      } else {
+        for (int i = 0; i < outputSampleCount; i++) {
+          float sample = outputSamples[i];
+          buffer.putShort(
+              (short) (sample >= Short.MAX_VALUE ? Short.MAX_VALUE
+                  : sample <= Short.MIN_VALUE ? Short.MIN_VALUE : sample));
+        }
+      }
+      remainingFrameCount -= blockFrameCount;
+    }
+    inputBuffer.position(limit);
+    buffer.flip();
+    outputBuffer = buffer;
+  }
+
+  @Override
+  public void queueEndOfStream() {
+    inputEnded = true;
+  }
+
+  @Override
+  public ByteBuffer getOutput() {
+    ByteBuffer outputBuffer = this.outputBuffer;
+    this.outputBuffer = EMPTY_BUFFER;
+    return outputBuffer;
+  }
+
+  @SuppressWarnings("ReferenceEquality")
+  @Override
+  public boolean isEnded() {
+    return inputEnded && outputBuffer == EMPTY_BUFFER;
+  }
+
+  @Override
+  public void flush() {
+    outputBuffer = EMPTY_BUFFER;
+    inputEnded = false;
+  }
+
+  @Override
+  public void reset() {
+    flush();
+    buffer = EMPTY_BUFFER;
+    sampleRateHz = Format.NO_VALUE;
+    inputChannelCount = Format.NO_VALUE;
+    outputChannelCount = Format.NO_VALUE;
+    encoding = C.ENCODING_INVALID;
+    mixingMatrix = null;
+    inputSamples = new float[0];
+    outputSamples = new float[0];
+  }
+
+  // Internal methods.
+
+  /**
+   * Mixes {@code frameCount} frames from {@link #inputSamples} into {@link #outputSamples}. The
+   * loops have fixed strides and no branches, so they can be vectorized by the runtime.
+   */
+  private void mix(float[] mixingMatrix, int frameCount) {
+    int inputChannelCount = this.inputChannelCount;
+    int outputChannelCount = this.outputChannelCount;
+    float[] inputSamples = this.inputSamples;
+    float[] outputSamples = this.outputSamples;
+    for (int frame = 0; frame < frameCount; frame++) {
+      int inputOffset = frame * inputChannelCount;
+      int outputOffset = frame * outputChannelCount;
+      for (int o = 0; o < outputChannelCount; o++) {
+        int matrixOffset = o * inputChannelCount;
+        float sum = 0;
+        for (int i = 0; i < inputChannelCount; i++) {
+          sum += mixingMatrix[matrixOffset + i] * inputSamples[inputOffset + i];
+        }
+        outputSamples[outputOffset + o] = sum;
+      }
+    }
+  }
+
+  private static int getMatrixKey(int inputChannelCount, int outputChannelCount) {
+    return (inputChannelCount << 16) | outputChannelCount;
+  }
+
+}
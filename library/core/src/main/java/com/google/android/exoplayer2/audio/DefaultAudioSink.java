@@ -21,6 +21,10 @@ import android.media.AudioFormat;
 import android.media.AudioManager;
 import android.media.AudioTrack;
 import android.os.ConditionVariable;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Message;
+import android.os.Process;
 import android.os.SystemClock;
 import android.support.annotation.IntDef;
 import android.support.annotation.Nullable;
@@ -28,6 +32,7 @@ import android.util.Log;
 import com.google.android.exoplayer2.C;
 import com.google.android.exoplayer2.PlaybackParameters;
 import com.google.android.exoplayer2.util.Assertions;
+import com.google.android.exoplayer2.util.TraceUtil;
 import com.google.android.exoplayer2.util.Util;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
@@ -46,6 +51,10 @@ import java.util.Collections;
  * a different duration than their input, and buffer processors must produce output corresponding to
  * their last input immediately after that input is queued. This means that, for example, speed
  * adjustment is not possible while using tunneling.
+ * <p>
+ * If {@link #enableAudioProcessingThread} is set, PCM audio is handed to a dedicated audio thread
+ * via a ring buffer, and audio processing and writes to the {@link AudioTrack} take place on that
+ * thread. Listener methods are still called on the thread that calls into the sink.
  */
 public final class DefaultAudioSink implements AudioSink {
 
@@ -95,12 +104,19 @@ public final class DefaultAudioSink implements AudioSink {
     /**
      * Scales the specified playout duration to take into account speedup due to audio processing,
      * returning an input media duration, in arbitrary units.
+     *
+     * <p>If the sink processes audio on a separate thread (see {@link
+     * DefaultAudioSink#enableAudioProcessingThread}), this method is called on that thread after
+     * each processed buffer, and the sink assumes that the media duration is proportional to the
+     * playout duration until the next buffer is processed.
      */
     long getMediaDuration(long playoutDuration);
 
     /**
      * Returns the number of output audio frames skipped since the audio processors were last
      * flushed.
+     *
+     * <p>If the sink processes audio on a separate thread, this method is called on that thread.
      */
     long getSkippedOutputFrameCount();
   }
@@ -120,8 +136,20 @@ public final class DefaultAudioSink implements AudioSink {
      * audioProcessors} applied before silence skipping and playback parameters.
      */
     public DefaultAudioProcessorChain(AudioProcessor... audioProcessors) {
+      this(audioProcessors, new SilenceSkippingAudioProcessor());
+    }
+
+    /**
+     * Creates a new default chain of audio processors, with the user-defined {@code
+     * audioProcessors} applied before silence skipping and playback parameters, using the
+     * specified {@code silenceSkippingAudioProcessor} to skip silence. This allows the minimum
+     * silence duration, padding and threshold level used for silence skipping to be customized.
+     */
+    public DefaultAudioProcessorChain(
+        AudioProcessor[] audioProcessors,
+        SilenceSkippingAudioProcessor silenceSkippingAudioProcessor) {
       this.audioProcessors = Arrays.copyOf(audioProcessors, audioProcessors.length + 2);
-      silenceSkippingAudioProcessor = new SilenceSkippingAudioProcessor();
+      this.silenceSkippingAudioProcessor = silenceSkippingAudioProcessor;
       sonicAudioProcessor = new SonicAudioProcessor();
       this.audioProcessors[audioProcessors.length] = silenceSkippingAudioProcessor;
       this.audioProcessors[audioProcessors.length + 1] = sonicAudioProcessor;
@@ -192,6 +220,29 @@ public final class DefaultAudioSink implements AudioSink {
   @SuppressLint("InlinedApi")
   private static final int WRITE_NON_BLOCKING = AudioTrack.WRITE_NON_BLOCKING;
 
+  /**
+   * The duration of PCM input buffered between the calling thread and the audio processing thread,
+   * in microseconds.
+   */
+  private static final long AUDIO_THREAD_BUFFER_DURATION_US = 100000;
+  /**
+   * The maximum duration of PCM input processed by the audio processing thread at a time, in
+   * microseconds.
+   */
+  private static final long AUDIO_THREAD_MAX_CHUNK_DURATION_US = 10000;
+  /**
+   * The delay before the audio processing thread retries if it was unable to make progress, in
+   * milliseconds.
+   */
+  private static final long AUDIO_THREAD_RETRY_INTERVAL_MS = 5;
+  /**
+   * The playout duration for which the media duration is published by the audio processing thread,
+   * in microseconds. Other playout durations are scaled proportionally.
+   */
+  private static final long SPEEDUP_REFERENCE_PLAYOUT_DURATION_US = 3600 * C.MICROS_PER_SECOND;
+
+  private static final int MSG_PROCESS_AUDIO = 0;
+
   private static final String TAG = "AudioTrack";
 
   /**
@@ -222,6 +273,28 @@ public final class DefaultAudioSink implements AudioSink {
    */
   public static boolean failOnSpuriousAudioTimestamp = false;
 
+  /**
+   * Whether to measure the processing time, throughput and buffered duration of each active
+   * {@link AudioProcessor}, and report them periodically via {@link
+   * Listener#onAudioProcessorStats(AudioProcessorStats[])}.
+   * <p>
+   * The flag must be set before creating a player.
+   */
+  public static boolean enableAudioProcessorStats = false;
+
+  /**
+   * Whether to run the audio processors and write PCM audio to the {@link AudioTrack} on a dedicated
+   * audio thread with {@link Process#THREAD_PRIORITY_URGENT_AUDIO}, rather than on the thread that
+   * calls into the sink. The audio thread is not used for encoded audio, in tunneling mode or on
+   * platform builds where {@link Util#SDK_INT} &lt; 21.
+   * <p>
+   * The flag must be set before creating a player.
+   */
+  public static boolean enableAudioProcessingThread = false;
+
+  /** The minimum interval between reports of {@link AudioProcessorStats}, in milliseconds. */
+  private static final long AUDIO_PROCESSOR_STATS_INTERVAL_MS = 1000;
+
   @Nullable private final AudioCapabilities audioCapabilities;
   private final AudioProcessorChain audioProcessorChain;
   private final boolean enableConvertHighResIntPcmToFloat;
@@ -232,6 +305,24 @@ public final class DefaultAudioSink implements AudioSink {
   private final ConditionVariable releasingConditionVariable;
   private final AudioTrackPositionTracker audioTrackPositionTracker;
   private final ArrayDeque<PlaybackParametersCheckpoint> playbackParametersCheckpoints;
+  @Nullable private final AudioProcessorStatsTracker audioProcessorStatsTracker;
+  private final boolean enableAudioThread;
+  /**
+   * Guards the audio processors, the audio track output state and the written data counters, which
+   * may be accessed from the audio processing thread.
+   */
+  private final Object audioProcessingLock;
+  /**
+   * The number of output frames skipped by the audio processor chain, published by the thread
+   * processing audio for use on other threads.
+   */
+  private volatile long publishedSkippedOutputFrameCount;
+  /**
+   * The media duration corresponding to {@link #SPEEDUP_REFERENCE_PLAYOUT_DURATION_US} according
+   * to the audio processor chain, published by the thread processing audio for use on other
+   * threads.
+   */
+  private volatile long publishedSpeedupMediaDurationUs;
 
   @Nullable private Listener listener;
   /** Used to keep the audio session active on pre-V21 builds (see {@link #initialize()}). */
@@ -261,7 +352,7 @@ public final class DefaultAudioSink implements AudioSink {
   private long submittedPcmBytes;
   private long submittedEncodedFrames;
   private int outputPcmFrameSize;
-  private long writtenPcmBytes;
+  private volatile long writtenPcmBytes;
   private long writtenEncodedFrames;
   private int framesPerEncodedSample;
   private @StartMediaTimeState int startMediaTimeState;
@@ -277,10 +368,19 @@ public final class DefaultAudioSink implements AudioSink {
   private int drainingAudioProcessorIndex;
   private boolean handledEndOfStream;
 
-  private boolean playing;
+  private volatile boolean playing;
   private int audioSessionId;
   private boolean tunneling;
-  private long lastFeedElapsedRealtimeMs;
+  private volatile long lastFeedElapsedRealtimeMs;
+  private long lastSkippedOutputFrameCount;
+  private long reportedSkippedOutputFrameCount;
+
+  @Nullable private HandlerThread audioThread;
+  @Nullable private Handler audioThreadHandler;
+  @Nullable private PcmRingBuffer audioThreadBuffer;
+  private boolean useAudioThread;
+  private int audioThreadMaxChunkSize;
+  @Nullable private volatile Exception audioThreadException;
 
   /**
    * Creates a new default audio sink.
@@ -360,6 +460,12 @@ public final class DefaultAudioSink implements AudioSink {
     activeAudioProcessors = new AudioProcessor[0];
     outputBuffers = new ByteBuffer[0];
     playbackParametersCheckpoints = new ArrayDeque<>();
+    audioProcessorStatsTracker =
+        enableAudioProcessorStats
+            ? new AudioProcessorStatsTracker(AUDIO_PROCESSOR_STATS_INTERVAL_MS)
+            : null;
+    enableAudioThread = enableAudioProcessingThread;
+    audioProcessingLock = new Object();
   }
 
   // AudioSink implementation.
@@ -417,18 +523,20 @@ public final class DefaultAudioSink implements AudioSink {
     boolean processingEnabled = isInputPcm && inputEncoding != C.ENCODING_PCM_FLOAT;
     canApplyPlaybackParameters = processingEnabled && !shouldConvertHighResIntPcmToFloat;
     if (processingEnabled) {
-      trimmingAudioProcessor.setTrimFrameCount(trimStartFrames, trimEndFrames);
-      channelMappingAudioProcessor.setChannelMap(outputChannels);
-      for (AudioProcessor audioProcessor : getAvailableAudioProcessors()) {
-        try {
-          flush |= audioProcessor.configure(sampleRate, channelCount, encoding);
-        } catch (AudioProcessor.UnhandledFormatException e) {
-          throw new ConfigurationException(e);
-        }
-        if (audioProcessor.isActive()) {
-          channelCount = audioProcessor.getOutputChannelCount();
-          sampleRate = audioProcessor.getOutputSampleRateHz();
-          encoding = audioProcessor.getOutputEncoding();
+      synchronized (audioProcessingLock) {
+        trimmingAudioProcessor.setTrimFrameCount(trimStartFrames, trimEndFrames);
+        channelMappingAudioProcessor.setChannelMap(outputChannels);
+        for (AudioProcessor audioProcessor : getAvailableAudioProcessors()) {
+          try {
+            flush |= audioProcessor.configure(sampleRate, channelCount, encoding);
+          } catch (AudioProcessor.UnhandledFormatException e) {
+            throw new ConfigurationException(e);
+          }
+          if (audioProcessor.isActive()) {
+            channelCount = audioProcessor.getOutputChannelCount();
+            sampleRate = audioProcessor.getOutputSampleRateHz();
+            encoding = audioProcessor.getOutputEncoding();
+          }
         }
       }
     }
@@ -539,6 +647,10 @@ public final class DefaultAudioSink implements AudioSink {
     int count = newAudioProcessors.size();
     activeAudioProcessors = newAudioProcessors.toArray(new AudioProcessor[count]);
     outputBuffers = new ByteBuffer[count];
+    if (audioProcessorStatsTracker != null) {
+      audioProcessorStatsTracker.setAudioProcessors(
+          activeAudioProcessors, inputSampleRate, pcmFrameSize);
+    }
     flushAudioProcessors();
   }
 
@@ -548,6 +660,12 @@ public final class DefaultAudioSink implements AudioSink {
       audioProcessor.flush();
       outputBuffers[i] = audioProcessor.getOutput();
     }
+    if (audioProcessorStatsTracker != null) {
+      audioProcessorStatsTracker.onFlush();
+    }
+    lastSkippedOutputFrameCount = 0;
+    reportedSkippedOutputFrameCount = 0;
+    publishAudioProcessorChainState();
   }
 
   private void initialize() throws InitializationException {
@@ -558,6 +676,12 @@ public final class DefaultAudioSink implements AudioSink {
     // initialization of the audio track to fail.
     releasingConditionVariable.block();
 
+    synchronized (audioProcessingLock) {
+      initializeInternal();
+    }
+  }
+
+  private void initializeInternal() throws InitializationException {
     audioTrack = initializeAudioTrack();
     int audioSessionId = audioTrack.getAudioSessionId();
     if (enablePreV21AudioSessionWorkaround) {
@@ -586,17 +710,43 @@ public final class DefaultAudioSink implements AudioSink {
             : PlaybackParameters.DEFAULT;
     setupAudioProcessors();
 
+    useAudioThread = enableAudioThread && isInputPcm && !tunneling && Util.SDK_INT >= 21;
+    if (useAudioThread) {
+      setupAudioThread();
+      publishAudioProcessorChainState();
+    }
+
     audioTrackPositionTracker.setAudioTrack(
         audioTrack, outputEncoding, outputPcmFrameSize, bufferSize);
     setVolumeInternal();
   }
 
+  private void setupAudioThread() {
+    if (audioThread == null) {
+      audioThread =
+          new HandlerThread("DefaultAudioSink:Audio", Process.THREAD_PRIORITY_URGENT_AUDIO);
+      audioThread.start();
+      audioThreadHandler = new Handler(audioThread.getLooper(), new AudioThreadCallback());
+    }
+    int capacityFrames = (int) inputDurationUsToFrames(AUDIO_THREAD_BUFFER_DURATION_US);
+    if (audioThreadBuffer == null
+        || audioThreadBuffer.getFrameSize() != pcmFrameSize
+        || audioThreadBuffer.getCapacity() != capacityFrames * pcmFrameSize) {
+      audioThreadBuffer = new PcmRingBuffer(pcmFrameSize, capacityFrames);
+    }
+    audioThreadMaxChunkSize =
+        (int) inputDurationUsToFrames(AUDIO_THREAD_MAX_CHUNK_DURATION_US) * pcmFrameSize;
+  }
+
   @Override
   public void play() {
     playing = true;
     if (isInitialized()) {
       audioTrackPositionTracker.start();
       audioTrack.play();
+      if (useAudioThread) {
+        wakeAudioThread();
+      }
     }
   }
 
@@ -613,6 +763,7 @@ public final class DefaultAudioSink implements AudioSink {
   public boolean handleBuffer(ByteBuffer buffer, long presentationTimeUs)
       throws InitializationException, WriteException {
     Assertions.checkArgument(inputBuffer == null || buffer == inputBuffer);
+    maybeThrowAudioThreadException();
     if (!isInitialized()) {
       initialize();
       if (playing) {
@@ -644,21 +795,24 @@ public final class DefaultAudioSink implements AudioSink {
       }
 
       if (afterDrainPlaybackParameters != null) {
-        if (!drainAudioProcessorsToEndOfStream()) {
-          // Don't process any more input until draining completes.
-          return false;
+        synchronized (audioProcessingLock) {
+          if (!drainAudioProcessorsToEndOfStream()) {
+            // Don't process any more input until draining completes.
+            return false;
+          }
+          PlaybackParameters newPlaybackParameters = afterDrainPlaybackParameters;
+          afterDrainPlaybackParameters = null;
+          newPlaybackParameters =
+              audioProcessorChain.applyPlaybackParameters(newPlaybackParameters);
+          // Store the position and corresponding media time from which the parameters will apply.
+          playbackParametersCheckpoints.add(
+              new PlaybackParametersCheckpoint(
+                  newPlaybackParameters,
+                  Math.max(0, presentationTimeUs),
+                  framesToDurationUs(getWrittenFrames())));
+          // Update the set of active audio processors to take into account the new parameters.
+          setupAudioProcessors();
         }
-        PlaybackParameters newPlaybackParameters = afterDrainPlaybackParameters;
-        afterDrainPlaybackParameters = null;
-        newPlaybackParameters = audioProcessorChain.applyPlaybackParameters(newPlaybackParameters);
-        // Store the position and corresponding media time from which the parameters will apply.
-        playbackParametersCheckpoints.add(
-            new PlaybackParametersCheckpoint(
-                newPlaybackParameters,
-                Math.max(0, presentationTimeUs),
-                framesToDurationUs(getWrittenFrames())));
-        // Update the set of active audio processors to take into account the new parameters.
-        setupAudioProcessors();
       }
 
       if (startMediaTimeState == START_NOT_SET) {
@@ -694,8 +848,18 @@ public final class DefaultAudioSink implements AudioSink {
       inputBuffer = buffer;
     }
 
-    if (processingEnabled) {
-      processBuffers(presentationTimeUs);
+    if (useAudioThread) {
+      // Hand the input over to the audio thread, which processes it and writes it to the track.
+      audioThreadBuffer.write(inputBuffer);
+      wakeAudioThread();
+      if (processingEnabled) {
+        maybeReportAudioProcessorStats();
+        maybeReportSkippedSilence(/* endOfStream= */ false);
+      }
+    } else if (processingEnabled) {
+      processBuffers(inputBuffer, presentationTimeUs);
+      maybeReportAudioProcessorStats();
+      maybeReportSkippedSilence(/* endOfStream= */ false);
     } else {
       writeBuffer(inputBuffer, presentationTimeUs);
     }
@@ -714,19 +878,34 @@ public final class DefaultAudioSink implements AudioSink {
     return false;
   }
 
-  private void processBuffers(long avSyncPresentationTimeUs) throws WriteException {
+  private void processBuffers(ByteBuffer inputBuffer, long avSyncPresentationTimeUs)
+      throws WriteException {
     int count = activeAudioProcessors.length;
     int index = count;
     while (index >= 0) {
-      ByteBuffer input = index > 0 ? outputBuffers[index - 1]
-          : (inputBuffer != null ? inputBuffer : AudioProcessor.EMPTY_BUFFER);
+      ByteBuffer input = index > 0 ? outputBuffers[index - 1] : inputBuffer;
       if (index == count) {
         writeBuffer(input, avSyncPresentationTimeUs);
       } else {
         AudioProcessor audioProcessor = activeAudioProcessors[index];
-        audioProcessor.queueInput(input);
-        ByteBuffer output = audioProcessor.getOutput();
+        int inputPosition = input.position();
+        long startTimeNs = audioProcessorStatsTracker != null ? System.nanoTime() : 0;
+        TraceUtil.beginSection("processAudio");
+        ByteBuffer output;
+        try {
+          audioProcessor.queueInput(input);
+          output = audioProcessor.getOutput();
+        } finally {
+          TraceUtil.endSection();
+        }
         outputBuffers[index] = output;
+        if (audioProcessorStatsTracker != null) {
+          audioProcessorStatsTracker.onProcessed(
+              index,
+              System.nanoTime() - startTimeNs,
+              input.position() - inputPosition,
+              output.remaining());
+        }
         if (output.hasRemaining()) {
           // Handle the output as input to the next audio processor or the AudioTrack.
           index++;
@@ -742,6 +921,66 @@ public final class DefaultAudioSink implements AudioSink {
       // Get more input from upstream.
       index--;
     }
+    publishAudioProcessorChainState();
+  }
+
+  /**
+   * Publishes the state of the audio processor chain that is needed to calculate the current
+   * position, so that it can be read without holding {@link #audioProcessingLock} while audio is
+   * processed on the audio thread.
+   */
+  private void publishAudioProcessorChainState() {
+    if (!useAudioThread) {
+      return;
+    }
+    publishedSkippedOutputFrameCount = audioProcessorChain.getSkippedOutputFrameCount();
+    publishedSpeedupMediaDurationUs =
+        audioProcessorChain.getMediaDuration(SPEEDUP_REFERENCE_PLAYOUT_DURATION_US);
+  }
+
+  private long getSkippedOutputFrameCount() {
+    return useAudioThread
+        ? publishedSkippedOutputFrameCount
+        : audioProcessorChain.getSkippedOutputFrameCount();
+  }
+
+  private long getMediaDuration(long playoutDurationUs) {
+    return useAudioThread
+        ? Util.scaleLargeTimestamp(
+            playoutDurationUs,
+            publishedSpeedupMediaDurationUs,
+            SPEEDUP_REFERENCE_PLAYOUT_DURATION_US)
+        : audioProcessorChain.getMediaDuration(playoutDurationUs);
+  }
+
+  private void maybeReportAudioProcessorStats() {
+    if (audioProcessorStatsTracker == null) {
+      return;
+    }
+    AudioProcessorStats[] stats;
+    synchronized (audioProcessingLock) {
+      stats = audioProcessorStatsTracker.maybeBuildReport(SystemClock.elapsedRealtime());
+    }
+    if (stats != null && listener != null) {
+      listener.onAudioProcessorStats(stats);
+    }
+  }
+
+  /**
+   * Reports the duration of silence skipped since the last report, once the skipped frame count
+   * has stopped increasing or at the end of the stream.
+   */
+  private void maybeReportSkippedSilence(boolean endOfStream) {
+    long skippedOutputFrameCount = getSkippedOutputFrameCount();
+    if ((endOfStream || skippedOutputFrameCount == lastSkippedOutputFrameCount)
+        && skippedOutputFrameCount > reportedSkippedOutputFrameCount) {
+      if (listener != null) {
+        listener.onSilenceSkipped(
+            framesToDurationUs(skippedOutputFrameCount - reportedSkippedOutputFrameCount));
+      }
+      reportedSkippedOutputFrameCount = skippedOutputFrameCount;
+    }
+    lastSkippedOutputFrameCount = skippedOutputFrameCount;
   }
 
   @SuppressWarnings("ReferenceEquality")
@@ -766,23 +1005,29 @@ public final class DefaultAudioSink implements AudioSink {
     }
     int bytesRemaining = buffer.remaining();
     int bytesWritten = 0;
-    if (Util.SDK_INT < 21) { // isInputPcm == true
-      // Work out how many bytes we can write without the risk of blocking.
-      int bytesToWrite = audioTrackPositionTracker.getAvailableBufferSize(writtenPcmBytes);
-      if (bytesToWrite > 0) {
-        bytesToWrite = Math.min(bytesRemaining, bytesToWrite);
-        bytesWritten = audioTrack.write(preV21OutputBuffer, preV21OutputBufferOffset, bytesToWrite);
-        if (bytesWritten > 0) {
-          preV21OutputBufferOffset += bytesWritten;
-          buffer.position(buffer.position() + bytesWritten);
+    TraceUtil.beginSection("writeAudioTrack");
+    try {
+      if (Util.SDK_INT < 21) { // isInputPcm == true
+        // Work out how many bytes we can write without the risk of blocking.
+        int bytesToWrite = audioTrackPositionTracker.getAvailableBufferSize(writtenPcmBytes);
+        if (bytesToWrite > 0) {
+          bytesToWrite = Math.min(bytesRemaining, bytesToWrite);
+          bytesWritten =
+              audioTrack.write(preV21OutputBuffer, preV21OutputBufferOffset, bytesToWrite);
+          if (bytesWritten > 0) {
+            preV21OutputBufferOffset += bytesWritten;
+            buffer.position(buffer.position() + bytesWritten);
+          }
         }
+      } else if (tunneling) {
+        Assertions.checkState(avSyncPresentationTimeUs != C.TIME_UNSET);
+        bytesWritten = writeNonBlockingWithAvSyncV21(audioTrack, buffer, bytesRemaining,
+            avSyncPresentationTimeUs);
+      } else {
+        bytesWritten = writeNonBlockingV21(audioTrack, buffer, bytesRemaining);
       }
-    } else if (tunneling) {
-      Assertions.checkState(avSyncPresentationTimeUs != C.TIME_UNSET);
-      bytesWritten = writeNonBlockingWithAvSyncV21(audioTrack, buffer, bytesRemaining,
-          avSyncPresentationTimeUs);
-    } else {
-      bytesWritten = writeNonBlockingV21(audioTrack, buffer, bytesRemaining);
+    } finally {
+      TraceUtil.endSection();
     }
 
     lastFeedElapsedRealtimeMs = SystemClock.elapsedRealtime();
@@ -807,17 +1052,28 @@ public final class DefaultAudioSink implements AudioSink {
     if (handledEndOfStream || !isInitialized()) {
       return;
     }
+    maybeThrowAudioThreadException();
 
-    if (drainAudioProcessorsToEndOfStream()) {
-      // The audio processors have drained, so drain the underlying audio track.
-      audioTrackPositionTracker.handleEndOfStream(getWrittenFrames());
-      audioTrack.stop();
-      bytesUntilNextAvSync = 0;
-      handledEndOfStream = true;
+    synchronized (audioProcessingLock) {
+      if (drainAudioProcessorsToEndOfStream()) {
+        // The audio processors have drained, so drain the underlying audio track.
+        audioTrackPositionTracker.handleEndOfStream(getWrittenFrames());
+        audioTrack.stop();
+        bytesUntilNextAvSync = 0;
+        handledEndOfStream = true;
+      }
+    }
+    if (handledEndOfStream && processingEnabled) {
+      maybeReportSkippedSilence(/* endOfStream= */ true);
     }
   }
 
   private boolean drainAudioProcessorsToEndOfStream() throws WriteException {
+    if (useAudioThread && !audioThreadBuffer.isEmpty()) {
+      // Wait for the audio thread to process all pending input before draining.
+      wakeAudioThread();
+      return false;
+    }
     boolean audioProcessorNeedsEndOfStream = false;
     if (drainingAudioProcessorIndex == C.INDEX_UNSET) {
       drainingAudioProcessorIndex = processingEnabled ? 0 : activeAudioProcessors.length;
@@ -828,7 +1084,7 @@ public final class DefaultAudioSink implements AudioSink {
       if (audioProcessorNeedsEndOfStream) {
         audioProcessor.queueEndOfStream();
       }
-      processBuffers(C.TIME_UNSET);
+      processBuffers(AudioProcessor.EMPTY_BUFFER, C.TIME_UNSET);
       if (!audioProcessor.isEnded()) {
         return false;
       }
@@ -854,7 +1110,9 @@ public final class DefaultAudioSink implements AudioSink {
 
   @Override
   public boolean hasPendingData() {
-    return isInitialized() && audioTrackPositionTracker.hasPendingData(getWrittenFrames());
+    return isInitialized()
+        && (audioTrackPositionTracker.hasPendingData(getWrittenFrames())
+            || (useAudioThread && !audioThreadBuffer.isEmpty()));
   }
 
   @Override
@@ -956,7 +1214,18 @@ public final class DefaultAudioSink implements AudioSink {
 
   @Override
   public void reset() {
+    synchronized (audioProcessingLock) {
+      resetInternal();
+    }
+  }
+
+  private void resetInternal() {
     if (isInitialized()) {
+      if (useAudioThread) {
+        audioThreadHandler.removeMessages(MSG_PROCESS_AUDIO);
+        audioThreadBuffer.clear();
+        audioThreadException = null;
+      }
       submittedPcmBytes = 0;
       submittedEncodedFrames = 0;
       writtenPcmBytes = 0;
@@ -1011,6 +1280,14 @@ public final class DefaultAudioSink implements AudioSink {
     for (AudioProcessor audioProcessor : toFloatPcmAvailableAudioProcessors) {
       audioProcessor.reset();
     }
+    synchronized (audioProcessingLock) {
+      if (audioThread != null) {
+        audioThread.quit();
+        audioThread = null;
+        audioThreadHandler = null;
+        audioThreadBuffer = null;
+      }
+    }
     audioSessionId = C.AUDIO_SESSION_ID_UNSET;
     playing = false;
   }
@@ -1034,6 +1311,63 @@ public final class DefaultAudioSink implements AudioSink {
     }.start();
   }
 
+  private void wakeAudioThread() {
+    if (!audioThreadHandler.hasMessages(MSG_PROCESS_AUDIO)) {
+      audioThreadHandler.sendEmptyMessage(MSG_PROCESS_AUDIO);
+    }
+  }
+
+  private void maybeThrowAudioThreadException() throws WriteException {
+    Exception exception = audioThreadException;
+    if (exception == null) {
+      return;
+    }
+    audioThreadException = null;
+    if (exception instanceof WriteException) {
+      throw (WriteException) exception;
+    }
+    throw (RuntimeException) exception;
+  }
+
+  /** Processes pending input and writes it to the audio track. Called on the audio thread. */
+  private void processOnAudioThread() {
+    synchronized (audioProcessingLock) {
+      if (!isInitialized()
+          || !useAudioThread
+          || drainingAudioProcessorIndex != C.INDEX_UNSET
+          || audioThreadException != null) {
+        // The sink has been reset, or the audio processors are being drained on the calling thread.
+        return;
+      }
+      ByteBuffer input = audioThreadBuffer.peek(audioThreadMaxChunkSize);
+      int inputPosition = input.position();
+      long previousWrittenPcmBytes = writtenPcmBytes;
+      try {
+        if (processingEnabled) {
+          processBuffers(input, C.TIME_UNSET);
+        } else {
+          writeBuffer(input, C.TIME_UNSET);
+        }
+      } catch (WriteException | RuntimeException e) {
+        // Rethrown on the calling thread.
+        audioThreadException = e;
+        return;
+      }
+      audioThreadBuffer.skip(input.position() - inputPosition);
+      if (audioThreadBuffer.isEmpty() && outputBuffer == null) {
+        // Wait for more input.
+        return;
+      }
+      if (input.position() != inputPosition || writtenPcmBytes != previousWrittenPcmBytes) {
+        audioThreadHandler.sendEmptyMessage(MSG_PROCESS_AUDIO);
+      } else if (playing) {
+        // The audio track is full, so wait for it to play out some data.
+        audioThreadHandler.sendEmptyMessageDelayed(
+            MSG_PROCESS_AUDIO, AUDIO_THREAD_RETRY_INTERVAL_MS);
+      }
+    }
+  }
+
   private long applySpeedup(long positionUs) {
     @Nullable PlaybackParametersCheckpoint checkpoint = null;
     while (!playbackParametersCheckpoints.isEmpty()
@@ -1053,7 +1387,7 @@ public final class DefaultAudioSink implements AudioSink {
 
     if (playbackParametersCheckpoints.isEmpty()) {
       return playbackParametersOffsetUs
-          + audioProcessorChain.getMediaDuration(positionUs - playbackParametersPositionUs);
+          + getMediaDuration(positionUs - playbackParametersPositionUs);
     }
 
     // We are playing data at a previous playback speed, so fall back to multiplying by the speed.
@@ -1063,7 +1397,7 @@ public final class DefaultAudioSink implements AudioSink {
   }
 
   private long applySkipping(long positionUs) {
-    return positionUs + framesToDurationUs(audioProcessorChain.getSkippedOutputFrameCount());
+    return positionUs + framesToDurationUs(getSkippedOutputFrameCount());
   }
 
   private boolean isInitialized() {
@@ -1074,6 +1408,10 @@ public final class DefaultAudioSink implements AudioSink {
     return (frameCount * C.MICROS_PER_SECOND) / inputSampleRate;
   }
 
+  private long inputDurationUsToFrames(long durationUs) {
+    return (durationUs * inputSampleRate) / C.MICROS_PER_SECOND;
+  }
+
   private long framesToDurationUs(long frameCount) {
     return (frameCount * C.MICROS_PER_SECOND) / outputSampleRate;
   }
@@ -1260,6 +1598,15 @@ public final class DefaultAudioSink implements AudioSink {
 
   }
 
+  private final class AudioThreadCallback implements Handler.Callback {
+
+    @Override
+    public boolean handleMessage(Message msg) {
+      processOnAudioThread();
+      return true;
+    }
+  }
+
   private final class PositionTrackerListener implements AudioTrackPositionTracker.Listener {
 
     @Override
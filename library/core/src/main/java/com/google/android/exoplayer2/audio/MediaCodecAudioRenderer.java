@@ -77,6 +77,7 @@ public class MediaCodecAudioRenderer extends MediaCodecRenderer implements Media
   private int encoderDelay;
   private int encoderPadding;
   private long currentPositionUs;
+  private long pendingOutputBufferTimeUs;
   private boolean allowFirstBufferPositionDiscontinuity;
   private boolean allowPositionDiscontinuity;
 
@@ -436,6 +437,7 @@ public class MediaCodecAudioRenderer extends MediaCodecRenderer implements Media
     super.onPositionReset(positionUs, joining);
     audioSink.reset();
     currentPositionUs = positionUs;
+    pendingOutputBufferTimeUs = C.TIME_UNSET;
     allowFirstBufferPositionDiscontinuity = true;
     allowPositionDiscontinuity = true;
   }
@@ -477,6 +479,17 @@ public class MediaCodecAudioRenderer extends MediaCodecRenderer implements Media
     return audioSink.hasPendingData() || super.isReady();
   }
 
+  @Override
+  public long getDurationToProgressUs(long positionUs, long elapsedRealtimeUs) {
+    if (pendingOutputBufferTimeUs == C.TIME_UNSET || getState() != STATE_STARTED) {
+      return C.TIME_UNSET;
+    }
+    // The sink is full up to the output buffer it rejected. Ask to be called again once half of
+    // the audio it holds has played out, so that it never runs dry.
+    float speed = audioSink.getPlaybackParameters().speed;
+    return Math.max(0, (long) ((pendingOutputBufferTimeUs - positionUs) / speed / 2));
+  }
+
   @Override
   public long getPositionUs() {
     if (getState() == STATE_STARTED) {
@@ -512,6 +525,7 @@ public class MediaCodecAudioRenderer extends MediaCodecRenderer implements Media
   protected boolean processOutputBuffer(long positionUs, long elapsedRealtimeUs, MediaCodec codec,
       ByteBuffer buffer, int bufferIndex, int bufferFlags, long bufferPresentationTimeUs,
       boolean shouldSkip) throws ExoPlaybackException {
+    pendingOutputBufferTimeUs = C.TIME_UNSET;
     if (passthroughEnabled && (bufferFlags & MediaCodec.BUFFER_FLAG_CODEC_CONFIG) != 0) {
       // Discard output buffers from the passthrough (raw) decoder containing codec specific data.
       codec.releaseOutputBuffer(bufferIndex, false);
@@ -534,6 +548,7 @@ public class MediaCodecAudioRenderer extends MediaCodecRenderer implements Media
     } catch (AudioSink.InitializationException | AudioSink.WriteException e) {
       throw ExoPlaybackException.createForRenderer(e, getIndex());
     }
+    pendingOutputBufferTimeUs = bufferPresentationTimeUs;
     return false;
   }
 
@@ -708,6 +723,16 @@ public class MediaCodecAudioRenderer extends MediaCodecRenderer implements Media
       onAudioTrackUnderrun(bufferSize, bufferSizeMs, elapsedSinceLastFeedMs);
     }
 
+    @Override
+    public void onAudioProcessorStats(AudioProcessorStats[] stats) {
+      eventDispatcher.audioProcessorStats(stats);
+    }
+
+    @Override
+    public void onSilenceSkipped(long skippedDurationUs) {
+      eventDispatcher.silenceSkipped(skippedDurationUs);
+    }
+
   }
 
 }
@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2.audio;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * A lock-free ring buffer of PCM audio for exactly one producer thread and one consumer thread.
+ * <p>
+ * Data is only ever written and read in whole frames, so every readable region is frame aligned.
+ * The producer calls {@link #write(ByteBuffer)}. The consumer calls {@link #peek(int)} and {@link
+ * #skip(int)}. {@link #clear()} may only be called while the consumer is not accessing the buffer.
+ */
+/* package */ final class PcmRingBuffer {
+
+  private final int frameSize;
+  private final int capacity;
+  private final ByteBuffer buffer;
+  private final ByteBuffer writeView;
+  private final ByteBuffer readView;
+
+  private volatile long writePosition;
+  private volatile long readPosition;
+
+  /**
+   * @param frameSize The size of one frame of audio, in bytes.
+   * @param capacityFrames The capacity of the buffer, in frames.
+   */
+  public PcmRingBuffer(int frameSize, int capacityFrames) {
+    this.frameSize = frameSize;
+    capacity = frameSize * capacityFrames;
+    buffer = ByteBuffer.allocateDirect(capacity).order(ByteOrder.nativeOrder());
+    writeView = buffer.duplicate().order(ByteOrder.nativeOrder());
+    readView = buffer.duplicate().order(ByteOrder.nativeOrder());
+  }
+
+  /** Returns the size of one frame of audio held by the buffer, in bytes. */
+  public int getFrameSize() {
+    return frameSize;
+  }
+
+  /** Returns the capacity of the buffer, in bytes. */
+  public int getCapacity() {
+    return capacity;
+  }
+
+  /** Returns the number of bytes that are available to read. */
+  public int getSize() {
+    return (int) (writePosition - readPosition);
+  }
+
+  /** Returns whether there is no data available to read. */
+  public boolean isEmpty() {
+    return writePosition == readPosition;
+  }
+
+  /**
+   * Copies as many whole frames from {@code input} as will fit into the buffer, advancing the
+   * position of {@code input}. Must only be called from the producer thread.
+   *
+   * @param input The buffer from which to copy data.
+   * @return The number of bytes copied.
+   */
+  public int write(ByteBuffer input) {
+    long writePosition = this.writePosition;
+    int free = capacity - (int) (writePosition - readPosition);
+    int length = Math.min(free, input.remaining());
+    length -= length % frameSize;
+    int offset = (int) (writePosition % capacity);
+    int remaining = length;
+    while (remaining > 0) {
+      int segmentLength = Math.min(remaining, capacity - offset);
+      int inputLimit = input.limit();
+      input.limit(input.position() + segmentLength);
+      writeView.limit(offset + segmentLength);
+      writeView.position(offset);
+      writeView.put(input);
+      input.limit(inputLimit);
+      remaining -= segmentLength;
+      offset = 0;
+    }
+    this.writePosition = writePosition + length;
+    return length;
+  }
+
+  /**
+   * Returns a buffer containing the next contiguous region of readable data, which is at most
+   * {@code maxLength} bytes long. The returned buffer is reused by subsequent calls, and reading
+   * from it does not consume data. Call {@link #skip(int)} to consume data. Must only be called
+   * from the consumer thread.
+   *
+   * @param maxLength The maximum length of the returned region, in bytes.
+   * @return A buffer containing readable data, which may be empty.
+   */
+  public ByteBuffer peek(int maxLength) {
+    long readPosition = this.readPosition;
+    int offset = (int) (readPosition % capacity);
+    int length = Math.min((int) (writePosition - readPosition), capacity - offset);
+    length = Math.min(length, maxLength - maxLength % frameSize);
+    readView.limit(offset + length);
+    readView.position(offset);
+    return readView;
+  }
+
+  /**
+   * Consumes data. Must only be called from the consumer thread.
+   *
+   * @param length The number of bytes to consume, which must not exceed {@link #getSize()}.
+   */
+  public void skip(int length) {
+    readPosition += length;
+  }
+
+  /**
+   * Discards all data. Must only be called from the producer thread while the consumer thread is
+   * not accessing the buffer.
+   */
+  public void clear() {
+    readPosition = 0;
+    writePosition = 0;
+  }
+
+}
@@ -18,39 +18,48 @@ package com.google.android.exoplayer2.audio;
 import android.support.annotation.IntDef;
 import com.google.android.exoplayer2.C;
 import com.google.android.exoplayer2.Format;
+import com.google.android.exoplayer2.util.Assertions;
+import com.google.android.exoplayer2.util.Util;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 
 /**
- * An {@link AudioProcessor} that skips silence in the input stream. Input and output are 16-bit
- * PCM.
+ * An {@link AudioProcessor} that skips silence in the input stream. Input and output are 16-bit or
+ * 32-bit float PCM.
+ * <p>
+ * By default, a frame is silent if none of its samples exceed the silence threshold level.
+ * Optionally, the input can instead be classified in blocks of 10 milliseconds, aligned to the
+ * start of the stream, where a block is silent if its root mean square level across all channels
+ * is at most the silence threshold level. This is less sensitive to isolated clicks in otherwise
+ * silent audio. Audio is only skipped once the silence has lasted for the minimum silence
+ * duration, so this is also the duration of audio the processor looks ahead by before it starts to
+ * skip.
  */
 public final class SilenceSkippingAudioProcessor implements AudioProcessor {
 
   /**
-   * The minimum duration of audio that must be below {@link #SILENCE_THRESHOLD_LEVEL} to classify
-   * that part of audio as silent, in microseconds.
+   * The default minimum duration of audio that must be below the silence threshold level to
+   * classify that part of audio as silent, in microseconds.
    */
-  private static final long MINIMUM_SILENCE_DURATION_US = 100_000;
+  public static final long DEFAULT_MINIMUM_SILENCE_DURATION_US = 100_000;
   /**
-   * The duration of silence by which to extend non-silent sections, in microseconds. The value must
-   * not exceed {@link #MINIMUM_SILENCE_DURATION_US}.
+   * The default duration of silence by which to extend non-silent sections, in microseconds. The
+   * value must not exceed {@link #DEFAULT_MINIMUM_SILENCE_DURATION_US}.
    */
-  private static final long PADDING_SILENCE_US = 10_000;
+  public static final long DEFAULT_PADDING_SILENCE_US = 10_000;
   /**
-   * The absolute level below which an individual PCM sample is classified as silent. Note: the
-   * specified value will be rounded so that the threshold check only depends on the more
-   * significant byte, for efficiency.
+   * The default level at or below which 16-bit PCM audio is classified as silent. For float audio
+   * the level is scaled to the range [-1, 1].
    */
-  private static final short SILENCE_THRESHOLD_LEVEL = 1024;
+  public static final short DEFAULT_SILENCE_THRESHOLD_LEVEL = 1024;
 
   /**
-   * Threshold for classifying an individual PCM sample as silent based on its more significant
-   * byte. This is {@link #SILENCE_THRESHOLD_LEVEL} divided by 256 with rounding.
+   * The duration of the blocks of audio that are classified as silent or noisy when using the root
+   * mean square level, in microseconds.
    */
-  private static final byte SILENCE_THRESHOLD_LEVEL_MSB = (SILENCE_THRESHOLD_LEVEL + 128) >> 8;
+  private static final long BLOCK_DURATION_US = 10_000;
 
   /** Trimming states. */
   @Retention(RetentionPolicy.SOURCE)
@@ -67,9 +76,19 @@ public final class SilenceSkippingAudioProcessor implements AudioProcessor {
   /** State when the input is silent. */
   private static final int STATE_SILENT = 2;
 
+  private final long minimumSilenceDurationUs;
+  private final long paddingSilenceUs;
+  private final boolean useRootMeanSquareLevel;
+  private final int silenceThresholdLevelMsb;
+  private final float floatSilenceThresholdLevel;
+  private final long silenceThresholdLevelSquared;
+  private final float floatSilenceThresholdLevelSquared;
+
   private int channelCount;
   private int sampleRateHz;
+  private @C.PcmEncoding int encoding;
   private int bytesPerFrame;
+  private int blockFrameCount;
 
   private boolean enabled;
 
@@ -95,13 +114,71 @@ public final class SilenceSkippingAudioProcessor implements AudioProcessor {
   private int paddingSize;
   private boolean hasOutputNoise;
   private long skippedFrames;
+  private long inputFrameCount;
 
-  /** Creates a new silence trimming audio processor. */
+  /** Creates a new silence trimming audio processor with default parameters. */
   public SilenceSkippingAudioProcessor() {
+    this(
+        DEFAULT_MINIMUM_SILENCE_DURATION_US,
+        DEFAULT_PADDING_SILENCE_US,
+        DEFAULT_SILENCE_THRESHOLD_LEVEL);
+  }
+
+  /**
+   * Creates a new silence trimming audio processor that classifies audio as silent if none of its
+   * samples exceed {@code silenceThresholdLevel}.
+   *
+   * @param minimumSilenceDurationUs The minimum duration of audio that must be below {@code
+   *     silenceThresholdLevel} to classify that part of audio as silent, in microseconds. This is
+   *     also the duration of audio that is buffered while looking ahead for the end of a silence.
+   * @param paddingSilenceUs The duration of silence by which to extend non-silent sections, in
+   *     microseconds. The value must not exceed {@code minimumSilenceDurationUs}.
+   * @param silenceThresholdLevel The level at or below which 16-bit PCM samples are classified as
+   *     silent. For float audio the level is scaled to the range [-1, 1]. Must not be negative.
+   */
+  public SilenceSkippingAudioProcessor(
+      long minimumSilenceDurationUs, long paddingSilenceUs, short silenceThresholdLevel) {
+    this(
+        minimumSilenceDurationUs,
+        paddingSilenceUs,
+        silenceThresholdLevel,
+        /* useRootMeanSquareLevel= */ false);
+  }
+
+  /**
+   * Creates a new silence trimming audio processor.
+   *
+   * @param minimumSilenceDurationUs The minimum duration of audio that must be below {@code
+   *     silenceThresholdLevel} to classify that part of audio as silent, in microseconds. This is
+   *     also the duration of audio that is buffered while looking ahead for the end of a silence.
+   * @param paddingSilenceUs The duration of silence by which to extend non-silent sections, in
+   *     microseconds. The value must not exceed {@code minimumSilenceDurationUs}.
+   * @param silenceThresholdLevel The level at or below which 16-bit PCM audio is classified as
+   *     silent. For float audio the level is scaled to the range [-1, 1]. Must not be negative.
+   * @param useRootMeanSquareLevel Whether to classify the input in blocks of 10 milliseconds by
+   *     comparing their root mean square level with {@code silenceThresholdLevel}, rather than
+   *     comparing the level of each sample.
+   */
+  public SilenceSkippingAudioProcessor(
+      long minimumSilenceDurationUs,
+      long paddingSilenceUs,
+      short silenceThresholdLevel,
+      boolean useRootMeanSquareLevel) {
+    Assertions.checkArgument(paddingSilenceUs <= minimumSilenceDurationUs);
+    Assertions.checkArgument(silenceThresholdLevel >= 0);
+    this.minimumSilenceDurationUs = minimumSilenceDurationUs;
+    this.paddingSilenceUs = paddingSilenceUs;
+    this.useRootMeanSquareLevel = useRootMeanSquareLevel;
+    // At most 128, which is not exceeded by the absolute value of any most significant byte.
+    silenceThresholdLevelMsb = (silenceThresholdLevel + 128) >> 8;
+    silenceThresholdLevelSquared = (long) silenceThresholdLevel * silenceThresholdLevel;
+    floatSilenceThresholdLevel = silenceThresholdLevel / 32768f;
+    floatSilenceThresholdLevelSquared = floatSilenceThresholdLevel * floatSilenceThresholdLevel;
     buffer = EMPTY_BUFFER;
     outputBuffer = EMPTY_BUFFER;
     channelCount = Format.NO_VALUE;
     sampleRateHz = Format.NO_VALUE;
+    encoding = C.ENCODING_INVALID;
     maybeSilenceBuffer = new byte[0];
     paddingBuffer = new byte[0];
   }
@@ -130,15 +207,19 @@ public final class SilenceSkippingAudioProcessor implements AudioProcessor {
   @Override
   public boolean configure(int sampleRateHz, int channelCount, int encoding)
       throws UnhandledFormatException {
-    if (encoding != C.ENCODING_PCM_16BIT) {
+    if (encoding != C.ENCODING_PCM_16BIT && encoding != C.ENCODING_PCM_FLOAT) {
       throw new UnhandledFormatException(sampleRateHz, channelCount, encoding);
     }
-    if (this.sampleRateHz == sampleRateHz && this.channelCount == channelCount) {
+    if (this.sampleRateHz == sampleRateHz
+        && this.channelCount == channelCount
+        && this.encoding == encoding) {
       return false;
     }
     this.sampleRateHz = sampleRateHz;
     this.channelCount = channelCount;
-    bytesPerFrame = channelCount * 2;
+    this.encoding = encoding;
+    bytesPerFrame = Util.getPcmFrameSize(encoding, channelCount);
+    blockFrameCount = Math.max(1, durationUsToFrames(BLOCK_DURATION_US));
     return true;
   }
 
@@ -154,7 +235,7 @@ public final class SilenceSkippingAudioProcessor implements AudioProcessor {
 
   @Override
   public @C.Encoding int getOutputEncoding() {
-    return C.ENCODING_PCM_16BIT;
+    return encoding;
   }
 
   @Override
@@ -165,6 +246,7 @@ public final class SilenceSkippingAudioProcessor implements AudioProcessor {
   @Override
   public void queueInput(ByteBuffer inputBuffer) {
     while (inputBuffer.hasRemaining() && !outputBuffer.hasRemaining()) {
+      int position = inputBuffer.position();
       switch (state) {
         case STATE_NOISY:
           processNoisy(inputBuffer);
@@ -178,6 +260,7 @@ public final class SilenceSkippingAudioProcessor implements AudioProcessor {
         default:
           throw new IllegalStateException();
       }
+      inputFrameCount += (inputBuffer.position() - position) / bytesPerFrame;
     }
   }
 
@@ -209,11 +292,11 @@ public final class SilenceSkippingAudioProcessor implements AudioProcessor {
   @Override
   public void flush() {
     if (isActive()) {
-      int maybeSilenceBufferSize = durationUsToFrames(MINIMUM_SILENCE_DURATION_US) * bytesPerFrame;
+      int maybeSilenceBufferSize = durationUsToFrames(minimumSilenceDurationUs) * bytesPerFrame;
       if (maybeSilenceBuffer.length != maybeSilenceBufferSize) {
         maybeSilenceBuffer = new byte[maybeSilenceBufferSize];
       }
-      paddingSize = durationUsToFrames(PADDING_SILENCE_US) * bytesPerFrame;
+      paddingSize = durationUsToFrames(paddingSilenceUs) * bytesPerFrame;
       if (paddingBuffer.length != paddingSize) {
         paddingBuffer = new byte[paddingSize];
       }
@@ -222,6 +305,7 @@ public final class SilenceSkippingAudioProcessor implements AudioProcessor {
     outputBuffer = EMPTY_BUFFER;
     inputEnded = false;
     skippedFrames = 0;
+    inputFrameCount = 0;
     maybeSilenceBufferSize = 0;
     hasOutputNoise = false;
   }
@@ -233,6 +317,7 @@ public final class SilenceSkippingAudioProcessor implements AudioProcessor {
     buffer = EMPTY_BUFFER;
     channelCount = Format.NO_VALUE;
     sampleRateHz = Format.NO_VALUE;
+    encoding = C.ENCODING_INVALID;
     paddingSize = 0;
     maybeSilenceBuffer = new byte[0];
     paddingBuffer = new byte[0];
@@ -381,32 +466,137 @@ public final class SilenceSkippingAudioProcessor implements AudioProcessor {
   }
 
   /**
-   * Returns the earliest byte position in [position, limit) of {@code buffer} that contains a frame
-   * classified as a noisy frame, or the limit of the buffer if no such frame exists.
+   * Returns the earliest byte position in [position, limit) of {@code buffer} that starts a frame
+   * or block classified as noisy, or the limit of the buffer if no such frame or block exists.
    */
   private int findNoisePosition(ByteBuffer buffer) {
-    // The input is in ByteOrder.nativeOrder(), which is little endian on Android.
-    for (int i = buffer.position() + 1; i < buffer.limit(); i += 2) {
-      if (Math.abs(buffer.get(i)) > SILENCE_THRESHOLD_LEVEL_MSB) {
-        // Round to the start of the frame.
-        return bytesPerFrame * (i / bytesPerFrame);
+    if (!useRootMeanSquareLevel) {
+      return findNoisySamplePosition(buffer);
+    }
+    int position = buffer.position();
+    int limit = buffer.limit();
+    int blockStart = position;
+    int blockEnd = getFirstBlockBoundary(position);
+    if (blockEnd == position) {
+      blockEnd += blockFrameCount * bytesPerFrame;
+    }
+    while (blockStart < limit) {
+      blockEnd = Math.min(blockEnd, limit);
+      if (isNoisy(buffer, blockStart, blockEnd)) {
+        return blockStart;
       }
+      blockStart = blockEnd;
+      blockEnd += blockFrameCount * bytesPerFrame;
     }
-    return buffer.limit();
+    return limit;
   }
 
   /**
    * Returns the earliest byte position in [position, limit) of {@code buffer} such that all frames
-   * from the byte position to the limit are classified as silent.
+   * or blocks from the byte position to the limit are classified as silent.
    */
   private int findNoiseLimit(ByteBuffer buffer) {
-    // The input is in ByteOrder.nativeOrder(), which is little endian on Android.
-    for (int i = buffer.limit() - 1; i >= buffer.position(); i -= 2) {
-      if (Math.abs(buffer.get(i)) > SILENCE_THRESHOLD_LEVEL_MSB) {
-        // Return the start of the next frame.
-        return bytesPerFrame * (i / bytesPerFrame) + bytesPerFrame;
+    if (!useRootMeanSquareLevel) {
+      return findNoisySampleLimit(buffer);
+    }
+    int position = buffer.position();
+    int limit = buffer.limit();
+    int blockSize = blockFrameCount * bytesPerFrame;
+    int firstBlockBoundary = getFirstBlockBoundary(position);
+    int blockStart =
+        limit - 1 < firstBlockBoundary
+            ? position
+            : firstBlockBoundary + ((limit - 1 - firstBlockBoundary) / blockSize) * blockSize;
+    int blockEnd = limit;
+    while (blockEnd > position) {
+      if (isNoisy(buffer, blockStart, blockEnd)) {
+        return blockEnd;
+      }
+      blockEnd = blockStart;
+      blockStart = Math.max(position, blockStart - blockSize);
+    }
+    return position;
+  }
+
+  /**
+   * Returns the start of the earliest frame in [position, limit) of {@code buffer} that contains a
+   * sample exceeding the silence threshold level, or the limit of the buffer if no such frame
+   * exists.
+   */
+  private int findNoisySamplePosition(ByteBuffer buffer) {
+    if (encoding == C.ENCODING_PCM_16BIT) {
+      // The input is in ByteOrder.nativeOrder(), which is little endian on Android.
+      for (int i = buffer.position() + 1; i < buffer.limit(); i += 2) {
+        if (Math.abs(buffer.get(i)) > silenceThresholdLevelMsb) {
+          // Round to the start of the frame.
+          return bytesPerFrame * (i / bytesPerFrame);
+        }
+      }
+    } else {
+      for (int i = buffer.position(); i < buffer.limit(); i += 4) {
+        if (Math.abs(buffer.getFloat(i)) > floatSilenceThresholdLevel) {
+          // Round to the start of the frame.
+          return bytesPerFrame * (i / bytesPerFrame);
+        }
+      }
+    }
+    return buffer.limit();
+  }
+
+  /**
+   * Returns the earliest byte position in [position, limit) of {@code buffer} such that no samples
+   * from the byte position to the limit exceed the silence threshold level.
+   */
+  private int findNoisySampleLimit(ByteBuffer buffer) {
+    if (encoding == C.ENCODING_PCM_16BIT) {
+      // The input is in ByteOrder.nativeOrder(), which is little endian on Android.
+      for (int i = buffer.limit() - 1; i >= buffer.position(); i -= 2) {
+        if (Math.abs(buffer.get(i)) > silenceThresholdLevelMsb) {
+          // Return the start of the next frame.
+          return bytesPerFrame * (i / bytesPerFrame) + bytesPerFrame;
+        }
+      }
+    } else {
+      for (int i = buffer.limit() - 4; i >= buffer.position(); i -= 4) {
+        if (Math.abs(buffer.getFloat(i)) > floatSilenceThresholdLevel) {
+          // Return the start of the next frame.
+          return bytesPerFrame * (i / bytesPerFrame) + bytesPerFrame;
+        }
       }
     }
     return buffer.position();
   }
+
+  /**
+   * Returns the first byte position at or after {@code position} that is at the start of a block,
+   * where {@code position} corresponds to the current input frame count.
+   */
+  private int getFirstBlockBoundary(int position) {
+    int framesIntoBlock = (int) (inputFrameCount % blockFrameCount);
+    return framesIntoBlock == 0
+        ? position
+        : position + (blockFrameCount - framesIntoBlock) * bytesPerFrame;
+  }
+
+  /**
+   * Returns whether the root mean square level of the samples in [start, end) of {@code buffer}
+   * exceeds the silence threshold level.
+   */
+  private boolean isNoisy(ByteBuffer buffer, int start, int end) {
+    if (encoding == C.ENCODING_PCM_16BIT) {
+      long sumOfSquares = 0;
+      for (int i = start; i < end; i += 2) {
+        int sample = buffer.getShort(i);
+        sumOfSquares += sample * sample;
+      }
+      return sumOfSquares > silenceThresholdLevelSquared * ((end - start) / 2);
+    } else {
+      float sumOfSquares = 0;
+      for (int i = start; i < end; i += 4) {
+        float sample = buffer.getFloat(i);
+        sumOfSquares += sample * sample;
+      }
+      return sumOfSquares > floatSilenceThresholdLevelSquared * ((end - start) / 4);
+    }
+  }
 }
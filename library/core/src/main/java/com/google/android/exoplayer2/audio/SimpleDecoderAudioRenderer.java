@@ -483,6 +483,18 @@ public abstract class SimpleDecoderAudioRenderer extends BaseRenderer implements
         || (inputFormat != null && !waitingForKeys && (isSourceReady() || outputBuffer != null));
   }
 
+  @Override
+  public long getDurationToProgressUs(long positionUs, long elapsedRealtimeUs) {
+    if (outputBuffer == null || getState() != STATE_STARTED) {
+      return C.TIME_UNSET;
+    }
+    // An output buffer is only held between calls to render if the sink was full, in which case the
+    // sink holds the audio up to the held buffer. Ask to be called again once half of that audio
+    // has played out, so that the sink never runs dry.
+    float speed = audioSink.getPlaybackParameters().speed;
+    return Math.max(0, (long) ((outputBuffer.timeUs - positionUs) / speed / 2));
+  }
+
   @Override
   public long getPositionUs() {
     if (getState() == STATE_STARTED) {
@@ -712,6 +724,16 @@ public abstract class SimpleDecoderAudioRenderer extends BaseRenderer implements
       onAudioTrackUnderrun(bufferSize, bufferSizeMs, elapsedSinceLastFeedMs);
     }
 
+    @Override
+    public void onAudioProcessorStats(AudioProcessorStats[] stats) {
+      eventDispatcher.audioProcessorStats(stats);
+    }
+
+    @Override
+    public void onSilenceSkipped(long skippedDurationUs) {
+      eventDispatcher.silenceSkipped(skippedDurationUs);
+    }
+
   }
 
 }
@@ -30,6 +30,16 @@ public abstract class OutputBuffer extends Buffer {
    */
   public int skippedOutputBufferCount;
 
+  /**
+   * Ensures that the buffer is able to hold at least {@code size} bytes of decoded output without
+   * being reallocated. The default implementation does nothing.
+   *
+   * @param size The required size, in bytes.
+   */
+  public void ensureSpaceForWrite(int size) {
+    // Do nothing.
+  }
+
   /**
    * Releases the output buffer for reuse. Must be called when the buffer is no longer needed.
    */
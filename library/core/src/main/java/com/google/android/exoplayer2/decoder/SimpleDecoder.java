@@ -17,6 +17,7 @@ package com.google.android.exoplayer2.decoder;
 
 import com.google.android.exoplayer2.C;
 import com.google.android.exoplayer2.util.Assertions;
+import com.google.android.exoplayer2.util.TraceUtil;
 import java.util.ArrayDeque;
 
 /**
@@ -84,6 +85,22 @@ public abstract class SimpleDecoder<I extends DecoderInputBuffer, O extends Outp
     }
   }
 
+  /**
+   * Sets the initial size of each output buffer, so that decoding into an output buffer does not
+   * require it to be reallocated.
+   * <p>
+   * This method should only be called before the decoder is used (i.e. before the first call to
+   * {@link #dequeueInputBuffer()}.
+   *
+   * @param size The required output buffer size.
+   */
+  protected final void setInitialOutputBufferSize(int size) {
+    Assertions.checkState(availableOutputBufferCount == availableOutputBuffers.length);
+    for (O outputBuffer : availableOutputBuffers) {
+      outputBuffer.ensureSpaceForWrite(size);
+    }
+  }
+
   @Override
   public final I dequeueInputBuffer() throws E {
     synchronized (lock) {
@@ -101,6 +118,7 @@ public abstract class SimpleDecoder<I extends DecoderInputBuffer, O extends Outp
       maybeThrowException();
       Assertions.checkArgument(inputBuffer == dequeuedInputBuffer);
       queuedInputBuffers.addLast(inputBuffer);
+      TraceUtil.counter("decoderInputQueueDepth", queuedInputBuffers.size());
       maybeNotifyDecodeLoop();
       dequeuedInputBuffer = null;
     }
@@ -219,6 +237,7 @@ public abstract class SimpleDecoder<I extends DecoderInputBuffer, O extends Outp
       if (inputBuffer.isDecodeOnly()) {
         outputBuffer.addFlag(C.BUFFER_FLAG_DECODE_ONLY);
       }
+      TraceUtil.beginSection("decode");
       try {
         exception = decode(inputBuffer, outputBuffer, resetDecoder);
       } catch (RuntimeException e) {
@@ -230,6 +249,8 @@ public abstract class SimpleDecoder<I extends DecoderInputBuffer, O extends Outp
         // needs to allocate a large amount of memory. We don't want the process to die in this
         // case, but we do want to propagate the error.
         exception = createUnexpectedDecodeException(e);
+      } finally {
+        TraceUtil.endSection();
       }
       if (exception != null) {
         // Memory barrier to ensure that the decoder exception is visible from the playback thread.
@@ -20,6 +20,10 @@ import java.nio.ByteOrder;
 
 /**
  * Buffer for {@link SimpleDecoder} output.
+ * <p>
+ * {@link #data} is always a direct {@link ByteBuffer} in native byte order, so native decoders can
+ * write into it without an intermediate copy. Once allocated, {@link #data} is retained across
+ * calls to {@link #init(long, int)} and {@link #clear()} for as long as its capacity is sufficient.
  */
 public class SimpleOutputBuffer extends OutputBuffer {
 
@@ -40,14 +44,19 @@ public class SimpleOutputBuffer extends OutputBuffer {
    */
   public ByteBuffer init(long timeUs, int size) {
     this.timeUs = timeUs;
-    if (data == null || data.capacity() < size) {
-      data = ByteBuffer.allocateDirect(size).order(ByteOrder.nativeOrder());
-    }
+    ensureSpaceForWrite(size);
     data.position(0);
     data.limit(size);
     return data;
   }
 
+  @Override
+  public void ensureSpaceForWrite(int size) {
+    if (data == null || data.capacity() < size) {
+      data = ByteBuffer.allocateDirect(size).order(ByteOrder.nativeOrder());
+    }
+  }
+
   @Override
   public void clear() {
     super.clear();
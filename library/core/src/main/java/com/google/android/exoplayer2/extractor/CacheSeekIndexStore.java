@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2016 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2.extractor;
+
+import android.support.annotation.Nullable;
+import android.util.Log;
+import com.google.android.exoplayer2.upstream.cache.Cache;
+import com.google.android.exoplayer2.upstream.cache.Cache.CacheException;
+import com.google.android.exoplayer2.upstream.cache.ContentMetadata;
+import com.google.android.exoplayer2.upstream.cache.ContentMetadataMutations;
+
+/**
+ * A {@link SeekIndexStore} that stores indices in the {@link ContentMetadata} of a {@link Cache},
+ * alongside the cached data of the stream.
+ */
+public final class CacheSeekIndexStore implements SeekIndexStore {
+
+  private static final String TAG = "CacheSeekIndexStore";
+  private static final String METADATA_NAME_SEEK_INDEX =
+      ContentMetadata.INTERNAL_METADATA_NAME_PREFIX + "seek_index";
+
+  private final Cache cache;
+
+  /**
+   * @param cache The cache in which to store indices. Keys should be the same cache keys that are
+   *     used to cache the streams.
+   */
+  public CacheSeekIndexStore(Cache cache) {
+    this.cache = cache;
+  }
+
+  @Override
+  public @Nullable SeekIndex load(String key) {
+    byte[] data = cache.getContentMetadata(key).get(METADATA_NAME_SEEK_INDEX, (byte[]) null);
+    return data != null ? SeekIndex.fromByteArray(data) : null;
+  }
+
+  @Override
+  public void save(String key, SeekIndex seekIndex) {
+    ContentMetadataMutations mutations = new ContentMetadataMutations();
+    mutations.set(METADATA_NAME_SEEK_INDEX, seekIndex.toByteArray());
+    try {
+      cache.applyContentMetadataMutations(key, mutations);
+    } catch (CacheException e) {
+      Log.w(TAG, "Failed to store seek index.", e);
+    }
+  }
+
+}
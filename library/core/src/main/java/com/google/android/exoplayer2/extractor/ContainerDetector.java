@@ -0,0 +1,345 @@
+/*
+ * Copyright (C) 2016 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2.extractor;
+
+import android.net.Uri;
+import android.support.annotation.IntDef;
+import android.support.annotation.Nullable;
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.extractor.amr.AmrExtractor;
+import com.google.android.exoplayer2.extractor.flv.FlvExtractor;
+import com.google.android.exoplayer2.extractor.mkv.MatroskaExtractor;
+import com.google.android.exoplayer2.extractor.mp3.Mp3Extractor;
+import com.google.android.exoplayer2.extractor.mp4.FragmentedMp4Extractor;
+import com.google.android.exoplayer2.extractor.mp4.Mp4Extractor;
+import com.google.android.exoplayer2.extractor.ogg.OggExtractor;
+import com.google.android.exoplayer2.extractor.ts.Ac3Extractor;
+import com.google.android.exoplayer2.extractor.ts.AdtsExtractor;
+import com.google.android.exoplayer2.extractor.ts.PsExtractor;
+import com.google.android.exoplayer2.extractor.ts.TsExtractor;
+import com.google.android.exoplayer2.extractor.wav.WavExtractor;
+import com.google.android.exoplayer2.util.Util;
+import java.io.EOFException;
+import java.io.IOException;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Ranks candidate extractors before sniffing, so that the extractor most likely to read a stream
+ * is sniffed first.
+ * <p>
+ * The container is guessed from the magic number at the start of the stream, falling back to the
+ * file extension of its {@link Uri} if the magic number is missing or ambiguous. Ranking never
+ * excludes an extractor, so a wrong guess only costs the sniffing time it would have cost anyway.
+ * <p>
+ * Only the extractors provided by the library are recognized, by their exact class. Other
+ * extractors, such as custom ones or subclasses, have an unknown container type and keep their
+ * position in the sniffing order.
+ */
+public final class ContainerDetector {
+
+  /** Container types that can be detected. */
+  @Retention(RetentionPolicy.SOURCE)
+  @IntDef({
+    TYPE_UNKNOWN,
+    TYPE_MATROSKA,
+    TYPE_MP4,
+    TYPE_MP3,
+    TYPE_ADTS,
+    TYPE_AC3,
+    TYPE_TS,
+    TYPE_FLV,
+    TYPE_OGG,
+    TYPE_PS,
+    TYPE_WAV,
+    TYPE_AMR,
+    TYPE_FLAC
+  })
+  /* package */ @interface ContainerType {}
+
+  /* package */ static final int TYPE_UNKNOWN = 0;
+  /* package */ static final int TYPE_MATROSKA = 1;
+  /* package */ static final int TYPE_MP4 = 2;
+  /* package */ static final int TYPE_MP3 = 3;
+  /* package */ static final int TYPE_ADTS = 4;
+  /* package */ static final int TYPE_AC3 = 5;
+  /* package */ static final int TYPE_TS = 6;
+  /* package */ static final int TYPE_FLV = 7;
+  /* package */ static final int TYPE_OGG = 8;
+  /* package */ static final int TYPE_PS = 9;
+  /* package */ static final int TYPE_WAV = 10;
+  /* package */ static final int TYPE_AMR = 11;
+  /* package */ static final int TYPE_FLAC = 12;
+
+  private static final int TS_PACKET_SIZE = 188;
+  private static final int TS_SYNC_BYTE = 0x47;
+
+  /**
+   * The number of bytes peeked to detect the container, which is enough to see the sync byte of the
+   * second transport stream packet.
+   */
+  /* package */ static final int HEADER_LENGTH = TS_PACKET_SIZE + 1;
+
+  private static final String FLAC_EXTRACTOR_CLASS_NAME =
+      "com.google.android.exoplayer2.ext.flac.FlacExtractor";
+
+  /** The container types of the recognized extractors, keyed by class name. */
+  private static final Map<String, Integer> EXTRACTOR_TYPES = createExtractorTypes();
+
+  private ContainerDetector() {}
+
+  /**
+   * Returns the extractors in the order in which they should be sniffed. Only the positions held by
+   * recognized extractors are reordered: extractors for the container indicated by the magic
+   * number come first, followed by extractors for the container indicated by the file extension,
+   * followed by all other recognized extractors. Within each group the original order is kept.
+   * Extractors that aren't recognized keep their original positions. The peek position of {@code
+   * input} is reset before returning.
+   *
+   * @param extractors The candidate extractors, in their default sniffing order.
+   * @param input The {@link ExtractorInput} from which data will be read.
+   * @param uri The {@link Uri} of the data, or null if unknown.
+   * @return The ranked extractors. May be {@code extractors} itself if no reordering is needed.
+   * @throws IOException If an error occurred peeking from the input.
+   * @throws InterruptedException If the thread was interrupted.
+   */
+  public static Extractor[] rankExtractors(
+      Extractor[] extractors, ExtractorInput input, @Nullable Uri uri)
+      throws IOException, InterruptedException {
+    if (extractors.length < 2) {
+      return extractors;
+    }
+    @ContainerType int headerType = detectFromHeader(input);
+    @ContainerType int uriType = uri == null ? TYPE_UNKNOWN : detectFromUri(uri);
+    if (headerType == TYPE_UNKNOWN && uriType == TYPE_UNKNOWN) {
+      return extractors;
+    }
+    Extractor[] knownExtractors = new Extractor[extractors.length];
+    int knownCount = 0;
+    int matchCount = 0;
+    for (Extractor extractor : extractors) {
+      if (headerType != TYPE_UNKNOWN && getType(extractor) == headerType) {
+        knownExtractors[knownCount++] = extractor;
+        matchCount++;
+      }
+    }
+    for (Extractor extractor : extractors) {
+      @ContainerType int type = getType(extractor);
+      if (uriType != TYPE_UNKNOWN && type == uriType && type != headerType) {
+        knownExtractors[knownCount++] = extractor;
+        matchCount++;
+      }
+    }
+    if (matchCount == 0) {
+      return extractors;
+    }
+    for (Extractor extractor : extractors) {
+      @ContainerType int type = getType(extractor);
+      if (type != TYPE_UNKNOWN && type != headerType && type != uriType) {
+        knownExtractors[knownCount++] = extractor;
+      }
+    }
+    // Fill the positions of the recognized extractors in ranked order, leaving the others in place.
+    Extractor[] rankedExtractors = new Extractor[extractors.length];
+    int knownIndex = 0;
+    for (int i = 0; i < extractors.length; i++) {
+      rankedExtractors[i] =
+          getType(extractors[i]) == TYPE_UNKNOWN ? extractors[i] : knownExtractors[knownIndex++];
+    }
+    return rankedExtractors;
+  }
+
+  /**
+   * Detects the container from the magic number at the start of a stream.
+   *
+   * @param data An array holding the start of the stream.
+   * @param length The number of valid bytes in {@code data}.
+   * @return The detected container type, or {@link #TYPE_UNKNOWN}.
+   */
+  /* package */ static @ContainerType int detectFromHeader(byte[] data, int length) {
+    if (length >= 4) {
+      int magic = readInt(data, 0);
+      if (magic == 0x1A45DFA3) {
+        return TYPE_MATROSKA;
+      } else if (magic == 0x000001BA) {
+        return TYPE_PS;
+      } else if (magic == Util.getIntegerCodeForString("OggS")) {
+        return TYPE_OGG;
+      } else if (magic == Util.getIntegerCodeForString("fLaC")) {
+        return TYPE_FLAC;
+      } else if (magic == Util.getIntegerCodeForString("RIFF")) {
+        return length >= 12 && readInt(data, 8) == Util.getIntegerCodeForString("WAVE")
+            ? TYPE_WAV : TYPE_UNKNOWN;
+      }
+    }
+    if (length >= 8) {
+      int boxType = readInt(data, 4);
+      if (boxType == Util.getIntegerCodeForString("ftyp")
+          || boxType == Util.getIntegerCodeForString("styp")
+          || boxType == Util.getIntegerCodeForString("moov")
+          || boxType == Util.getIntegerCodeForString("moof")
+          || boxType == Util.getIntegerCodeForString("sidx")) {
+        return TYPE_MP4;
+      }
+    }
+    if (length >= 5 && data[0] == '#' && data[1] == '!' && data[2] == 'A' && data[3] == 'M'
+        && data[4] == 'R') {
+      return TYPE_AMR;
+    }
+    if (length >= 3 && data[0] == 'F' && data[1] == 'L' && data[2] == 'V') {
+      return TYPE_FLV;
+    }
+    if (length > TS_PACKET_SIZE && data[0] == TS_SYNC_BYTE
+        && data[TS_PACKET_SIZE] == TS_SYNC_BYTE) {
+      return TYPE_TS;
+    }
+    if (length >= 2) {
+      int b0 = data[0] & 0xFF;
+      int b1 = data[1] & 0xFF;
+      if (b0 == 0x0B && b1 == 0x77) {
+        return TYPE_AC3;
+      } else if (b0 == 0xFF && (b1 & 0xF6) == 0xF0) {
+        // ADTS sync word with the layer field set to zero.
+        return TYPE_ADTS;
+      } else if (b0 == 0xFF && (b1 & 0xE0) == 0xE0 && (b1 & 0x06) != 0) {
+        // MPEG audio frame sync with a valid layer.
+        return TYPE_MP3;
+      }
+    }
+    // Streams starting with an ID3 tag may be MP3, ADTS or AC-3, so defer to the file extension.
+    return TYPE_UNKNOWN;
+  }
+
+  /**
+   * Detects the container from the file extension of a {@link Uri}.
+   *
+   * @param uri The {@link Uri} of the stream.
+   * @return The detected container type, or {@link #TYPE_UNKNOWN}.
+   */
+  /* package */ static @ContainerType int detectFromUri(Uri uri) {
+    String path = uri.getLastPathSegment();
+    if (path == null) {
+      return TYPE_UNKNOWN;
+    }
+    int extensionIndex = path.lastIndexOf('.');
+    if (extensionIndex == -1) {
+      return TYPE_UNKNOWN;
+    }
+    switch (Util.toLowerInvariant(path.substring(extensionIndex + 1))) {
+      case "mkv":
+      case "mka":
+      case "mks":
+      case "webm":
+        return TYPE_MATROSKA;
+      case "mp4":
+      case "m4a":
+      case "m4v":
+      case "mov":
+      case "3gp":
+      case "cmfa":
+      case "cmfv":
+        return TYPE_MP4;
+      case "mp3":
+        return TYPE_MP3;
+      case "aac":
+      case "adts":
+        return TYPE_ADTS;
+      case "ac3":
+      case "ec3":
+      case "eac3":
+        return TYPE_AC3;
+      case "ts":
+      case "m2ts":
+      case "mts":
+        return TYPE_TS;
+      case "flv":
+        return TYPE_FLV;
+      case "ogg":
+      case "oga":
+      case "opus":
+        return TYPE_OGG;
+      case "ps":
+      case "mpg":
+      case "mpeg":
+      case "vob":
+        return TYPE_PS;
+      case "wav":
+      case "wave":
+        return TYPE_WAV;
+      case "amr":
+        return TYPE_AMR;
+      case "flac":
+        return TYPE_FLAC;
+      default:
+        return TYPE_UNKNOWN;
+    }
+  }
+
+  /**
+   * Returns the container type read by {@code extractor}, or {@link #TYPE_UNKNOWN} if its class is
+   * not one of the recognized extractors.
+   */
+  /* package */ static @ContainerType int getType(Extractor extractor) {
+    Integer type = EXTRACTOR_TYPES.get(extractor.getClass().getName());
+    return type == null ? TYPE_UNKNOWN : type;
+  }
+
+  private static Map<String, Integer> createExtractorTypes() {
+    Map<String, Integer> extractorTypes = new HashMap<>();
+    extractorTypes.put(MatroskaExtractor.class.getName(), TYPE_MATROSKA);
+    extractorTypes.put(FragmentedMp4Extractor.class.getName(), TYPE_MP4);
+    extractorTypes.put(Mp4Extractor.class.getName(), TYPE_MP4);
+    extractorTypes.put(Mp3Extractor.class.getName(), TYPE_MP3);
+    extractorTypes.put(AdtsExtractor.class.getName(), TYPE_ADTS);
+    extractorTypes.put(Ac3Extractor.class.getName(), TYPE_AC3);
+    extractorTypes.put(TsExtractor.class.getName(), TYPE_TS);
+    extractorTypes.put(FlvExtractor.class.getName(), TYPE_FLV);
+    extractorTypes.put(OggExtractor.class.getName(), TYPE_OGG);
+    extractorTypes.put(PsExtractor.class.getName(), TYPE_PS);
+    extractorTypes.put(WavExtractor.class.getName(), TYPE_WAV);
+    extractorTypes.put(AmrExtractor.class.getName(), TYPE_AMR);
+    // The FLAC extractor is in an extension, so it's referenced by name.
+    extractorTypes.put(FLAC_EXTRACTOR_CLASS_NAME, TYPE_FLAC);
+    return extractorTypes;
+  }
+
+  private static @ContainerType int detectFromHeader(ExtractorInput input)
+      throws IOException, InterruptedException {
+    long inputLength = input.getLength();
+    int headerLength = inputLength == C.LENGTH_UNSET
+        ? HEADER_LENGTH : (int) Math.min(HEADER_LENGTH, inputLength);
+    byte[] header = new byte[headerLength];
+    try {
+      if (!input.peekFully(header, 0, headerLength, true)) {
+        return TYPE_UNKNOWN;
+      }
+    } catch (EOFException e) {
+      // The stream is shorter than the header. Leave it to the extractors to decide.
+      return TYPE_UNKNOWN;
+    } finally {
+      input.resetPeekPosition();
+    }
+    return detectFromHeader(header, headerLength);
+  }
+
+  private static int readInt(byte[] data, int offset) {
+    return (data[offset] & 0xFF) << 24 | (data[offset + 1] & 0xFF) << 16
+        | (data[offset + 2] & 0xFF) << 8 | (data[offset + 3] & 0xFF);
+  }
+
+}
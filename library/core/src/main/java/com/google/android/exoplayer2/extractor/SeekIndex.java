@@ -0,0 +1,209 @@
+/*
+ * Copyright (C) 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2.extractor;
+
+import android.support.annotation.Nullable;
+import com.google.android.exoplayer2.util.Util;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+
+/**
+ * An exact index of seek points built while reading a stream, which can be serialized so that it
+ * can be restored when the same stream is read again.
+ *
+ * @see SeekIndexStore
+ * @see SeekIndexingExtractor
+ */
+public final class SeekIndex implements SeekMap {
+
+  private static final int VERSION = 1;
+
+  /**
+   * The number of seek points.
+   */
+  public final int length;
+
+  /**
+   * The seek point times in microseconds, in ascending order.
+   */
+  public final long[] timesUs;
+
+  /**
+   * The seek point byte offsets, in ascending order.
+   */
+  public final long[] positions;
+
+  private final long durationUs;
+
+  /**
+   * @param timesUs The seek point times in microseconds, in ascending order.
+   * @param positions The seek point byte offsets, in ascending order.
+   * @param durationUs The duration of the stream in microseconds.
+   */
+  public SeekIndex(long[] timesUs, long[] positions, long durationUs) {
+    this.timesUs = timesUs;
+    this.positions = positions;
+    this.durationUs = durationUs;
+    length = timesUs.length;
+  }
+
+  /**
+   * Returns the time of the stream at a given position, interpolating between seek points if the
+   * position is not a seek point.
+   *
+   * @param position The position (byte offset) in the stream.
+   * @return The corresponding time in microseconds.
+   */
+  public long getTimeUs(long position) {
+    if (length == 0) {
+      return 0;
+    }
+    int index = Util.binarySearchFloor(positions, position, true, true);
+    if (positions[index] == position || index == length - 1) {
+      return timesUs[index];
+    }
+    long positionOffset = position - positions[index];
+    long positionRange = positions[index + 1] - positions[index];
+    long timeRangeUs = timesUs[index + 1] - timesUs[index];
+    return timesUs[index] + (positionOffset * timeRangeUs) / positionRange;
+  }
+
+  /**
+   * Serializes the index into a compact byte array that can be passed to {@link
+   * #fromByteArray(byte[])}.
+   */
+  public byte[] toByteArray() {
+    ByteArrayOutputStream output = new ByteArrayOutputStream(8 + length * 4);
+    output.write(VERSION);
+    writeVarLong(output, durationUs);
+    writeVarLong(output, length);
+    long previousTimeUs = 0;
+    long previousPosition = 0;
+    for (int i = 0; i < length; i++) {
+      writeVarLong(output, timesUs[i] - previousTimeUs);
+      writeVarLong(output, positions[i] - previousPosition);
+      previousTimeUs = timesUs[i];
+      previousPosition = positions[i];
+    }
+    return output.toByteArray();
+  }
+
+  /**
+   * Deserializes an index serialized by {@link #toByteArray()}.
+   *
+   * @param data The serialized index.
+   * @return The deserialized index, or null if {@code data} is not a valid serialized index.
+   */
+  public static @Nullable SeekIndex fromByteArray(byte[] data) {
+    int[] offset = new int[1];
+    if (data.length == 0 || data[offset[0]++] != VERSION) {
+      return null;
+    }
+    long durationUs = readVarLong(data, offset);
+    long length = readVarLong(data, offset);
+    // Each seek point is serialized into at least two bytes.
+    if (durationUs < 0 || length < 0 || length > (data.length - offset[0]) / 2) {
+      return null;
+    }
+    long[] timesUs = new long[(int) length];
+    long[] positions = new long[(int) length];
+    long timeUs = 0;
+    long position = 0;
+    for (int i = 0; i < length; i++) {
+      long timeDeltaUs = readVarLong(data, offset);
+      long positionDelta = readVarLong(data, offset);
+      if (timeDeltaUs < 0 || positionDelta < 0) {
+        return null;
+      }
+      timeUs += timeDeltaUs;
+      position += positionDelta;
+      timesUs[i] = timeUs;
+      positions[i] = position;
+    }
+    return offset[0] == data.length ? new SeekIndex(timesUs, positions, durationUs) : null;
+  }
+
+  // SeekMap implementation.
+
+  @Override
+  public boolean isSeekable() {
+    return length > 0;
+  }
+
+  @Override
+  public long getDurationUs() {
+    return durationUs;
+  }
+
+  @Override
+  public SeekPoints getSeekPoints(long timeUs) {
+    if (length == 0) {
+      return new SeekPoints(SeekPoint.START);
+    }
+    int index = Util.binarySearchFloor(timesUs, timeUs, true, true);
+    SeekPoint seekPoint = new SeekPoint(timesUs[index], positions[index]);
+    if (seekPoint.timeUs >= timeUs || index == length - 1) {
+      return new SeekPoints(seekPoint);
+    } else {
+      SeekPoint nextSeekPoint = new SeekPoint(timesUs[index + 1], positions[index + 1]);
+      return new SeekPoints(seekPoint, nextSeekPoint);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "SeekIndex("
+        + "length="
+        + length
+        + ", durationUs="
+        + durationUs
+        + ", timesUs="
+        + Arrays.toString(timesUs)
+        + ", positions="
+        + Arrays.toString(positions)
+        + ")";
+  }
+
+  // Internal methods.
+
+  private static void writeVarLong(ByteArrayOutputStream output, long value) {
+    while ((value & ~0x7FL) != 0) {
+      output.write((int) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    output.write((int) value);
+  }
+
+  /**
+   * Reads a variable length value from {@code data} at {@code offset[0]}, advancing the offset.
+   * Returns -1 if the value is malformed or truncated.
+   */
+  private static long readVarLong(byte[] data, int[] offset) {
+    long value = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      if (offset[0] == data.length) {
+        return -1;
+      }
+      int b = data[offset[0]++];
+      value |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    return -1;
+  }
+
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2016 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2.extractor;
+
+import android.support.annotation.Nullable;
+
+/**
+ * Persists {@link SeekIndex}es built by {@link SeekIndexingExtractor}s, so that seeking is
+ * possible as soon as a stream that has been read before is prepared again.
+ *
+ * <p>Methods are called on the loading thread, and may block. Implementations are responsible for
+ * handling their own storage errors.
+ */
+public interface SeekIndexStore {
+
+  /**
+   * Returns the index stored for a stream, or null if no index is stored.
+   *
+   * @param key The key that uniquely identifies the stream.
+   * @return The stored index, or null.
+   */
+  @Nullable
+  SeekIndex load(String key);
+
+  /**
+   * Stores the index for a stream, replacing any previously stored index.
+   *
+   * @param key The key that uniquely identifies the stream.
+   * @param seekIndex The index to store.
+   */
+  void save(String key, SeekIndex seekIndex);
+
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (C) 2016 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2.extractor;
+
+import android.support.annotation.Nullable;
+
+/**
+ * An {@link Extractor} that can build a {@link SeekIndex} while reading a stream, and use a
+ * previously built index in place of the seeking information it would otherwise derive.
+ */
+public interface SeekIndexingExtractor extends Extractor {
+
+  /**
+   * Sets an index previously returned by {@link #getSeekIndex()} for the same stream. Called after
+   * {@link #init(ExtractorOutput)} and before the first call to {@link #read(ExtractorInput,
+   * PositionHolder)}.
+   *
+   * @param seekIndex The index to use.
+   */
+  void setSeekIndex(SeekIndex seekIndex);
+
+  /**
+   * Returns the index built while reading the stream, or null if the extractor has not read the
+   * whole stream contiguously, or does not build an index.
+   */
+  @Nullable
+  SeekIndex getSeekIndex();
+
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2016 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2.extractor.mkv;
+
+import com.google.android.exoplayer2.extractor.SeekMap;
+import com.google.android.exoplayer2.extractor.SeekPoint;
+import com.google.android.exoplayer2.util.LongArray;
+
+/**
+ * A {@link SeekMap} for Matroska streams without usable Cues, backed by an index of clusters that
+ * is built as the stream is read. Requests beyond the indexed part of the stream are mapped to
+ * positions estimated from the average bitrate of the remainder of the segment.
+ *
+ * <p>Indexed positions are those of the cluster contents, from which the children of each cluster
+ * can be parsed. The index is written by the loading thread and read by the playback thread.
+ */
+/* package */ final class ClusterIndex implements SeekMap {
+
+  private final long durationUs;
+  private final long firstClusterPosition;
+  private final long endPosition;
+  private final LongArray timesUs;
+  private final LongArray positions;
+
+  /**
+   * @param durationUs The duration of the stream, in microseconds.
+   * @param firstClusterPosition The position of the content of the first cluster.
+   * @param endPosition The position of the end of the segment.
+   */
+  public ClusterIndex(long durationUs, long firstClusterPosition, long endPosition) {
+    this.durationUs = durationUs;
+    this.firstClusterPosition = firstClusterPosition;
+    this.endPosition = endPosition;
+    timesUs = new LongArray();
+    positions = new LongArray();
+  }
+
+  /**
+   * Adds a cluster to the index if it is beyond the last indexed cluster. Clusters must be passed
+   * in stream order, without gaps.
+   *
+   * @param timeUs The time of the cluster, in microseconds.
+   * @param position The position of the content of the cluster.
+   */
+  public synchronized void maybeAddCluster(long timeUs, long position) {
+    int size = positions.size();
+    if (size == 0 || position > positions.get(size - 1)) {
+      timesUs.add(timeUs);
+      positions.add(position);
+    }
+  }
+
+  /**
+   * Returns whether {@code position} is the position of the content of the first cluster or of an
+   * indexed cluster. Clusters read sequentially from such a position can be added to the index.
+   */
+  public synchronized boolean isClusterPosition(long position) {
+    if (position == firstClusterPosition) {
+      return true;
+    }
+    int index = getFloorIndex(positions, position);
+    return index != -1 && positions.get(index) == position;
+  }
+
+  /**
+   * Returns the last indexed cluster at or before {@code timeUs}, or a point at the start of the
+   * first cluster if there is no such cluster.
+   */
+  public synchronized SeekPoint getFloorCluster(long timeUs) {
+    int index = getFloorIndex(timesUs, timeUs);
+    return index == -1 ? new SeekPoint(0, firstClusterPosition)
+        : new SeekPoint(timesUs.get(index), positions.get(index));
+  }
+
+  /**
+   * Returns the position of the end of the segment.
+   */
+  public long getEndPosition() {
+    return endPosition;
+  }
+
+  /**
+   * Estimates the position corresponding to a time by interpolating between two points, assuming a
+   * constant bitrate. The returned position is at least {@code lowPosition} and less than {@code
+   * highPosition}.
+   */
+  public static long interpolatePosition(long timeUs, long lowTimeUs, long lowPosition,
+      long highTimeUs, long highPosition) {
+    if (timeUs <= lowTimeUs || highTimeUs <= lowTimeUs || highPosition <= lowPosition) {
+      return lowPosition;
+    }
+    long position = lowPosition
+        + (long) ((double) (timeUs - lowTimeUs) * (highPosition - lowPosition)
+            / (highTimeUs - lowTimeUs));
+    return Math.min(position, highPosition - 1);
+  }
+
+  // SeekMap implementation.
+
+  @Override
+  public boolean isSeekable() {
+    return true;
+  }
+
+  @Override
+  public long getDurationUs() {
+    return durationUs;
+  }
+
+  @Override
+  public synchronized SeekPoints getSeekPoints(long timeUs) {
+    int size = timesUs.size();
+    if (size == 0 || timeUs > timesUs.get(size - 1)) {
+      // The time is beyond the indexed part of the stream.
+      SeekPoint floorCluster = getFloorCluster(timeUs);
+      long position = interpolatePosition(timeUs, floorCluster.timeUs, floorCluster.position,
+          durationUs, endPosition);
+      return new SeekPoints(position == floorCluster.position ? floorCluster
+          : new SeekPoint(timeUs, position));
+    }
+    int index = getFloorIndex(timesUs, timeUs);
+    if (index == -1) {
+      return new SeekPoints(new SeekPoint(timesUs.get(0), positions.get(0)));
+    }
+    SeekPoint seekPoint = new SeekPoint(timesUs.get(index), positions.get(index));
+    if (seekPoint.timeUs == timeUs) {
+      return new SeekPoints(seekPoint);
+    }
+    SeekPoint nextSeekPoint = new SeekPoint(timesUs.get(index + 1), positions.get(index + 1));
+    return new SeekPoints(seekPoint, nextSeekPoint);
+  }
+
+  /**
+   * Returns the index of the largest value in {@code array} that is less than or equal to {@code
+   * value}, or -1 if there is no such value. {@code array} must be sorted in ascending order.
+   */
+  private static int getFloorIndex(LongArray array, long value) {
+    int low = 0;
+    int high = array.size() - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      if (array.get(mid) <= value) {
+        low = mid + 1;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return high;
+  }
+
+}
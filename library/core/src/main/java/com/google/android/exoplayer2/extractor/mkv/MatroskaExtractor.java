@@ -34,6 +34,7 @@ import com.google.android.exoplayer2.extractor.ExtractorsFactory;
 import com.google.android.exoplayer2.extractor.MpegAudioHeader;
 import com.google.android.exoplayer2.extractor.PositionHolder;
 import com.google.android.exoplayer2.extractor.SeekMap;
+import com.google.android.exoplayer2.extractor.SeekPoint;
 import com.google.android.exoplayer2.extractor.TrackOutput;
 import com.google.android.exoplayer2.util.Assertions;
 import com.google.android.exoplayer2.util.LongArray;
@@ -44,6 +45,7 @@ import com.google.android.exoplayer2.util.Util;
 import com.google.android.exoplayer2.video.AvcConfig;
 import com.google.android.exoplayer2.video.ColorInfo;
 import com.google.android.exoplayer2.video.HevcConfig;
+import java.io.EOFException;
 import java.io.IOException;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
@@ -77,7 +79,7 @@ public final class MatroskaExtractor implements Extractor {
    * Flags controlling the behavior of the extractor.
    */
   @Retention(RetentionPolicy.SOURCE)
-  @IntDef(flag = true, value = {FLAG_DISABLE_SEEK_FOR_CUES})
+  @IntDef(flag = true, value = {FLAG_DISABLE_SEEK_FOR_CUES, FLAG_ENABLE_CLUSTER_INDEX_SEEKING})
   public @interface Flags {}
   /**
    * Flag to disable seeking for cues.
@@ -88,6 +90,16 @@ public final class MatroskaExtractor implements Extractor {
    * media is treated as being unseekable.
    */
   public static final int FLAG_DISABLE_SEEK_FOR_CUES = 1;
+  /**
+   * Flag to allow seeking in media without usable cues.
+   * <p>
+   * When this flag is set and the cues element is missing, incomplete or not seeked to, the
+   * extractor indexes clusters as they are read. Seeks within the indexed part of the media are
+   * exact. Seeks beyond it start at a position estimated from the bitrate of the remainder of the
+   * segment, which is refined by a bounded number of probes that read cluster timecodes. After
+   * such a seek, video SimpleBlocks are skipped until the next keyframe.
+   */
+  public static final int FLAG_ENABLE_CLUSTER_INDEX_SEEKING = 2;
 
   private static final String TAG = "MatroskaExtractor";
 
@@ -97,6 +109,25 @@ public final class MatroskaExtractor implements Extractor {
   private static final int BLOCK_STATE_HEADER = 1;
   private static final int BLOCK_STATE_DATA = 2;
 
+  /**
+   * The maximum number of probes made to refine a seek beyond the indexed clusters.
+   */
+  private static final int MAX_CLUSTER_SEEK_PROBES = 8;
+  /**
+   * The distance before the seek target within which a probed cluster is accepted, in
+   * microseconds.
+   */
+  private static final long CLUSTER_SEEK_TOLERANCE_US = 2 * C.MICROS_PER_SECOND;
+  /**
+   * The number of bytes peeked at a time when searching for the start of a cluster.
+   */
+  private static final int CLUSTER_SYNC_BUFFER_SIZE = 16 * 1024;
+  /**
+   * The maximum number of bytes from the start of a cluster needed to recognize it: the ID, an
+   * eight byte size and the first byte of the ID of the first child.
+   */
+  private static final int MAX_CLUSTER_SYNC_LENGTH = 4 + 8 + 1;
+
   private static final String DOC_TYPE_MATROSKA = "matroska";
   private static final String DOC_TYPE_WEBM = "webm";
   private static final String CODEC_ID_VP8 = "V_VP8";
@@ -132,6 +163,7 @@ public final class MatroskaExtractor implements Extractor {
   private static final int VORBIS_MAX_INPUT_SIZE = 8192;
   private static final int OPUS_MAX_INPUT_SIZE = 5760;
   private static final int ENCRYPTION_IV_SIZE = 8;
+  private static final int TRACK_TYPE_VIDEO = 1;
   private static final int TRACK_TYPE_AUDIO = 2;
 
   private static final int ID_EBML = 0x1A45DFA3;
@@ -148,6 +180,7 @@ public final class MatroskaExtractor implements Extractor {
   private static final int ID_TIMECODE_SCALE = 0x2AD7B1;
   private static final int ID_DURATION = 0x4489;
   private static final int ID_CLUSTER = 0x1F43B675;
+  private static final int ID_CRC32 = 0xBF;
   private static final int ID_TIME_CODE = 0xE7;
   private static final int ID_SIMPLE_BLOCK = 0xA3;
   private static final int ID_BLOCK_GROUP = 0xA0;
@@ -310,6 +343,7 @@ public final class MatroskaExtractor implements Extractor {
   private final VarintReader varintReader;
   private final SparseArray<Track> tracks;
   private final boolean seekForCuesEnabled;
+  private final boolean clusterIndexSeekingEnabled;
 
   // Temporary arrays.
   private final ParsableByteArray nalStartCode;
@@ -348,6 +382,22 @@ public final class MatroskaExtractor implements Extractor {
   private LongArray cueClusterPositions;
   private boolean seenClusterPositionForCurrentCuePoint;
 
+  // Cluster index related elements, used if the media has no usable cues.
+  private ClusterIndex clusterIndex;
+  private byte[] clusterSyncBuffer;
+  private long inputLength = C.LENGTH_UNSET;
+  private long clusterContentPosition = C.POSITION_UNSET;
+  private boolean indexingClusters;
+  private boolean syncToCluster;
+  private boolean skipToVideoKeyframe;
+  private long clusterSeekTargetUs = C.TIME_UNSET;
+  private int clusterSeekProbeCount;
+  private long clusterSeekLowTimeUs;
+  private long clusterSeekLowPosition;
+  private long clusterSeekHighTimeUs;
+  private long clusterSeekHighPosition;
+  private long pendingClusterSeekPosition = C.POSITION_UNSET;
+
   // Block reading state.
   private int blockState;
   private long blockTimeUs;
@@ -388,6 +438,7 @@ public final class MatroskaExtractor implements Extractor {
     this.reader = reader;
     this.reader.init(new InnerEbmlReaderOutput());
     seekForCuesEnabled = (flags & FLAG_DISABLE_SEEK_FOR_CUES) == 0;
+    clusterIndexSeekingEnabled = (flags & FLAG_ENABLE_CLUSTER_INDEX_SEEKING) != 0;
     varintReader = new VarintReader();
     tracks = new SparseArray<>();
     scratch = new ParsableByteArray(4);
@@ -421,6 +472,9 @@ public final class MatroskaExtractor implements Extractor {
     for (int i = 0; i < tracks.size(); i++) {
       tracks.valueAt(i).reset();
     }
+    if (clusterIndex != null) {
+      seekClusterIndex(position, timeUs);
+    }
   }
 
   @Override
@@ -432,12 +486,23 @@ public final class MatroskaExtractor implements Extractor {
   public int read(ExtractorInput input, PositionHolder seekPosition) throws IOException,
       InterruptedException {
     sampleRead = false;
+    inputLength = input.getLength();
     boolean continueReading = true;
     while (continueReading && !sampleRead) {
+      if (syncToCluster) {
+        syncToCluster = false;
+        continueReading = skipToNextCluster(input);
+        if (!continueReading) {
+          break;
+        }
+      }
       continueReading = reader.read(input);
       if (continueReading && maybeSeekForCues(seekPosition, input.getPosition())) {
         return Extractor.RESULT_SEEK;
       }
+      if (continueReading && maybeSeekForCluster(seekPosition)) {
+        return Extractor.RESULT_SEEK;
+      }
     }
     if (!continueReading) {
       for (int i = 0; i < tracks.size(); i++) {
@@ -478,11 +543,12 @@ public final class MatroskaExtractor implements Extractor {
             seekForCues = true;
           } else {
             // We don't know where the Cues element is located. It's most likely omitted. Allow
-            // playback, but disable seeking.
-            extractorOutput.seekMap(new SeekMap.Unseekable(durationUs));
+            // playback, but disable seeking unless clusters can be indexed.
+            extractorOutput.seekMap(maybeCreateClusterIndex(contentPosition));
             sentSeekMap = true;
           }
         }
+        clusterContentPosition = contentPosition;
         break;
       case ID_BLOCK_GROUP:
         sampleSeenReferenceBlock = false;
@@ -525,7 +591,13 @@ public final class MatroskaExtractor implements Extractor {
         break;
       case ID_CUES:
         if (!sentSeekMap) {
-          extractorOutput.seekMap(buildSeekMap());
+          SeekMap seekMap = buildSeekMap();
+          if (!seekMap.isSeekable() && seekPositionAfterBuildingCues != C.POSITION_UNSET) {
+            // The cues are unusable. The position after building them is that of the first
+            // cluster's content, so it can be used to index clusters instead.
+            seekMap = maybeCreateClusterIndex(seekPositionAfterBuildingCues);
+          }
+          extractorOutput.seekMap(seekMap);
           sentSeekMap = true;
         } else {
           // We have already built the cues. Ignore.
@@ -686,6 +758,9 @@ public final class MatroskaExtractor implements Extractor {
         break;
       case ID_TIME_CODE:
         clusterTimecodeUs = scaleTimecodeToUs(value);
+        if (clusterIndex != null) {
+          onClusterTimecode();
+        }
         break;
       case ID_BLOCK_DURATION:
         blockDurationUs = scaleTimecodeToUs(value);
@@ -972,6 +1047,22 @@ public final class MatroskaExtractor implements Extractor {
               | (isInvisible ? C.BUFFER_FLAG_DECODE_ONLY : 0);
           blockState = BLOCK_STATE_DATA;
           blockLacingSampleIndex = 0;
+
+          if (skipToVideoKeyframe && track.type == TRACK_TYPE_VIDEO) {
+            if (id == ID_SIMPLE_BLOCK && !isKeyframe) {
+              // Skip video up to the next keyframe after seeking to a cluster from the index.
+              int blockDataSize = 0;
+              for (int i = 0; i < blockLacingSampleCount; i++) {
+                blockDataSize += blockLacingSampleSizes[i];
+              }
+              input.skipFully(blockDataSize);
+              blockState = BLOCK_STATE_START;
+              return;
+            }
+            // Whether a Block is a keyframe is only known at the end of its BlockGroup, so stop
+            // skipping at the first one.
+            skipToVideoKeyframe = false;
+          }
         }
 
         if (id == ID_SIMPLE_BLOCK) {
@@ -1000,14 +1091,14 @@ public final class MatroskaExtractor implements Extractor {
     if (track.trueHdSampleRechunker != null) {
       track.trueHdSampleRechunker.sampleMetadata(track, timeUs);
     } else {
-      if (CODEC_ID_SUBRIP.equals(track.codecId)) {
+      if (track.isSubrip) {
         commitSubtitleSample(
             track,
             SUBRIP_TIMECODE_FORMAT,
             SUBRIP_PREFIX_END_TIMECODE_OFFSET,
             SUBRIP_TIMECODE_LAST_VALUE_SCALING_FACTOR,
             SUBRIP_TIMECODE_EMPTY);
-      } else if (CODEC_ID_ASS.equals(track.codecId)) {
+      } else if (track.isSsa) {
         commitSubtitleSample(
             track,
             SSA_TIMECODE_FORMAT,
@@ -1053,10 +1144,10 @@ public final class MatroskaExtractor implements Extractor {
 
   private void writeSampleData(ExtractorInput input, Track track, int size)
       throws IOException, InterruptedException {
-    if (CODEC_ID_SUBRIP.equals(track.codecId)) {
+    if (track.isSubrip) {
       writeSubtitleSampleData(input, SUBRIP_PREFIX, size);
       return;
-    } else if (CODEC_ID_ASS.equals(track.codecId)) {
+    } else if (track.isSsa) {
       writeSubtitleSampleData(input, SSA_PREFIX, size);
       return;
     }
@@ -1151,7 +1242,7 @@ public final class MatroskaExtractor implements Extractor {
     }
     size += sampleStrippedBytes.limit();
 
-    if (CODEC_ID_H264.equals(track.codecId) || CODEC_ID_H265.equals(track.codecId)) {
+    if (track.nalUnitLengthFieldLength != 0) {
       // TODO: Deduplicate with Mp4Extractor.
 
       // Zero the top three bytes of the array that we'll use to decode nal unit lengths, in case
@@ -1192,7 +1283,7 @@ public final class MatroskaExtractor implements Extractor {
       }
     }
 
-    if (CODEC_ID_VORBIS.equals(track.codecId)) {
+    if (track.isVorbis) {
       // Vorbis decoder in android MediaCodec [1] expects the last 4 bytes of the sample to be the
       // number of samples in the current page. This definition holds good only for Ogg and
       // irrelevant for Matroska. So we always set this to -1 (the decoder will ignore this value if
@@ -1346,6 +1437,190 @@ public final class MatroskaExtractor implements Extractor {
     return false;
   }
 
+  /**
+   * Returns a {@link ClusterIndex} to use as the seek map if cluster index seeking is enabled and
+   * possible, or an unseekable seek map otherwise.
+   *
+   * @param firstClusterPosition The position of the content of the first cluster.
+   */
+  private SeekMap maybeCreateClusterIndex(long firstClusterPosition) {
+    if (!clusterIndexSeekingEnabled || durationUs == C.TIME_UNSET
+        || segmentContentPosition == C.POSITION_UNSET || inputLength == C.LENGTH_UNSET) {
+      return new SeekMap.Unseekable(durationUs);
+    }
+    long endPosition = Math.min(segmentContentPosition + segmentContentSize, inputLength);
+    clusterIndex = new ClusterIndex(durationUs, firstClusterPosition, endPosition);
+    indexingClusters = true;
+    return clusterIndex;
+  }
+
+  /**
+   * Updates the cluster index state for a seek to a position obtained from the {@link
+   * ClusterIndex}.
+   */
+  private void seekClusterIndex(long position, long timeUs) {
+    clusterSeekTargetUs = C.TIME_UNSET;
+    pendingClusterSeekPosition = C.POSITION_UNSET;
+    syncToCluster = false;
+    clusterContentPosition = C.POSITION_UNSET;
+    if (position == 0) {
+      // Reading restarts from the beginning of the stream.
+      indexingClusters = true;
+      skipToVideoKeyframe = false;
+    } else if (clusterIndex.isClusterPosition(position)) {
+      // Reading restarts from the content of the cluster, so its start will not be reported.
+      clusterContentPosition = position;
+      indexingClusters = true;
+      skipToVideoKeyframe = true;
+    } else {
+      // The position is an estimate. Find the next cluster and refine the position by probing.
+      indexingClusters = false;
+      skipToVideoKeyframe = true;
+      syncToCluster = true;
+      clusterSeekTargetUs = timeUs;
+      clusterSeekProbeCount = 0;
+      SeekPoint floorCluster = clusterIndex.getFloorCluster(timeUs);
+      clusterSeekLowTimeUs = floorCluster.timeUs;
+      clusterSeekLowPosition = floorCluster.position;
+      clusterSeekHighTimeUs = durationUs;
+      clusterSeekHighPosition = clusterIndex.getEndPosition();
+    }
+  }
+
+  /**
+   * Called when the timecode of a cluster has been read, if a {@link ClusterIndex} is in use.
+   * Either adds the cluster to the index, or uses it as a probe for a pending seek.
+   */
+  private void onClusterTimecode() {
+    long timeUs = clusterTimecodeUs;
+    long position = clusterContentPosition;
+    if (position == C.POSITION_UNSET) {
+      return;
+    }
+    if (clusterSeekTargetUs == C.TIME_UNSET) {
+      if (!indexingClusters && clusterIndex.isClusterPosition(position)) {
+        // Reading after an estimated seek has reached a cluster that is contiguous with the index.
+        indexingClusters = true;
+      }
+      if (indexingClusters) {
+        clusterIndex.maybeAddCluster(timeUs, position);
+      }
+      return;
+    }
+    if (timeUs <= clusterSeekTargetUs) {
+      clusterSeekLowTimeUs = timeUs;
+      clusterSeekLowPosition = position;
+      if (clusterSeekTargetUs - timeUs <= CLUSTER_SEEK_TOLERANCE_US) {
+        // Close enough. Continue reading from this cluster.
+        clusterSeekTargetUs = C.TIME_UNSET;
+        return;
+      }
+    } else {
+      if (position >= clusterSeekHighPosition) {
+        // The probe didn't find a cluster before the previous upper bound. Stop probing.
+        clusterSeekProbeCount = MAX_CLUSTER_SEEK_PROBES;
+      }
+      clusterSeekHighTimeUs = timeUs;
+      clusterSeekHighPosition = position;
+    }
+    if (++clusterSeekProbeCount >= MAX_CLUSTER_SEEK_PROBES) {
+      // Fall back to the last cluster known to be before the target.
+      clusterSeekTargetUs = C.TIME_UNSET;
+      if (position != clusterSeekLowPosition) {
+        pendingClusterSeekPosition = clusterSeekLowPosition;
+      }
+      return;
+    }
+    // Aim slightly before the target, so that the next probe is likely to be accepted.
+    long probeTimeUs = Math.max(clusterSeekLowTimeUs,
+        clusterSeekTargetUs - CLUSTER_SEEK_TOLERANCE_US / 2);
+    long probePosition = ClusterIndex.interpolatePosition(probeTimeUs, clusterSeekLowTimeUs,
+        clusterSeekLowPosition, clusterSeekHighTimeUs, clusterSeekHighPosition);
+    pendingClusterSeekPosition = probePosition;
+    syncToCluster = true;
+  }
+
+  /**
+   * Returns whether a seek is needed to probe for or return to a cluster, in which case {@code
+   * seekPosition} is updated.
+   */
+  private boolean maybeSeekForCluster(PositionHolder seekPosition) {
+    if (pendingClusterSeekPosition == C.POSITION_UNSET) {
+      return false;
+    }
+    seekPosition.position = pendingClusterSeekPosition;
+    pendingClusterSeekPosition = C.POSITION_UNSET;
+    if (syncToCluster) {
+      clusterContentPosition = C.POSITION_UNSET;
+    } else {
+      // Returning to the content of a known cluster, so its start will not be reported.
+      clusterContentPosition = seekPosition.position;
+      indexingClusters = clusterIndex.isClusterPosition(seekPosition.position);
+    }
+    clusterTimecodeUs = C.TIME_UNSET;
+    reader.reset();
+    varintReader.reset();
+    return true;
+  }
+
+  /**
+   * Skips to the start of the next cluster, searching from the current position.
+   *
+   * @param input The input from which to read.
+   * @return Whether a cluster was found before the end of the input.
+   */
+  private boolean skipToNextCluster(ExtractorInput input)
+      throws IOException, InterruptedException {
+    if (clusterSyncBuffer == null) {
+      clusterSyncBuffer = new byte[CLUSTER_SYNC_BUFFER_SIZE];
+    }
+    byte[] buffer = clusterSyncBuffer;
+    while (true) {
+      input.resetPeekPosition();
+      int peekLength = CLUSTER_SYNC_BUFFER_SIZE;
+      if (inputLength != C.LENGTH_UNSET) {
+        peekLength = (int) Math.min(peekLength, inputLength - input.getPosition());
+      }
+      if (peekLength < 4 + 1 + 1) {
+        return false;
+      }
+      try {
+        input.peekFully(buffer, 0, peekLength);
+      } catch (EOFException e) {
+        return false;
+      }
+      int searchLimit = peekLength == CLUSTER_SYNC_BUFFER_SIZE
+          ? peekLength - MAX_CLUSTER_SYNC_LENGTH + 1 : peekLength;
+      for (int i = 0; i < searchLimit; i++) {
+        if (isClusterStart(buffer, i, peekLength)) {
+          input.resetPeekPosition();
+          input.skipFully(i);
+          return true;
+        }
+      }
+      input.resetPeekPosition();
+      input.skipFully(searchLimit);
+    }
+  }
+
+  /**
+   * Returns whether {@code data} contains the start of a cluster at {@code offset}, which is
+   * recognized by the cluster ID, a valid size and the ID of the timecode or CRC-32 element.
+   */
+  private static boolean isClusterStart(byte[] data, int offset, int limit) {
+    if (offset + 4 + 1 + 1 > limit
+        || (((data[offset] & 0xFF) << 24) | ((data[offset + 1] & 0xFF) << 16)
+            | ((data[offset + 2] & 0xFF) << 8) | (data[offset + 3] & 0xFF)) != ID_CLUSTER) {
+      return false;
+    }
+    int sizeLength = VarintReader.parseUnsignedVarintLength(data[offset + 4] & 0xFF);
+    if (sizeLength == C.LENGTH_UNSET || offset + 4 + sizeLength + 1 > limit) {
+      return false;
+    }
+    int firstChildId = data[offset + 4 + sizeLength] & 0xFF;
+    return firstChildId == ID_TIME_CODE || firstChildId == ID_CRC32;
+  }
+
   private long scaleTimecodeToUs(long unscaledTimecode) throws ParserException {
     if (timecodeScale == C.TIME_UNSET) {
       throw new ParserException("Can't scale timecode prior to timecodeScale being set.");
@@ -1665,9 +1940,13 @@ public final class MatroskaExtractor implements Extractor {
     public boolean flagDefault = true;
     private String language = "eng";
 
-    // Set when the output is initialized. nalUnitLengthFieldLength is only set for H264/H265.
+    // Set when the output is initialized. nalUnitLengthFieldLength is only set for H264/H265. The
+    // codec flags avoid comparing codec IDs for every sample.
     public TrackOutput output;
     public int nalUnitLengthFieldLength;
+    public boolean isSubrip;
+    public boolean isSsa;
+    public boolean isVorbis;
 
     /** Initializes the track with an output. */
     public void initializeOutput(ExtractorOutput output, int trackId) throws ParserException {
@@ -1718,6 +1997,7 @@ public final class MatroskaExtractor implements Extractor {
           mimeType = MimeTypes.AUDIO_VORBIS;
           maxInputSize = VORBIS_MAX_INPUT_SIZE;
           initializationData = parseVorbisCodecPrivate(codecPrivate);
+          isVorbis = true;
           break;
         case CODEC_ID_OPUS:
           mimeType = MimeTypes.AUDIO_OPUS;
@@ -1789,9 +2069,11 @@ public final class MatroskaExtractor implements Extractor {
           break;
         case CODEC_ID_SUBRIP:
           mimeType = MimeTypes.APPLICATION_SUBRIP;
+          isSubrip = true;
           break;
         case CODEC_ID_ASS:
           mimeType = MimeTypes.TEXT_SSA;
+          isSsa = true;
           break;
         case CODEC_ID_VOBSUB:
           mimeType = MimeTypes.APPLICATION_VOBSUB;
@@ -0,0 +1,198 @@
+/*
+ * Copyright (C) 2016 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2.extractor.mp3;
+
+import android.support.annotation.Nullable;
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.extractor.SeekIndex;
+import com.google.android.exoplayer2.extractor.SeekPoint;
+import com.google.android.exoplayer2.util.LongArray;
+
+/**
+ * MP3 seeker that uses an exact index of frame positions, which is either restored from a {@link
+ * SeekIndex} or built while the stream is read. Requests beyond the indexed part of the stream are
+ * delegated to a fallback seeker.
+ *
+ * <p>The index is written by the loading thread and read by the playback thread. The duration and
+ * seekability reported to the playback thread are fixed when the seeker is created, so they don't
+ * change once the seeker has been published as a seek map.
+ */
+/* package */ final class IndexSeeker implements Mp3Extractor.Seeker {
+
+  /**
+   * The minimum time between indexed frames, in microseconds.
+   */
+  private static final long MIN_TIME_BETWEEN_POINTS_US = C.MICROS_PER_SECOND / 2;
+
+  private final @Nullable Mp3Extractor.Seeker fallbackSeeker;
+  private final LongArray timesUs;
+  private final LongArray positions;
+  private final long durationUs;
+  private final boolean seekable;
+
+  private long indexDurationUs;
+  private boolean complete;
+
+  /**
+   * Creates a seeker that builds an index while the stream is read.
+   *
+   * @param fallbackSeeker The seeker to use for requests beyond the indexed part of the stream.
+   */
+  public IndexSeeker(Mp3Extractor.Seeker fallbackSeeker) {
+    this.fallbackSeeker = fallbackSeeker;
+    timesUs = new LongArray();
+    positions = new LongArray();
+    durationUs = fallbackSeeker.getDurationUs();
+    seekable = fallbackSeeker.isSeekable();
+    indexDurationUs = C.TIME_UNSET;
+  }
+
+  /**
+   * Creates a seeker that uses a complete index.
+   *
+   * @param seekIndex The index of the stream.
+   */
+  public IndexSeeker(SeekIndex seekIndex) {
+    fallbackSeeker = null;
+    timesUs = new LongArray(Math.max(seekIndex.length, 1));
+    positions = new LongArray(Math.max(seekIndex.length, 1));
+    for (int i = 0; i < seekIndex.length; i++) {
+      timesUs.add(seekIndex.timesUs[i]);
+      positions.add(seekIndex.positions[i]);
+    }
+    durationUs = seekIndex.getDurationUs();
+    seekable = seekIndex.length > 0;
+    indexDurationUs = durationUs;
+    complete = true;
+  }
+
+  /**
+   * Adds a frame to the index if it is far enough beyond the last indexed frame. Frames must be
+   * passed in stream order.
+   *
+   * @param timeUs The time of the frame, in microseconds.
+   * @param position The position (byte offset) of the frame.
+   */
+  public synchronized void maybeAddSeekPoint(long timeUs, long position) {
+    int size = timesUs.size();
+    if (complete || (size > 0 && timeUs < timesUs.get(size - 1) + MIN_TIME_BETWEEN_POINTS_US)) {
+      return;
+    }
+    timesUs.add(timeUs);
+    positions.add(position);
+  }
+
+  /**
+   * Returns whether {@code position} is the position of an indexed frame.
+   */
+  public synchronized boolean isSeekPoint(long position) {
+    int index = getFloorIndex(positions, position);
+    return index != -1 && positions.get(index) == position;
+  }
+
+  /**
+   * Marks the index as complete, after the whole stream has been indexed.
+   *
+   * @param durationUs The duration of the stream, in microseconds.
+   */
+  public synchronized void setComplete(long durationUs) {
+    indexDurationUs = durationUs;
+    complete = true;
+  }
+
+  /**
+   * Returns whether the whole stream has been indexed.
+   */
+  public synchronized boolean isComplete() {
+    return complete;
+  }
+
+  /**
+   * Returns the index of the stream, or null if the index is not complete.
+   */
+  public synchronized @Nullable SeekIndex getSeekIndex() {
+    return complete
+        ? new SeekIndex(timesUs.toArray(), positions.toArray(), indexDurationUs)
+        : null;
+  }
+
+  @Override
+  public boolean isSeekable() {
+    return seekable;
+  }
+
+  @Override
+  public long getDurationUs() {
+    return durationUs;
+  }
+
+  @Override
+  public synchronized SeekPoints getSeekPoints(long timeUs) {
+    int size = timesUs.size();
+    if (!complete && (size == 0 || timeUs > timesUs.get(size - 1))) {
+      return fallbackSeeker.getSeekPoints(timeUs);
+    }
+    int index = getFloorIndex(timesUs, timeUs);
+    if (index == -1) {
+      return new SeekPoints(SeekPoint.START);
+    }
+    SeekPoint seekPoint = new SeekPoint(timesUs.get(index), positions.get(index));
+    if (seekPoint.timeUs >= timeUs || index == size - 1) {
+      return new SeekPoints(seekPoint);
+    } else {
+      SeekPoint nextSeekPoint = new SeekPoint(timesUs.get(index + 1), positions.get(index + 1));
+      return new SeekPoints(seekPoint, nextSeekPoint);
+    }
+  }
+
+  @Override
+  public synchronized long getTimeUs(long position) {
+    int size = positions.size();
+    if (!complete && (size == 0 || position > positions.get(size - 1))) {
+      return fallbackSeeker.getTimeUs(position);
+    }
+    int index = getFloorIndex(positions, position);
+    if (index == -1) {
+      return 0;
+    }
+    if (positions.get(index) == position || index == size - 1) {
+      return timesUs.get(index);
+    }
+    long positionOffset = position - positions.get(index);
+    long positionRange = positions.get(index + 1) - positions.get(index);
+    long timeRangeUs = timesUs.get(index + 1) - timesUs.get(index);
+    return timesUs.get(index) + (positionOffset * timeRangeUs) / positionRange;
+  }
+
+  /**
+   * Returns the index of the largest value in {@code array} that is less than or equal to {@code
+   * value}, or -1 if there is no such value. {@code array} must be sorted in ascending order.
+   */
+  private static int getFloorIndex(LongArray array, long value) {
+    int low = 0;
+    int high = array.size() - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      if (array.get(mid) <= value) {
+        low = mid + 1;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return high;
+  }
+
+}
@@ -16,6 +16,7 @@
 package com.google.android.exoplayer2.extractor.mp3;
 
 import android.support.annotation.IntDef;
+import android.support.annotation.Nullable;
 import com.google.android.exoplayer2.C;
 import com.google.android.exoplayer2.Format;
 import com.google.android.exoplayer2.ParserException;
@@ -27,6 +28,8 @@ import com.google.android.exoplayer2.extractor.GaplessInfoHolder;
 import com.google.android.exoplayer2.extractor.Id3Peeker;
 import com.google.android.exoplayer2.extractor.MpegAudioHeader;
 import com.google.android.exoplayer2.extractor.PositionHolder;
+import com.google.android.exoplayer2.extractor.SeekIndex;
+import com.google.android.exoplayer2.extractor.SeekIndexingExtractor;
 import com.google.android.exoplayer2.extractor.SeekMap;
 import com.google.android.exoplayer2.extractor.TrackOutput;
 import com.google.android.exoplayer2.metadata.Metadata;
@@ -41,7 +44,7 @@ import java.lang.annotation.RetentionPolicy;
 /**
  * Extracts data from the MP3 container format.
  */
-public final class Mp3Extractor implements Extractor {
+public final class Mp3Extractor implements SeekIndexingExtractor {
 
   /**
    * Factory for {@link Mp3Extractor} instances.
@@ -59,7 +62,14 @@ public final class Mp3Extractor implements Extractor {
    * Flags controlling the behavior of the extractor.
    */
   @Retention(RetentionPolicy.SOURCE)
-  @IntDef(flag = true, value = {FLAG_ENABLE_CONSTANT_BITRATE_SEEKING, FLAG_DISABLE_ID3_METADATA})
+  @IntDef(
+    flag = true,
+    value = {
+      FLAG_ENABLE_CONSTANT_BITRATE_SEEKING,
+      FLAG_DISABLE_ID3_METADATA,
+      FLAG_ENABLE_INDEX_SEEKING
+    }
+  )
   public @interface Flags {}
   /**
    * Flag to force enable seeking using a constant bitrate assumption in cases where seeking would
@@ -71,6 +81,13 @@ public final class Mp3Extractor implements Extractor {
    * required.
    */
   public static final int FLAG_DISABLE_ID3_METADATA = 2;
+  /**
+   * Flag to build an exact index of frame positions while the stream is read. Seeking within the
+   * indexed part of the stream is exact, and once the whole stream has been read the index can be
+   * persisted using a {@link com.google.android.exoplayer2.extractor.SeekIndexStore}, so that
+   * seeking is exact and possible from the start when the stream is read again.
+   */
+  public static final int FLAG_ENABLE_INDEX_SEEKING = 4;
 
   /**
    * The maximum number of bytes to search when synchronizing, before giving up.
@@ -110,6 +127,9 @@ public final class Mp3Extractor implements Extractor {
 
   private Metadata metadata;
   private Seeker seeker;
+  private @Nullable IndexSeeker indexSeeker;
+  private @Nullable SeekIndex restoredSeekIndex;
+  private boolean indexing;
   private long basisTimeUs;
   private long samplesRead;
   private int sampleBytesRemaining;
@@ -160,6 +180,10 @@ public final class Mp3Extractor implements Extractor {
     basisTimeUs = C.TIME_UNSET;
     samplesRead = 0;
     sampleBytesRemaining = 0;
+    // Indexing continues only if reading resumes from an indexed frame, so that the index remains
+    // exact.
+    indexing =
+        indexSeeker != null && !indexSeeker.isComplete() && indexSeeker.isSeekPoint(position);
   }
 
   @Override
@@ -174,6 +198,7 @@ public final class Mp3Extractor implements Extractor {
       try {
         synchronize(input, false);
       } catch (EOFException e) {
+        maybeCompleteIndex();
         return RESULT_END_OF_INPUT;
       }
     }
@@ -183,6 +208,14 @@ public final class Mp3Extractor implements Extractor {
           || (!seeker.isSeekable() && (flags & FLAG_ENABLE_CONSTANT_BITRATE_SEEKING) != 0)) {
         seeker = getConstantBitrateSeeker(input);
       }
+      if (restoredSeekIndex != null) {
+        seeker = new IndexSeeker(restoredSeekIndex);
+      } else if ((flags & FLAG_ENABLE_INDEX_SEEKING) != 0
+          && forcedFirstSampleTimestampUs == C.TIME_UNSET) {
+        indexSeeker = new IndexSeeker(seeker);
+        indexing = true;
+        seeker = indexSeeker;
+      }
       extractorOutput.seekMap(seeker);
       trackOutput.format(
           Format.createAudioSampleFormat(
@@ -205,12 +238,25 @@ public final class Mp3Extractor implements Extractor {
     return readSample(input);
   }
 
+  // SeekIndexingExtractor implementation.
+
+  @Override
+  public void setSeekIndex(SeekIndex seekIndex) {
+    restoredSeekIndex = seekIndex;
+  }
+
+  @Override
+  public @Nullable SeekIndex getSeekIndex() {
+    return indexSeeker != null ? indexSeeker.getSeekIndex() : null;
+  }
+
   // Internal methods.
 
   private int readSample(ExtractorInput extractorInput) throws IOException, InterruptedException {
     if (sampleBytesRemaining == 0) {
       extractorInput.resetPeekPosition();
       if (!extractorInput.peekFully(scratch.data, 0, 4, true)) {
+        maybeCompleteIndex();
         return RESULT_END_OF_INPUT;
       }
       scratch.setPosition(0);
@@ -231,6 +277,9 @@ public final class Mp3Extractor implements Extractor {
         }
       }
       sampleBytesRemaining = synchronizedHeader.frameSize;
+      if (indexing) {
+        indexSeeker.maybeAddSeekPoint(getNextSampleTimeUs(), extractorInput.getPosition());
+      }
     }
     int bytesAppended = trackOutput.sampleData(extractorInput, sampleBytesRemaining, true);
     if (bytesAppended == C.RESULT_END_OF_INPUT) {
@@ -240,7 +289,7 @@ public final class Mp3Extractor implements Extractor {
     if (sampleBytesRemaining > 0) {
       return RESULT_CONTINUE;
     }
-    long timeUs = basisTimeUs + (samplesRead * C.MICROS_PER_SECOND / synchronizedHeader.sampleRate);
+    long timeUs = getNextSampleTimeUs();
     trackOutput.sampleMetadata(timeUs, C.BUFFER_FLAG_KEY_FRAME, synchronizedHeader.frameSize, 0,
         null);
     samplesRead += synchronizedHeader.samplesPerFrame;
@@ -248,6 +297,17 @@ public final class Mp3Extractor implements Extractor {
     return RESULT_CONTINUE;
   }
 
+  private long getNextSampleTimeUs() {
+    return basisTimeUs + (samplesRead * C.MICROS_PER_SECOND / synchronizedHeader.sampleRate);
+  }
+
+  private void maybeCompleteIndex() {
+    if (indexing && basisTimeUs != C.TIME_UNSET) {
+      indexSeeker.setComplete(getNextSampleTimeUs());
+      indexing = false;
+    }
+  }
+
   private boolean synchronize(ExtractorInput input, boolean sniffing)
       throws IOException, InterruptedException {
     int validFrameCount = 0;
@@ -141,6 +141,9 @@ import java.util.List;
   public static final int TYPE_vpcC = Util.getIntegerCodeForString("vpcC");
   public static final int TYPE_camm = Util.getIntegerCodeForString("camm");
   public static final int TYPE_alac = Util.getIntegerCodeForString("alac");
+  public static final int TYPE_mha1 = Util.getIntegerCodeForString("mha1");
+  public static final int TYPE_mhm1 = Util.getIntegerCodeForString("mhm1");
+  public static final int TYPE_mhaC = Util.getIntegerCodeForString("mhaC");
 
   public final int type;
 
@@ -122,20 +122,20 @@ import java.util.List;
   public static TrackSampleTable parseStbl(Track track, Atom.ContainerAtom stblAtom,
       GaplessInfoHolder gaplessInfoHolder) throws ParserException {
     SampleSizeBox sampleSizeBox;
-    Atom.LeafAtom stszAtom = stblAtom.getLeafAtomOfType(Atom.TYPE_stsz);
-    if (stszAtom != null) {
-      sampleSizeBox = new StszSampleSizeBox(stszAtom);
+    Atom.LeafAtom sampleSizeAtom = stblAtom.getLeafAtomOfType(Atom.TYPE_stsz);
+    if (sampleSizeAtom != null) {
+      sampleSizeBox = new StszSampleSizeBox(sampleSizeAtom);
     } else {
-      Atom.LeafAtom stz2Atom = stblAtom.getLeafAtomOfType(Atom.TYPE_stz2);
-      if (stz2Atom == null) {
+      sampleSizeAtom = stblAtom.getLeafAtomOfType(Atom.TYPE_stz2);
+      if (sampleSizeAtom == null) {
         throw new ParserException("Track has no sample table size information");
       }
-      sampleSizeBox = new Stz2SampleSizeBox(stz2Atom);
+      sampleSizeBox = new Stz2SampleSizeBox(sampleSizeAtom);
     }
 
     int sampleCount = sampleSizeBox.getSampleCount();
     if (sampleCount == 0) {
-      return new TrackSampleTable(
+      return new ExpandedTrackSampleTable(
           new long[0], new int[0], 0, new long[0], new int[0], C.TIME_UNSET);
     }
 
@@ -197,6 +197,20 @@ import java.util.List;
             && remainingTimestampOffsetChanges == 0
             && remainingSynchronizationSamples == 0;
 
+    // Keep the sample table in compact form where possible, rather than expanding every sample.
+    // Edit lists with more than one edit are applied to the expanded sample table.
+    if (!isFixedSampleSizeRawAudio
+        && (track.editListDurations == null
+            || gaplessInfoHolder.hasGaplessInfo()
+            || track.editListDurations.length == 1)) {
+      CompactTrackSampleTable.Boxes boxes =
+          CompactTrackSampleTable.Boxes.parse(
+              track.id, sampleSizeAtom, chunkOffsets, chunkOffsetsAreLongs, stsc, stts, ctts, stss);
+      if (boxes != null) {
+        return parseCompactStbl(track, boxes, gaplessInfoHolder);
+      }
+    }
+
     long[] offsets;
     int[] sizes;
     int maximumSize = 0;
@@ -315,7 +329,8 @@ import java.util.List;
       // There is no edit list, or we are ignoring it as we already have gapless metadata to apply.
       // This implementation does not support applying both gapless metadata and an edit list.
       Util.scaleLargeTimestampsInPlace(timestamps, C.MICROS_PER_SECOND, track.timescale);
-      return new TrackSampleTable(offsets, sizes, maximumSize, timestamps, flags, durationUs);
+      return new ExpandedTrackSampleTable(
+          offsets, sizes, maximumSize, timestamps, flags, durationUs);
     }
 
     // See the BMFF spec (ISO 14496-12) subsection 8.6.6. Edit lists that require prerolling from a
@@ -342,7 +357,8 @@ import java.util.List;
           gaplessInfoHolder.encoderDelay = (int) encoderDelay;
           gaplessInfoHolder.encoderPadding = (int) encoderPadding;
           Util.scaleLargeTimestampsInPlace(timestamps, C.MICROS_PER_SECOND, track.timescale);
-          return new TrackSampleTable(offsets, sizes, maximumSize, timestamps, flags, durationUs);
+          return new ExpandedTrackSampleTable(
+              offsets, sizes, maximumSize, timestamps, flags, durationUs);
         }
       }
     }
@@ -359,7 +375,8 @@ import java.util.List;
       }
       durationUs =
           Util.scaleLargeTimestamp(duration - editStartTime, C.MICROS_PER_SECOND, track.timescale);
-      return new TrackSampleTable(offsets, sizes, maximumSize, timestamps, flags, durationUs);
+      return new ExpandedTrackSampleTable(
+          offsets, sizes, maximumSize, timestamps, flags, durationUs);
     }
 
     // Omit any sample at the end point of an edit for audio tracks.
@@ -434,10 +451,11 @@ import java.util.List;
       // Such edit lists are often (although not always) broken, so we ignore it and continue.
       Log.w(TAG, "Ignoring edit list: Edited sample sequence does not contain a sync sample.");
       Util.scaleLargeTimestampsInPlace(timestamps, C.MICROS_PER_SECOND, track.timescale);
-      return new TrackSampleTable(offsets, sizes, maximumSize, timestamps, flags, durationUs);
+      return new ExpandedTrackSampleTable(
+          offsets, sizes, maximumSize, timestamps, flags, durationUs);
     }
 
-    return new TrackSampleTable(
+    return new ExpandedTrackSampleTable(
         editedOffsets,
         editedSizes,
         editedMaximumSize,
@@ -446,6 +464,95 @@ import java.util.List;
         editedDurationUs);
   }
 
+  /**
+   * Creates a compact sample table, applying the track's edit list if it has one. Equivalent to the
+   * expanded sample table created by {@link #parseStbl(Track, Atom.ContainerAtom,
+   * GaplessInfoHolder)} for edit lists with at most one edit.
+   *
+   * @param track Track to which this sample table corresponds.
+   * @param boxes The decoded sample table boxes.
+   * @param gaplessInfoHolder Holder to populate with gapless playback information.
+   * @return The sample table.
+   */
+  private static TrackSampleTable parseCompactStbl(
+      Track track, CompactTrackSampleTable.Boxes boxes, GaplessInfoHolder gaplessInfoHolder) {
+    int sampleCount = boxes.sampleCount;
+    long duration = boxes.getDuration();
+    long durationUs = Util.scaleLargeTimestamp(duration, C.MICROS_PER_SECOND, track.timescale);
+
+    if (track.editListDurations == null || gaplessInfoHolder.hasGaplessInfo()) {
+      // There is no edit list, or we are ignoring it as we already have gapless metadata to apply.
+      return new CompactTrackSampleTable(
+          boxes, /* firstSampleIndex= */ 0, sampleCount, /* timeOffset= */ 0, track.timescale,
+          durationUs);
+    }
+
+    long editMediaTime = track.editListMediaTimes[0];
+    long editDuration = track.editListDurations[0];
+    if (track.type == C.TRACK_TYPE_AUDIO && sampleCount >= 2) {
+      long editEndTime = editMediaTime + Util.scaleLargeTimestamp(editDuration,
+          track.timescale, track.movieTimescale);
+      int lastIndex = sampleCount - 1;
+      int latestDelayIndex = Util.constrainValue(MAX_GAPLESS_TRIM_SIZE_SAMPLES, 0, lastIndex);
+      int earliestPaddingIndex =
+          Util.constrainValue(sampleCount - MAX_GAPLESS_TRIM_SIZE_SAMPLES, 0, lastIndex);
+      long firstTimestamp = boxes.getTimestamp(0);
+      if (canApplyEditWithGaplessInfo(
+          firstTimestamp,
+          boxes.getTimestamp(latestDelayIndex),
+          boxes.getTimestamp(earliestPaddingIndex),
+          duration,
+          editMediaTime,
+          editEndTime)) {
+        long paddingTimeUnits = duration - editEndTime;
+        long encoderDelay = Util.scaleLargeTimestamp(editMediaTime - firstTimestamp,
+            track.format.sampleRate, track.timescale);
+        long encoderPadding = Util.scaleLargeTimestamp(paddingTimeUnits,
+            track.format.sampleRate, track.timescale);
+        if ((encoderDelay != 0 || encoderPadding != 0) && encoderDelay <= Integer.MAX_VALUE
+            && encoderPadding <= Integer.MAX_VALUE) {
+          gaplessInfoHolder.encoderDelay = (int) encoderDelay;
+          gaplessInfoHolder.encoderPadding = (int) encoderPadding;
+          return new CompactTrackSampleTable(
+              boxes, /* firstSampleIndex= */ 0, sampleCount, /* timeOffset= */ 0, track.timescale,
+              durationUs);
+        }
+      }
+    }
+
+    if (editDuration == 0) {
+      // See the corresponding case in parseStbl.
+      durationUs =
+          Util.scaleLargeTimestamp(duration - editMediaTime, C.MICROS_PER_SECOND, track.timescale);
+      return new CompactTrackSampleTable(
+          boxes, /* firstSampleIndex= */ 0, sampleCount, editMediaTime, track.timescale,
+          durationUs);
+    }
+
+    if (editMediaTime != -1) {
+      // Omit any sample at the end point of an edit for audio tracks.
+      boolean omitClippedSample = track.type == C.TRACK_TYPE_AUDIO;
+      long endMediaTime =
+          editMediaTime
+              + Util.scaleLargeTimestamp(editDuration, track.timescale, track.movieTimescale);
+      int startIndex = boxes.binarySearchCeilTimestamp(editMediaTime, true, true);
+      int endIndex = boxes.binarySearchCeilTimestamp(endMediaTime, omitClippedSample, false);
+      if (boxes.hasSynchronizationSample(startIndex, endIndex)) {
+        long editedDurationUs =
+            Util.scaleLargeTimestamp(editDuration, C.MICROS_PER_SECOND, track.timescale);
+        return new CompactTrackSampleTable(
+            boxes, startIndex, endIndex - startIndex, editMediaTime, track.timescale,
+            editedDurationUs);
+      }
+    }
+    // We don't support edit lists where the edited sample sequence doesn't contain a sync sample.
+    // Such edit lists are often (although not always) broken, so we ignore it and continue.
+    Log.w(TAG, "Ignoring edit list: Edited sample sequence does not contain a sync sample.");
+    return new CompactTrackSampleTable(
+        boxes, /* firstSampleIndex= */ 0, sampleCount, /* timeOffset= */ 0, track.timescale,
+        durationUs);
+  }
+
   /**
    * Parses a udta atom.
    *
@@ -629,7 +736,7 @@ import java.util.List;
    * @param isQuickTime True for QuickTime media. False otherwise.
    * @return An object containing the parsed data.
    */
-  private static StsdData parseStsd(ParsableByteArray stsd, int trackId, int rotationDegrees,
+  /* package */ static StsdData parseStsd(ParsableByteArray stsd, int trackId, int rotationDegrees,
       String language, DrmInitData drmInitData, boolean isQuickTime) throws ParserException {
     stsd.setPosition(Atom.FULL_HEADER_SIZE);
     int numberOfEntries = stsd.readInt();
@@ -652,7 +759,8 @@ import java.util.List;
           || childAtomType == Atom.TYPE_dtsh || childAtomType == Atom.TYPE_dtsl
           || childAtomType == Atom.TYPE_samr || childAtomType == Atom.TYPE_sawb
           || childAtomType == Atom.TYPE_lpcm || childAtomType == Atom.TYPE_sowt
-          || childAtomType == Atom.TYPE__mp3 || childAtomType == Atom.TYPE_alac) {
+          || childAtomType == Atom.TYPE__mp3 || childAtomType == Atom.TYPE_alac
+          || childAtomType == Atom.TYPE_mha1 || childAtomType == Atom.TYPE_mhm1) {
         parseAudioSampleEntry(stsd, childAtomType, childStartPosition, childAtomSize, trackId,
             language, isQuickTime, drmInitData, out, i);
       } else if (childAtomType == Atom.TYPE_TTML || childAtomType == Atom.TYPE_tx3g
@@ -935,6 +1043,12 @@ import java.util.List;
       mimeType = MimeTypes.AUDIO_MPEG;
     } else if (atomType == Atom.TYPE_alac) {
       mimeType = MimeTypes.AUDIO_ALAC;
+    } else if (atomType == Atom.TYPE_mha1) {
+      mimeType = MimeTypes.AUDIO_MPEGH_MHA1;
+    } else if (atomType == Atom.TYPE_mhm1) {
+      // No decoder currently supports this MIME type, so mhm1 tracks are exposed but can't be
+      // played.
+      mimeType = MimeTypes.AUDIO_MPEGH_MHM1;
     }
 
     byte[] initializationData = null;
@@ -976,6 +1090,19 @@ import java.util.List;
         initializationData = new byte[childAtomSize];
         parent.setPosition(childPosition);
         parent.readBytes(initializationData, 0, childAtomSize);
+      } else if (childAtomType == Atom.TYPE_mhaC) {
+        // Skip the version, profile and level (3 bytes) and the config length (2 bytes). The
+        // sample entry values are not meaningful for MPEG-H, so assume the 48 kHz stereo output of
+        // the decoder.
+        int configOffset = Atom.HEADER_SIZE + 5;
+        int configSize = childAtomSize - configOffset;
+        if (configSize > 0) {
+          channelCount = 2;
+          sampleRate = 48000;
+          initializationData = new byte[configSize];
+          parent.setPosition(childPosition + configOffset);
+          parent.readBytes(initializationData, 0, configSize);
+        }
       }
       childPosition += childAtomSize;
     }
@@ -1192,9 +1319,25 @@ import java.util.List;
     int latestDelayIndex = Util.constrainValue(MAX_GAPLESS_TRIM_SIZE_SAMPLES, 0, lastIndex);
     int earliestPaddingIndex =
         Util.constrainValue(timestamps.length - MAX_GAPLESS_TRIM_SIZE_SAMPLES, 0, lastIndex);
-    return timestamps[0] <= editStartTime
-        && editStartTime < timestamps[latestDelayIndex]
-        && timestamps[earliestPaddingIndex] < editEndTime
+    return canApplyEditWithGaplessInfo(
+        timestamps[0],
+        timestamps[latestDelayIndex],
+        timestamps[earliestPaddingIndex],
+        duration,
+        editStartTime,
+        editEndTime);
+  }
+
+  private static boolean canApplyEditWithGaplessInfo(
+      long firstTimestamp,
+      long latestDelayTimestamp,
+      long earliestPaddingTimestamp,
+      long duration,
+      long editStartTime,
+      long editEndTime) {
+    return firstTimestamp <= editStartTime
+        && editStartTime < latestDelayTimestamp
+        && earliestPaddingTimestamp < editEndTime
         && editEndTime <= duration;
   }
 
@@ -1267,7 +1410,7 @@ import java.util.List;
   /**
    * Holds data parsed from an stsd atom and its children.
    */
-  private static final class StsdData {
+  /* package */ static final class StsdData {
 
     public static final int STSD_HEADER_SIZE = 8;
 
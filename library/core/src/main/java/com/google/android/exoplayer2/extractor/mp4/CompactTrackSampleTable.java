@@ -0,0 +1,623 @@
+/*
+ * Copyright (C) 2016 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2.extractor.mp4;
+
+import android.support.annotation.Nullable;
+import android.util.Log;
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.util.ParsableByteArray;
+import com.google.android.exoplayer2.util.Util;
+import java.util.Arrays;
+
+/**
+ * A {@link TrackSampleTable} that keeps the sample table boxes in their compact form and resolves
+ * the properties of samples on demand. Memory usage is proportional to the number of runs in the
+ * stts, stsc and ctts boxes rather than to the number of samples, which keeps long tracks cheap to
+ * prepare.
+ */
+/* package */ final class CompactTrackSampleTable extends TrackSampleTable {
+
+  private static final String TAG = "CompactTrackSampleTable";
+
+  private final Boxes boxes;
+  private final int firstSampleIndex;
+  private final long timeOffset;
+  private final long timescale;
+
+  /**
+   * @param boxes The sample table boxes.
+   * @param firstSampleIndex The index in {@code boxes} of the first sample in the table.
+   * @param sampleCount The number of samples in the table.
+   * @param timeOffset An offset to subtract from sample timestamps in {@code boxes} before they are
+   *     converted to microseconds, in units of {@code timescale}.
+   * @param timescale The timescale of sample timestamps in {@code boxes}.
+   * @param durationUs The duration of the table in microseconds.
+   */
+  public CompactTrackSampleTable(
+      Boxes boxes,
+      int firstSampleIndex,
+      int sampleCount,
+      long timeOffset,
+      long timescale,
+      long durationUs) {
+    super(
+        sampleCount,
+        boxes.getMaximumSize(firstSampleIndex, firstSampleIndex + sampleCount),
+        durationUs);
+    this.boxes = boxes;
+    this.firstSampleIndex = firstSampleIndex;
+    this.timeOffset = timeOffset;
+    this.timescale = timescale;
+  }
+
+  @Override
+  public long getOffset(int sampleIndex) {
+    return boxes.getOffset(firstSampleIndex + sampleIndex);
+  }
+
+  @Override
+  public int getSize(int sampleIndex) {
+    return boxes.getSize(firstSampleIndex + sampleIndex);
+  }
+
+  @Override
+  public long getTimestampUs(int sampleIndex) {
+    return Util.scaleLargeTimestamp(
+        boxes.getTimestamp(firstSampleIndex + sampleIndex) - timeOffset,
+        C.MICROS_PER_SECOND,
+        timescale);
+  }
+
+  @Override
+  public int getFlags(int sampleIndex) {
+    return boxes.isSynchronizationSample(firstSampleIndex + sampleIndex)
+        ? C.BUFFER_FLAG_KEY_FRAME
+        : 0;
+  }
+
+  @Override
+  public int getIndexOfEarlierOrEqualSynchronizationSample(long timeUs) {
+    int startIndex = binarySearchFloorTimestamp(timeUs);
+    if (startIndex < 0) {
+      return C.INDEX_UNSET;
+    }
+    int index = boxes.getSynchronizationSampleFloor(firstSampleIndex + startIndex);
+    return index >= firstSampleIndex ? index - firstSampleIndex : C.INDEX_UNSET;
+  }
+
+  @Override
+  public int getIndexOfLaterOrEqualSynchronizationSample(long timeUs) {
+    int startIndex = binarySearchCeilTimestamp(timeUs);
+    if (startIndex >= sampleCount) {
+      return C.INDEX_UNSET;
+    }
+    int index = boxes.getSynchronizationSampleCeil(firstSampleIndex + startIndex);
+    return index != C.INDEX_UNSET && index < firstSampleIndex + sampleCount
+        ? index - firstSampleIndex
+        : C.INDEX_UNSET;
+  }
+
+  /**
+   * The run-length decoded sample table boxes of a track, from which sample properties are resolved
+   * on demand.
+   */
+  /* package */ static final class Boxes {
+
+    /**
+     * The number of samples.
+     */
+    public final int sampleCount;
+
+    // Sample sizes, from the stsz or stz2 box.
+    private final int fixedSampleSize;
+    private final byte[] sampleSizeData;
+    private final int sampleSizeDataOffset;
+    private final int sampleSizeFieldBits;
+
+    // Chunk offsets, from the stco or co64 box.
+    private final byte[] chunkOffsetData;
+    private final boolean chunkOffsetsAreLongs;
+
+    // Runs of chunks with the same number of samples, from the stsc box.
+    private final int[] chunkRunFirstChunks;
+    private final int[] chunkRunFirstSamples;
+    private final int[] chunkRunSamplesPerChunk;
+
+    // Runs of samples with the same duration, from the stts box.
+    private final int[] timeRunFirstSamples;
+    private final long[] timeRunFirstTimes;
+    private final int[] timeRunDeltas;
+
+    // Runs of samples with the same composition time offset, from the ctts box.
+    private final @Nullable int[] timeOffsetRunFirstSamples;
+    private final @Nullable int[] timeOffsetRunOffsets;
+
+    // Synchronization sample indices, from the stss box, or null if all samples are sync samples.
+    private final @Nullable int[] synchronizationSamples;
+
+    // The most recently resolved sample offset, which makes sequential lookups constant time.
+    private int cachedOffsetSampleIndex;
+    private long cachedOffset;
+    private int cachedOffsetChunkEndSampleIndex;
+
+    /**
+     * Decodes the sample table boxes of a track.
+     *
+     * <p>Returns null if the boxes are structured in a way that is not supported in compact form,
+     * in which case samples should be expanded by iterating over the boxes instead. No exception is
+     * thrown for malformed boxes, so that expansion can report them consistently.
+     *
+     * @param trackId The id of the track, used for logging.
+     * @param sampleSizes The stsz or stz2 box.
+     * @param chunkOffsets The stco or co64 box data.
+     * @param chunkOffsetsAreLongs Whether {@code chunkOffsets} is a co64 box.
+     * @param stsc The stsc box data.
+     * @param stts The stts box data.
+     * @param ctts The ctts box data, or null if not present.
+     * @param stss The stss box data, or null if not present.
+     * @return The decoded boxes, or null.
+     */
+    public static @Nullable Boxes parse(
+        int trackId,
+        Atom.LeafAtom sampleSizes,
+        ParsableByteArray chunkOffsets,
+        boolean chunkOffsetsAreLongs,
+        ParsableByteArray stsc,
+        ParsableByteArray stts,
+        @Nullable ParsableByteArray ctts,
+        @Nullable ParsableByteArray stss) {
+      try {
+        return parseInternal(
+            trackId,
+            sampleSizes,
+            new ParsableByteArray(chunkOffsets.data, chunkOffsets.limit()),
+            chunkOffsetsAreLongs,
+            new ParsableByteArray(stsc.data, stsc.limit()),
+            new ParsableByteArray(stts.data, stts.limit()),
+            ctts != null ? new ParsableByteArray(ctts.data, ctts.limit()) : null,
+            stss != null ? new ParsableByteArray(stss.data, stss.limit()) : null);
+      } catch (IllegalStateException | IndexOutOfBoundsException e) {
+        // Malformed box.
+        return null;
+      }
+    }
+
+    private static @Nullable Boxes parseInternal(
+        int trackId,
+        Atom.LeafAtom sampleSizes,
+        ParsableByteArray chunkOffsets,
+        boolean chunkOffsetsAreLongs,
+        ParsableByteArray stsc,
+        ParsableByteArray stts,
+        @Nullable ParsableByteArray ctts,
+        @Nullable ParsableByteArray stss) {
+      // Sample sizes.
+      ParsableByteArray sampleSizeData = sampleSizes.data;
+      int sampleSizeDataOffset = Atom.FULL_HEADER_SIZE + 8;
+      sampleSizeData = new ParsableByteArray(sampleSizeData.data, sampleSizeData.limit());
+      sampleSizeData.setPosition(Atom.FULL_HEADER_SIZE);
+      int fixedSampleSize = 0;
+      int sampleSizeFieldBits;
+      if (sampleSizes.type == Atom.TYPE_stsz) {
+        fixedSampleSize = sampleSizeData.readUnsignedIntToInt();
+        sampleSizeFieldBits = 32;
+      } else {
+        sampleSizeFieldBits = sampleSizeData.readUnsignedIntToInt() & 0xFF;
+        if (sampleSizeFieldBits != 4 && sampleSizeFieldBits != 8 && sampleSizeFieldBits != 16) {
+          return null;
+        }
+      }
+      int sampleCount = sampleSizeData.readUnsignedIntToInt();
+      if (fixedSampleSize == 0
+          && sampleSizeData.limit() - sampleSizeDataOffset
+              < ((long) sampleCount * sampleSizeFieldBits + 7) / 8) {
+        return null;
+      }
+
+      // Chunks.
+      chunkOffsets.setPosition(Atom.FULL_HEADER_SIZE);
+      int chunkCount = chunkOffsets.readUnsignedIntToInt();
+      if (chunkOffsets.bytesLeft() < (long) chunkCount * (chunkOffsetsAreLongs ? 8 : 4)) {
+        return null;
+      }
+      stsc.setPosition(Atom.FULL_HEADER_SIZE);
+      int chunkRunCount = stsc.readUnsignedIntToInt();
+      int[] chunkRunFirstChunks = new int[chunkRunCount];
+      int[] chunkRunFirstSamples = new int[chunkRunCount];
+      int[] chunkRunSamplesPerChunk = new int[chunkRunCount];
+      int nonEmptyChunkRunCount = 0;
+      long chunkSampleCount = 0;
+      int firstChunk = stsc.readUnsignedIntToInt() - 1;
+      if (firstChunk != 0) {
+        return null;
+      }
+      for (int i = 0; i < chunkRunCount && firstChunk < chunkCount; i++) {
+        int samplesPerChunk = stsc.readUnsignedIntToInt();
+        stsc.skipBytes(4); // Skip sample_description_index
+        int nextFirstChunk = i < chunkRunCount - 1 ? stsc.readUnsignedIntToInt() - 1 : chunkCount;
+        if (nextFirstChunk <= firstChunk) {
+          return null;
+        }
+        if (samplesPerChunk > 0) {
+          chunkRunFirstChunks[nonEmptyChunkRunCount] = firstChunk;
+          chunkRunFirstSamples[nonEmptyChunkRunCount] = (int) chunkSampleCount;
+          chunkRunSamplesPerChunk[nonEmptyChunkRunCount] = samplesPerChunk;
+          nonEmptyChunkRunCount++;
+          chunkSampleCount +=
+              (long) (Math.min(nextFirstChunk, chunkCount) - firstChunk) * samplesPerChunk;
+          if (chunkSampleCount >= sampleCount) {
+            break;
+          }
+        }
+        firstChunk = nextFirstChunk;
+      }
+      if (chunkSampleCount < sampleCount) {
+        return null;
+      }
+
+      // Sample timestamps.
+      stts.setPosition(Atom.FULL_HEADER_SIZE);
+      int timeRunCount = stts.readUnsignedIntToInt();
+      if (timeRunCount == 0) {
+        return null;
+      }
+      int[] timeRunFirstSamples = new int[timeRunCount];
+      long[] timeRunFirstTimes = new long[timeRunCount];
+      int[] timeRunDeltas = new int[timeRunCount];
+      long timeSampleCount = 0;
+      long time = 0;
+      for (int i = 0; i < timeRunCount; i++) {
+        int runSampleCount = stts.readUnsignedIntToInt();
+        // See the comment in AtomParsers.parseStbl about reading deltas as signed integers.
+        int delta = i == 0 ? stts.readUnsignedIntToInt() : stts.readInt();
+        if (runSampleCount == 0 || timeSampleCount > Integer.MAX_VALUE) {
+          return null;
+        }
+        timeRunFirstSamples[i] = (int) timeSampleCount;
+        timeRunFirstTimes[i] = time;
+        timeRunDeltas[i] = delta;
+        timeSampleCount += runSampleCount;
+        time += (long) runSampleCount * delta;
+      }
+
+      // Sample timestamp offsets.
+      int[] timeOffsetRunFirstSamples = null;
+      int[] timeOffsetRunOffsets = null;
+      if (ctts != null) {
+        ctts.setPosition(Atom.FULL_HEADER_SIZE);
+        int timeOffsetEntryCount = ctts.readUnsignedIntToInt();
+        timeOffsetRunFirstSamples = new int[timeOffsetEntryCount];
+        timeOffsetRunOffsets = new int[timeOffsetEntryCount];
+        int timeOffsetRunCount = 0;
+        long timeOffsetSampleCount = 0;
+        for (int i = 0; i < timeOffsetEntryCount; i++) {
+          int runSampleCount = ctts.readUnsignedIntToInt();
+          // See the comment in AtomParsers.parseStbl about reading offsets as signed integers.
+          int offset = ctts.readInt();
+          if (runSampleCount > 0) {
+            timeOffsetRunFirstSamples[timeOffsetRunCount] = (int) timeOffsetSampleCount;
+            timeOffsetRunOffsets[timeOffsetRunCount] = offset;
+            timeOffsetRunCount++;
+            timeOffsetSampleCount += runSampleCount;
+          }
+        }
+        if (timeOffsetSampleCount != sampleCount) {
+          return null;
+        }
+        timeOffsetRunFirstSamples = Arrays.copyOf(timeOffsetRunFirstSamples, timeOffsetRunCount);
+        timeOffsetRunOffsets = Arrays.copyOf(timeOffsetRunOffsets, timeOffsetRunCount);
+      }
+
+      // Synchronization samples.
+      int[] synchronizationSamples = null;
+      int remainingSynchronizationSamples = 0;
+      if (stss != null) {
+        stss.setPosition(Atom.FULL_HEADER_SIZE);
+        int synchronizationSampleCount = stss.readUnsignedIntToInt();
+        // Empty stss boxes are ignored, which causes all samples to be treated as sync samples.
+        if (synchronizationSampleCount > 0) {
+          synchronizationSamples = new int[synchronizationSampleCount];
+          int validSynchronizationSampleCount = 0;
+          int previousSampleIndex = C.INDEX_UNSET;
+          for (int i = 0; i < synchronizationSampleCount; i++) {
+            int sampleIndex = stss.readUnsignedIntToInt() - 1;
+            if (sampleIndex <= previousSampleIndex) {
+              return null;
+            }
+            previousSampleIndex = sampleIndex;
+            if (sampleIndex < sampleCount) {
+              synchronizationSamples[validSynchronizationSampleCount++] = sampleIndex;
+            } else {
+              remainingSynchronizationSamples++;
+            }
+          }
+          synchronizationSamples =
+              Arrays.copyOf(synchronizationSamples, validSynchronizationSampleCount);
+        }
+      }
+
+      // If the stbl's child boxes are not consistent the container is malformed, but the stream may
+      // still be playable.
+      if (remainingSynchronizationSamples != 0 || timeSampleCount != sampleCount) {
+        Log.w(TAG, "Inconsistent stbl box for track " + trackId
+            + ": remainingSynchronizationSamples " + remainingSynchronizationSamples
+            + ", timestampSampleCount " + timeSampleCount
+            + ", sampleCount " + sampleCount);
+      }
+
+      return new Boxes(
+          sampleCount,
+          fixedSampleSize,
+          sampleSizeData.data,
+          sampleSizeDataOffset,
+          sampleSizeFieldBits,
+          chunkOffsets.data,
+          chunkOffsetsAreLongs,
+          Arrays.copyOf(chunkRunFirstChunks, nonEmptyChunkRunCount),
+          Arrays.copyOf(chunkRunFirstSamples, nonEmptyChunkRunCount),
+          Arrays.copyOf(chunkRunSamplesPerChunk, nonEmptyChunkRunCount),
+          timeRunFirstSamples,
+          timeRunFirstTimes,
+          timeRunDeltas,
+          timeOffsetRunFirstSamples,
+          timeOffsetRunOffsets,
+          synchronizationSamples);
+    }
+
+    private Boxes(
+        int sampleCount,
+        int fixedSampleSize,
+        byte[] sampleSizeData,
+        int sampleSizeDataOffset,
+        int sampleSizeFieldBits,
+        byte[] chunkOffsetData,
+        boolean chunkOffsetsAreLongs,
+        int[] chunkRunFirstChunks,
+        int[] chunkRunFirstSamples,
+        int[] chunkRunSamplesPerChunk,
+        int[] timeRunFirstSamples,
+        long[] timeRunFirstTimes,
+        int[] timeRunDeltas,
+        @Nullable int[] timeOffsetRunFirstSamples,
+        @Nullable int[] timeOffsetRunOffsets,
+        @Nullable int[] synchronizationSamples) {
+      this.sampleCount = sampleCount;
+      this.fixedSampleSize = fixedSampleSize;
+      this.sampleSizeData = sampleSizeData;
+      this.sampleSizeDataOffset = sampleSizeDataOffset;
+      this.sampleSizeFieldBits = sampleSizeFieldBits;
+      this.chunkOffsetData = chunkOffsetData;
+      this.chunkOffsetsAreLongs = chunkOffsetsAreLongs;
+      this.chunkRunFirstChunks = chunkRunFirstChunks;
+      this.chunkRunFirstSamples = chunkRunFirstSamples;
+      this.chunkRunSamplesPerChunk = chunkRunSamplesPerChunk;
+      this.timeRunFirstSamples = timeRunFirstSamples;
+      this.timeRunFirstTimes = timeRunFirstTimes;
+      this.timeRunDeltas = timeRunDeltas;
+      this.timeOffsetRunFirstSamples = timeOffsetRunFirstSamples;
+      this.timeOffsetRunOffsets = timeOffsetRunOffsets;
+      this.synchronizationSamples = synchronizationSamples;
+      cachedOffsetSampleIndex = C.INDEX_UNSET;
+    }
+
+    /**
+     * Returns the offset of a sample in bytes.
+     */
+    public synchronized long getOffset(int sampleIndex) {
+      if (sampleIndex == cachedOffsetSampleIndex) {
+        return cachedOffset;
+      }
+      long offset;
+      if (sampleIndex == cachedOffsetSampleIndex + 1
+          && sampleIndex < cachedOffsetChunkEndSampleIndex) {
+        offset = cachedOffset + getSize(cachedOffsetSampleIndex);
+      } else {
+        int run = getRunIndex(chunkRunFirstSamples, sampleIndex);
+        int samplesPerChunk = chunkRunSamplesPerChunk[run];
+        int chunkIndexInRun = (sampleIndex - chunkRunFirstSamples[run]) / samplesPerChunk;
+        int chunkFirstSampleIndex = chunkRunFirstSamples[run] + chunkIndexInRun * samplesPerChunk;
+        offset = getChunkOffset(chunkRunFirstChunks[run] + chunkIndexInRun);
+        if (fixedSampleSize != 0) {
+          offset += (long) (sampleIndex - chunkFirstSampleIndex) * fixedSampleSize;
+        } else {
+          for (int i = chunkFirstSampleIndex; i < sampleIndex; i++) {
+            offset += getSize(i);
+          }
+        }
+        cachedOffsetChunkEndSampleIndex = chunkFirstSampleIndex + samplesPerChunk;
+      }
+      cachedOffsetSampleIndex = sampleIndex;
+      cachedOffset = offset;
+      return offset;
+    }
+
+    /**
+     * Returns the size of a sample in bytes.
+     */
+    public int getSize(int sampleIndex) {
+      if (fixedSampleSize != 0) {
+        return fixedSampleSize;
+      }
+      byte[] data = sampleSizeData;
+      switch (sampleSizeFieldBits) {
+        case 32:
+          int position = sampleSizeDataOffset + sampleIndex * 4;
+          return (data[position] & 0xFF) << 24
+              | (data[position + 1] & 0xFF) << 16
+              | (data[position + 2] & 0xFF) << 8
+              | (data[position + 3] & 0xFF);
+        case 16:
+          position = sampleSizeDataOffset + sampleIndex * 2;
+          return (data[position] & 0xFF) << 8 | (data[position + 1] & 0xFF);
+        case 8:
+          return data[sampleSizeDataOffset + sampleIndex] & 0xFF;
+        default:
+          // sampleSizeFieldBits == 4. The upper bits hold the size of the even sample.
+          int value = data[sampleSizeDataOffset + sampleIndex / 2] & 0xFF;
+          return (sampleIndex % 2) == 0 ? (value & 0xF0) >> 4 : value & 0x0F;
+      }
+    }
+
+    /**
+     * Returns the presentation timestamp of a sample, in units of the track timescale.
+     */
+    public long getTimestamp(int sampleIndex) {
+      return getDecodingTimestamp(sampleIndex) + getTimestampOffset(sampleIndex);
+    }
+
+    /**
+     * Returns whether a sample is a synchronization sample.
+     */
+    public boolean isSynchronizationSample(int sampleIndex) {
+      return synchronizationSamples == null
+          || Arrays.binarySearch(synchronizationSamples, sampleIndex) >= 0;
+    }
+
+    /**
+     * Returns the duration of all samples, in units of the track timescale.
+     */
+    public long getDuration() {
+      return getDecodingTimestamp(sampleCount) + getTimestampOffset(sampleCount - 1);
+    }
+
+    /**
+     * Returns the maximum size of the samples in a range.
+     *
+     * @param fromIndex The index of the first sample in the range.
+     * @param toIndex The index after the last sample in the range.
+     */
+    public int getMaximumSize(int fromIndex, int toIndex) {
+      if (fixedSampleSize != 0) {
+        return toIndex > fromIndex ? fixedSampleSize : 0;
+      }
+      int maximumSize = 0;
+      for (int i = fromIndex; i < toIndex; i++) {
+        maximumSize = Math.max(maximumSize, getSize(i));
+      }
+      return maximumSize;
+    }
+
+    /**
+     * Returns whether there is a synchronization sample in a range.
+     *
+     * @param fromIndex The index of the first sample in the range.
+     * @param toIndex The index after the last sample in the range.
+     */
+    public boolean hasSynchronizationSample(int fromIndex, int toIndex) {
+      if (fromIndex >= toIndex) {
+        return false;
+      }
+      int index = getSynchronizationSampleCeil(fromIndex);
+      return index != C.INDEX_UNSET && index < toIndex;
+    }
+
+    /**
+     * Returns the index of the last synchronization sample at or before a sample, or {@link
+     * C#INDEX_UNSET} if there is none.
+     */
+    public int getSynchronizationSampleFloor(int sampleIndex) {
+      if (synchronizationSamples == null) {
+        return sampleIndex;
+      }
+      int index = Arrays.binarySearch(synchronizationSamples, sampleIndex);
+      if (index < 0) {
+        index = -(index + 2);
+      }
+      return index >= 0 ? synchronizationSamples[index] : C.INDEX_UNSET;
+    }
+
+    /**
+     * Returns the index of the first synchronization sample at or after a sample, or {@link
+     * C#INDEX_UNSET} if there is none.
+     */
+    public int getSynchronizationSampleCeil(int sampleIndex) {
+      if (synchronizationSamples == null) {
+        return sampleIndex < sampleCount ? sampleIndex : C.INDEX_UNSET;
+      }
+      int index = Arrays.binarySearch(synchronizationSamples, sampleIndex);
+      if (index < 0) {
+        index = ~index;
+      }
+      return index < synchronizationSamples.length ? synchronizationSamples[index] : C.INDEX_UNSET;
+    }
+
+    /**
+     * Equivalent to {@link Util#binarySearchCeil(long[], long, boolean, boolean)} applied to the
+     * sample timestamps returned by {@link #getTimestamp(int)}, performing the same comparisons so
+     * that results are identical even if the timestamps are not sorted.
+     */
+    public int binarySearchCeilTimestamp(long timestamp, boolean inclusive, boolean stayInBounds) {
+      int low = 0;
+      int high = sampleCount - 1;
+      int index = C.INDEX_UNSET;
+      while (low <= high && index == C.INDEX_UNSET) {
+        int mid = (low + high) >>> 1;
+        long midTimestamp = getTimestamp(mid);
+        if (midTimestamp < timestamp) {
+          low = mid + 1;
+        } else if (midTimestamp > timestamp) {
+          high = mid - 1;
+        } else {
+          index = mid;
+        }
+      }
+      if (index == C.INDEX_UNSET) {
+        index = low;
+      } else {
+        while ((++index) < sampleCount && getTimestamp(index) == timestamp) {}
+        if (inclusive) {
+          index--;
+        }
+      }
+      return stayInBounds ? Math.min(sampleCount - 1, index) : index;
+    }
+
+    private long getDecodingTimestamp(int sampleIndex) {
+      int run = getRunIndex(timeRunFirstSamples, sampleIndex);
+      return timeRunFirstTimes[run]
+          + (long) (sampleIndex - timeRunFirstSamples[run]) * timeRunDeltas[run];
+    }
+
+    private long getTimestampOffset(int sampleIndex) {
+      if (timeOffsetRunFirstSamples == null) {
+        return 0;
+      }
+      return timeOffsetRunOffsets[getRunIndex(timeOffsetRunFirstSamples, sampleIndex)];
+    }
+
+    private long getChunkOffset(int chunkIndex) {
+      byte[] data = chunkOffsetData;
+      int entrySize = chunkOffsetsAreLongs ? 8 : 4;
+      int position = Atom.FULL_HEADER_SIZE + 4 + chunkIndex * entrySize;
+      long offset = 0;
+      for (int i = 0; i < entrySize; i++) {
+        offset = (offset << 8) | (data[position + i] & 0xFF);
+      }
+      return offset;
+    }
+
+    /**
+     * Returns the index of the run that contains a sample, given the indices of the first samples
+     * of each run in ascending order. The first run must start at sample zero.
+     */
+    private static int getRunIndex(int[] runFirstSamples, int sampleIndex) {
+      int index = Arrays.binarySearch(runFirstSamples, sampleIndex);
+      return index >= 0 ? index : -(index + 2);
+    }
+
+  }
+
+}
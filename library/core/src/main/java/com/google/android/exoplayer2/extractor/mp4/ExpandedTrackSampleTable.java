@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2016 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2.extractor.mp4;
+
+import com.google.android.exoplayer2.util.Assertions;
+import com.google.android.exoplayer2.util.Util;
+
+/**
+ * A {@link TrackSampleTable} that holds the properties of every sample in arrays. Used where
+ * samples cannot be derived on demand from the sample table boxes, for example when a complex edit
+ * list has been applied.
+ */
+/* package */ final class ExpandedTrackSampleTable extends TrackSampleTable {
+
+  private final long[] offsets;
+  private final int[] sizes;
+  private final long[] timestampsUs;
+  private final int[] flags;
+
+  /**
+   * @param offsets Sample offsets in bytes.
+   * @param sizes Sample sizes in bytes.
+   * @param maximumSize Maximum sample size in {@code sizes}.
+   * @param timestampsUs Sample timestamps in microseconds.
+   * @param flags Sample flags.
+   * @param durationUs The duration of the track sample table in microseconds, or {@link
+   *     com.google.android.exoplayer2.C#TIME_UNSET} if the sample table is empty.
+   */
+  public ExpandedTrackSampleTable(
+      long[] offsets,
+      int[] sizes,
+      int maximumSize,
+      long[] timestampsUs,
+      int[] flags,
+      long durationUs) {
+    super(offsets.length, maximumSize, durationUs);
+    Assertions.checkArgument(sizes.length == timestampsUs.length);
+    Assertions.checkArgument(offsets.length == timestampsUs.length);
+    Assertions.checkArgument(flags.length == timestampsUs.length);
+    this.offsets = offsets;
+    this.sizes = sizes;
+    this.timestampsUs = timestampsUs;
+    this.flags = flags;
+  }
+
+  @Override
+  public long getOffset(int sampleIndex) {
+    return offsets[sampleIndex];
+  }
+
+  @Override
+  public int getSize(int sampleIndex) {
+    return sizes[sampleIndex];
+  }
+
+  @Override
+  public long getTimestampUs(int sampleIndex) {
+    return timestampsUs[sampleIndex];
+  }
+
+  @Override
+  public int getFlags(int sampleIndex) {
+    return flags[sampleIndex];
+  }
+
+  @Override
+  protected int binarySearchFloorTimestamp(long timeUs) {
+    return Util.binarySearchFloor(timestampsUs, timeUs, true, false);
+  }
+
+  @Override
+  protected int binarySearchCeilTimestamp(long timeUs) {
+    return Util.binarySearchCeil(timestampsUs, timeUs, true, false);
+  }
+
+}
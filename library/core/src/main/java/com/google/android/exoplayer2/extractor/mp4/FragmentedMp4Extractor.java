@@ -141,6 +141,9 @@ public final class FragmentedMp4Extractor implements Extractor {
   private final ParsableByteArray atomHeader;
   private final byte[] extendedTypeScratch;
   private final ArrayDeque<ContainerAtom> containerAtoms;
+  // Buffers for the leaf atoms of moof boxes, which are reused once the moof has been processed.
+  private final ArrayList<ParsableByteArray> fragmentAtomDataPool;
+  private int fragmentAtomDataPoolUsed;
   private final ArrayDeque<MetadataSampleInfo> pendingMetadataSampleInfos;
   private final @Nullable TrackOutput additionalEmsgTrackOutput;
 
@@ -257,6 +260,7 @@ public final class FragmentedMp4Extractor implements Extractor {
     nalBuffer = new ParsableByteArray();
     extendedTypeScratch = new byte[16];
     containerAtoms = new ArrayDeque<>();
+    fragmentAtomDataPool = new ArrayList<>();
     pendingMetadataSampleInfos = new ArrayDeque<>();
     trackBundles = new SparseArray<>();
     durationUs = C.TIME_UNSET;
@@ -292,6 +296,7 @@ public final class FragmentedMp4Extractor implements Extractor {
     pendingMetadataSampleBytes = 0;
     pendingSeekTimeUs = timeUs;
     containerAtoms.clear();
+    fragmentAtomDataPoolUsed = 0;
     enterReadingAtomHeaderState();
   }
 
@@ -403,7 +408,7 @@ public final class FragmentedMp4Extractor implements Extractor {
       if (atomSize > Integer.MAX_VALUE) {
         throw new ParserException("Leaf atom with length > 2147483647 (unsupported).");
       }
-      atomData = new ParsableByteArray((int) atomSize);
+      atomData = obtainAtomData((int) atomSize);
       System.arraycopy(atomHeader.data, 0, atomData.data, 0, Atom.HEADER_SIZE);
       parserState = STATE_READING_ATOM_PAYLOAD;
     } else {
@@ -417,6 +422,29 @@ public final class FragmentedMp4Extractor implements Extractor {
     return true;
   }
 
+  /**
+   * Returns a buffer of the specified size for the current leaf atom. Buffers for atoms in moof
+   * boxes are taken from {@link #fragmentAtomDataPool}, except for pssh atoms whose data may be
+   * retained.
+   */
+  private ParsableByteArray obtainAtomData(int size) {
+    int parentType = containerAtoms.isEmpty() ? 0 : containerAtoms.peek().type;
+    if ((parentType != Atom.TYPE_moof && parentType != Atom.TYPE_traf)
+        || atomType == Atom.TYPE_pssh) {
+      return new ParsableByteArray(size);
+    }
+    ParsableByteArray data;
+    if (fragmentAtomDataPoolUsed < fragmentAtomDataPool.size()) {
+      data = fragmentAtomDataPool.get(fragmentAtomDataPoolUsed);
+      data.reset(size);
+    } else {
+      data = new ParsableByteArray(size);
+      fragmentAtomDataPool.add(data);
+    }
+    fragmentAtomDataPoolUsed++;
+    return data;
+  }
+
   private void readAtomPayload(ExtractorInput input) throws IOException, InterruptedException {
     int atomPayloadSize = (int) atomSize - atomHeaderBytesRead;
     if (atomData != null) {
@@ -533,6 +561,8 @@ public final class FragmentedMp4Extractor implements Extractor {
       }
       pendingSeekTimeUs = C.TIME_UNSET;
     }
+    // The leaf atoms of the moof are no longer needed.
+    fragmentAtomDataPoolUsed = 0;
   }
 
   private void maybeInitExtraTracks() {
@@ -16,64 +16,60 @@
 package com.google.android.exoplayer2.extractor.mp4;
 
 import com.google.android.exoplayer2.C;
-import com.google.android.exoplayer2.util.Assertions;
-import com.google.android.exoplayer2.util.Util;
 
 /**
  * Sample table for a track in an MP4 file.
  */
-/* package */ final class TrackSampleTable {
+/* package */ abstract class TrackSampleTable {
 
   /**
    * Number of samples.
    */
   public final int sampleCount;
   /**
-   * Sample offsets in bytes.
-   */
-  public final long[] offsets;
-  /**
-   * Sample sizes in bytes.
-   */
-  public final int[] sizes;
-  /**
-   * Maximum sample size in {@link #sizes}.
+   * Maximum sample size in bytes.
    */
   public final int maximumSize;
-  /**
-   * Sample timestamps in microseconds.
-   */
-  public final long[] timestampsUs;
-  /**
-   * Sample flags.
-   */
-  public final int[] flags;
   /**
    * The duration of the track sample table in microseconds, or {@link C#TIME_UNSET} if the sample
    * table is empty.
    */
   public final long durationUs;
 
-  public TrackSampleTable(
-      long[] offsets,
-      int[] sizes,
-      int maximumSize,
-      long[] timestampsUs,
-      int[] flags,
-      long durationUs) {
-    Assertions.checkArgument(sizes.length == timestampsUs.length);
-    Assertions.checkArgument(offsets.length == timestampsUs.length);
-    Assertions.checkArgument(flags.length == timestampsUs.length);
-
-    this.offsets = offsets;
-    this.sizes = sizes;
+  protected TrackSampleTable(int sampleCount, int maximumSize, long durationUs) {
+    this.sampleCount = sampleCount;
     this.maximumSize = maximumSize;
-    this.timestampsUs = timestampsUs;
-    this.flags = flags;
     this.durationUs = durationUs;
-    sampleCount = offsets.length;
   }
 
+  /**
+   * Returns the offset of a sample in bytes.
+   *
+   * @param sampleIndex The index of the sample.
+   */
+  public abstract long getOffset(int sampleIndex);
+
+  /**
+   * Returns the size of a sample in bytes.
+   *
+   * @param sampleIndex The index of the sample.
+   */
+  public abstract int getSize(int sampleIndex);
+
+  /**
+   * Returns the timestamp of a sample in microseconds.
+   *
+   * @param sampleIndex The index of the sample.
+   */
+  public abstract long getTimestampUs(int sampleIndex);
+
+  /**
+   * Returns the flags of a sample.
+   *
+   * @param sampleIndex The index of the sample.
+   */
+  public abstract int getFlags(int sampleIndex);
+
   /**
    * Returns the sample index of the closest synchronization sample at or before the given
    * timestamp, if one is available.
@@ -84,9 +80,9 @@ import com.google.android.exoplayer2.util.Util;
   public int getIndexOfEarlierOrEqualSynchronizationSample(long timeUs) {
     // Video frame timestamps may not be sorted, so the behavior of this call can be undefined.
     // Frames are not reordered past synchronization samples so this works in practice.
-    int startIndex = Util.binarySearchFloor(timestampsUs, timeUs, true, false);
+    int startIndex = binarySearchFloorTimestamp(timeUs);
     for (int i = startIndex; i >= 0; i--) {
-      if ((flags[i] & C.BUFFER_FLAG_KEY_FRAME) != 0) {
+      if ((getFlags(i) & C.BUFFER_FLAG_KEY_FRAME) != 0) {
         return i;
       }
     }
@@ -101,13 +97,69 @@ import com.google.android.exoplayer2.util.Util;
    * @return index Index of the synchronization sample, or {@link C#INDEX_UNSET} if none.
    */
   public int getIndexOfLaterOrEqualSynchronizationSample(long timeUs) {
-    int startIndex = Util.binarySearchCeil(timestampsUs, timeUs, true, false);
-    for (int i = startIndex; i < timestampsUs.length; i++) {
-      if ((flags[i] & C.BUFFER_FLAG_KEY_FRAME) != 0) {
+    int startIndex = binarySearchCeilTimestamp(timeUs);
+    for (int i = startIndex; i < sampleCount; i++) {
+      if ((getFlags(i) & C.BUFFER_FLAG_KEY_FRAME) != 0) {
         return i;
       }
     }
     return C.INDEX_UNSET;
   }
 
+  /**
+   * Returns the index of the first sample whose timestamp is equal to {@code timeUs}, or the index
+   * of the last sample whose timestamp is less than {@code timeUs}, or -1. Equivalent to {@link
+   * com.google.android.exoplayer2.util.Util#binarySearchFloor(long[], long, boolean, boolean)}
+   * with {@code inclusive} set and {@code stayInBounds} unset, applied to the sample timestamps.
+   */
+  protected int binarySearchFloorTimestamp(long timeUs) {
+    int index = binarySearchTimestamp(timeUs);
+    if (index < 0) {
+      index = -(index + 2);
+    } else {
+      while ((--index) >= 0 && getTimestampUs(index) == timeUs) {}
+      index++;
+    }
+    return index;
+  }
+
+  /**
+   * Returns the index of the last sample whose timestamp is equal to {@code timeUs}, or the index
+   * of the first sample whose timestamp is greater than {@code timeUs}, or {@link #sampleCount}.
+   * Equivalent to {@link com.google.android.exoplayer2.util.Util#binarySearchCeil(long[], long,
+   * boolean, boolean)} with {@code inclusive} set and {@code stayInBounds} unset, applied to the
+   * sample timestamps.
+   */
+  protected int binarySearchCeilTimestamp(long timeUs) {
+    int index = binarySearchTimestamp(timeUs);
+    if (index < 0) {
+      index = ~index;
+    } else {
+      while ((++index) < sampleCount && getTimestampUs(index) == timeUs) {}
+      index--;
+    }
+    return index;
+  }
+
+  /**
+   * Performs the same binary search as {@link java.util.Arrays#binarySearch(long[], long)} on the
+   * sample timestamps, so that results are identical even if the timestamps are not sorted.
+   */
+  private int binarySearchTimestamp(long timeUs) {
+    int low = 0;
+    int high = sampleCount - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      long midTimeUs = getTimestampUs(mid);
+      if (midTimeUs < timeUs) {
+        low = mid + 1;
+      } else if (midTimeUs > timeUs) {
+        high = mid - 1;
+      } else {
+        return mid;
+      }
+    }
+    return -(low + 1);
+  }
+
 }
@@ -156,7 +156,10 @@ public final class H264Reader implements ElementaryStreamReader {
       sps.startNalUnit(nalUnitType);
       pps.startNalUnit(nalUnitType);
     }
-    sei.startNalUnit(nalUnitType);
+    if (seiReader.hasTracks()) {
+      // SEI units are only buffered if they may contain closed captions to output.
+      sei.startNalUnit(nalUnitType);
+    }
     sampleReader.startNalUnit(position, nalUnitType, pesTimeUs);
   }
 
@@ -167,8 +167,11 @@ public final class H265Reader implements ElementaryStreamReader {
       sps.startNalUnit(nalUnitType);
       pps.startNalUnit(nalUnitType);
     }
-    prefixSei.startNalUnit(nalUnitType);
-    suffixSei.startNalUnit(nalUnitType);
+    if (seiReader.hasTracks()) {
+      // SEI units are only buffered if they may contain closed captions to output.
+      prefixSei.startNalUnit(nalUnitType);
+      suffixSei.startNalUnit(nalUnitType);
+    }
   }
 
   private void nalUnitData(byte[] dataArray, int offset, int limit) {
@@ -59,6 +59,14 @@ import java.util.List;
     }
   }
 
+  /**
+   * Returns whether any closed caption tracks are exposed. If not, SEI buffers do not need to be
+   * consumed.
+   */
+  public boolean hasTracks() {
+    return outputs.length > 0;
+  }
+
   public void consume(long pesTimeUs, ParsableByteArray seiBuffer) {
     CeaUtil.consume(pesTimeUs, seiBuffer, outputs);
   }
@@ -240,30 +240,48 @@ public final class TsExtractor implements Extractor {
       tsPacketBuffer.setLimit(limit + read);
     }
 
-    // Note: See ISO/IEC 13818-1, section 2.4.3.2 for details of the header format.
+    // Consume every complete packet in the buffer, rather than returning after each one.
     int limit = tsPacketBuffer.limit();
     int position = tsPacketBuffer.getPosition();
-    int searchStart = position;
-    while (position < limit && data[position] != TS_SYNC_BYTE) {
-      position++;
-    }
-    tsPacketBuffer.setPosition(position);
-
-    int endOfPacket = position + TS_PACKET_SIZE;
-    if (endOfPacket > limit) {
-      bytesSinceLastSync += position - searchStart;
-      if (mode == MODE_HLS && bytesSinceLastSync > TS_PACKET_SIZE * 2) {
-        throw new ParserException("Cannot find sync byte. Most likely not a Transport Stream.");
+    while (true) {
+      int searchStart = position;
+      while (position < limit && data[position] != TS_SYNC_BYTE) {
+        position++;
+      }
+      int endOfPacket = position + TS_PACKET_SIZE;
+      if (endOfPacket > limit) {
+        tsPacketBuffer.setPosition(position);
+        bytesSinceLastSync += position - searchStart;
+        if (mode == MODE_HLS && bytesSinceLastSync > TS_PACKET_SIZE * 2) {
+          throw new ParserException("Cannot find sync byte. Most likely not a Transport Stream.");
+        }
+        return RESULT_CONTINUE;
       }
-      return RESULT_CONTINUE;
+      bytesSinceLastSync = 0;
+      consumePacket(position, endOfPacket, limit);
+      position = endOfPacket;
     }
-    bytesSinceLastSync = 0;
+  }
+
+  // Internals.
 
-    int tsPacketHeader = tsPacketBuffer.readInt();
+  /**
+   * Consumes the packet in {@link #tsPacketBuffer} that starts with a sync byte at {@code
+   * position}.
+   *
+   * @param position The position of the packet in the buffer.
+   * @param endOfPacket The position of the end of the packet in the buffer.
+   * @param limit The limit of the buffer.
+   */
+  private void consumePacket(int position, int endOfPacket, int limit) throws ParserException {
+    // Note: See ISO/IEC 13818-1, section 2.4.3.2 for details of the header format.
+    byte[] data = tsPacketBuffer.data;
+    int tsPacketHeader = (data[position + 1] & 0xFF) << 16
+        | (data[position + 2] & 0xFF) << 8
+        | (data[position + 3] & 0xFF);
     if ((tsPacketHeader & 0x800000) != 0) { // transport_error_indicator
       // There are uncorrectable errors in this packet.
-      tsPacketBuffer.setPosition(endOfPacket);
-      return RESULT_CONTINUE;
+      return;
     }
     boolean payloadUnitStartIndicator = (tsPacketHeader & 0x400000) != 0;
     // Ignoring transport_priority (tsPacketHeader & 0x200000)
@@ -274,8 +292,7 @@ public final class TsExtractor implements Extractor {
 
     TsPayloadReader payloadReader = payloadExists ? tsPayloadReaders.get(pid) : null;
     if (payloadReader == null) {
-      tsPacketBuffer.setPosition(endOfPacket);
-      return RESULT_CONTINUE;
+      return;
     }
 
     // Discontinuity check.
@@ -285,8 +302,7 @@ public final class TsExtractor implements Extractor {
       continuityCounters.put(pid, continuityCounter);
       if (previousCounter == continuityCounter) {
         // Duplicate packet found.
-        tsPacketBuffer.setPosition(endOfPacket);
-        return RESULT_CONTINUE;
+        return;
       } else if (continuityCounter != ((previousCounter + 1) & 0xF)) {
         // Discontinuity found.
         payloadReader.seek();
@@ -294,22 +310,18 @@ public final class TsExtractor implements Extractor {
     }
 
     // Skip the adaptation field.
+    int payloadPosition = position + 4;
     if (adaptationFieldExists) {
-      int adaptationFieldLength = tsPacketBuffer.readUnsignedByte();
-      tsPacketBuffer.skipBytes(adaptationFieldLength);
+      payloadPosition += 1 + (data[payloadPosition] & 0xFF);
     }
 
     // Read the payload.
+    tsPacketBuffer.setPosition(Math.min(payloadPosition, endOfPacket));
     tsPacketBuffer.setLimit(endOfPacket);
     payloadReader.consume(tsPacketBuffer, payloadUnitStartIndicator);
     tsPacketBuffer.setLimit(limit);
-
-    tsPacketBuffer.setPosition(endOfPacket);
-    return RESULT_CONTINUE;
   }
 
-  // Internals.
-
   private void resetPayloadReaders() {
     trackIds.clear();
     tsPayloadReaders.clear();
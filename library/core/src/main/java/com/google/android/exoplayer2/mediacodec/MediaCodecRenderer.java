@@ -756,12 +756,17 @@ public abstract class MediaCodecRenderer extends BaseRenderer {
       buffer.flip();
       onQueueInputBuffer(buffer);
 
-      if (bufferEncrypted) {
-        MediaCodec.CryptoInfo cryptoInfo = getFrameworkCryptoInfo(buffer,
-            adaptiveReconfigurationBytes);
-        codec.queueSecureInputBuffer(inputIndex, 0, cryptoInfo, presentationTimeUs, 0);
-      } else {
-        codec.queueInputBuffer(inputIndex, 0, buffer.data.limit(), presentationTimeUs, 0);
+      TraceUtil.beginSection("queueInputBuffer");
+      try {
+        if (bufferEncrypted) {
+          MediaCodec.CryptoInfo cryptoInfo = getFrameworkCryptoInfo(buffer,
+              adaptiveReconfigurationBytes);
+          codec.queueSecureInputBuffer(inputIndex, 0, cryptoInfo, presentationTimeUs, 0);
+        } else {
+          codec.queueInputBuffer(inputIndex, 0, buffer.data.limit(), presentationTimeUs, 0);
+        }
+      } finally {
+        TraceUtil.endSection();
       }
       resetInputBuffer();
       codecReceivedBuffers = true;
@@ -1009,8 +1014,7 @@ public abstract class MediaCodecRenderer extends BaseRenderer {
       int outputIndex;
       if (codecNeedsEosOutputExceptionWorkaround && codecReceivedEos) {
         try {
-          outputIndex =
-              codec.dequeueOutputBuffer(outputBufferInfo, getDequeueOutputBufferTimeoutUs());
+          outputIndex = dequeueOutputBuffer();
         } catch (IllegalStateException e) {
           processEndOfStream();
           if (outputStreamEnded) {
@@ -1020,8 +1024,7 @@ public abstract class MediaCodecRenderer extends BaseRenderer {
           return false;
         }
       } else {
-        outputIndex =
-            codec.dequeueOutputBuffer(outputBufferInfo, getDequeueOutputBufferTimeoutUs());
+        outputIndex = dequeueOutputBuffer();
       }
 
       if (outputIndex >= 0) {
@@ -1109,6 +1112,15 @@ public abstract class MediaCodecRenderer extends BaseRenderer {
     return false;
   }
 
+  private int dequeueOutputBuffer() {
+    TraceUtil.beginSection("dequeueOutputBuffer");
+    try {
+      return codec.dequeueOutputBuffer(outputBufferInfo, getDequeueOutputBufferTimeoutUs());
+    } finally {
+      TraceUtil.endSection();
+    }
+  }
+
   /**
    * Processes a new output format.
    */
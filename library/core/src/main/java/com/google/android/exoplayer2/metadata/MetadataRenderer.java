@@ -112,32 +112,34 @@ public final class MetadataRenderer extends BaseRenderer implements Callback {
 
   @Override
   public void render(long positionUs, long elapsedRealtimeUs) throws ExoPlaybackException {
-    if (!inputStreamEnded && pendingMetadataCount < MAX_PENDING_METADATA_COUNT) {
+    while (!inputStreamEnded && pendingMetadataCount < MAX_PENDING_METADATA_COUNT) {
       buffer.clear();
       int result = readSource(formatHolder, buffer, false);
-      if (result == C.RESULT_BUFFER_READ) {
-        if (buffer.isEndOfStream()) {
-          inputStreamEnded = true;
-        } else if (buffer.isDecodeOnly()) {
-          // Do nothing. Note this assumes that all metadata buffers can be decoded independently.
-          // If we ever need to support a metadata format where this is not the case, we'll need to
-          // pass the buffer to the decoder and discard the output.
-        } else {
-          buffer.subsampleOffsetUs = formatHolder.format.subsampleOffsetUs;
-          buffer.flip();
-          try {
-            int index = (pendingMetadataIndex + pendingMetadataCount) % MAX_PENDING_METADATA_COUNT;
-            pendingMetadata[index] = decoder.decode(buffer);
-            pendingMetadataTimestamps[index] = buffer.timeUs;
-            pendingMetadataCount++;
-          } catch (MetadataDecoderException e) {
-            throw ExoPlaybackException.createForRenderer(e, getIndex());
-          }
+      if (result != C.RESULT_BUFFER_READ) {
+        break;
+      }
+      if (buffer.isEndOfStream()) {
+        inputStreamEnded = true;
+      } else if (buffer.isDecodeOnly()) {
+        // Do nothing. Note this assumes that all metadata buffers can be decoded independently.
+        // If we ever need to support a metadata format where this is not the case, we'll need to
+        // pass the buffer to the decoder and discard the output.
+      } else {
+        buffer.subsampleOffsetUs = formatHolder.format.subsampleOffsetUs;
+        buffer.flip();
+        try {
+          int index = (pendingMetadataIndex + pendingMetadataCount) % MAX_PENDING_METADATA_COUNT;
+          pendingMetadata[index] = decoder.decode(buffer);
+          pendingMetadataTimestamps[index] = buffer.timeUs;
+          pendingMetadataCount++;
+        } catch (MetadataDecoderException e) {
+          throw ExoPlaybackException.createForRenderer(e, getIndex());
         }
       }
     }
 
-    if (pendingMetadataCount > 0 && pendingMetadataTimestamps[pendingMetadataIndex] <= positionUs) {
+    while (pendingMetadataCount > 0
+        && pendingMetadataTimestamps[pendingMetadataIndex] <= positionUs) {
       invokeRenderer(pendingMetadata[pendingMetadataIndex]);
       pendingMetadata[pendingMetadataIndex] = null;
       pendingMetadataIndex = (pendingMetadataIndex + 1) % MAX_PENDING_METADATA_COUNT;
@@ -145,6 +147,15 @@ public final class MetadataRenderer extends BaseRenderer implements Callback {
     }
   }
 
+  @Override
+  public long getDurationToProgressUs(long positionUs, long elapsedRealtimeUs) {
+    if (pendingMetadataCount == 0) {
+      // Metadata is read ahead of the playback position, so nothing is due before more is read.
+      return Long.MAX_VALUE;
+    }
+    return Math.max(0, pendingMetadataTimestamps[pendingMetadataIndex] - positionUs);
+  }
+
   @Override
   protected void onDisabled() {
     flushPendingMetadata();
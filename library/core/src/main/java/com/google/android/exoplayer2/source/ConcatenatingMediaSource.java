@@ -42,6 +42,10 @@ import java.util.Map;
  * Concatenates multiple {@link MediaSource}s. The list of {@link MediaSource}s can be modified
  * during playback. It is valid for the same {@link MediaSource} instance to be present more than
  * once in the concatenation. Access to this class is thread-safe.
+ *
+ * <p>By default all child sources are prepared when the concatenation is prepared. For large
+ * playlists, {@link #ConcatenatingMediaSource(boolean, ShuffleOrder, int, int, MediaSource...)}
+ * creates a concatenation that only prepares the child sources close to the one being played.
  */
 public class ConcatenatingMediaSource extends CompositeMediaSource<MediaSourceHolder>
     implements PlayerMessage.Target {
@@ -63,6 +67,9 @@ public class ConcatenatingMediaSource extends CompositeMediaSource<MediaSourceHo
   private final Map<MediaPeriod, MediaSourceHolder> mediaSourceByMediaPeriod;
   private final List<EventDispatcher> pendingOnCompletionActions;
   private final boolean isAtomic;
+  private final boolean prepareChildSourcesLazily;
+  private final int preparationWindowRadius;
+  private final int maxConcurrentPreparations;
   private final Timeline.Window window;
 
   private ExoPlayer player;
@@ -70,6 +77,8 @@ public class ConcatenatingMediaSource extends CompositeMediaSource<MediaSourceHo
   private ShuffleOrder shuffleOrder;
   private int windowCount;
   private int periodCount;
+  private int firstHolderIndexWithStaleOffsets;
+  private @Nullable MediaSourceHolder playingHolder;
 
   /** Creates a new concatenating media source. */
   public ConcatenatingMediaSource() {
@@ -124,6 +133,55 @@ public class ConcatenatingMediaSource extends CompositeMediaSource<MediaSourceHo
    */
   public ConcatenatingMediaSource(
       boolean isAtomic, ShuffleOrder shuffleOrder, MediaSource... mediaSources) {
+    this(
+        isAtomic,
+        shuffleOrder,
+        /* prepareChildSourcesLazily= */ false,
+        /* preparationWindowRadius= */ Integer.MAX_VALUE,
+        /* maxConcurrentPreparations= */ Integer.MAX_VALUE,
+        mediaSources);
+  }
+
+  /**
+   * Creates a new concatenating media source that prepares its child sources lazily. Only the child
+   * sources within {@code preparationWindowRadius} of the child source being played are prepared.
+   * The other child sources are represented by placeholder timelines, and are released once they
+   * are outside of this window and have no media periods.
+   *
+   * @param isAtomic Whether the concatenating media source will be treated as atomic, i.e., treated
+   *     as a single item for repeating and shuffling.
+   * @param shuffleOrder The {@link ShuffleOrder} to use when shuffling the child media sources.
+   * @param preparationWindowRadius The number of child sources before and after the child source
+   *     being played that are kept prepared.
+   * @param maxConcurrentPreparations The maximum number of child sources that may be waiting for
+   *     their initial timeline at the same time. Child sources in which a media period is created
+   *     are prepared regardless of this limit.
+   * @param mediaSources The {@link MediaSource}s to concatenate. It is valid for the same {@link
+   *     MediaSource} instance to be present more than once in the array.
+   */
+  public ConcatenatingMediaSource(
+      boolean isAtomic,
+      ShuffleOrder shuffleOrder,
+      int preparationWindowRadius,
+      int maxConcurrentPreparations,
+      MediaSource... mediaSources) {
+    this(
+        isAtomic,
+        shuffleOrder,
+        /* prepareChildSourcesLazily= */ true,
+        preparationWindowRadius,
+        maxConcurrentPreparations,
+        mediaSources);
+  }
+
+  private ConcatenatingMediaSource(
+      boolean isAtomic,
+      ShuffleOrder shuffleOrder,
+      boolean prepareChildSourcesLazily,
+      int preparationWindowRadius,
+      int maxConcurrentPreparations,
+      MediaSource... mediaSources) {
+    Assertions.checkArgument(preparationWindowRadius >= 0 && maxConcurrentPreparations > 0);
     for (MediaSource mediaSource : mediaSources) {
       Assertions.checkNotNull(mediaSource);
     }
@@ -134,7 +192,11 @@ public class ConcatenatingMediaSource extends CompositeMediaSource<MediaSourceHo
     this.pendingOnCompletionActions = new ArrayList<>();
     this.query = new MediaSourceHolder(/* mediaSource= */ null);
     this.isAtomic = isAtomic;
+    this.prepareChildSourcesLazily = prepareChildSourcesLazily;
+    this.preparationWindowRadius = preparationWindowRadius;
+    this.maxConcurrentPreparations = maxConcurrentPreparations;
     window = new Timeline.Window();
+    firstHolderIndexWithStaleOffsets = Integer.MAX_VALUE;
     addMediaSources(Arrays.asList(mediaSources));
   }
 
@@ -394,6 +456,7 @@ public class ConcatenatingMediaSource extends CompositeMediaSource<MediaSourceHo
 
   @Override
   public final MediaPeriod createPeriod(MediaPeriodId id, Allocator allocator) {
+    maybeUpdateOffsets();
     int mediaSourceHolderIndex = findMediaSourceHolderByPeriodIndex(id.periodIndex);
     MediaSourceHolder holder = mediaSourceHolders.get(mediaSourceHolderIndex);
     MediaPeriodId idInSource =
@@ -402,9 +465,16 @@ public class ConcatenatingMediaSource extends CompositeMediaSource<MediaSourceHo
         new DeferredMediaPeriod(holder.mediaSource, idInSource, allocator);
     mediaSourceByMediaPeriod.put(mediaPeriod, holder);
     holder.activeMediaPeriods.add(mediaPeriod);
-    if (holder.isPrepared) {
+    if (!holder.isChildSourcePrepared) {
+      // The period is created when the child source info is refreshed.
+      prepareChildSourceInternal(holder);
+    } else if (holder.isPrepared) {
       mediaPeriod.createPeriod();
     }
+    if (prepareChildSourcesLazily && holder != playingHolder) {
+      playingHolder = holder;
+      updatePreparedChildSources();
+    }
     return mediaPeriod;
   }
 
@@ -414,7 +484,7 @@ public class ConcatenatingMediaSource extends CompositeMediaSource<MediaSourceHo
     ((DeferredMediaPeriod) mediaPeriod).releasePeriod();
     holder.activeMediaPeriods.remove(mediaPeriod);
     if (holder.activeMediaPeriods.isEmpty() && holder.isRemoved) {
-      releaseChildSource(holder);
+      releaseChildSourceInternal(holder);
     }
   }
 
@@ -426,6 +496,8 @@ public class ConcatenatingMediaSource extends CompositeMediaSource<MediaSourceHo
     shuffleOrder = shuffleOrder.cloneAndClear();
     windowCount = 0;
     periodCount = 0;
+    firstHolderIndexWithStaleOffsets = Integer.MAX_VALUE;
+    playingHolder = null;
   }
 
   @Override
@@ -440,6 +512,7 @@ public class ConcatenatingMediaSource extends CompositeMediaSource<MediaSourceHo
   @Override
   protected @Nullable MediaPeriodId getMediaPeriodIdForChildMediaPeriodId(
       MediaSourceHolder mediaSourceHolder, MediaPeriodId mediaPeriodId) {
+    maybeUpdateOffsets();
     for (int i = 0; i < mediaSourceHolder.activeMediaPeriods.size(); i++) {
       // Ensure the reported media period id has the same window sequence number as the one created
       // by this media source. Otherwise it does not belong to this child source.
@@ -455,6 +528,7 @@ public class ConcatenatingMediaSource extends CompositeMediaSource<MediaSourceHo
   @Override
   protected int getWindowIndexForChildWindowIndex(
       MediaSourceHolder mediaSourceHolder, int windowIndex) {
+    maybeUpdateOffsets();
     return windowIndex + mediaSourceHolder.firstWindowIndexInChild;
   }
 
@@ -519,12 +593,18 @@ public class ConcatenatingMediaSource extends CompositeMediaSource<MediaSourceHo
   }
 
   private void notifyListener() {
+    if (prepareChildSourcesLazily) {
+      // Child sources that refresh their source info synchronously are included in the timeline
+      // below without scheduling another notification.
+      updatePreparedChildSources();
+    }
     listenerNotificationScheduled = false;
     List<EventDispatcher> actionsOnCompletion =
         pendingOnCompletionActions.isEmpty()
             ? Collections.<EventDispatcher>emptyList()
             : new ArrayList<>(pendingOnCompletionActions);
     pendingOnCompletionActions.clear();
+    maybeUpdateOffsets();
     refreshSourceInfo(
         new ConcatenatedTimeline(
             mediaSourceHolders, windowCount, periodCount, shuffleOrder, isAtomic),
@@ -535,29 +615,25 @@ public class ConcatenatingMediaSource extends CompositeMediaSource<MediaSourceHo
   }
 
   private void addMediaSourceInternal(int newIndex, MediaSourceHolder newMediaSourceHolder) {
-    if (newIndex > 0) {
-      MediaSourceHolder previousHolder = mediaSourceHolders.get(newIndex - 1);
-      newMediaSourceHolder.reset(
-          newIndex,
-          previousHolder.firstWindowIndexInChild + previousHolder.timeline.getWindowCount(),
-          previousHolder.firstPeriodIndexInChild + previousHolder.timeline.getPeriodCount());
-    } else {
-      newMediaSourceHolder.reset(
-          newIndex, /* firstWindowIndexInChild= */ 0, /* firstPeriodIndexInChild= */ 0);
-    }
-    correctOffsets(
-        newIndex,
-        /* childIndexUpdate= */ 1,
-        newMediaSourceHolder.timeline.getWindowCount(),
-        newMediaSourceHolder.timeline.getPeriodCount());
-    mediaSourceHolders.add(newIndex, newMediaSourceHolder);
-    prepareChildSource(newMediaSourceHolder, newMediaSourceHolder.mediaSource);
+    addMediaSourcesInternal(newIndex, Collections.singletonList(newMediaSourceHolder));
   }
 
   private void addMediaSourcesInternal(
-      int index, Collection<MediaSourceHolder> mediaSourceHolders) {
-    for (MediaSourceHolder mediaSourceHolder : mediaSourceHolders) {
-      addMediaSourceInternal(index++, mediaSourceHolder);
+      int index, Collection<MediaSourceHolder> newMediaSourceHolders) {
+    int childIndex = index;
+    for (MediaSourceHolder mediaSourceHolder : newMediaSourceHolders) {
+      // The offsets are set when the stale offsets are next updated.
+      mediaSourceHolder.reset(
+          childIndex++, /* firstWindowIndexInChild= */ 0, /* firstPeriodIndexInChild= */ 0);
+      windowCount += mediaSourceHolder.timeline.getWindowCount();
+      periodCount += mediaSourceHolder.timeline.getPeriodCount();
+    }
+    mediaSourceHolders.addAll(index, newMediaSourceHolders);
+    invalidateOffsets(index);
+    if (!prepareChildSourcesLazily) {
+      for (MediaSourceHolder mediaSourceHolder : newMediaSourceHolders) {
+        prepareChildSourceInternal(mediaSourceHolder);
+      }
     }
   }
 
@@ -565,20 +641,22 @@ public class ConcatenatingMediaSource extends CompositeMediaSource<MediaSourceHo
     if (mediaSourceHolder == null) {
       throw new IllegalArgumentException();
     }
+    mediaSourceHolder.isAwaitingChildTimeline = false;
     DeferredTimeline deferredTimeline = mediaSourceHolder.timeline;
-    if (deferredTimeline.getTimeline() == timeline) {
-      return;
-    }
-    int windowOffsetUpdate = timeline.getWindowCount() - deferredTimeline.getWindowCount();
-    int periodOffsetUpdate = timeline.getPeriodCount() - deferredTimeline.getPeriodCount();
-    if (windowOffsetUpdate != 0 || periodOffsetUpdate != 0) {
-      correctOffsets(
-          mediaSourceHolder.childIndex + 1,
-          /* childIndexUpdate= */ 0,
-          windowOffsetUpdate,
-          periodOffsetUpdate);
+    boolean timelineChanged = deferredTimeline.getTimeline() != timeline;
+    if (timelineChanged) {
+      int windowOffsetUpdate = timeline.getWindowCount() - deferredTimeline.getWindowCount();
+      int periodOffsetUpdate = timeline.getPeriodCount() - deferredTimeline.getPeriodCount();
+      if (windowOffsetUpdate != 0 || periodOffsetUpdate != 0) {
+        windowCount += windowOffsetUpdate;
+        periodCount += periodOffsetUpdate;
+        // If the child index of the holder is stale then so are the offsets of all later holders,
+        // so invalidating from the stale index is still sufficient.
+        invalidateOffsets(mediaSourceHolder.childIndex + 1);
+      }
+      mediaSourceHolder.timeline = deferredTimeline.cloneWithNewTimeline(timeline);
     }
-    mediaSourceHolder.timeline = deferredTimeline.cloneWithNewTimeline(timeline);
+    // A child source that was released and prepared again may refresh with an unchanged timeline.
     if (!mediaSourceHolder.isPrepared && !timeline.isEmpty()) {
       timeline.getWindow(/* windowIndex= */ 0, window);
       long defaultPeriodPositionUs =
@@ -590,7 +668,9 @@ public class ConcatenatingMediaSource extends CompositeMediaSource<MediaSourceHo
       }
       mediaSourceHolder.isPrepared = true;
     }
-    scheduleListenerNotification(/* actionOnCompletion= */ null);
+    if (timelineChanged) {
+      scheduleListenerNotification(/* actionOnCompletion= */ null);
+    }
   }
 
   private void clearInternal() {
@@ -601,41 +681,118 @@ public class ConcatenatingMediaSource extends CompositeMediaSource<MediaSourceHo
 
   private void removeMediaSourceInternal(int index) {
     MediaSourceHolder holder = mediaSourceHolders.remove(index);
-    Timeline oldTimeline = holder.timeline;
-    correctOffsets(
-        index,
-        /* childIndexUpdate= */ -1,
-        -oldTimeline.getWindowCount(),
-        -oldTimeline.getPeriodCount());
+    windowCount -= holder.timeline.getWindowCount();
+    periodCount -= holder.timeline.getPeriodCount();
+    invalidateOffsets(index);
     holder.isRemoved = true;
-    if (holder.activeMediaPeriods.isEmpty()) {
-      releaseChildSource(holder);
+    if (holder.activeMediaPeriods.isEmpty() && holder.isChildSourcePrepared) {
+      releaseChildSourceInternal(holder);
     }
   }
 
   private void moveMediaSourceInternal(int currentIndex, int newIndex) {
-    int startIndex = Math.min(currentIndex, newIndex);
-    int endIndex = Math.max(currentIndex, newIndex);
-    int windowOffset = mediaSourceHolders.get(startIndex).firstWindowIndexInChild;
-    int periodOffset = mediaSourceHolders.get(startIndex).firstPeriodIndexInChild;
     mediaSourceHolders.add(newIndex, mediaSourceHolders.remove(currentIndex));
-    for (int i = startIndex; i <= endIndex; i++) {
+    invalidateOffsets(Math.min(currentIndex, newIndex));
+  }
+
+  private void prepareChildSourceInternal(MediaSourceHolder holder) {
+    holder.isChildSourcePrepared = true;
+    holder.isAwaitingChildTimeline = true;
+    prepareChildSource(holder, holder.mediaSource);
+  }
+
+  private void releaseChildSourceInternal(MediaSourceHolder holder) {
+    holder.isChildSourcePrepared = false;
+    holder.isAwaitingChildTimeline = false;
+    // The last known timeline is kept as a placeholder, but periods can only be created again once
+    // the child source has been prepared again and has refreshed its source info.
+    holder.isPrepared = false;
+    releaseChildSource(holder);
+  }
+
+  /**
+   * Releases prepared child sources that are no longer needed, and prepares the child sources
+   * closest to the one being played until either the preparation window is fully prepared or the
+   * maximum number of concurrent preparations is reached.
+   */
+  private void updatePreparedChildSources() {
+    int holderCount = mediaSourceHolders.size();
+    if (holderCount == 0) {
+      return;
+    }
+    maybeUpdateOffsets();
+    int playingIndex =
+        playingHolder == null ? 0 : Math.min(playingHolder.childIndex, holderCount - 1);
+    int pendingPreparationCount = 0;
+    for (int i = 0; i < holderCount; i++) {
       MediaSourceHolder holder = mediaSourceHolders.get(i);
-      holder.firstWindowIndexInChild = windowOffset;
-      holder.firstPeriodIndexInChild = periodOffset;
-      windowOffset += holder.timeline.getWindowCount();
-      periodOffset += holder.timeline.getPeriodCount();
+      if (!holder.isChildSourcePrepared) {
+        continue;
+      }
+      if (Math.abs(i - playingIndex) > preparationWindowRadius
+          && holder.activeMediaPeriods.isEmpty()) {
+        releaseChildSourceInternal(holder);
+      } else if (holder.isAwaitingChildTimeline) {
+        pendingPreparationCount++;
+      }
+    }
+    int maxDistance = Math.min(preparationWindowRadius, holderCount - 1);
+    for (int distance = 0;
+        distance <= maxDistance && pendingPreparationCount < maxConcurrentPreparations;
+        distance++) {
+      pendingPreparationCount += maybePrepareChildSourceAt(playingIndex + distance);
+      if (distance > 0 && pendingPreparationCount < maxConcurrentPreparations) {
+        pendingPreparationCount += maybePrepareChildSourceAt(playingIndex - distance);
+      }
     }
   }
 
-  private void correctOffsets(
-      int startIndex, int childIndexUpdate, int windowOffsetUpdate, int periodOffsetUpdate) {
-    windowCount += windowOffsetUpdate;
-    periodCount += periodOffsetUpdate;
+  /** Prepares the child source at {@code index} if needed, returning 1 if it was prepared. */
+  private int maybePrepareChildSourceAt(int index) {
+    if (index < 0 || index >= mediaSourceHolders.size()) {
+      return 0;
+    }
+    MediaSourceHolder holder = mediaSourceHolders.get(index);
+    if (holder.isChildSourcePrepared) {
+      return 0;
+    }
+    prepareChildSourceInternal(holder);
+    // The child source may have refreshed its source info synchronously.
+    return holder.isAwaitingChildTimeline ? 1 : 0;
+  }
+
+  /**
+   * Marks the child indices and offsets of the holders from {@code index} onwards as stale. Edits
+   * only invalidate offsets, so that a batch of edits is followed by a single update in {@link
+   * #maybeUpdateOffsets()} rather than each edit updating all later holders.
+   */
+  private void invalidateOffsets(int index) {
+    firstHolderIndexWithStaleOffsets = Math.min(firstHolderIndexWithStaleOffsets, index);
+  }
+
+  /** Updates the child indices and offsets of holders that were invalidated since the last call. */
+  private void maybeUpdateOffsets() {
+    int startIndex = firstHolderIndexWithStaleOffsets;
+    firstHolderIndexWithStaleOffsets = Integer.MAX_VALUE;
+    if (startIndex >= mediaSourceHolders.size()) {
+      return;
+    }
+    int windowOffset = 0;
+    int periodOffset = 0;
+    if (startIndex > 0) {
+      MediaSourceHolder previousHolder = mediaSourceHolders.get(startIndex - 1);
+      windowOffset =
+          previousHolder.firstWindowIndexInChild + previousHolder.timeline.getWindowCount();
+      periodOffset =
+          previousHolder.firstPeriodIndexInChild + previousHolder.timeline.getPeriodCount();
+    }
     for (int i = startIndex; i < mediaSourceHolders.size(); i++) {
-      mediaSourceHolders.get(i).childIndex += childIndexUpdate;
-      mediaSourceHolders.get(i).firstWindowIndexInChild += windowOffsetUpdate;
-      mediaSourceHolders.get(i).firstPeriodIndexInChild += periodOffsetUpdate;
+      MediaSourceHolder holder = mediaSourceHolders.get(i);
+      holder.childIndex = i;
+      holder.firstWindowIndexInChild = windowOffset;
+      holder.firstPeriodIndexInChild = periodOffset;
+      windowOffset += holder.timeline.getWindowCount();
+      periodOffset += holder.timeline.getPeriodCount();
     }
   }
 
@@ -664,6 +821,8 @@ public class ConcatenatingMediaSource extends CompositeMediaSource<MediaSourceHo
     public int firstPeriodIndexInChild;
     public boolean isPrepared;
     public boolean isRemoved;
+    public boolean isChildSourcePrepared;
+    public boolean isAwaitingChildTimeline;
     public List<DeferredMediaPeriod> activeMediaPeriods;
 
     public MediaSourceHolder(MediaSource mediaSource) {
@@ -679,6 +838,8 @@ public class ConcatenatingMediaSource extends CompositeMediaSource<MediaSourceHo
       this.firstPeriodIndexInChild = firstPeriodIndexInChild;
       this.isPrepared = false;
       this.isRemoved = false;
+      this.isChildSourcePrepared = false;
+      this.isAwaitingChildTimeline = false;
       this.activeMediaPeriods.clear();
     }
 
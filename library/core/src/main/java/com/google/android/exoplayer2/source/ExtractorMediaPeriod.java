@@ -23,11 +23,15 @@ import com.google.android.exoplayer2.Format;
 import com.google.android.exoplayer2.FormatHolder;
 import com.google.android.exoplayer2.SeekParameters;
 import com.google.android.exoplayer2.decoder.DecoderInputBuffer;
+import com.google.android.exoplayer2.extractor.ContainerDetector;
 import com.google.android.exoplayer2.extractor.DefaultExtractorInput;
 import com.google.android.exoplayer2.extractor.Extractor;
 import com.google.android.exoplayer2.extractor.ExtractorInput;
 import com.google.android.exoplayer2.extractor.ExtractorOutput;
 import com.google.android.exoplayer2.extractor.PositionHolder;
+import com.google.android.exoplayer2.extractor.SeekIndex;
+import com.google.android.exoplayer2.extractor.SeekIndexStore;
+import com.google.android.exoplayer2.extractor.SeekIndexingExtractor;
 import com.google.android.exoplayer2.extractor.SeekMap;
 import com.google.android.exoplayer2.extractor.SeekMap.SeekPoints;
 import com.google.android.exoplayer2.extractor.TrackOutput;
@@ -42,6 +46,7 @@ import com.google.android.exoplayer2.upstream.Loader.Loadable;
 import com.google.android.exoplayer2.util.Assertions;
 import com.google.android.exoplayer2.util.ConditionVariable;
 import com.google.android.exoplayer2.util.MimeTypes;
+import com.google.android.exoplayer2.util.TraceUtil;
 import com.google.android.exoplayer2.util.Util;
 import java.io.EOFException;
 import java.io.IOException;
@@ -82,6 +87,7 @@ import java.util.Arrays;
   private final Listener listener;
   private final Allocator allocator;
   @Nullable private final String customCacheKey;
+  @Nullable private final SeekIndexStore seekIndexStore;
   private final long continueLoadingCheckIntervalBytes;
   private final Loader loader;
   private final ExtractorHolder extractorHolder;
@@ -118,6 +124,10 @@ import java.util.Arrays;
   private boolean loadingFinished;
   private boolean released;
 
+  // Accessed only on the loading thread.
+  private boolean seekIndexRestoreAttempted;
+  private boolean seekIndexRestored;
+
   /**
    * @param uri The {@link Uri} of the media stream.
    * @param dataSource The data source to read the media.
@@ -128,6 +138,7 @@ import java.util.Arrays;
    * @param allocator An {@link Allocator} from which to obtain media buffer allocations.
    * @param customCacheKey A custom key that uniquely identifies the original stream. Used for cache
    *     indexing. May be null.
+   * @param seekIndexStore A store for indices built by {@link SeekIndexingExtractor}s. May be null.
    * @param continueLoadingCheckIntervalBytes The number of bytes that should be loaded between each
    *     invocation of {@link Callback#onContinueLoadingRequested(SequenceableLoader)}.
    */
@@ -140,6 +151,7 @@ import java.util.Arrays;
       Listener listener,
       Allocator allocator,
       @Nullable String customCacheKey,
+      @Nullable SeekIndexStore seekIndexStore,
       int continueLoadingCheckIntervalBytes) {
     this.uri = uri;
     this.dataSource = dataSource;
@@ -148,7 +160,9 @@ import java.util.Arrays;
     this.listener = listener;
     this.allocator = allocator;
     this.customCacheKey = customCacheKey;
+    this.seekIndexStore = seekIndexStore;
     this.continueLoadingCheckIntervalBytes = continueLoadingCheckIntervalBytes;
+    // Loads block while the sample queues are full, so they must not use a shared LoaderExecutor.
     loader = new Loader("Loader:ExtractorMediaPeriod");
     extractorHolder = new ExtractorHolder(extractors, this);
     loadCondition = new ConditionVariable();
@@ -847,13 +861,19 @@ import java.util.Arrays;
           }
           input = new DefaultExtractorInput(dataSource, position, length);
           Extractor extractor = extractorHolder.selectExtractor(input, dataSource.getUri());
+          maybeRestoreSeekIndex(extractor);
           if (pendingExtractorSeek) {
             extractor.seek(position, seekTimeUs);
             pendingExtractorSeek = false;
           }
           while (result == Extractor.RESULT_CONTINUE && !loadCanceled) {
             loadCondition.block();
-            result = extractor.read(input, positionHolder);
+            TraceUtil.beginSection("extract");
+            try {
+              result = extractor.read(input, positionHolder);
+            } finally {
+              TraceUtil.endSection();
+            }
             if (input.getPosition() > position + continueLoadingCheckIntervalBytes) {
               position = input.getPosition();
               loadCondition.close();
@@ -870,6 +890,41 @@ import java.util.Arrays;
           Util.closeQuietly(dataSource);
         }
       }
+      if (result == Extractor.RESULT_END_OF_INPUT) {
+        maybeSaveSeekIndex(extractorHolder.getExtractor());
+      }
+    }
+
+    private void maybeRestoreSeekIndex(Extractor extractor) {
+      if (seekIndexRestoreAttempted) {
+        return;
+      }
+      seekIndexRestoreAttempted = true;
+      if (seekIndexStore != null && extractor instanceof SeekIndexingExtractor) {
+        SeekIndex seekIndex = seekIndexStore.load(getSeekIndexKey());
+        if (seekIndex != null) {
+          ((SeekIndexingExtractor) extractor).setSeekIndex(seekIndex);
+          seekIndexRestored = true;
+        }
+      }
+    }
+
+    private void maybeSaveSeekIndex(@Nullable Extractor extractor) {
+      if (seekIndexStore == null
+          || seekIndexRestored
+          || !(extractor instanceof SeekIndexingExtractor)) {
+        return;
+      }
+      SeekIndex seekIndex = ((SeekIndexingExtractor) extractor).getSeekIndex();
+      if (seekIndex != null) {
+        seekIndexStore.save(getSeekIndexKey(), seekIndex);
+        // Avoid saving the same index again if the stream is reloaded.
+        seekIndexRestored = true;
+      }
+    }
+
+    private String getSeekIndexKey() {
+      return customCacheKey != null ? customCacheKey : uri.toString();
     }
 
   }
@@ -910,7 +965,7 @@ import java.util.Arrays;
       if (extractor != null) {
         return extractor;
       }
-      for (Extractor extractor : extractors) {
+      for (Extractor extractor : ContainerDetector.rankExtractors(extractors, input, uri)) {
         try {
           if (extractor.sniff(input)) {
             this.extractor = extractor;
@@ -930,6 +985,11 @@ import java.util.Arrays;
       return extractor;
     }
 
+    /** Returns the selected extractor, or null if no extractor has been selected. */
+    public @Nullable Extractor getExtractor() {
+      return extractor;
+    }
+
     public void release() {
       if (extractor != null) {
         extractor.release();
@@ -24,6 +24,8 @@ import com.google.android.exoplayer2.Player;
 import com.google.android.exoplayer2.extractor.DefaultExtractorsFactory;
 import com.google.android.exoplayer2.extractor.Extractor;
 import com.google.android.exoplayer2.extractor.ExtractorsFactory;
+import com.google.android.exoplayer2.extractor.SeekIndexStore;
+import com.google.android.exoplayer2.extractor.SeekIndexingExtractor;
 import com.google.android.exoplayer2.source.ads.AdsMediaSource;
 import com.google.android.exoplayer2.upstream.Allocator;
 import com.google.android.exoplayer2.upstream.DataSource;
@@ -95,6 +97,7 @@ public final class ExtractorMediaSource extends BaseMediaSource
   private final ExtractorsFactory extractorsFactory;
   private final int minLoadableRetryCount;
   private final String customCacheKey;
+  private final @Nullable SeekIndexStore seekIndexStore;
   private final int continueLoadingCheckIntervalBytes;
   private final @Nullable Object tag;
 
@@ -108,6 +111,7 @@ public final class ExtractorMediaSource extends BaseMediaSource
 
     private @Nullable ExtractorsFactory extractorsFactory;
     private @Nullable String customCacheKey;
+    private @Nullable SeekIndexStore seekIndexStore;
     private @Nullable Object tag;
     private int minLoadableRetryCount;
     private int continueLoadingCheckIntervalBytes;
@@ -155,6 +159,25 @@ public final class ExtractorMediaSource extends BaseMediaSource
       return this;
     }
 
+    /**
+     * Sets the store used to persist seek indices built while reading the stream, and to restore
+     * them when the stream is read again. Indices are stored under the custom cache key, or under
+     * the string representation of the {@link Uri} if no custom cache key is set. Only {@link
+     * SeekIndexingExtractor}s build indices, such as {@link
+     * com.google.android.exoplayer2.extractor.mp3.Mp3Extractor} with {@link
+     * com.google.android.exoplayer2.extractor.mp3.Mp3Extractor#FLAG_ENABLE_INDEX_SEEKING} set. The
+     * default value is {@code null}.
+     *
+     * @param seekIndexStore The store for seek indices, or null if indices should not be persisted.
+     * @return This factory, for convenience.
+     * @throws IllegalStateException If one of the {@code create} methods has already been called.
+     */
+    public Factory setSeekIndexStore(@Nullable SeekIndexStore seekIndexStore) {
+      Assertions.checkState(!isCreateCalled);
+      this.seekIndexStore = seekIndexStore;
+      return this;
+    }
+
     /**
      * Sets a tag for the media source which will be published in the {@link
      * com.google.android.exoplayer2.Timeline} of the source as {@link
@@ -219,6 +242,7 @@ public final class ExtractorMediaSource extends BaseMediaSource
           extractorsFactory,
           minLoadableRetryCount,
           customCacheKey,
+          seekIndexStore,
           continueLoadingCheckIntervalBytes,
           tag);
     }
@@ -318,6 +342,7 @@ public final class ExtractorMediaSource extends BaseMediaSource
         extractorsFactory,
         minLoadableRetryCount,
         customCacheKey,
+        /* seekIndexStore= */ null,
         continueLoadingCheckIntervalBytes,
         /* tag= */ null);
     if (eventListener != null && eventHandler != null) {
@@ -331,6 +356,7 @@ public final class ExtractorMediaSource extends BaseMediaSource
       ExtractorsFactory extractorsFactory,
       int minLoadableRetryCount,
       @Nullable String customCacheKey,
+      @Nullable SeekIndexStore seekIndexStore,
       int continueLoadingCheckIntervalBytes,
       @Nullable Object tag) {
     this.uri = uri;
@@ -338,6 +364,7 @@ public final class ExtractorMediaSource extends BaseMediaSource
     this.extractorsFactory = extractorsFactory;
     this.minLoadableRetryCount = minLoadableRetryCount;
     this.customCacheKey = customCacheKey;
+    this.seekIndexStore = seekIndexStore;
     this.continueLoadingCheckIntervalBytes = continueLoadingCheckIntervalBytes;
     this.timelineDurationUs = C.TIME_UNSET;
     this.tag = tag;
@@ -365,6 +392,7 @@ public final class ExtractorMediaSource extends BaseMediaSource
         this,
         allocator,
         customCacheKey,
+        seekIndexStore,
         continueLoadingCheckIntervalBytes);
   }
 
@@ -26,6 +26,7 @@ import com.google.android.exoplayer2.source.SampleMetadataQueue.SampleExtrasHold
 import com.google.android.exoplayer2.upstream.Allocation;
 import com.google.android.exoplayer2.upstream.Allocator;
 import com.google.android.exoplayer2.util.ParsableByteArray;
+import com.google.android.exoplayer2.util.TraceUtil;
 import java.io.EOFException;
 import java.io.IOException;
 import java.nio.ByteBuffer;
@@ -582,6 +583,9 @@ public final class SampleQueue implements TrackOutput {
     timeUs += sampleOffsetUs;
     long absoluteOffset = totalBytesWritten - size - offset;
     metadataQueue.commitSample(timeUs, flags, absoluteOffset, size, cryptoData);
+    if (TraceUtil.areCountersEnabled()) {
+      TraceUtil.counter("sampleQueueDepth", getWriteIndex() - getReadIndex());
+    }
   }
 
   // Private methods.
@@ -15,6 +15,7 @@
  */
 package com.google.android.exoplayer2.source;
 
+import android.support.annotation.Nullable;
 import com.google.android.exoplayer2.C;
 import com.google.android.exoplayer2.Format;
 import com.google.android.exoplayer2.FormatHolder;
@@ -26,6 +27,7 @@ import com.google.android.exoplayer2.upstream.DataSource;
 import com.google.android.exoplayer2.upstream.DataSpec;
 import com.google.android.exoplayer2.upstream.Loader;
 import com.google.android.exoplayer2.upstream.Loader.Loadable;
+import com.google.android.exoplayer2.upstream.LoaderExecutor;
 import com.google.android.exoplayer2.util.MimeTypes;
 import com.google.android.exoplayer2.util.Util;
 import java.io.IOException;
@@ -70,7 +72,8 @@ import java.util.Arrays;
       long durationUs,
       int minLoadableRetryCount,
       EventDispatcher eventDispatcher,
-      boolean treatLoadErrorsAsEndOfStream) {
+      boolean treatLoadErrorsAsEndOfStream,
+      @Nullable LoaderExecutor loaderExecutor) {
     this.dataSpec = dataSpec;
     this.dataSourceFactory = dataSourceFactory;
     this.format = format;
@@ -80,7 +83,13 @@ import java.util.Arrays;
     this.treatLoadErrorsAsEndOfStream = treatLoadErrorsAsEndOfStream;
     tracks = new TrackGroupArray(new TrackGroup(format));
     sampleStreams = new ArrayList<>();
-    loader = new Loader("Loader:SingleSampleMediaPeriod");
+    loader =
+        new Loader(
+            "Loader:SingleSampleMediaPeriod",
+            loaderExecutor,
+            MimeTypes.getTrackType(format.sampleMimeType) == C.TRACK_TYPE_TEXT
+                ? LoaderExecutor.PRIORITY_LOW
+                : LoaderExecutor.PRIORITY_NORMAL);
     eventDispatcher.mediaPeriodCreated();
   }
 
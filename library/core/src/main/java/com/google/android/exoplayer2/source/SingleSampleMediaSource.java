@@ -24,6 +24,7 @@ import com.google.android.exoplayer2.Timeline;
 import com.google.android.exoplayer2.upstream.Allocator;
 import com.google.android.exoplayer2.upstream.DataSource;
 import com.google.android.exoplayer2.upstream.DataSpec;
+import com.google.android.exoplayer2.upstream.LoaderExecutor;
 import com.google.android.exoplayer2.util.Assertions;
 import java.io.IOException;
 
@@ -59,6 +60,7 @@ public final class SingleSampleMediaSource extends BaseMediaSource {
     private boolean treatLoadErrorsAsEndOfStream;
     private boolean isCreateCalled;
     private @Nullable Object tag;
+    private @Nullable LoaderExecutor loaderExecutor;
 
     /**
      * Creates a factory for {@link SingleSampleMediaSource}s.
@@ -115,6 +117,21 @@ public final class SingleSampleMediaSource extends BaseMediaSource {
       return this;
     }
 
+    /**
+     * Sets the {@link LoaderExecutor} on which the media periods of created media sources load
+     * their sample, or null to use a dedicated thread for each media period. The default value is
+     * null.
+     *
+     * @param loaderExecutor A shared {@link LoaderExecutor}, or null.
+     * @return This factory, for convenience.
+     * @throws IllegalStateException If one of the {@code create} methods has already been called.
+     */
+    public Factory setLoaderExecutor(@Nullable LoaderExecutor loaderExecutor) {
+      Assertions.checkState(!isCreateCalled);
+      this.loaderExecutor = loaderExecutor;
+      return this;
+    }
+
     /**
      * Returns a new {@link ExtractorMediaSource} using the current parameters.
      *
@@ -132,7 +149,8 @@ public final class SingleSampleMediaSource extends BaseMediaSource {
           durationUs,
           minLoadableRetryCount,
           treatLoadErrorsAsEndOfStream,
-          tag);
+          tag,
+          loaderExecutor);
     }
 
     /**
@@ -167,6 +185,7 @@ public final class SingleSampleMediaSource extends BaseMediaSource {
   private final int minLoadableRetryCount;
   private final boolean treatLoadErrorsAsEndOfStream;
   private final Timeline timeline;
+  private final @Nullable LoaderExecutor loaderExecutor;
 
   /**
    * @param uri The {@link Uri} of the media stream.
@@ -205,7 +224,8 @@ public final class SingleSampleMediaSource extends BaseMediaSource {
         durationUs,
         minLoadableRetryCount,
         /* treatLoadErrorsAsEndOfStream= */ false,
-        /* tag= */ null);
+        /* tag= */ null,
+        /* loaderExecutor= */ null);
   }
 
   /**
@@ -241,7 +261,8 @@ public final class SingleSampleMediaSource extends BaseMediaSource {
         durationUs,
         minLoadableRetryCount,
         treatLoadErrorsAsEndOfStream,
-        /* tag= */ null);
+        /* tag= */ null,
+        /* loaderExecutor= */ null);
     if (eventHandler != null && eventListener != null) {
       addEventListener(eventHandler, new EventListenerWrapper(eventListener, eventSourceId));
     }
@@ -254,12 +275,14 @@ public final class SingleSampleMediaSource extends BaseMediaSource {
       long durationUs,
       int minLoadableRetryCount,
       boolean treatLoadErrorsAsEndOfStream,
-      @Nullable Object tag) {
+      @Nullable Object tag,
+      @Nullable LoaderExecutor loaderExecutor) {
     this.dataSourceFactory = dataSourceFactory;
     this.format = format;
     this.durationUs = durationUs;
     this.minLoadableRetryCount = minLoadableRetryCount;
     this.treatLoadErrorsAsEndOfStream = treatLoadErrorsAsEndOfStream;
+    this.loaderExecutor = loaderExecutor;
     dataSpec = new DataSpec(uri);
     timeline =
         new SinglePeriodTimeline(durationUs, /* isSeekable= */ true, /* isDynamic= */ false, tag);
@@ -287,7 +310,8 @@ public final class SingleSampleMediaSource extends BaseMediaSource {
         durationUs,
         minLoadableRetryCount,
         createEventDispatcher(id),
-        treatLoadErrorsAsEndOfStream);
+        treatLoadErrorsAsEndOfStream,
+        loaderExecutor);
   }
 
   @Override
@@ -28,6 +28,7 @@ import com.google.android.exoplayer2.source.SampleStream;
 import com.google.android.exoplayer2.source.SequenceableLoader;
 import com.google.android.exoplayer2.upstream.Allocator;
 import com.google.android.exoplayer2.upstream.Loader;
+import com.google.android.exoplayer2.upstream.LoaderExecutor;
 import com.google.android.exoplayer2.util.Assertions;
 import com.google.android.exoplayer2.util.Util;
 import java.io.IOException;
@@ -91,6 +92,8 @@ public class ChunkSampleStream<T extends ChunkSource> implements SampleStream, S
    * @param minLoadableRetryCount The minimum number of times that the source should retry a load
    *     before propagating an error.
    * @param eventDispatcher A dispatcher to notify of events.
+   * @param loaderExecutor A shared {@link LoaderExecutor} on which chunks are loaded, or null to
+   *     load them on a dedicated thread.
    */
   public ChunkSampleStream(
       int primaryTrackType,
@@ -101,7 +104,8 @@ public class ChunkSampleStream<T extends ChunkSource> implements SampleStream, S
       Allocator allocator,
       long positionUs,
       int minLoadableRetryCount,
-      EventDispatcher eventDispatcher) {
+      EventDispatcher eventDispatcher,
+      @Nullable LoaderExecutor loaderExecutor) {
     this.primaryTrackType = primaryTrackType;
     this.embeddedTrackTypes = embeddedTrackTypes;
     this.embeddedTrackFormats = embeddedTrackFormats;
@@ -109,7 +113,13 @@ public class ChunkSampleStream<T extends ChunkSource> implements SampleStream, S
     this.callback = callback;
     this.eventDispatcher = eventDispatcher;
     this.minLoadableRetryCount = minLoadableRetryCount;
-    loader = new Loader("Loader:ChunkSampleStream");
+    loader =
+        new Loader(
+            "Loader:ChunkSampleStream",
+            loaderExecutor,
+            primaryTrackType == C.TRACK_TYPE_TEXT
+                ? LoaderExecutor.PRIORITY_LOW
+                : LoaderExecutor.PRIORITY_NORMAL);
     nextChunkHolder = new ChunkHolder();
     mediaChunks = new ArrayList<>();
     readOnlyMediaChunks = Collections.unmodifiableList(mediaChunks);
@@ -24,6 +24,7 @@ import com.google.android.exoplayer2.extractor.ExtractorInput;
 import com.google.android.exoplayer2.upstream.DataSource;
 import com.google.android.exoplayer2.upstream.DataSpec;
 import com.google.android.exoplayer2.util.Assertions;
+import com.google.android.exoplayer2.util.TraceUtil;
 import com.google.android.exoplayer2.util.Util;
 import java.io.IOException;
 
@@ -85,7 +86,12 @@ public final class InitializationChunk extends Chunk {
         Extractor extractor = extractorWrapper.extractor;
         int result = Extractor.RESULT_CONTINUE;
         while (result == Extractor.RESULT_CONTINUE && !loadCanceled) {
-          result = extractor.read(input, null);
+          TraceUtil.beginSection("extract");
+          try {
+            result = extractor.read(input, null);
+          } finally {
+            TraceUtil.endSection();
+          }
         }
         Assertions.checkState(result != Extractor.RESULT_SEEK);
       } finally {
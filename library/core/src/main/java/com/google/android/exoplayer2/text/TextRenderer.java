@@ -265,6 +265,21 @@ public final class TextRenderer extends BaseRenderer implements Callback {
     return true;
   }
 
+  @Override
+  public long getDurationToProgressUs(long positionUs, long elapsedRealtimeUs) {
+    if (outputStreamEnded) {
+      return Long.MAX_VALUE;
+    }
+    long nextEventTimeUs = subtitle == null ? Long.MAX_VALUE : getNextEventTime();
+    if (nextSubtitle != null && !nextSubtitle.isEndOfStream()) {
+      nextEventTimeUs = Math.min(nextEventTimeUs, nextSubtitle.timeUs);
+    }
+    // Subtitles are decoded ahead of the playback position, so if no event is known then nothing
+    // is due before more is decoded.
+    return nextEventTimeUs == Long.MAX_VALUE
+        ? Long.MAX_VALUE : Math.max(0, nextEventTimeUs - positionUs);
+  }
+
   private void releaseBuffers() {
     nextInputBuffer = null;
     nextSubtitleEventIndex = C.INDEX_UNSET;
@@ -43,6 +43,7 @@ public class AdaptiveTrackSelection extends BaseTrackSelection {
     private final float bandwidthFraction;
     private final float bufferedFractionToLiveEdgeForQualityIncrease;
     private final long minTimeBetweenBufferReevaluationMs;
+    private final @Nullable FastStartState fastStartState;
     private final Clock clock;
 
     /**
@@ -125,6 +126,58 @@ public class AdaptiveTrackSelection extends BaseTrackSelection {
         float bufferedFractionToLiveEdgeForQualityIncrease,
         long minTimeBetweenBufferReevaluationMs,
         Clock clock) {
+      this(
+          bandwidthMeter,
+          minDurationForQualityIncreaseMs,
+          maxDurationForQualityDecreaseMs,
+          minDurationToRetainAfterDiscardMs,
+          bandwidthFraction,
+          bufferedFractionToLiveEdgeForQualityIncrease,
+          minTimeBetweenBufferReevaluationMs,
+          /* fastStart= */ false,
+          clock);
+    }
+
+    /**
+     * @param bandwidthMeter Provides an estimate of the currently available bandwidth.
+     * @param minDurationForQualityIncreaseMs The minimum duration of buffered data required for the
+     *     selected track to switch to one of higher quality.
+     * @param maxDurationForQualityDecreaseMs The maximum duration of buffered data required for the
+     *     selected track to switch to one of lower quality.
+     * @param minDurationToRetainAfterDiscardMs When switching to a track of significantly higher
+     *     quality, the selection may indicate that media already buffered at the lower quality can
+     *     be discarded to speed up the switch. This is the minimum duration of media that must be
+     *     retained at the lower quality.
+     * @param bandwidthFraction The fraction of the available bandwidth that the selection should
+     *     consider available for use. Setting to a value less than 1 is recommended to account for
+     *     inaccuracies in the bandwidth estimator.
+     * @param bufferedFractionToLiveEdgeForQualityIncrease For live streaming, the fraction of the
+     *     duration from current playback position to the live edge that has to be buffered before
+     *     the selected track can be switched to one of higher quality. This parameter is only
+     *     applied when the playback position is closer to the live edge than {@code
+     *     minDurationForQualityIncreaseMs}, which would otherwise prevent switching to a higher
+     *     quality from happening.
+     * @param minTimeBetweenBufferReevaluationMs The track selection may periodically reevaluate its
+     *     buffer and discard some chunks of lower quality to improve the playback quality if
+     *     network conditions have changed. This is the minimum duration between 2 consecutive
+     *     buffer reevaluation calls.
+     * @param fastStart Whether the selections created at the start of playback select the lowest
+     *     bitrate track, until the bandwidth meter provides a new bitrate estimate or {@link
+     *     #FAST_START_MAX_DURATION_MS} has elapsed. This minimizes the time to the first frame.
+     *     Selections created later, for example for new periods, are not affected. See also {@link
+     *     com.google.android.exoplayer2.AdaptiveLoadControl.Builder#setFastStartEnabled(boolean)}.
+     * @param clock A {@link Clock}.
+     */
+    public Factory(
+        BandwidthMeter bandwidthMeter,
+        int minDurationForQualityIncreaseMs,
+        int maxDurationForQualityDecreaseMs,
+        int minDurationToRetainAfterDiscardMs,
+        float bandwidthFraction,
+        float bufferedFractionToLiveEdgeForQualityIncrease,
+        long minTimeBetweenBufferReevaluationMs,
+        boolean fastStart,
+        Clock clock) {
       this.bandwidthMeter = bandwidthMeter;
       this.minDurationForQualityIncreaseMs = minDurationForQualityIncreaseMs;
       this.maxDurationForQualityDecreaseMs = maxDurationForQualityDecreaseMs;
@@ -133,6 +186,7 @@ public class AdaptiveTrackSelection extends BaseTrackSelection {
       this.bufferedFractionToLiveEdgeForQualityIncrease =
           bufferedFractionToLiveEdgeForQualityIncrease;
       this.minTimeBetweenBufferReevaluationMs = minTimeBetweenBufferReevaluationMs;
+      fastStartState = fastStart ? new FastStartState() : null;
       this.clock = clock;
     }
 
@@ -148,6 +202,7 @@ public class AdaptiveTrackSelection extends BaseTrackSelection {
           bandwidthFraction,
           bufferedFractionToLiveEdgeForQualityIncrease,
           minTimeBetweenBufferReevaluationMs,
+          fastStartState,
           clock);
     }
   }
@@ -158,6 +213,8 @@ public class AdaptiveTrackSelection extends BaseTrackSelection {
   public static final float DEFAULT_BANDWIDTH_FRACTION = 0.75f;
   public static final float DEFAULT_BUFFERED_FRACTION_TO_LIVE_EDGE_FOR_QUALITY_INCREASE = 0.75f;
   public static final long DEFAULT_MIN_TIME_BETWEEN_BUFFER_REEVALUTATION_MS = 2000;
+  /** The maximum duration of fast start, in milliseconds. */
+  public static final long FAST_START_MAX_DURATION_MS = 5000;
 
   private final BandwidthMeter bandwidthMeter;
   private final long minDurationForQualityIncreaseUs;
@@ -167,6 +224,7 @@ public class AdaptiveTrackSelection extends BaseTrackSelection {
   private final float bufferedFractionToLiveEdgeForQualityIncrease;
   private final long minTimeBetweenBufferReevaluationMs;
   private final Clock clock;
+  private final @Nullable FastStartState fastStartState;
 
   private float playbackSpeed;
   private int selectedIndex;
@@ -232,6 +290,89 @@ public class AdaptiveTrackSelection extends BaseTrackSelection {
       float bufferedFractionToLiveEdgeForQualityIncrease,
       long minTimeBetweenBufferReevaluationMs,
       Clock clock) {
+    this(
+        group,
+        tracks,
+        bandwidthMeter,
+        minDurationForQualityIncreaseMs,
+        maxDurationForQualityDecreaseMs,
+        minDurationToRetainAfterDiscardMs,
+        bandwidthFraction,
+        bufferedFractionToLiveEdgeForQualityIncrease,
+        minTimeBetweenBufferReevaluationMs,
+        /* fastStart= */ false,
+        clock);
+  }
+
+  /**
+   * @param group The {@link TrackGroup}.
+   * @param tracks The indices of the selected tracks within the {@link TrackGroup}. Must not be
+   *     empty. May be in any order.
+   * @param bandwidthMeter Provides an estimate of the currently available bandwidth.
+   * @param minDurationForQualityIncreaseMs The minimum duration of buffered data required for the
+   *     selected track to switch to one of higher quality.
+   * @param maxDurationForQualityDecreaseMs The maximum duration of buffered data required for the
+   *     selected track to switch to one of lower quality.
+   * @param minDurationToRetainAfterDiscardMs When switching to a track of significantly higher
+   *     quality, the selection may indicate that media already buffered at the lower quality can be
+   *     discarded to speed up the switch. This is the minimum duration of media that must be
+   *     retained at the lower quality.
+   * @param bandwidthFraction The fraction of the available bandwidth that the selection should
+   *     consider available for use. Setting to a value less than 1 is recommended to account for
+   *     inaccuracies in the bandwidth estimator.
+   * @param bufferedFractionToLiveEdgeForQualityIncrease For live streaming, the fraction of the
+   *     duration from current playback position to the live edge that has to be buffered before the
+   *     selected track can be switched to one of higher quality. This parameter is only applied
+   *     when the playback position is closer to the live edge than {@code
+   *     minDurationForQualityIncreaseMs}, which would otherwise prevent switching to a higher
+   *     quality from happening.
+   * @param minTimeBetweenBufferReevaluationMs The track selection may periodically reevaluate its
+   *     buffer and discard some chunks of lower quality to improve the playback quality if network
+   *     condition has changed. This is the minimum duration between 2 consecutive buffer
+   *     reevaluation calls.
+   * @param fastStart Whether to start with the lowest bitrate track, which is kept until the
+   *     bandwidth meter provides a new bitrate estimate or {@link #FAST_START_MAX_DURATION_MS} has
+   *     elapsed.
+   * @param clock A {@link Clock}.
+   */
+  public AdaptiveTrackSelection(
+      TrackGroup group,
+      int[] tracks,
+      BandwidthMeter bandwidthMeter,
+      long minDurationForQualityIncreaseMs,
+      long maxDurationForQualityDecreaseMs,
+      long minDurationToRetainAfterDiscardMs,
+      float bandwidthFraction,
+      float bufferedFractionToLiveEdgeForQualityIncrease,
+      long minTimeBetweenBufferReevaluationMs,
+      boolean fastStart,
+      Clock clock) {
+    this(
+        group,
+        tracks,
+        bandwidthMeter,
+        minDurationForQualityIncreaseMs,
+        maxDurationForQualityDecreaseMs,
+        minDurationToRetainAfterDiscardMs,
+        bandwidthFraction,
+        bufferedFractionToLiveEdgeForQualityIncrease,
+        minTimeBetweenBufferReevaluationMs,
+        fastStart ? new FastStartState() : null,
+        clock);
+  }
+
+  private AdaptiveTrackSelection(
+      TrackGroup group,
+      int[] tracks,
+      BandwidthMeter bandwidthMeter,
+      long minDurationForQualityIncreaseMs,
+      long maxDurationForQualityDecreaseMs,
+      long minDurationToRetainAfterDiscardMs,
+      float bandwidthFraction,
+      float bufferedFractionToLiveEdgeForQualityIncrease,
+      long minTimeBetweenBufferReevaluationMs,
+      @Nullable FastStartState fastStartState,
+      Clock clock) {
     super(group, tracks);
     this.bandwidthMeter = bandwidthMeter;
     this.minDurationForQualityIncreaseUs = minDurationForQualityIncreaseMs * 1000L;
@@ -242,6 +383,7 @@ public class AdaptiveTrackSelection extends BaseTrackSelection {
         bufferedFractionToLiveEdgeForQualityIncrease;
     this.minTimeBetweenBufferReevaluationMs = minTimeBetweenBufferReevaluationMs;
     this.clock = clock;
+    this.fastStartState = fastStartState;
     playbackSpeed = 1f;
     reason = C.SELECTION_REASON_INITIAL;
     lastBufferEvaluationMs = C.TIME_UNSET;
@@ -357,7 +499,13 @@ public class AdaptiveTrackSelection extends BaseTrackSelection {
    *     Long#MIN_VALUE} to ignore blacklisting.
    */
   private int determineIdealSelectedIndex(long nowMs) {
-    long effectiveBitrate = (long) (bandwidthMeter.getBitrateEstimate() * bandwidthFraction);
+    long bitrateEstimate = bandwidthMeter.getBitrateEstimate();
+    if (fastStartState != null
+        && fastStartState.isActive(bitrateEstimate, clock.elapsedRealtime())) {
+      // Select the lowest bitrate track until the first estimate based on this playback arrives.
+      bitrateEstimate = 0;
+    }
+    long effectiveBitrate = (long) (bitrateEstimate * bandwidthFraction);
     int lowestBitrateNonBlacklistedIndex = 0;
     for (int i = 0; i < length; i++) {
       if (nowMs == Long.MIN_VALUE || !isBlacklisted(i, nowMs)) {
@@ -379,4 +527,39 @@ public class AdaptiveTrackSelection extends BaseTrackSelection {
         ? (long) (availableDurationUs * bufferedFractionToLiveEdgeForQualityIncrease)
         : minDurationForQualityIncreaseUs;
   }
+
+  /**
+   * Fast start state shared by the selections created by a {@link Factory}, so that only the
+   * selections made at the start of playback select the lowest bitrate track.
+   */
+  private static final class FastStartState {
+
+    private boolean started;
+    private boolean ended;
+    private long initialBitrateEstimate;
+    private long startTimeMs;
+
+    /**
+     * Returns whether fast start is active. Fast start begins with the first call and ends for good
+     * once the bitrate estimate changes or {@link #FAST_START_MAX_DURATION_MS} has elapsed.
+     *
+     * @param bitrateEstimate The current bitrate estimate.
+     * @param nowMs The current time in the timebase of {@link Clock#elapsedRealtime()}.
+     */
+    public boolean isActive(long bitrateEstimate, long nowMs) {
+      if (ended) {
+        return false;
+      }
+      if (!started) {
+        started = true;
+        initialBitrateEstimate = bitrateEstimate;
+        startTimeMs = nowMs;
+        return true;
+      }
+      ended =
+          bitrateEstimate != initialBitrateEstimate
+              || nowMs - startTimeMs >= FAST_START_MAX_DURATION_MS;
+      return !ended;
+    }
+  }
 }
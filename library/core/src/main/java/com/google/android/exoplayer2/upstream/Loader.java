@@ -29,6 +29,7 @@ import com.google.android.exoplayer2.util.Util;
 import java.io.IOException;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 
 /**
@@ -140,7 +141,8 @@ public final class Loader implements LoaderErrorThrower {
   public static final int DONT_RETRY = 2;
   public static final int DONT_RETRY_FATAL = 3;
 
-  private final ExecutorService downloadExecutorService;
+  private final Executor downloadExecutor;
+  private final @Nullable ExecutorService downloadExecutorService;
 
   private LoadTask<? extends Loadable> currentTask;
   private IOException fatalError;
@@ -149,7 +151,24 @@ public final class Loader implements LoaderErrorThrower {
    * @param threadName A name for the loader's thread.
    */
   public Loader(String threadName) {
-    this.downloadExecutorService = Util.newSingleThreadExecutor(threadName);
+    this(threadName, /* loaderExecutor= */ null, LoaderExecutor.PRIORITY_NORMAL);
+  }
+
+  /**
+   * @param threadName A name for the loader's thread, if {@code loaderExecutor} is null.
+   * @param loaderExecutor A shared {@link LoaderExecutor} on which loads are executed, or null to
+   *     execute loads on a dedicated thread.
+   * @param priority The priority of loads on the {@code loaderExecutor}. For example {@link
+   *     LoaderExecutor#PRIORITY_NORMAL}.
+   */
+  public Loader(String threadName, @Nullable LoaderExecutor loaderExecutor, int priority) {
+    if (loaderExecutor != null) {
+      downloadExecutorService = null;
+      downloadExecutor = loaderExecutor.createSerialExecutor(priority);
+    } else {
+      downloadExecutorService = Util.newSingleThreadExecutor(threadName);
+      downloadExecutor = downloadExecutorService;
+    }
   }
 
   /**
@@ -210,9 +229,11 @@ public final class Loader implements LoaderErrorThrower {
       currentTask.cancel(true);
     }
     if (callback != null) {
-      downloadExecutorService.execute(new ReleaseTask(callback));
+      downloadExecutor.execute(new ReleaseTask(callback));
+    }
+    if (downloadExecutorService != null) {
+      downloadExecutorService.shutdown();
     }
-    downloadExecutorService.shutdown();
   }
 
   // LoaderErrorThrower implementation.
@@ -254,7 +275,7 @@ public final class Loader implements LoaderErrorThrower {
     private IOException currentError;
     private int errorCount;
 
-    private volatile Thread executorThread;
+    private @Nullable Thread executorThread;
     private volatile boolean canceled;
     private volatile boolean released;
 
@@ -294,8 +315,10 @@ public final class Loader implements LoaderErrorThrower {
       } else {
         canceled = true;
         loadable.cancelLoad();
-        if (executorThread != null) {
-          executorThread.interrupt();
+        synchronized (this) {
+          if (executorThread != null) {
+            executorThread.interrupt();
+          }
         }
       }
       if (released) {
@@ -313,7 +336,9 @@ public final class Loader implements LoaderErrorThrower {
     @Override
     public void run() {
       try {
-        executorThread = Thread.currentThread();
+        synchronized (this) {
+          executorThread = Thread.currentThread();
+        }
         if (!canceled) {
           TraceUtil.beginSection("load:" + loadable.getClass().getSimpleName());
           try {
@@ -358,6 +383,13 @@ public final class Loader implements LoaderErrorThrower {
           obtainMessage(MSG_FATAL_ERROR, e).sendToTarget();
         }
         throw e;
+      } finally {
+        // The thread may be shared with other loads, which must not be interrupted by cancellation
+        // of this load.
+        synchronized (this) {
+          executorThread = null;
+        }
+        Thread.interrupted();
       }
     }
 
@@ -411,7 +443,7 @@ public final class Loader implements LoaderErrorThrower {
 
     private void execute() {
       currentError = null;
-      downloadExecutorService.execute(currentTask);
+      downloadExecutor.execute(currentTask);
     }
 
     private void finish() {
@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2.upstream;
+
+import android.support.annotation.NonNull;
+import com.google.android.exoplayer2.util.Assertions;
+import com.google.android.exoplayer2.util.Util;
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded pool of threads that can be shared by {@link Loader}s, instead of each {@link Loader}
+ * using its own thread.
+ *
+ * <p>Loads of a single {@link Loader} are still executed one at a time and in order, so the
+ * cancellation and release semantics of each {@link Loader} are unchanged. When more loads are
+ * pending than there are threads, loads of {@link Loader}s with a higher priority are started
+ * first. Loads of {@link Loader}s with the same priority are started in the order in which they
+ * were requested.
+ *
+ * <p>An executor is used by passing it to the {@code setLoaderExecutor} method of the factories of
+ * the media sources that should share it. The application owns the executor, which may be shared
+ * by several players, and must release it once it is no longer used.
+ *
+ * <p>Loads that block until the player requests more data, such as those of {@link
+ * com.google.android.exoplayer2.source.ExtractorMediaPeriod}, must not use a shared executor, as
+ * they could occupy all of its threads.
+ */
+public final class LoaderExecutor {
+
+  /** Priority of loads that the player cannot make progress without, such as manifest loads. */
+  public static final int PRIORITY_HIGH = 1;
+  /** Default priority of loads. */
+  public static final int PRIORITY_NORMAL = 0;
+  /** Priority of loads that are not required to continue playback, such as subtitle loads. */
+  public static final int PRIORITY_LOW = -1;
+
+  private static final long KEEP_ALIVE_TIME_MS = 10000;
+
+  private final ThreadPoolExecutor threadPoolExecutor;
+  private final AtomicLong nextSequenceNumber;
+
+  /**
+   * @param threadName A name for the executor's threads.
+   * @param threadCount The maximum number of threads, and therefore of concurrent loads.
+   */
+  public LoaderExecutor(final String threadName, int threadCount) {
+    Assertions.checkArgument(threadCount > 0);
+    nextSequenceNumber = new AtomicLong();
+    final AtomicInteger threadCounter = new AtomicInteger();
+    threadPoolExecutor =
+        new ThreadPoolExecutor(
+            threadCount,
+            threadCount,
+            KEEP_ALIVE_TIME_MS,
+            TimeUnit.MILLISECONDS,
+            new PriorityBlockingQueue<Runnable>(),
+            new ThreadFactory() {
+              @Override
+              public Thread newThread(@NonNull Runnable runnable) {
+                return new Thread(runnable, threadName + ":" + threadCounter.incrementAndGet());
+              }
+            });
+    threadPoolExecutor.allowCoreThreadTimeOut(true);
+  }
+
+  /**
+   * Releases the executor. Must only be called once all media sources that were created with the
+   * executor have been released, which is the case once all players using them have been released.
+   * Loads that are still pending are completed, but no further loads can be started.
+   */
+  public void release() {
+    threadPoolExecutor.shutdown();
+  }
+
+  /**
+   * Returns an {@link Executor} that executes its tasks one at a time and in order on this
+   * executor's threads.
+   *
+   * @param priority The priority of the tasks. Higher values are executed first.
+   */
+  /* package */ Executor createSerialExecutor(int priority) {
+    return new SerialExecutor(priority);
+  }
+
+  private final class SerialExecutor implements Executor {
+
+    private final int priority;
+    private final ArrayDeque<Runnable> tasks;
+
+    private boolean isExecutingTask;
+
+    public SerialExecutor(int priority) {
+      this.priority = priority;
+      tasks = new ArrayDeque<>();
+    }
+
+    @Override
+    public synchronized void execute(@NonNull Runnable task) {
+      tasks.add(task);
+      if (!isExecutingTask) {
+        executeNextTask();
+      }
+    }
+
+    private synchronized void executeNextTask() {
+      Runnable task = tasks.poll();
+      isExecutingTask = task != null;
+      if (task != null) {
+        threadPoolExecutor.execute(
+            new PrioritizedTask(this, task, priority, nextSequenceNumber.getAndIncrement()));
+      }
+    }
+  }
+
+  private static final class PrioritizedTask implements Runnable, Comparable<PrioritizedTask> {
+
+    private final SerialExecutor serialExecutor;
+    private final Runnable task;
+    private final int priority;
+    private final long sequenceNumber;
+
+    public PrioritizedTask(
+        SerialExecutor serialExecutor, Runnable task, int priority, long sequenceNumber) {
+      this.serialExecutor = serialExecutor;
+      this.task = task;
+      this.priority = priority;
+      this.sequenceNumber = sequenceNumber;
+    }
+
+    @Override
+    public void run() {
+      try {
+        task.run();
+      } finally {
+        serialExecutor.executeNextTask();
+      }
+    }
+
+    @Override
+    public int compareTo(@NonNull PrioritizedTask other) {
+      if (priority != other.priority) {
+        return priority > other.priority ? -1 : 1;
+      }
+      return Util.compareLong(sequenceNumber, other.sequenceNumber);
+    }
+  }
+
+}
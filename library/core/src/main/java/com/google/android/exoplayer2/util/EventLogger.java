@@ -20,6 +20,7 @@ import android.os.SystemClock;
 import android.support.annotation.Nullable;
 import android.util.Log;
 import android.view.Surface;
+import com.google.android.exoplayer2.AdaptiveLoadControl;
 import com.google.android.exoplayer2.C;
 import com.google.android.exoplayer2.ExoPlaybackException;
 import com.google.android.exoplayer2.Format;
@@ -28,6 +29,7 @@ import com.google.android.exoplayer2.Player;
 import com.google.android.exoplayer2.RendererCapabilities;
 import com.google.android.exoplayer2.Timeline;
 import com.google.android.exoplayer2.analytics.AnalyticsListener;
+import com.google.android.exoplayer2.audio.AudioProcessorStats;
 import com.google.android.exoplayer2.decoder.DecoderCounters;
 import com.google.android.exoplayer2.metadata.Metadata;
 import com.google.android.exoplayer2.source.MediaSourceEventListener.LoadEventInfo;
@@ -40,6 +42,7 @@ import com.google.android.exoplayer2.trackselection.TrackSelection;
 import com.google.android.exoplayer2.trackselection.TrackSelectionArray;
 import java.io.IOException;
 import java.text.NumberFormat;
+import java.util.Arrays;
 import java.util.Locale;
 
 /** Logs events from {@link Player} and other core components using {@link Log}. */
@@ -294,6 +297,16 @@ public class EventLogger implements AnalyticsListener {
         null);
   }
 
+  @Override
+  public void onAudioProcessorStats(EventTime eventTime, AudioProcessorStats[] stats) {
+    logd(eventTime, "audioProcessorStats", Arrays.toString(stats));
+  }
+
+  @Override
+  public void onAudioSilenceSkipped(EventTime eventTime, long skippedDurationUs) {
+    logd(eventTime, "audioSilenceSkipped", getTimeString(skippedDurationUs / 1000));
+  }
+
   @Override
   public void onDroppedVideoFrames(EventTime eventTime, int count, long elapsedMs) {
     logd(eventTime, "droppedFrames", Integer.toString(count));
@@ -363,6 +376,22 @@ public class EventLogger implements AnalyticsListener {
     // Do nothing.
   }
 
+  @Override
+  public void onBufferTargetsChanged(
+      EventTime eventTime, AdaptiveLoadControl.BufferTargets bufferTargets) {
+    logd(
+        eventTime,
+        "bufferTargets",
+        "risk="
+            + bufferTargets.rebufferRisk
+            + ", minBufferMs="
+            + C.usToMs(bufferTargets.minBufferUs)
+            + ", maxBufferMs="
+            + C.usToMs(bufferTargets.maxBufferUs)
+            + ", targetBufferBytes="
+            + bufferTargets.targetBufferBytes);
+  }
+
   @Override
   public void onViewportSizeChange(EventTime eventTime, int width, int height) {
     logd(eventTime, "viewportSizeChanged", width + ", " + height);
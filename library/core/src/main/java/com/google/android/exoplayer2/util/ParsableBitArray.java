@@ -169,8 +169,11 @@ public final class ParsableBitArray {
     if (numBits == 0) {
       return 0;
     }
+    // Work on local copies of the offsets, which the compiler can keep in registers.
+    byte[] data = this.data;
+    int byteOffset = this.byteOffset;
+    int bitOffset = this.bitOffset + numBits;
     int returnValue = 0;
-    bitOffset += numBits;
     while (bitOffset > 8) {
       bitOffset -= 8;
       returnValue |= (data[byteOffset++] & 0xFF) << bitOffset;
@@ -181,6 +184,8 @@ public final class ParsableBitArray {
       bitOffset = 0;
       byteOffset++;
     }
+    this.byteOffset = byteOffset;
+    this.bitOffset = bitOffset;
     assertValidOffset();
     return returnValue;
   }
@@ -221,8 +221,10 @@ public final class ParsableByteArray {
    * Reads the next two bytes as an unsigned value.
    */
   public int readUnsignedShort() {
-    return (data[position++] & 0xFF) << 8
-        | (data[position++] & 0xFF);
+    int position = this.position;
+    int result = (data[position] & 0xFF) << 8 | (data[position + 1] & 0xFF);
+    this.position = position + 2;
+    return result;
   }
 
   /**
@@ -251,9 +253,12 @@ public final class ParsableByteArray {
    * Reads the next three bytes as an unsigned value.
    */
   public int readUnsignedInt24() {
-    return (data[position++] & 0xFF) << 16
-        | (data[position++] & 0xFF) << 8
-        | (data[position++] & 0xFF);
+    int position = this.position;
+    int result = (data[position] & 0xFF) << 16
+        | (data[position + 1] & 0xFF) << 8
+        | (data[position + 2] & 0xFF);
+    this.position = position + 3;
+    return result;
   }
 
   /**
@@ -287,10 +292,7 @@ public final class ParsableByteArray {
    * Reads the next four bytes as an unsigned value.
    */
   public long readUnsignedInt() {
-    return (data[position++] & 0xFFL) << 24
-        | (data[position++] & 0xFFL) << 16
-        | (data[position++] & 0xFFL) << 8
-        | (data[position++] & 0xFFL);
+    return readInt() & 0xFFFFFFFFL;
   }
 
   /**
@@ -307,10 +309,10 @@ public final class ParsableByteArray {
    * Reads the next four bytes as a signed value
    */
   public int readInt() {
-    return (data[position++] & 0xFF) << 24
-        | (data[position++] & 0xFF) << 16
-        | (data[position++] & 0xFF) << 8
-        | (data[position++] & 0xFF);
+    int position = this.position;
+    int result = getInt(data, position);
+    this.position = position + 4;
+    return result;
   }
 
   /**
@@ -327,14 +329,12 @@ public final class ParsableByteArray {
    * Reads the next eight bytes as a signed value.
    */
   public long readLong() {
-    return (data[position++] & 0xFFL) << 56
-        | (data[position++] & 0xFFL) << 48
-        | (data[position++] & 0xFFL) << 40
-        | (data[position++] & 0xFFL) << 32
-        | (data[position++] & 0xFFL) << 24
-        | (data[position++] & 0xFFL) << 16
-        | (data[position++] & 0xFFL) << 8
-        | (data[position++] & 0xFFL);
+    int position = this.position;
+    // Assemble the value from two ints rather than eight longs, which halves the number of 64-bit
+    // shifts on 32-bit devices.
+    long result = (long) getInt(data, position) << 32 | (getInt(data, position + 4) & 0xFFFFFFFFL);
+    this.position = position + 8;
+    return result;
   }
 
   /**
@@ -544,23 +544,15 @@ public final class ParsableByteArray {
    * @return Decoded long value
    */
   public long readUtf8EncodedLong() {
-    int length = 0;
-    long value = data[position];
-    // find the high most 0 bit
-    for (int j = 7; j >= 0; j--) {
-      if ((value & (1 << j)) == 0) {
-        if (j < 6) {
-          value &= (1 << j) - 1;
-          length = 7 - j;
-        } else if (j == 7) {
-          length = 1;
-        }
-        break;
-      }
-    }
-    if (length == 0) {
-      throw new NumberFormatException("Invalid UTF-8 sequence first byte: " + value);
+    int firstByte = data[position];
+    // The number of leading one bits in the first byte gives the length of the sequence, except
+    // that a single leading one bit marks a continuation byte.
+    int leadingOnes = Integer.numberOfLeadingZeros(~firstByte & 0xFF) - 24;
+    if (leadingOnes == 1 || leadingOnes == 8) {
+      throw new NumberFormatException("Invalid UTF-8 sequence first byte: " + firstByte);
     }
+    int length = leadingOnes == 0 ? 1 : leadingOnes;
+    long value = firstByte & (0x7F >> leadingOnes);
     for (int i = 1; i < length; i++) {
       int x = data[position + i];
       if ((x & 0xC0) != 0x80) { // if the high most 0 bit not 7th
@@ -572,4 +564,11 @@ public final class ParsableByteArray {
     return value;
   }
 
+  private static int getInt(byte[] data, int offset) {
+    return (data[offset] & 0xFF) << 24
+        | (data[offset + 1] & 0xFF) << 16
+        | (data[offset + 2] & 0xFF) << 8
+        | (data[offset + 3] & 0xFF);
+  }
+
 }
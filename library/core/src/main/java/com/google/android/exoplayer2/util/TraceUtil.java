@@ -17,14 +17,66 @@ package com.google.android.exoplayer2.util;
 
 import android.annotation.TargetApi;
 import com.google.android.exoplayer2.ExoPlayerLibraryInfo;
+import java.util.Arrays;
 
 /**
  * Calls through to {@link android.os.Trace} methods on supported API levels.
+ *
+ * <p>Tracing can be switched at runtime with {@link #setEnabled(boolean)}, for example to only
+ * capture traces on a subset of devices. Counters are recorded as empty sections whose names
+ * contain the counter value, so that they show up in systrace and perfetto captures on all API
+ * levels. Because this requires creating a section name for each value, counters are disabled by
+ * default and need to be enabled separately with {@link #setCountersEnabled(boolean)}.
+ *
+ * <p>Once tracing has been disabled, sections are tracked per thread, so that {@link
+ * #endSection()} only ends a section if the matching call to {@link #beginSection(String)} began
+ * one. This keeps sections balanced when tracing is switched while a section is open. Until then,
+ * calls go straight to {@link android.os.Trace} without any bookkeeping.
  */
 public final class TraceUtil {
 
+  private static volatile boolean enabled = true;
+  private static volatile boolean countersEnabled;
+  private static volatile boolean trackSections;
+
+  private static final ThreadLocal<SectionStack> sectionStack =
+      new ThreadLocal<SectionStack>() {
+        @Override
+        protected SectionStack initialValue() {
+          return new SectionStack();
+        }
+      };
+
   private TraceUtil() {}
 
+  /**
+   * Sets whether tracing is enabled. Tracing is enabled by default, and is never enabled if {@link
+   * ExoPlayerLibraryInfo#TRACE_ENABLED} is false.
+   *
+   * @param enabled Whether tracing is enabled.
+   */
+  public static void setEnabled(boolean enabled) {
+    if (!enabled) {
+      // Set before disabling tracing, so that sections skipped while disabled are tracked.
+      trackSections = true;
+    }
+    TraceUtil.enabled = enabled;
+  }
+
+  /** Returns whether tracing is enabled. */
+  public static boolean isEnabled() {
+    return ExoPlayerLibraryInfo.TRACE_ENABLED && enabled && Util.SDK_INT >= 18;
+  }
+
+  /**
+   * Sets whether counters are recorded while tracing is enabled. Counters are disabled by default.
+   *
+   * @param countersEnabled Whether counters are recorded.
+   */
+  public static void setCountersEnabled(boolean countersEnabled) {
+    TraceUtil.countersEnabled = countersEnabled;
+  }
+
   /**
    * Writes a trace message to indicate that a given section of code has begun.
    *
@@ -34,7 +86,15 @@ public final class TraceUtil {
    */
   public static void beginSection(String sectionName) {
     if (ExoPlayerLibraryInfo.TRACE_ENABLED && Util.SDK_INT >= 18) {
-      beginSectionV18(sectionName);
+      if (!trackSections) {
+        beginSectionV18(sectionName);
+      } else {
+        boolean begin = enabled;
+        sectionStack.get().push(begin);
+        if (begin) {
+          beginSectionV18(sectionName);
+        }
+      }
     }
   }
 
@@ -44,11 +104,42 @@ public final class TraceUtil {
    * @see android.os.Trace#endSection()
    */
   public static void endSection() {
-    if (ExoPlayerLibraryInfo.TRACE_ENABLED && Util.SDK_INT >= 18) {
+    // Not gated by the runtime switch, so that sections begun before disabling tracing are ended.
+    if (ExoPlayerLibraryInfo.TRACE_ENABLED
+        && Util.SDK_INT >= 18
+        && (!trackSections || sectionStack.get().pop())) {
+      endSectionV18();
+    }
+  }
+
+  /**
+   * Returns whether counters are recorded. Can be used to avoid computing counter values that would
+   * not be recorded.
+   */
+  public static boolean areCountersEnabled() {
+    return countersEnabled && isEnabled();
+  }
+
+  /**
+   * Records the value of a counter, if tracing and counters are enabled.
+   *
+   * @see #setCountersEnabled(boolean)
+   * @param counterName The name of the counter. The name and the value may be at most 127 Unicode
+   *     code units long combined.
+   * @param value The value of the counter.
+   */
+  public static void counter(String counterName, long value) {
+    if (areCountersEnabled()) {
+      beginSectionV18(counterName + "=" + value);
       endSectionV18();
     }
   }
 
+  /** Returns the number of sections begun on the current thread that haven't been ended. */
+  /* package */ static int getOpenSectionCount() {
+    return sectionStack.get().openSectionCount;
+  }
+
   @TargetApi(18)
   private static void beginSectionV18(String sectionName) {
     android.os.Trace.beginSection(sectionName);
@@ -59,4 +150,41 @@ public final class TraceUtil {
     android.os.Trace.endSection();
   }
 
+  /** Whether each unended call to {@link #beginSection(String)} on a thread began a section. */
+  private static final class SectionStack {
+
+    private boolean[] begun;
+    private int size;
+    private int openSectionCount;
+
+    public SectionStack() {
+      begun = new boolean[8];
+    }
+
+    public void push(boolean begin) {
+      if (size == begun.length) {
+        begun = Arrays.copyOf(begun, size * 2);
+      }
+      begun[size++] = begin;
+      if (begin) {
+        openSectionCount++;
+      }
+    }
+
+    /**
+     * Returns whether the most recent unended call began a section. If there is none, returns true
+     * because the section may have been begun before sections were tracked.
+     */
+    public boolean pop() {
+      if (size == 0) {
+        return true;
+      }
+      boolean begin = begun[--size];
+      if (begin) {
+        openSectionCount--;
+      }
+      return begin;
+    }
+  }
+
 }
@@ -84,6 +84,11 @@ public class MediaCodecVideoRenderer extends MediaCodecRenderer {
   // pending output streams that have fewer frames than the codec latency.
   private static final int MAX_PENDING_OUTPUT_STREAM_OFFSET_COUNT = 10;
 
+  // How early a frame can be released, in microseconds. From API 21 the framework times the
+  // release, so the frame can be handed over earlier than when the renderer times it by sleeping.
+  private static final long RELEASE_WINDOW_US_V21 = 50000;
+  private static final long RELEASE_WINDOW_US = 30000;
+
   private final Context context;
   private final VideoFrameReleaseTimeHelper frameReleaseTimeHelper;
   private final EventDispatcher eventDispatcher;
@@ -108,6 +113,7 @@ public class MediaCodecVideoRenderer extends MediaCodecRenderer {
   private int consecutiveDroppedFrameCount;
   private int buffersInCodecCount;
   private long lastRenderTimeUs;
+  private long nextFrameReleaseElapsedRealtimeUs;
 
   private int pendingRotationDegrees;
   private float pendingPixelWidthHeightRatio;
@@ -296,6 +302,7 @@ public class MediaCodecVideoRenderer extends MediaCodecRenderer {
     super.onPositionReset(positionUs, joining);
     clearRenderedFirstFrame();
     initialPositionUs = C.TIME_UNSET;
+    nextFrameReleaseElapsedRealtimeUs = C.TIME_UNSET;
     consecutiveDroppedFrameCount = 0;
     lastInputTimeUs = C.TIME_UNSET;
     if (pendingOutputStreamOffsetCount != 0) {
@@ -309,6 +316,14 @@ public class MediaCodecVideoRenderer extends MediaCodecRenderer {
     }
   }
 
+  @Override
+  public long getDurationToProgressUs(long positionUs, long elapsedRealtimeUs) {
+    if (nextFrameReleaseElapsedRealtimeUs == C.TIME_UNSET || getState() != STATE_STARTED) {
+      return C.TIME_UNSET;
+    }
+    return Math.max(0, nextFrameReleaseElapsedRealtimeUs - elapsedRealtimeUs);
+  }
+
   @Override
   public boolean isReady() {
     if (super.isReady() && (renderedFirstFrame || (dummySurface != null && surface == dummySurface)
@@ -555,6 +570,7 @@ public class MediaCodecVideoRenderer extends MediaCodecRenderer {
   protected boolean processOutputBuffer(long positionUs, long elapsedRealtimeUs, MediaCodec codec,
       ByteBuffer buffer, int bufferIndex, int bufferFlags, long bufferPresentationTimeUs,
       boolean shouldSkip) throws ExoPlaybackException {
+    nextFrameReleaseElapsedRealtimeUs = C.TIME_UNSET;
     if (initialPositionUs == C.TIME_UNSET) {
       initialPositionUs = positionUs;
     }
@@ -617,13 +633,13 @@ public class MediaCodecVideoRenderer extends MediaCodecRenderer {
 
     if (Util.SDK_INT >= 21) {
       // Let the underlying framework time the release.
-      if (earlyUs < 50000) {
+      if (earlyUs < RELEASE_WINDOW_US_V21) {
         renderOutputBufferV21(codec, bufferIndex, presentationTimeUs, adjustedReleaseTimeNs);
         return true;
       }
     } else {
       // We need to time the release ourselves.
-      if (earlyUs < 30000) {
+      if (earlyUs < RELEASE_WINDOW_US) {
         if (earlyUs > 11000) {
           // We're a little too early to render the frame. Sleep until the frame can be rendered.
           // Note: The 11ms threshold was chosen fairly arbitrarily.
@@ -640,7 +656,10 @@ public class MediaCodecVideoRenderer extends MediaCodecRenderer {
       }
     }
 
-    // We're either not playing, or it's not time to render the frame yet.
+    // It's not time to render the frame yet. Note when it will be, so that the player doesn't need
+    // to call render again before then.
+    long releaseWindowUs = Util.SDK_INT >= 21 ? RELEASE_WINDOW_US_V21 : RELEASE_WINDOW_US;
+    nextFrameReleaseElapsedRealtimeUs = elapsedRealtimeNowUs + earlyUs - releaseWindowUs;
     return false;
   }
 
@@ -0,0 +1,256 @@
+/*
+ * Copyright (C) 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.app.ActivityManager;
+import android.content.Context;
+import android.os.Handler;
+import com.google.android.exoplayer2.source.TrackGroup;
+import com.google.android.exoplayer2.testutil.FakeClock;
+import com.google.android.exoplayer2.testutil.PlaybackSimulator;
+import com.google.android.exoplayer2.trackselection.AdaptiveTrackSelection;
+import com.google.android.exoplayer2.trackselection.TrackSelection;
+import com.google.android.exoplayer2.upstream.BandwidthMeter;
+import com.google.android.exoplayer2.upstream.DefaultBandwidthMeter;
+import com.google.android.exoplayer2.util.MimeTypes;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+/** Unit tests for {@link AdaptiveLoadControl}. */
+@RunWith(RobolectricTestRunner.class)
+public final class AdaptiveLoadControlTest {
+
+  private static final float SPEED = 1f;
+
+  private FakeBandwidthMeter bandwidthMeter;
+  private FakeClock clock;
+  private AdaptiveLoadControl loadControl;
+
+  @Before
+  public void setUp() {
+    bandwidthMeter = new FakeBandwidthMeter();
+    clock = new FakeClock(/* initialTimeMs= */ 0);
+    loadControl =
+        new AdaptiveLoadControl.Builder(RuntimeEnvironment.application)
+            .setBandwidthMeter(bandwidthMeter)
+            .setClock(clock)
+            .createAdaptiveLoadControl();
+  }
+
+  @Test
+  public void testStableNetwork_lowersBufferTargets() {
+    AdaptiveLoadControl.BufferTargets initialTargets = loadControl.getBufferTargets();
+
+    addBitrateEstimates(1000000, 1010000, 1000000, 990000, 1000000);
+
+    AdaptiveLoadControl.BufferTargets targets = loadControl.getBufferTargets();
+    assertThat(targets.rebufferRisk).isLessThan(initialTargets.rebufferRisk);
+    assertThat(targets.minBufferUs).isLessThan(initialTargets.minBufferUs);
+    assertThat(targets.maxBufferUs).isLessThan(initialTargets.maxBufferUs);
+    assertThat(targets.targetBufferBytes).isAtMost(initialTargets.targetBufferBytes);
+  }
+
+  @Test
+  public void testVolatileNetwork_raisesBufferTargetsToMaximum() {
+    addBitrateEstimates(1000000, 3000000, 500000, 4000000, 300000);
+
+    AdaptiveLoadControl.BufferTargets targets = loadControl.getBufferTargets();
+    assertThat(targets.rebufferRisk).isEqualTo(1f);
+    assertThat(targets.minBufferUs)
+        .isEqualTo(C.msToUs(AdaptiveLoadControl.VOLATILE_MIN_BUFFER_MS));
+    assertThat(targets.maxBufferUs)
+        .isEqualTo(C.msToUs(AdaptiveLoadControl.VOLATILE_MAX_BUFFER_MS));
+    assertThat(targets.bufferForPlaybackAfterRebufferUs)
+        .isEqualTo(C.msToUs(AdaptiveLoadControl.VOLATILE_BUFFER_FOR_PLAYBACK_AFTER_REBUFFER_MS));
+    assertThat(targets.targetBufferBytes).isAtMost(getMemoryClassBytes() / 4);
+    assertThat(loadControl.shouldContinueLoading(targets.minBufferUs - 1, SPEED)).isTrue();
+    assertThat(loadControl.shouldContinueLoading(targets.maxBufferUs, SPEED)).isTrue();
+    assertThat(loadControl.shouldContinueLoading(targets.maxBufferUs + 1, SPEED)).isFalse();
+  }
+
+  @Test
+  public void testRebuffers_raiseRiskUntilTheyDecay() {
+    addBitrateEstimates(1000000, 1000000, 1010000, 1000000);
+    float stableRisk = loadControl.getBufferTargets().rebufferRisk;
+
+    for (int i = 0; i < 3; i++) {
+      loadControl.shouldStartPlayback(/* bufferedDurationUs= */ 0, SPEED, /* rebuffering= */ true);
+      loadControl.shouldStartPlayback(C.msToUs(10000), SPEED, /* rebuffering= */ true);
+    }
+    assertThat(loadControl.getBufferTargets().rebufferRisk).isEqualTo(1f);
+
+    clock.advanceTime(/* timeDiffMs= */ 60 * 60 * 1000);
+    loadControl.shouldContinueLoading(/* bufferedDurationUs= */ 0, SPEED);
+    assertThat(loadControl.getBufferTargets().rebufferRisk).isEqualTo(stableRisk);
+  }
+
+  @Test
+  public void testBufferTargetsChanged_notifiesListener() {
+    final List<AdaptiveLoadControl.BufferTargets> reportedTargets = new ArrayList<>();
+    loadControl.addEventListener(
+        new Handler(),
+        new AdaptiveLoadControl.EventListener() {
+          @Override
+          public void onBufferTargetsChanged(AdaptiveLoadControl.BufferTargets bufferTargets) {
+            reportedTargets.add(bufferTargets);
+          }
+        });
+
+    addBitrateEstimates(1000000, 3000000, 500000, 4000000);
+
+    assertThat(reportedTargets).isNotEmpty();
+    assertThat(reportedTargets.get(reportedTargets.size() - 1))
+        .isSameAs(loadControl.getBufferTargets());
+  }
+
+  @Test
+  public void testFastStart_growsBufferForPlaybackWithBitrateEstimates() {
+    loadControl = createFastStartLoadControl();
+    assertThat(loadControl.getBufferTargets().bufferForPlaybackUs)
+        .isEqualTo(C.msToUs(AdaptiveLoadControl.FAST_START_BUFFER_FOR_PLAYBACK_MS));
+
+    long previousBufferForPlaybackUs = loadControl.getBufferTargets().bufferForPlaybackUs;
+    for (int i = 0; i < AdaptiveLoadControl.FAST_START_SAMPLE_COUNT; i++) {
+      addBitrateEstimates(1000000 + i * 10000);
+      long bufferForPlaybackUs = loadControl.getBufferTargets().bufferForPlaybackUs;
+      assertThat(bufferForPlaybackUs).isGreaterThan(previousBufferForPlaybackUs);
+      previousBufferForPlaybackUs = bufferForPlaybackUs;
+    }
+    assertThat(previousBufferForPlaybackUs)
+        .isEqualTo(C.msToUs(DefaultLoadControl.DEFAULT_BUFFER_FOR_PLAYBACK_MS));
+  }
+
+  @Test
+  public void testFastStart_endsOnRebuffer() {
+    loadControl = createFastStartLoadControl();
+    long fastStartBufferUs = C.msToUs(AdaptiveLoadControl.FAST_START_BUFFER_FOR_PLAYBACK_MS);
+    assertThat(loadControl.shouldStartPlayback(fastStartBufferUs, SPEED, /* rebuffering= */ false))
+        .isTrue();
+
+    loadControl.shouldStartPlayback(/* bufferedDurationUs= */ 0, SPEED, /* rebuffering= */ true);
+
+    assertThat(loadControl.getBufferTargets().bufferForPlaybackUs)
+        .isEqualTo(C.msToUs(DefaultLoadControl.DEFAULT_BUFFER_FOR_PLAYBACK_MS));
+    assertThat(loadControl.shouldStartPlayback(fastStartBufferUs, SPEED, /* rebuffering= */ false))
+        .isFalse();
+  }
+
+  @Test
+  public void testFastStart_reducesTimeToFirstFrameOnSimulatedNetwork() {
+    PlaybackSimulator.Result defaultResult = simulatePlayback(/* fastStart= */ false);
+    PlaybackSimulator.Result fastStartResult = simulatePlayback(/* fastStart= */ true);
+
+    assertThat(fastStartResult.timeToFirstFrameMs).isLessThan(defaultResult.timeToFirstFrameMs);
+    assertThat(fastStartResult.getRebufferCount(/* timeMs= */ 30000))
+        .isAtMost(defaultResult.getRebufferCount(/* timeMs= */ 30000));
+    assertThat(fastStartResult.getRebufferCount(/* timeMs= */ 30000)).isEqualTo(0);
+  }
+
+  private AdaptiveLoadControl createFastStartLoadControl() {
+    return new AdaptiveLoadControl.Builder(RuntimeEnvironment.application)
+        .setBandwidthMeter(bandwidthMeter)
+        .setFastStartEnabled(true)
+        .setClock(clock)
+        .createAdaptiveLoadControl();
+  }
+
+  private PlaybackSimulator.Result simulatePlayback(boolean fastStart) {
+    FakeClock clock = new FakeClock(/* initialTimeMs= */ 0);
+    DefaultBandwidthMeter bandwidthMeter =
+        new DefaultBandwidthMeter.Builder().setClock(clock).build();
+    AdaptiveLoadControl loadControl =
+        new AdaptiveLoadControl.Builder(RuntimeEnvironment.application)
+            .setBandwidthMeter(bandwidthMeter)
+            .setFastStartEnabled(fastStart)
+            .setClock(clock)
+            .createAdaptiveLoadControl();
+    TrackGroup trackGroup =
+        new TrackGroup(
+            videoFormat(/* bitrate= */ 300000),
+            videoFormat(/* bitrate= */ 600000),
+            videoFormat(/* bitrate= */ 1200000),
+            videoFormat(/* bitrate= */ 2500000));
+    TrackSelection trackSelection =
+        new AdaptiveTrackSelection.Factory(
+                bandwidthMeter,
+                AdaptiveTrackSelection.DEFAULT_MIN_DURATION_FOR_QUALITY_INCREASE_MS,
+                AdaptiveTrackSelection.DEFAULT_MAX_DURATION_FOR_QUALITY_DECREASE_MS,
+                AdaptiveTrackSelection.DEFAULT_MIN_DURATION_TO_RETAIN_AFTER_DISCARD_MS,
+                AdaptiveTrackSelection.DEFAULT_BANDWIDTH_FRACTION,
+                AdaptiveTrackSelection.DEFAULT_BUFFERED_FRACTION_TO_LIVE_EDGE_FOR_QUALITY_INCREASE,
+                AdaptiveTrackSelection.DEFAULT_MIN_TIME_BETWEEN_BUFFER_REEVALUTATION_MS,
+                fastStart,
+                clock)
+            .createTrackSelection(trackGroup, 0, 1, 2, 3);
+    PlaybackSimulator playbackSimulator =
+        new PlaybackSimulator(
+            loadControl,
+            trackSelection,
+            bandwidthMeter,
+            clock,
+            /* chunkDurationMs= */ 2000,
+            /* networkBitrates= */ 1500000,
+            1300000,
+            1700000,
+            1400000,
+            1600000);
+    return playbackSimulator.simulate(/* mediaDurationMs= */ 60000);
+  }
+
+  private static Format videoFormat(int bitrate) {
+    return Format.createVideoSampleFormat(
+        /* id= */ null,
+        MimeTypes.VIDEO_H264,
+        /* codecs= */ null,
+        bitrate,
+        /* maxInputSize= */ Format.NO_VALUE,
+        /* width= */ 1280,
+        /* height= */ 720,
+        /* frameRate= */ Format.NO_VALUE,
+        /* initializationData= */ null,
+        /* drmInitData= */ null);
+  }
+
+  private void addBitrateEstimates(long... bitrateEstimates) {
+    for (long bitrateEstimate : bitrateEstimates) {
+      bandwidthMeter.bitrateEstimate = bitrateEstimate;
+      loadControl.shouldContinueLoading(/* bufferedDurationUs= */ 0, SPEED);
+    }
+  }
+
+  private static int getMemoryClassBytes() {
+    ActivityManager activityManager =
+        (ActivityManager) RuntimeEnvironment.application.getSystemService(Context.ACTIVITY_SERVICE);
+    return activityManager.getMemoryClass() * 1024 * 1024;
+  }
+
+  private static final class FakeBandwidthMeter implements BandwidthMeter {
+
+    public long bitrateEstimate;
+
+    @Override
+    public long getBitrateEstimate() {
+      return bitrateEstimate;
+    }
+  }
+}
@@ -22,10 +22,12 @@ import android.view.Surface;
 import com.google.android.exoplayer2.Player.DefaultEventListener;
 import com.google.android.exoplayer2.Player.EventListener;
 import com.google.android.exoplayer2.Timeline.Window;
+import com.google.android.exoplayer2.decoder.DecoderInputBuffer;
 import com.google.android.exoplayer2.source.ConcatenatingMediaSource;
 import com.google.android.exoplayer2.source.MediaSource;
 import com.google.android.exoplayer2.source.MediaSource.MediaPeriodId;
 import com.google.android.exoplayer2.source.MediaSourceEventListener.EventDispatcher;
+import com.google.android.exoplayer2.source.SampleStream;
 import com.google.android.exoplayer2.source.TrackGroup;
 import com.google.android.exoplayer2.source.TrackGroupArray;
 import com.google.android.exoplayer2.source.ads.AdPlaybackState;
@@ -44,6 +46,7 @@ import com.google.android.exoplayer2.testutil.FakeTimeline.TimelineWindowDefinit
 import com.google.android.exoplayer2.testutil.FakeTrackSelection;
 import com.google.android.exoplayer2.testutil.FakeTrackSelector;
 import com.google.android.exoplayer2.testutil.RobolectricUtil;
+import com.google.android.exoplayer2.trackselection.TrackSelection;
 import com.google.android.exoplayer2.upstream.Allocator;
 import java.io.IOException;
 import java.util.ArrayList;
@@ -2079,8 +2082,74 @@ public final class ExoPlayerTest {
     assertThat(eventListenerPlayWhenReady).containsExactly(true, true, true, false).inOrder();
   }
 
+  @Test
+  public void testDynamicSchedulingReducesRenderCallsWhilePlaying() throws Exception {
+    int defaultRenderCount = countRenderCallsWhilePlaying(/* dynamicSchedulingEnabled= */ false);
+    int dynamicRenderCount = countRenderCallsWhilePlaying(/* dynamicSchedulingEnabled= */ true);
+
+    // The renderer asks to be called every 50ms rather than every 10ms.
+    assertThat(dynamicRenderCount).isAtMost(defaultRenderCount / 3);
+  }
+
+  @Test
+  public void testPreloadPreparesNextPeriodBeforeLoadingPeriodIsFullyBuffered() throws Exception {
+    SlowLoadingMediaSource defaultMediaSource = new SlowLoadingMediaSource();
+    playWithPreloadDuration(defaultMediaSource, /* preloadDurationMs= */ C.TIME_UNSET);
+    SlowLoadingMediaSource preloadMediaSource = new SlowLoadingMediaSource();
+    playWithPreloadDuration(preloadMediaSource, /* preloadDurationMs= */ 10000);
+
+    assertThat(defaultMediaSource.secondPeriodCreatedBeforeFirstFullyBuffered).isFalse();
+    assertThat(preloadMediaSource.secondPeriodCreatedBeforeFirstFullyBuffered).isTrue();
+    // The preloaded period is enqueued rather than being created again.
+    assertThat(preloadMediaSource.getCreatedMediaPeriods()).hasSize(2);
+  }
+
   // Internal methods.
 
+  private static void playWithPreloadDuration(
+      MediaSource mediaSource, final long preloadDurationMs) throws Exception {
+    ActionSchedule actionSchedule =
+        new ActionSchedule.Builder("testPreload")
+            .executeRunnable(
+                new PlayerRunnable() {
+                  @Override
+                  public void run(SimpleExoPlayer player) {
+                    player.setPreloadDurationMs(preloadDurationMs);
+                  }
+                })
+            .build();
+    new Builder()
+        .setMediaSource(mediaSource)
+        .setActionSchedule(actionSchedule)
+        .build()
+        .start()
+        .blockUntilEnded(TIMEOUT_MS);
+  }
+
+  private static int countRenderCallsWhilePlaying(final boolean dynamicSchedulingEnabled)
+      throws Exception {
+    RenderCallCountingRenderer renderer = new RenderCallCountingRenderer(Builder.VIDEO_FORMAT);
+    ActionSchedule actionSchedule =
+        new ActionSchedule.Builder("testDynamicScheduling")
+            .executeRunnable(
+                new PlayerRunnable() {
+                  @Override
+                  public void run(SimpleExoPlayer player) {
+                    player.setDynamicSchedulingEnabled(dynamicSchedulingEnabled);
+                  }
+                })
+            .build();
+    new Builder()
+        .setTimeline(new FakeTimeline(/* windowCount= */ 1))
+        .setRenderers(renderer)
+        .setActionSchedule(actionSchedule)
+        .build()
+        .start()
+        .blockUntilEnded(TIMEOUT_MS);
+    assertThat(renderer.isEnded).isTrue();
+    return renderer.startedRenderCount;
+  }
+
   private static ActionSchedule.Builder addSurfaceSwitch(ActionSchedule.Builder builder) {
     final Surface surface1 = new Surface(null);
     final Surface surface2 = new Surface(null);
@@ -2103,6 +2172,89 @@ public final class ExoPlayerTest {
 
   // Internal classes.
 
+  /**
+   * Media source with two windows, whose first period is only fully buffered once playback
+   * reaches half of its duration.
+   */
+  private static final class SlowLoadingMediaSource extends FakeMediaSource {
+
+    public boolean secondPeriodCreatedBeforeFirstFullyBuffered;
+
+    private boolean firstPeriodFullyBuffered;
+
+    public SlowLoadingMediaSource() {
+      super(new FakeTimeline(/* windowCount= */ 2), /* manifest= */ null, Builder.VIDEO_FORMAT);
+    }
+
+    @Override
+    protected FakeMediaPeriod createFakeMediaPeriod(
+        MediaPeriodId id,
+        TrackGroupArray trackGroupArray,
+        Allocator allocator,
+        EventDispatcher eventDispatcher) {
+      if (id.periodIndex != 0) {
+        secondPeriodCreatedBeforeFirstFullyBuffered = !firstPeriodFullyBuffered;
+        return super.createFakeMediaPeriod(id, trackGroupArray, allocator, eventDispatcher);
+      }
+      return new FakeMediaPeriod(trackGroupArray, eventDispatcher) {
+        @Override
+        public void reevaluateBuffer(long positionUs) {
+          if (positionUs >= TimelineWindowDefinition.DEFAULT_WINDOW_DURATION_US / 2) {
+            firstPeriodFullyBuffered = true;
+          }
+        }
+
+        @Override
+        public long getBufferedPositionUs() {
+          return getNextLoadPositionUs();
+        }
+
+        @Override
+        public long getNextLoadPositionUs() {
+          // Report the period as buffered to its end but still loading, so that playback starts.
+          return firstPeriodFullyBuffered
+              ? C.TIME_END_OF_SOURCE
+              : TimelineWindowDefinition.DEFAULT_WINDOW_DURATION_US;
+        }
+
+        @Override
+        protected SampleStream createSampleStream(TrackSelection selection) {
+          final SampleStream sampleStream = super.createSampleStream(selection);
+          return new SampleStream() {
+            @Override
+            public boolean isReady() {
+              return true;
+            }
+
+            @Override
+            public void maybeThrowError() throws IOException {
+              sampleStream.maybeThrowError();
+            }
+
+            @Override
+            public int readData(
+                FormatHolder formatHolder, DecoderInputBuffer buffer, boolean formatRequired) {
+              int result = sampleStream.readData(formatHolder, buffer, formatRequired);
+              if (result == C.RESULT_BUFFER_READ
+                  && buffer.isEndOfStream()
+                  && !firstPeriodFullyBuffered) {
+                // Withhold the end of the stream until the period is fully buffered.
+                buffer.clear();
+                return C.RESULT_NOTHING_READ;
+              }
+              return result;
+            }
+
+            @Override
+            public int skipData(long positionUs) {
+              return sampleStream.skipData(positionUs);
+            }
+          };
+        }
+      };
+    }
+  }
+
   private static final class PositionGrabbingMessageTarget extends PlayerTarget {
 
     public int windowIndex;
@@ -2123,4 +2275,26 @@ public final class ExoPlayerTest {
       messageCount++;
     }
   }
+
+  private static final class RenderCallCountingRenderer extends FakeRenderer {
+
+    public int startedRenderCount;
+
+    public RenderCallCountingRenderer(Format... expectedFormats) {
+      super(expectedFormats);
+    }
+
+    @Override
+    public void render(long positionUs, long elapsedRealtimeUs) throws ExoPlaybackException {
+      if (getState() == STATE_STARTED) {
+        startedRenderCount++;
+      }
+      super.render(positionUs, elapsedRealtimeUs);
+    }
+
+    @Override
+    public long getDurationToProgressUs(long positionUs, long elapsedRealtimeUs) {
+      return 50000;
+    }
+  }
 }
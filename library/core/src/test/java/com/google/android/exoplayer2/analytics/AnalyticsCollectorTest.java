@@ -24,6 +24,7 @@ import android.os.Handler;
 import android.os.SystemClock;
 import android.support.annotation.Nullable;
 import android.view.Surface;
+import com.google.android.exoplayer2.AdaptiveLoadControl;
 import com.google.android.exoplayer2.ExoPlaybackException;
 import com.google.android.exoplayer2.Format;
 import com.google.android.exoplayer2.PlaybackParameters;
@@ -33,6 +34,8 @@ import com.google.android.exoplayer2.RenderersFactory;
 import com.google.android.exoplayer2.SimpleExoPlayer;
 import com.google.android.exoplayer2.Timeline;
 import com.google.android.exoplayer2.Timeline.Window;
+import com.google.android.exoplayer2.analytics.AnalyticsListener.EventTime;
+import com.google.android.exoplayer2.audio.AudioProcessorStats;
 import com.google.android.exoplayer2.audio.AudioRendererEventListener;
 import com.google.android.exoplayer2.decoder.DecoderCounters;
 import com.google.android.exoplayer2.drm.DrmSessionManager;
@@ -53,8 +56,10 @@ import com.google.android.exoplayer2.testutil.FakeMediaSource;
 import com.google.android.exoplayer2.testutil.FakeRenderer;
 import com.google.android.exoplayer2.testutil.FakeTimeline;
 import com.google.android.exoplayer2.testutil.RobolectricUtil;
+import com.google.android.exoplayer2.testutil.StubExoPlayer;
 import com.google.android.exoplayer2.text.TextOutput;
 import com.google.android.exoplayer2.trackselection.TrackSelectionArray;
+import com.google.android.exoplayer2.util.Clock;
 import com.google.android.exoplayer2.util.Util;
 import com.google.android.exoplayer2.video.VideoRendererEventListener;
 import java.io.IOException;
@@ -109,6 +114,9 @@ public final class AnalyticsCollectorTest {
   private static final int EVENT_DRM_ERROR = 34;
   private static final int EVENT_DRM_KEYS_RESTORED = 35;
   private static final int EVENT_DRM_KEYS_REMOVED = 36;
+  private static final int EVENT_AUDIO_PROCESSOR_STATS = 37;
+  private static final int EVENT_AUDIO_SILENCE_SKIPPED = 38;
+  private static final int EVENT_BUFFER_TARGETS_CHANGED = 39;
 
   private static final int TIMEOUT_MS = 10000;
   private static final Timeline SINGLE_PERIOD_TIMELINE = new FakeTimeline(/* windowCount= */ 1);
@@ -663,6 +671,10 @@ public final class AnalyticsCollectorTest {
         ((ConnectivityManager)
                 RuntimeEnvironment.application.getSystemService(Context.CONNECTIVITY_SERVICE))
             .getActiveNetworkInfo();
+    final AdaptiveLoadControl.BufferTargets bufferTargets =
+        new AdaptiveLoadControl.Builder(RuntimeEnvironment.application)
+            .createAdaptiveLoadControl()
+            .getBufferTargets();
     ActionSchedule actionSchedule =
         new ActionSchedule.Builder("AnalyticsCollectorTest")
             .pause()
@@ -675,6 +687,7 @@ public final class AnalyticsCollectorTest {
                     player
                         .getAnalyticsCollector()
                         .notifyViewportSizeChanged(/* width= */ 320, /* height= */ 240);
+                    player.getAnalyticsCollector().onBufferTargetsChanged(bufferTargets);
                     player.getAnalyticsCollector().notifySeekStarted();
                   }
                 })
@@ -687,6 +700,37 @@ public final class AnalyticsCollectorTest {
     assertThat(listener.getEvents(EVENT_SEEK_PROCESSED)).containsExactly(PERIOD_0);
     assertThat(listener.getEvents(EVENT_VIEWPORT_SIZE_CHANGED)).containsExactly(PERIOD_0);
     assertThat(listener.getEvents(EVENT_NETWORK_TYPE_CHANGED)).containsExactly(PERIOD_0);
+    assertThat(listener.getEvents(EVENT_BUFFER_TARGETS_CHANGED)).containsExactly(PERIOD_0);
+  }
+
+  @Test
+  public void testEventTimesAreOnlyGeneratedForRegisteredListeners() {
+    CountingAnalyticsCollector analyticsCollector = new CountingAnalyticsCollector();
+
+    dispatchEvents(analyticsCollector);
+    assertThat(analyticsCollector.generatedEventTimeCount).isEqualTo(0);
+
+    TestAnalyticsListener listener = new TestAnalyticsListener();
+    analyticsCollector.addListener(listener);
+    dispatchEvents(analyticsCollector);
+    assertThat(analyticsCollector.generatedEventTimeCount).isEqualTo(5);
+    assertThat(listener.getEvents(EVENT_SEEK_STARTED)).hasSize(1);
+    assertThat(listener.getEvents(EVENT_SEEK_PROCESSED)).hasSize(1);
+
+    for (int i = 0; i < 4; i++) {
+      analyticsCollector.addListener(new TestAnalyticsListener());
+    }
+    dispatchEvents(analyticsCollector);
+    // A single event time is shared by all listeners.
+    assertThat(analyticsCollector.generatedEventTimeCount).isEqualTo(10);
+  }
+
+  private static void dispatchEvents(AnalyticsCollector analyticsCollector) {
+    analyticsCollector.notifySeekStarted();
+    analyticsCollector.onSeekProcessed();
+    analyticsCollector.onLoadingChanged(/* isLoading= */ true);
+    analyticsCollector.onDroppedFrames(/* count= */ 1, /* elapsedMs= */ 10);
+    analyticsCollector.onBandwidthSample(/* elapsedMs= */ 10, /* bytes= */ 100, /* bitrate= */ 80);
   }
 
   private static TestAnalyticsListener runAnalyticsTest(MediaSource mediaSource) throws Exception {
@@ -728,6 +772,35 @@ public final class AnalyticsCollectorTest {
     return listener;
   }
 
+  private static final class CountingAnalyticsCollector extends AnalyticsCollector {
+
+    private int generatedEventTimeCount;
+
+    public CountingAnalyticsCollector() {
+      super(
+          new StubExoPlayer() {
+            @Override
+            public int getCurrentWindowIndex() {
+              return 0;
+            }
+          },
+          Clock.DEFAULT);
+    }
+
+    @Override
+    protected EventTime generateEventTime(int windowIndex, @Nullable MediaPeriodId mediaPeriodId) {
+      generatedEventTimeCount++;
+      return new EventTime(
+          /* realtimeMs= */ 0,
+          Timeline.EMPTY,
+          windowIndex,
+          mediaPeriodId,
+          /* eventPlaybackPositionMs= */ 0,
+          /* currentPlaybackPositionMs= */ 0,
+          /* totalBufferedDurationMs= */ 0);
+    }
+  }
+
   private static final class FakeVideoRenderer extends FakeRenderer {
 
     private final VideoRendererEventListener.EventDispatcher eventDispatcher;
@@ -1016,6 +1089,12 @@ public final class AnalyticsCollectorTest {
       reportedEvents.add(new ReportedEvent(EVENT_BANDWIDTH_ESTIMATE, eventTime));
     }
 
+    @Override
+    public void onBufferTargetsChanged(
+        EventTime eventTime, AdaptiveLoadControl.BufferTargets bufferTargets) {
+      reportedEvents.add(new ReportedEvent(EVENT_BUFFER_TARGETS_CHANGED, eventTime));
+    }
+
     @Override
     public void onViewportSizeChange(EventTime eventTime, int width, int height) {
       reportedEvents.add(new ReportedEvent(EVENT_VIEWPORT_SIZE_CHANGED, eventTime));
@@ -1065,6 +1144,16 @@ public final class AnalyticsCollectorTest {
       reportedEvents.add(new ReportedEvent(EVENT_AUDIO_UNDERRUN, eventTime));
     }
 
+    @Override
+    public void onAudioProcessorStats(EventTime eventTime, AudioProcessorStats[] stats) {
+      reportedEvents.add(new ReportedEvent(EVENT_AUDIO_PROCESSOR_STATS, eventTime));
+    }
+
+    @Override
+    public void onAudioSilenceSkipped(EventTime eventTime, long skippedDurationUs) {
+      reportedEvents.add(new ReportedEvent(EVENT_AUDIO_SILENCE_SKIPPED, eventTime));
+    }
+
     @Override
     public void onDroppedVideoFrames(EventTime eventTime, int droppedFrames, long elapsedMs) {
       reportedEvents.add(new ReportedEvent(EVENT_DROPPED_VIDEO_FRAMES, eventTime));
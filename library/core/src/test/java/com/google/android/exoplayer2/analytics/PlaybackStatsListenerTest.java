@@ -0,0 +1,190 @@
+/*
+ * Copyright (C) 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2.analytics;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.Format;
+import com.google.android.exoplayer2.Player;
+import com.google.android.exoplayer2.Timeline;
+import com.google.android.exoplayer2.analytics.AnalyticsListener.EventTime;
+import com.google.android.exoplayer2.testutil.FakeClock;
+import com.google.android.exoplayer2.util.MimeTypes;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+/** Unit tests for {@link PlaybackStatsListener}. */
+@RunWith(RobolectricTestRunner.class)
+public final class PlaybackStatsListenerTest {
+
+  private static final Format FORMAT_1000 = createVideoFormat(/* bitrate= */ 1000);
+  private static final Format FORMAT_3000 = createVideoFormat(/* bitrate= */ 3000);
+
+  private FakeClock clock;
+  private List<PlaybackStats> finishedSessions;
+  private PlaybackStatsListener listener;
+
+  @Before
+  public void setUp() {
+    clock = new FakeClock(/* initialTimeMs= */ 0);
+    finishedSessions = new ArrayList<>();
+    listener =
+        new PlaybackStatsListener(
+            new PlaybackStatsListener.Callback() {
+              @Override
+              public void onPlaybackSessionFinished(PlaybackStats playbackStats) {
+                finishedSessions.add(playbackStats);
+              }
+            },
+            clock);
+  }
+
+  @Test
+  public void testPlaybackWithRebufferAndFormatChange() {
+    setPlaybackState(/* realtimeMs= */ 0, Player.STATE_BUFFERING);
+    listener.onDecoderInputFormatChanged(eventTime(0), C.TRACK_TYPE_VIDEO, FORMAT_1000);
+    setPlaybackState(/* realtimeMs= */ 500, Player.STATE_READY);
+    setPlaybackState(/* realtimeMs= */ 1500, Player.STATE_BUFFERING);
+    setPlaybackState(/* realtimeMs= */ 1800, Player.STATE_READY);
+    listener.onDecoderInputFormatChanged(eventTime(1800), C.TRACK_TYPE_VIDEO, FORMAT_3000);
+    listener.onDroppedVideoFrames(eventTime(2000), /* droppedFrames= */ 20, /* elapsedMs= */ 200);
+    setPlaybackState(/* realtimeMs= */ 2800, Player.STATE_ENDED);
+
+    assertThat(finishedSessions).hasSize(1);
+    PlaybackStats playbackStats = finishedSessions.get(0);
+    assertThat(playbackStats.startupTimeMs).isEqualTo(500);
+    assertThat(playbackStats.playingTimeMs).isEqualTo(2000);
+    assertThat(playbackStats.rebufferCount).isEqualTo(1);
+    assertThat(playbackStats.rebufferTimeMs).isEqualTo(300);
+    assertThat(playbackStats.videoFormats).asList().containsExactly(FORMAT_1000, FORMAT_3000);
+    assertThat(playbackStats.videoFormatPlayingTimesMs).asList().containsExactly(1000L, 1000L);
+    assertThat(playbackStats.meanVideoBitrate).isWithin(1e-6).of(2000);
+    assertThat(playbackStats.videoBitrateVariance).isWithin(1e-6).of(1000000);
+    assertThat(playbackStats.getDroppedFramesPerSecond()).isWithin(1e-6).of(10);
+  }
+
+  @Test
+  public void testSeekLatencyAndBandwidthEstimateError() {
+    setPlaybackState(/* realtimeMs= */ 0, Player.STATE_BUFFERING);
+    setPlaybackState(/* realtimeMs= */ 100, Player.STATE_READY);
+    listener.onSeekStarted(eventTime(1000));
+    setPlaybackState(/* realtimeMs= */ 1000, Player.STATE_BUFFERING);
+    setPlaybackState(/* realtimeMs= */ 1250, Player.STATE_READY);
+    listener.onSeekProcessed(eventTime(1250));
+    listener.onSeekStarted(eventTime(2000));
+    listener.onSeekProcessed(eventTime(2010));
+    listener.onBandwidthEstimate(
+        eventTime(2100),
+        /* totalLoadTimeMs= */ 1000,
+        /* totalBytesLoaded= */ 125000,
+        /* bitrateEstimate= */ 1000000);
+    listener.onBandwidthEstimate(
+        eventTime(2200),
+        /* totalLoadTimeMs= */ 1000,
+        /* totalBytesLoaded= */ 100000,
+        /* bitrateEstimate= */ 900000);
+    clock.advanceTime(2200);
+
+    PlaybackStats playbackStats = listener.getPlaybackStats();
+    assertThat(playbackStats.seekCount).isEqualTo(2);
+    assertThat(playbackStats.getMeanSeekLatencyMs()).isEqualTo(130);
+    assertThat(playbackStats.rebufferCount).isEqualTo(0);
+    assertThat(playbackStats.rebufferTimeMs).isEqualTo(0);
+    assertThat(playbackStats.playingTimeMs).isEqualTo(1850);
+    assertThat(playbackStats.bandwidthSampleCount).isEqualTo(1);
+    assertThat(playbackStats.meanBandwidthEstimateError).isWithin(1e-6).of(0.25);
+    assertThat(finishedSessions).isEmpty();
+  }
+
+  @Test
+  public void testNewSessionResetsStats() {
+    setPlaybackState(/* realtimeMs= */ 0, Player.STATE_BUFFERING);
+    listener.onDecoderInputFormatChanged(eventTime(0), C.TRACK_TYPE_VIDEO, FORMAT_1000);
+    setPlaybackState(/* realtimeMs= */ 100, Player.STATE_READY);
+    setPlaybackState(/* realtimeMs= */ 1100, Player.STATE_ENDED);
+    setPlaybackState(/* realtimeMs= */ 2000, Player.STATE_BUFFERING);
+    setPlaybackState(/* realtimeMs= */ 2300, Player.STATE_READY);
+    setPlaybackState(/* realtimeMs= */ 2800, Player.STATE_IDLE);
+
+    assertThat(finishedSessions).hasSize(2);
+    assertThat(finishedSessions.get(0).playingTimeMs).isEqualTo(1000);
+    PlaybackStats playbackStats = finishedSessions.get(1);
+    assertThat(playbackStats.startupTimeMs).isEqualTo(300);
+    assertThat(playbackStats.playingTimeMs).isEqualTo(500);
+    assertThat(playbackStats.videoFormats).asList().containsExactly(FORMAT_1000);
+    assertThat(playbackStats.videoFormatPlayingTimesMs).asList().containsExactly(500L);
+  }
+
+  @Test
+  public void testEventsAfterSessionFinishedAreIgnored() {
+    setPlaybackState(/* realtimeMs= */ 0, Player.STATE_BUFFERING);
+    setPlaybackState(/* realtimeMs= */ 100, Player.STATE_READY);
+    setPlaybackState(/* realtimeMs= */ 1100, Player.STATE_ENDED);
+    listener.onDroppedVideoFrames(eventTime(1200), /* droppedFrames= */ 20, /* elapsedMs= */ 200);
+    listener.onBandwidthEstimate(
+        eventTime(1300),
+        /* totalLoadTimeMs= */ 1000,
+        /* totalBytesLoaded= */ 125000,
+        /* bitrateEstimate= */ 1000000);
+    listener.onBandwidthEstimate(
+        eventTime(1400),
+        /* totalLoadTimeMs= */ 1000,
+        /* totalBytesLoaded= */ 100000,
+        /* bitrateEstimate= */ 900000);
+    clock.advanceTime(1400);
+
+    // The stats of the finished session are unchanged.
+    PlaybackStats playbackStats = listener.getPlaybackStats();
+    assertThat(playbackStats.playingTimeMs).isEqualTo(1000);
+    assertThat(playbackStats.droppedFrameCount).isEqualTo(0);
+    assertThat(playbackStats.bandwidthSampleCount).isEqualTo(0);
+  }
+
+  private void setPlaybackState(long realtimeMs, int playbackState) {
+    listener.onPlayerStateChanged(eventTime(realtimeMs), /* playWhenReady= */ true, playbackState);
+  }
+
+  private static EventTime eventTime(long realtimeMs) {
+    return new EventTime(
+        realtimeMs,
+        Timeline.EMPTY,
+        /* windowIndex= */ 0,
+        /* mediaPeriodId= */ null,
+        /* eventPlaybackPositionMs= */ 0,
+        /* currentPlaybackPositionMs= */ 0,
+        /* totalBufferedDurationMs= */ 0);
+  }
+
+  private static Format createVideoFormat(int bitrate) {
+    return Format.createVideoSampleFormat(
+        /* id= */ null,
+        MimeTypes.VIDEO_H264,
+        /* codecs= */ null,
+        bitrate,
+        /* maxInputSize= */ Format.NO_VALUE,
+        /* width= */ 1280,
+        /* height= */ 720,
+        /* frameRate= */ Format.NO_VALUE,
+        /* initializationData= */ null,
+        /* drmInitData= */ null);
+  }
+
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2.audio;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.android.exoplayer2.C;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+/** Unit tests for {@link AudioProcessorStatsTracker}. */
+@RunWith(RobolectricTestRunner.class)
+public final class AudioProcessorStatsTrackerTest {
+
+  private static final long REPORT_INTERVAL_MS = 1000;
+  private static final int SAMPLE_RATE_HZ = 1000;
+  private static final int FRAME_SIZE = 4;
+
+  private AudioProcessorStatsTracker tracker;
+
+  @Before
+  public void setUp() throws Exception {
+    SilenceSkippingAudioProcessor audioProcessor = new SilenceSkippingAudioProcessor();
+    audioProcessor.setEnabled(true);
+    audioProcessor.configure(SAMPLE_RATE_HZ, /* channelCount= */ 2, C.ENCODING_PCM_16BIT);
+    tracker = new AudioProcessorStatsTracker(REPORT_INTERVAL_MS);
+    tracker.setAudioProcessors(
+        new AudioProcessor[] {audioProcessor}, SAMPLE_RATE_HZ, FRAME_SIZE);
+  }
+
+  @Test
+  public void testNoReportBeforeIntervalElapses() {
+    assertThat(tracker.maybeBuildReport(/* nowMs= */ 1)).isNull();
+    tracker.onProcessed(/* index= */ 0, /* processingTimeNs= */ 1000, FRAME_SIZE, FRAME_SIZE);
+
+    assertThat(tracker.maybeBuildReport(/* nowMs= */ REPORT_INTERVAL_MS)).isNull();
+  }
+
+  @Test
+  public void testReport_containsIntervalStatsAndBufferedDuration() {
+    tracker.maybeBuildReport(/* nowMs= */ 1);
+    // Consume 100 frames (100 ms) and output 40 frames (40 ms).
+    tracker.onProcessed(
+        /* index= */ 0, /* processingTimeNs= */ 2000, 100 * FRAME_SIZE, 40 * FRAME_SIZE);
+
+    AudioProcessorStats[] stats = tracker.maybeBuildReport(/* nowMs= */ REPORT_INTERVAL_MS + 1);
+
+    assertThat(stats).hasLength(1);
+    assertThat(stats[0].audioProcessorName).isEqualTo("SilenceSkippingAudioProcessor");
+    assertThat(stats[0].intervalMs).isEqualTo(REPORT_INTERVAL_MS);
+    assertThat(stats[0].processingTimeUs).isEqualTo(2);
+    assertThat(stats[0].inputBytes).isEqualTo(100 * FRAME_SIZE);
+    assertThat(stats[0].outputBytes).isEqualTo(40 * FRAME_SIZE);
+    assertThat(stats[0].bufferedDurationUs).isEqualTo(60000);
+  }
+
+  @Test
+  public void testReport_resetsIntervalStatsButNotBufferedDuration() {
+    tracker.maybeBuildReport(/* nowMs= */ 1);
+    tracker.onProcessed(
+        /* index= */ 0, /* processingTimeNs= */ 2000, 100 * FRAME_SIZE, 40 * FRAME_SIZE);
+    tracker.maybeBuildReport(/* nowMs= */ REPORT_INTERVAL_MS + 1);
+
+    AudioProcessorStats[] stats =
+        tracker.maybeBuildReport(/* nowMs= */ 2 * REPORT_INTERVAL_MS + 1);
+
+    assertThat(stats[0].processingTimeUs).isEqualTo(0);
+    assertThat(stats[0].inputBytes).isEqualTo(0);
+    assertThat(stats[0].bufferedDurationUs).isEqualTo(60000);
+  }
+
+  @Test
+  public void testFlush_clearsBufferedDuration() {
+    tracker.maybeBuildReport(/* nowMs= */ 1);
+    tracker.onProcessed(
+        /* index= */ 0, /* processingTimeNs= */ 2000, 100 * FRAME_SIZE, 40 * FRAME_SIZE);
+
+    tracker.onFlush();
+    AudioProcessorStats[] stats = tracker.maybeBuildReport(/* nowMs= */ REPORT_INTERVAL_MS + 1);
+
+    assertThat(stats[0].bufferedDurationUs).isEqualTo(0);
+  }
+
+}
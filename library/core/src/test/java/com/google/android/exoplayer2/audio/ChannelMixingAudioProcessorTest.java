@@ -0,0 +1,238 @@
+/*
+ * Copyright (C) 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2.audio;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.Format;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+/** Unit tests for {@link ChannelMixingAudioProcessor}. */
+@RunWith(RobolectricTestRunner.class)
+public final class ChannelMixingAudioProcessorTest {
+
+  private static final int SAMPLE_RATE_HZ = 48000;
+
+  private ChannelMixingAudioProcessor channelMixingAudioProcessor;
+
+  @Before
+  public void setUp() {
+    channelMixingAudioProcessor = new ChannelMixingAudioProcessor();
+  }
+
+  @Test
+  public void testDefaultProcessor_isNotActive() throws Exception {
+    channelMixingAudioProcessor.configure(SAMPLE_RATE_HZ, 6, C.ENCODING_PCM_16BIT);
+
+    assertThat(channelMixingAudioProcessor.isActive()).isFalse();
+  }
+
+  @Test
+  public void testSameOutputChannelCount_isNotActive() throws Exception {
+    channelMixingAudioProcessor.setOutputChannelCount(2);
+
+    channelMixingAudioProcessor.configure(SAMPLE_RATE_HZ, 2, C.ENCODING_PCM_16BIT);
+
+    assertThat(channelMixingAudioProcessor.isActive()).isFalse();
+  }
+
+  @Test
+  public void testReconfigureWithSameFormat_doesNotRequireFlush() throws Exception {
+    channelMixingAudioProcessor.setOutputChannelCount(2);
+
+    assertThat(channelMixingAudioProcessor.configure(SAMPLE_RATE_HZ, 6, C.ENCODING_PCM_16BIT))
+        .isTrue();
+    assertThat(channelMixingAudioProcessor.configure(SAMPLE_RATE_HZ, 6, C.ENCODING_PCM_16BIT))
+        .isFalse();
+  }
+
+  @Test
+  public void testUnsupportedChannelCount_isInactivePassthrough() throws Exception {
+    channelMixingAudioProcessor.setOutputChannelCount(2);
+
+    channelMixingAudioProcessor.configure(SAMPLE_RATE_HZ, 9, C.ENCODING_PCM_16BIT);
+
+    assertThat(channelMixingAudioProcessor.isActive()).isFalse();
+    assertThat(channelMixingAudioProcessor.getOutputChannelCount()).isEqualTo(9);
+  }
+
+  @Test
+  public void testDefaultMatrices_existForStandardLayouts() {
+    int[] channelCounts = new int[] {1, 2, 3, 4, 5, 6, 7, 8, 12, 24};
+    for (int channelCount : channelCounts) {
+      assertThat(ChannelMixingAudioProcessor.getDefaultMixingMatrix(channelCount, 1)).isNotNull();
+      assertThat(ChannelMixingAudioProcessor.getDefaultMixingMatrix(channelCount, 2)).isNotNull();
+    }
+    assertThat(ChannelMixingAudioProcessor.getDefaultMixingMatrix(24, 6)).isNull();
+  }
+
+  @Test
+  public void testDefaultMatrices_doNotClip() {
+    for (int channelCount = 1; channelCount <= 24; channelCount++) {
+      float[] matrix = ChannelMixingAudioProcessor.getDefaultMixingMatrix(channelCount, 2);
+      if (matrix == null) {
+        continue;
+      }
+      for (int o = 0; o < 2; o++) {
+        float rowSum = 0;
+        for (int i = 0; i < channelCount; i++) {
+          rowSum += matrix[o * channelCount + i];
+        }
+        assertThat(rowSum).isAtMost(1.0001f);
+      }
+    }
+  }
+
+  @Test
+  public void testMixStereoToMono_averagesChannels() throws Exception {
+    channelMixingAudioProcessor.setOutputChannelCount(1);
+    channelMixingAudioProcessor.configure(SAMPLE_RATE_HZ, 2, C.ENCODING_PCM_16BIT);
+    channelMixingAudioProcessor.flush();
+
+    ByteBuffer input = createShortBuffer(new short[] {1000, 3000, -2000, 0});
+    channelMixingAudioProcessor.queueInput(input);
+    ByteBuffer output = channelMixingAudioProcessor.getOutput();
+
+    assertThat(input.hasRemaining()).isFalse();
+    assertThat(channelMixingAudioProcessor.getOutputChannelCount()).isEqualTo(1);
+    assertThat(output.remaining()).isEqualTo(4);
+    assertThat(output.getShort()).isEqualTo((short) 2000);
+    assertThat(output.getShort()).isEqualTo((short) -1000);
+  }
+
+  @Test
+  public void testMixFivePointOneToStereo_dropsLowFrequencyChannel() throws Exception {
+    channelMixingAudioProcessor.setOutputChannelCount(2);
+    channelMixingAudioProcessor.configure(SAMPLE_RATE_HZ, 6, C.ENCODING_PCM_FLOAT);
+    channelMixingAudioProcessor.flush();
+
+    ByteBuffer input = createFloatBuffer(new float[] {0f, 0f, 0f, 1f, 0f, 0f});
+    channelMixingAudioProcessor.queueInput(input);
+    ByteBuffer output = channelMixingAudioProcessor.getOutput();
+
+    assertThat(channelMixingAudioProcessor.getOutputEncoding()).isEqualTo(C.ENCODING_PCM_FLOAT);
+    assertThat(output.remaining()).isEqualTo(8);
+    assertThat(output.getFloat()).isEqualTo(0f);
+    assertThat(output.getFloat()).isEqualTo(0f);
+  }
+
+  @Test
+  public void testCustomMatrix_isApplied() throws Exception {
+    channelMixingAudioProcessor.setMixingMatrix(1, 2, new float[] {0.5f, 0.25f});
+    channelMixingAudioProcessor.setOutputChannelCount(2);
+    channelMixingAudioProcessor.configure(SAMPLE_RATE_HZ, 1, C.ENCODING_PCM_16BIT);
+    channelMixingAudioProcessor.flush();
+
+    channelMixingAudioProcessor.queueInput(createShortBuffer(new short[] {4000}));
+    ByteBuffer output = channelMixingAudioProcessor.getOutput();
+
+    assertThat(output.getShort()).isEqualTo((short) 2000);
+    assertThat(output.getShort()).isEqualTo((short) 1000);
+  }
+
+  @Test
+  public void testMixTwentyTwoPointTwoToStereo_appliesDefaultMatrix() throws Exception {
+    int frameCount = 1000;
+    channelMixingAudioProcessor.setOutputChannelCount(2);
+    channelMixingAudioProcessor.configure(SAMPLE_RATE_HZ, 24, C.ENCODING_PCM_16BIT);
+    channelMixingAudioProcessor.flush();
+
+    // Repeats frames with FL, FLc, both LFE channels and FC set. The default matrix scales each
+    // output row by the sum of its gains, which is about 8.6957 for 22.2.
+    short[] samples = new short[frameCount * 24];
+    for (int frame = 0; frame < frameCount; frame++) {
+      int offset = frame * 24;
+      switch (frame % 4) {
+        case 0:
+          samples[offset] = 10003;
+          break;
+        case 1:
+          samples[offset + 6] = 10003;
+          break;
+        case 2:
+          samples[offset + 3] = 10003;
+          samples[offset + 9] = 10003;
+          break;
+        default:
+          samples[offset + 2] = -10003;
+          break;
+      }
+    }
+    channelMixingAudioProcessor.queueInput(createShortBuffer(samples));
+    ByteBuffer output = channelMixingAudioProcessor.getOutput();
+
+    assertThat(output.remaining()).isEqualTo(frameCount * 2 * 2);
+    for (int frame = 0; frame < frameCount; frame++) {
+      short left = output.getShort();
+      short right = output.getShort();
+      switch (frame % 4) {
+        case 0:
+          // FL is only mixed into the left channel.
+          assertThat(left).isEqualTo((short) 1150);
+          assertThat(right).isEqualTo((short) 0);
+          break;
+        case 1:
+          // FLc is panned between both channels.
+          assertThat(left).isEqualTo((short) 1062);
+          assertThat(right).isEqualTo((short) 440);
+          break;
+        case 2:
+          // LFE channels are dropped.
+          assertThat(left).isEqualTo((short) 0);
+          assertThat(right).isEqualTo((short) 0);
+          break;
+        default:
+          // FC is mixed into both channels at -3 dB.
+          assertThat(left).isEqualTo((short) -813);
+          assertThat(right).isEqualTo((short) -813);
+          break;
+      }
+    }
+  }
+
+  @Test
+  public void testReset_disablesProcessor() throws Exception {
+    channelMixingAudioProcessor.setOutputChannelCount(2);
+    channelMixingAudioProcessor.configure(SAMPLE_RATE_HZ, 6, C.ENCODING_PCM_16BIT);
+
+    channelMixingAudioProcessor.reset();
+    channelMixingAudioProcessor.setOutputChannelCount(Format.NO_VALUE);
+    channelMixingAudioProcessor.configure(SAMPLE_RATE_HZ, 6, C.ENCODING_PCM_16BIT);
+
+    assertThat(channelMixingAudioProcessor.isActive()).isFalse();
+  }
+
+  private static ByteBuffer createShortBuffer(short[] samples) {
+    ByteBuffer buffer =
+        ByteBuffer.allocateDirect(samples.length * 2).order(ByteOrder.nativeOrder());
+    buffer.asShortBuffer().put(samples);
+    return buffer;
+  }
+
+  private static ByteBuffer createFloatBuffer(float[] samples) {
+    ByteBuffer buffer =
+        ByteBuffer.allocateDirect(samples.length * 4).order(ByteOrder.nativeOrder());
+    buffer.asFloatBuffer().put(samples);
+    return buffer;
+  }
+
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright (C) 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2.audio;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.testutil.RobolectricUtil;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+/** Unit tests for {@link DefaultAudioSink} with the audio processing thread enabled. */
+@RunWith(RobolectricTestRunner.class)
+@Config(shadows = {RobolectricUtil.CustomLooper.class, RobolectricUtil.CustomMessageQueue.class})
+public final class DefaultAudioSinkTest {
+
+  private static final int SAMPLE_RATE_HZ = 44100;
+  private static final int CHANNEL_COUNT = 2;
+  private static final int FRAME_SIZE = 4;
+  private static final long TIMEOUT_MS = 10000;
+
+  private BlockingAudioProcessor blockingAudioProcessor;
+  private DefaultAudioSink defaultAudioSink;
+  private ExecutorService executorService;
+
+  @Before
+  public void setUp() {
+    DefaultAudioSink.enableAudioProcessingThread = true;
+    blockingAudioProcessor = new BlockingAudioProcessor();
+    defaultAudioSink =
+        new DefaultAudioSink(
+            /* audioCapabilities= */ null, new AudioProcessor[] {blockingAudioProcessor});
+    executorService = Executors.newSingleThreadExecutor();
+  }
+
+  @After
+  public void tearDown() {
+    blockingAudioProcessor.unblock();
+    executorService.shutdownNow();
+    defaultAudioSink.release();
+    DefaultAudioSink.enableAudioProcessingThread = false;
+  }
+
+  @Test
+  public void testHandleBuffer_processesOnAudioThread() throws Exception {
+    configureSink();
+
+    assertThat(defaultAudioSink.handleBuffer(createBuffer(/* frameCount= */ 1024), 0)).isTrue();
+
+    assertThat(blockingAudioProcessor.awaitQueueInput()).isTrue();
+    assertThat(blockingAudioProcessor.queueInputThread).isNotSameAs(Thread.currentThread());
+  }
+
+  @Test
+  public void testGetCurrentPositionUs_doesNotBlockWhileAudioThreadIsProcessing()
+      throws Exception {
+    configureSink();
+    defaultAudioSink.handleBuffer(createBuffer(/* frameCount= */ 1024), 0);
+    assertThat(blockingAudioProcessor.awaitQueueInput()).isTrue();
+
+    // The audio thread is now blocked in the audio processor.
+    Future<Long> positionUs =
+        executorService.submit(
+            new Callable<Long>() {
+              @Override
+              public Long call() {
+                return defaultAudioSink.getCurrentPositionUs(/* sourceEnded= */ false);
+              }
+            });
+
+    assertThat(positionUs.get(TIMEOUT_MS, TimeUnit.MILLISECONDS)).isEqualTo(0L);
+  }
+
+  private void configureSink() throws AudioSink.ConfigurationException {
+    defaultAudioSink.configure(
+        C.ENCODING_PCM_16BIT,
+        CHANNEL_COUNT,
+        SAMPLE_RATE_HZ,
+        /* specifiedBufferSize= */ 0,
+        /* outputChannels= */ null,
+        /* trimStartFrames= */ 0,
+        /* trimEndFrames= */ 0);
+  }
+
+  private static ByteBuffer createBuffer(int frameCount) {
+    ByteBuffer buffer = ByteBuffer.allocateDirect(frameCount * FRAME_SIZE);
+    buffer.order(ByteOrder.nativeOrder());
+    return buffer;
+  }
+
+  /** An active pass-through {@link AudioProcessor} that blocks when it receives input. */
+  private static final class BlockingAudioProcessor implements AudioProcessor {
+
+    private final CountDownLatch queueInputLatch;
+    private final CountDownLatch unblockLatch;
+
+    private volatile Thread queueInputThread;
+    private ByteBuffer outputBuffer;
+    private boolean inputEnded;
+    private int channelCount;
+    private int sampleRateHz;
+
+    public BlockingAudioProcessor() {
+      queueInputLatch = new CountDownLatch(1);
+      unblockLatch = new CountDownLatch(1);
+      outputBuffer = EMPTY_BUFFER;
+    }
+
+    public boolean awaitQueueInput() throws InterruptedException {
+      return queueInputLatch.await(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+    }
+
+    public void unblock() {
+      unblockLatch.countDown();
+    }
+
+    @Override
+    public boolean configure(int sampleRateHz, int channelCount, int encoding) {
+      this.sampleRateHz = sampleRateHz;
+      this.channelCount = channelCount;
+      return true;
+    }
+
+    @Override
+    public boolean isActive() {
+      return true;
+    }
+
+    @Override
+    public int getOutputChannelCount() {
+      return channelCount;
+    }
+
+    @Override
+    public int getOutputEncoding() {
+      return C.ENCODING_PCM_16BIT;
+    }
+
+    @Override
+    public int getOutputSampleRateHz() {
+      return sampleRateHz;
+    }
+
+    @Override
+    public void queueInput(ByteBuffer buffer) {
+      queueInputThread = Thread.currentThread();
+      queueInputLatch.countDown();
+      try {
+        unblockLatch.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      outputBuffer = buffer.slice();
+      buffer.position(buffer.limit());
+    }
+
+    @Override
+    public void queueEndOfStream() {
+      inputEnded = true;
+    }
+
+    @Override
+    public ByteBuffer getOutput() {
+      ByteBuffer outputBuffer = this.outputBuffer;
+      this.outputBuffer = EMPTY_BUFFER;
+      return outputBuffer;
+    }
+
+    @Override
+    public boolean isEnded() {
+      return inputEnded && outputBuffer == EMPTY_BUFFER;
+    }
+
+    @Override
+    public void flush() {
+      outputBuffer = EMPTY_BUFFER;
+      inputEnded = false;
+    }
+
+    @Override
+    public void reset() {
+      flush();
+    }
+  }
+
+}
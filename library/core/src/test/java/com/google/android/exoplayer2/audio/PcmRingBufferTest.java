@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2.audio;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.nio.ByteBuffer;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+/** Unit tests for {@link PcmRingBuffer}. */
+@RunWith(RobolectricTestRunner.class)
+public final class PcmRingBufferTest {
+
+  private static final int FRAME_SIZE = 4;
+  private static final int CAPACITY_FRAMES = 4;
+
+  private PcmRingBuffer ringBuffer;
+
+  @Before
+  public void setUp() {
+    ringBuffer = new PcmRingBuffer(FRAME_SIZE, CAPACITY_FRAMES);
+  }
+
+  @Test
+  public void testWrite_onlyCopiesWholeFramesThatFit() {
+    ByteBuffer input = createInput(/* start= */ 0, /* length= */ 22);
+
+    assertThat(ringBuffer.write(input)).isEqualTo(16);
+    assertThat(input.remaining()).isEqualTo(6);
+    assertThat(ringBuffer.getSize()).isEqualTo(16);
+    assertThat(ringBuffer.write(input)).isEqualTo(0);
+  }
+
+  @Test
+  public void testPeek_doesNotConsumeData() {
+    ringBuffer.write(createInput(/* start= */ 0, /* length= */ 8));
+
+    ByteBuffer output = ringBuffer.peek(/* maxLength= */ 16);
+    assertThat(output.remaining()).isEqualTo(8);
+    assertThat(ringBuffer.getSize()).isEqualTo(8);
+    assertThat(ringBuffer.peek(/* maxLength= */ 16).get()).isEqualTo(0);
+  }
+
+  @Test
+  public void testPeek_isLimitedToWholeFramesOfMaxLength() {
+    ringBuffer.write(createInput(/* start= */ 0, /* length= */ 16));
+
+    assertThat(ringBuffer.peek(/* maxLength= */ 7).remaining()).isEqualTo(4);
+  }
+
+  @Test
+  public void testWriteAndRead_wrapsAround() {
+    ringBuffer.write(createInput(/* start= */ 0, /* length= */ 12));
+    ringBuffer.skip(8);
+    ringBuffer.write(createInput(/* start= */ 12, /* length= */ 12));
+
+    assertThat(ringBuffer.getSize()).isEqualTo(16);
+    byte[] data = new byte[16];
+    int offset = 0;
+    while (!ringBuffer.isEmpty()) {
+      ByteBuffer output = ringBuffer.peek(/* maxLength= */ 16);
+      int length = output.remaining();
+      output.get(data, offset, length);
+      ringBuffer.skip(length);
+      offset += length;
+    }
+    for (int i = 0; i < data.length; i++) {
+      assertThat(data[i]).isEqualTo((byte) (i + 8));
+    }
+  }
+
+  @Test
+  public void testClear_discardsData() {
+    ringBuffer.write(createInput(/* start= */ 0, /* length= */ 12));
+
+    ringBuffer.clear();
+
+    assertThat(ringBuffer.isEmpty()).isTrue();
+    assertThat(ringBuffer.peek(/* maxLength= */ 16).hasRemaining()).isFalse();
+  }
+
+  private static ByteBuffer createInput(int start, int length) {
+    ByteBuffer buffer = ByteBuffer.allocate(length);
+    for (int i = 0; i < length; i++) {
+      buffer.put((byte) (start + i));
+    }
+    buffer.flip();
+    return buffer;
+  }
+
+}
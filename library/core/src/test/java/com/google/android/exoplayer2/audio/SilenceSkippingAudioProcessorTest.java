@@ -20,6 +20,7 @@ import static com.google.common.truth.Truth.assertThat;
 import com.google.android.exoplayer2.C;
 import com.google.android.exoplayer2.audio.AudioProcessor.UnhandledFormatException;
 import com.google.android.exoplayer2.util.Assertions;
+import com.google.android.exoplayer2.util.Util;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.ShortBuffer;
@@ -274,6 +275,171 @@ public final class SilenceSkippingAudioProcessorTest {
     assertThat(silenceSkippingAudioProcessor.getSkippedFrames()).isEqualTo(46010);
   }
 
+  @Test
+  public void testSkipInFloatSignal_hasCorrectOutputAndSkippedFrameCounts() throws Exception {
+    // Given a float signal that alternates between silence and noise.
+    InputBufferProvider inputBufferProvider =
+        getInputBufferProviderForAlternatingSilenceAndNoise(
+            TEST_SIGNAL_SAMPLE_RATE_HZ,
+            TEST_SIGNAL_CHANNEL_COUNT,
+            TEST_SIGNAL_SILENCE_DURATION_MS,
+            TEST_SIGNAL_NOISE_DURATION_MS,
+            TEST_SIGNAL_FRAME_COUNT);
+    inputBufferProvider.setOutputFloat(true);
+
+    // When processing the entire signal.
+    SilenceSkippingAudioProcessor silenceSkippingAudioProcessor =
+        new SilenceSkippingAudioProcessor();
+    silenceSkippingAudioProcessor.setEnabled(true);
+    boolean reconfigured =
+        silenceSkippingAudioProcessor.configure(
+            TEST_SIGNAL_SAMPLE_RATE_HZ, TEST_SIGNAL_CHANNEL_COUNT, C.ENCODING_PCM_FLOAT);
+    silenceSkippingAudioProcessor.flush();
+    assertThat(reconfigured).isTrue();
+    assertThat(silenceSkippingAudioProcessor.getOutputEncoding()).isEqualTo(C.ENCODING_PCM_FLOAT);
+    long totalOutputFrames =
+        process(silenceSkippingAudioProcessor, inputBufferProvider, INPUT_BUFFER_SIZE * 2);
+
+    // The right number of frames are skipped/output.
+    assertThat(totalOutputFrames).isEqualTo(53990);
+    assertThat(silenceSkippingAudioProcessor.getSkippedFrames()).isEqualTo(46010);
+  }
+
+  @Test
+  public void testSkipWithLongMinimumSilenceDuration_skipsNothing() throws Exception {
+    // Given a signal that alternates between silence and noise.
+    InputBufferProvider inputBufferProvider =
+        getInputBufferProviderForAlternatingSilenceAndNoise(
+            TEST_SIGNAL_SAMPLE_RATE_HZ,
+            TEST_SIGNAL_CHANNEL_COUNT,
+            TEST_SIGNAL_SILENCE_DURATION_MS,
+            TEST_SIGNAL_NOISE_DURATION_MS,
+            TEST_SIGNAL_FRAME_COUNT);
+
+    // When processing the entire signal with a minimum silence duration longer than the silences.
+    SilenceSkippingAudioProcessor silenceSkippingAudioProcessor =
+        new SilenceSkippingAudioProcessor(
+            /* minimumSilenceDurationUs= */ 2_000_000,
+            SilenceSkippingAudioProcessor.DEFAULT_PADDING_SILENCE_US,
+            SilenceSkippingAudioProcessor.DEFAULT_SILENCE_THRESHOLD_LEVEL);
+    silenceSkippingAudioProcessor.setEnabled(true);
+    silenceSkippingAudioProcessor.configure(
+        TEST_SIGNAL_SAMPLE_RATE_HZ, TEST_SIGNAL_CHANNEL_COUNT, C.ENCODING_PCM_16BIT);
+    silenceSkippingAudioProcessor.flush();
+    long totalOutputFrames =
+        process(silenceSkippingAudioProcessor, inputBufferProvider, INPUT_BUFFER_SIZE);
+
+    // None of the signal is skipped.
+    assertThat(totalOutputFrames).isEqualTo(TEST_SIGNAL_FRAME_COUNT);
+    assertThat(silenceSkippingAudioProcessor.getSkippedFrames()).isEqualTo(0);
+  }
+
+  @Test
+  public void testSkipUsingRootMeanSquareLevel_hasCorrectOutputAndSkippedFrameCounts()
+      throws Exception {
+    // Given a signal that alternates between silence and noise.
+    InputBufferProvider inputBufferProvider =
+        getInputBufferProviderForAlternatingSilenceAndNoise(
+            TEST_SIGNAL_SAMPLE_RATE_HZ,
+            TEST_SIGNAL_CHANNEL_COUNT,
+            TEST_SIGNAL_SILENCE_DURATION_MS,
+            TEST_SIGNAL_NOISE_DURATION_MS,
+            TEST_SIGNAL_FRAME_COUNT);
+
+    // When processing the entire signal using the root mean square level of each block.
+    SilenceSkippingAudioProcessor silenceSkippingAudioProcessor =
+        createRootMeanSquareLevelProcessor();
+    silenceSkippingAudioProcessor.setEnabled(true);
+    silenceSkippingAudioProcessor.configure(
+        TEST_SIGNAL_SAMPLE_RATE_HZ, TEST_SIGNAL_CHANNEL_COUNT, C.ENCODING_PCM_16BIT);
+    silenceSkippingAudioProcessor.flush();
+    long totalOutputFrames =
+        process(silenceSkippingAudioProcessor, inputBufferProvider, INPUT_BUFFER_SIZE);
+
+    // The right number of frames are skipped/output.
+    assertThat(totalOutputFrames).isEqualTo(53990);
+    assertThat(silenceSkippingAudioProcessor.getSkippedFrames()).isEqualTo(46010);
+  }
+
+  @Test
+  public void testSkipInSilenceWithClicks_treatsClicksAsNoise() throws Exception {
+    // Given a silent signal with an isolated click every half second.
+    InputBufferProvider inputBufferProvider =
+        getInputBufferProviderForSilenceWithClicks(TEST_SIGNAL_FRAME_COUNT);
+
+    // When processing the entire signal with the default processor.
+    silenceSkippingAudioProcessor.setEnabled(true);
+    silenceSkippingAudioProcessor.configure(
+        TEST_SIGNAL_SAMPLE_RATE_HZ, TEST_SIGNAL_CHANNEL_COUNT, C.ENCODING_PCM_16BIT);
+    silenceSkippingAudioProcessor.flush();
+    long totalOutputFrames =
+        process(silenceSkippingAudioProcessor, inputBufferProvider, INPUT_BUFFER_SIZE);
+
+    // The clicks and the padding around them are output.
+    assertThat(totalOutputFrames).isGreaterThan(0L);
+    assertThat(totalOutputFrames + silenceSkippingAudioProcessor.getSkippedFrames())
+        .isEqualTo(TEST_SIGNAL_FRAME_COUNT);
+  }
+
+  @Test
+  public void testSkipInSilenceWithClicksUsingRootMeanSquareLevel_skipsEverything()
+      throws Exception {
+    // Given a silent signal with an isolated click every half second.
+    InputBufferProvider inputBufferProvider =
+        getInputBufferProviderForSilenceWithClicks(TEST_SIGNAL_FRAME_COUNT);
+
+    // When processing the entire signal using the root mean square level of each block.
+    SilenceSkippingAudioProcessor silenceSkippingAudioProcessor =
+        createRootMeanSquareLevelProcessor();
+    silenceSkippingAudioProcessor.setEnabled(true);
+    silenceSkippingAudioProcessor.configure(
+        TEST_SIGNAL_SAMPLE_RATE_HZ, TEST_SIGNAL_CHANNEL_COUNT, C.ENCODING_PCM_16BIT);
+    silenceSkippingAudioProcessor.flush();
+    long totalOutputFrames =
+        process(silenceSkippingAudioProcessor, inputBufferProvider, INPUT_BUFFER_SIZE);
+
+    // The entire signal is skipped.
+    assertThat(totalOutputFrames).isEqualTo(0);
+    assertThat(silenceSkippingAudioProcessor.getSkippedFrames()).isEqualTo(TEST_SIGNAL_FRAME_COUNT);
+  }
+
+  @Test
+  public void testSkipWithMaximumSilenceThresholdLevel_skipsEverything() throws Exception {
+    // Given a signal that alternates between silence and noise at the maximum level.
+    InputBufferProvider inputBufferProvider =
+        getInputBufferProviderForAlternatingSilenceAndNoise(
+            TEST_SIGNAL_SAMPLE_RATE_HZ,
+            TEST_SIGNAL_CHANNEL_COUNT,
+            TEST_SIGNAL_SILENCE_DURATION_MS,
+            TEST_SIGNAL_NOISE_DURATION_MS,
+            TEST_SIGNAL_FRAME_COUNT);
+
+    // When processing the entire signal with the maximum silence threshold level.
+    SilenceSkippingAudioProcessor silenceSkippingAudioProcessor =
+        new SilenceSkippingAudioProcessor(
+            SilenceSkippingAudioProcessor.DEFAULT_MINIMUM_SILENCE_DURATION_US,
+            SilenceSkippingAudioProcessor.DEFAULT_PADDING_SILENCE_US,
+            /* silenceThresholdLevel= */ Short.MAX_VALUE);
+    silenceSkippingAudioProcessor.setEnabled(true);
+    silenceSkippingAudioProcessor.configure(
+        TEST_SIGNAL_SAMPLE_RATE_HZ, TEST_SIGNAL_CHANNEL_COUNT, C.ENCODING_PCM_16BIT);
+    silenceSkippingAudioProcessor.flush();
+    long totalOutputFrames =
+        process(silenceSkippingAudioProcessor, inputBufferProvider, INPUT_BUFFER_SIZE);
+
+    // The entire signal is skipped.
+    assertThat(totalOutputFrames).isEqualTo(0);
+    assertThat(silenceSkippingAudioProcessor.getSkippedFrames()).isEqualTo(TEST_SIGNAL_FRAME_COUNT);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeSilenceThresholdLevel_throws() {
+    new SilenceSkippingAudioProcessor(
+        SilenceSkippingAudioProcessor.DEFAULT_MINIMUM_SILENCE_DURATION_US,
+        SilenceSkippingAudioProcessor.DEFAULT_PADDING_SILENCE_US,
+        /* silenceThresholdLevel= */ (short) -1);
+  }
+
   @Test
   public void testSkipThenFlush_resetsSkippedFrameCount() throws Exception {
     // Given a signal that alternates between silence and noise.
@@ -318,19 +484,31 @@ public final class SilenceSkippingAudioProcessorTest {
       while (inputBuffer.hasRemaining()) {
         processor.queueInput(inputBuffer);
         ByteBuffer outputBuffer = processor.getOutput();
-        totalOutputFrames += outputBuffer.remaining() / (2 * processor.getOutputChannelCount());
+        totalOutputFrames += outputBuffer.remaining() / getOutputFrameSize(processor);
         outputBuffer.clear();
       }
     }
     processor.queueEndOfStream();
     while (!processor.isEnded()) {
       ByteBuffer outputBuffer = processor.getOutput();
-      totalOutputFrames += outputBuffer.remaining() / (2 * processor.getOutputChannelCount());
+      totalOutputFrames += outputBuffer.remaining() / getOutputFrameSize(processor);
       outputBuffer.clear();
     }
     return totalOutputFrames;
   }
 
+  private static SilenceSkippingAudioProcessor createRootMeanSquareLevelProcessor() {
+    return new SilenceSkippingAudioProcessor(
+        SilenceSkippingAudioProcessor.DEFAULT_MINIMUM_SILENCE_DURATION_US,
+        SilenceSkippingAudioProcessor.DEFAULT_PADDING_SILENCE_US,
+        SilenceSkippingAudioProcessor.DEFAULT_SILENCE_THRESHOLD_LEVEL,
+        /* useRootMeanSquareLevel= */ true);
+  }
+
+  private static int getOutputFrameSize(AudioProcessor processor) {
+    return Util.getPcmFrameSize(processor.getOutputEncoding(), processor.getOutputChannelCount());
+  }
+
   /**
    * Returns an {@link InputBufferProvider} that provides input buffers for a stream that alternates
    * between silence/noise of the specified durations to fill {@code totalFrameCount}.
@@ -352,6 +530,21 @@ public final class SilenceSkippingAudioProcessorTest {
     return new InputBufferProvider(audioBuilder.build());
   }
 
+  /**
+   * Returns an {@link InputBufferProvider} that provides input buffers for a stereo stream of
+   * silence with a single frame click every 500 frames, filling {@code totalFrameCount}.
+   */
+  private static InputBufferProvider getInputBufferProviderForSilenceWithClicks(
+      int totalFrameCount) {
+    Pcm16BitAudioBuilder audioBuilder =
+        new Pcm16BitAudioBuilder(/* channelCount= */ 2, totalFrameCount);
+    while (!audioBuilder.isFull()) {
+      audioBuilder.appendFrames(/* count= */ 998, /* channelLevels= */ (short) 0, (short) 0);
+      audioBuilder.appendFrames(/* count= */ 1, /* channelLevels= */ (short) 2000, (short) 2000);
+    }
+    return new InputBufferProvider(audioBuilder.build());
+  }
+
   /**
    * Wraps a {@link ShortBuffer} and provides a sequence of {@link ByteBuffer}s of specified sizes
    * that contain copies of its data.
@@ -360,12 +553,27 @@ public final class SilenceSkippingAudioProcessorTest {
 
     private final ShortBuffer buffer;
 
+    private boolean outputFloat;
+
     public InputBufferProvider(ShortBuffer buffer) {
       this.buffer = buffer;
     }
 
+    /** Sets whether to provide the data as 32-bit float PCM rather than 16-bit PCM. */
+    public void setOutputFloat(boolean outputFloat) {
+      this.outputFloat = outputFloat;
+    }
+
     /** Returns the next buffer with size up to {@code sizeBytes}. */
     public ByteBuffer getNextInputBuffer(int sizeBytes) {
+      if (outputFloat) {
+        ByteBuffer inputBuffer = ByteBuffer.allocate(sizeBytes).order(ByteOrder.nativeOrder());
+        while (inputBuffer.remaining() >= 4 && buffer.hasRemaining()) {
+          inputBuffer.putFloat(buffer.get() / 32768f);
+        }
+        inputBuffer.flip();
+        return inputBuffer;
+      }
       ByteBuffer inputBuffer = ByteBuffer.allocate(sizeBytes).order(ByteOrder.nativeOrder());
       ShortBuffer inputBufferAsShortBuffer = inputBuffer.asShortBuffer();
       int limit = buffer.limit();
@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2.decoder;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+/**
+ * Unit test for {@link SimpleOutputBuffer}.
+ */
+@RunWith(RobolectricTestRunner.class)
+public final class SimpleOutputBufferTest {
+
+  @Test
+  public void testEnsureSpaceForWriteAllocatesDirectNativeOrderBuffer() {
+    SimpleOutputBuffer outputBuffer = new SimpleOutputBuffer(null);
+    outputBuffer.ensureSpaceForWrite(1024);
+    assertThat(outputBuffer.data.isDirect()).isTrue();
+    assertThat(outputBuffer.data.order()).isEqualTo(ByteOrder.nativeOrder());
+    assertThat(outputBuffer.data.capacity()).isEqualTo(1024);
+  }
+
+  @Test
+  public void testInitWithinCapacityReusesBuffer() {
+    SimpleOutputBuffer outputBuffer = new SimpleOutputBuffer(null);
+    outputBuffer.ensureSpaceForWrite(1024);
+    ByteBuffer data = outputBuffer.data;
+
+    assertThat(outputBuffer.init(/* timeUs= */ 0, /* size= */ 1024)).isSameAs(data);
+    outputBuffer.clear();
+    ByteBuffer initializedData = outputBuffer.init(/* timeUs= */ 1000, /* size= */ 512);
+
+    assertThat(initializedData).isSameAs(data);
+    assertThat(initializedData.position()).isEqualTo(0);
+    assertThat(initializedData.limit()).isEqualTo(512);
+    assertThat(outputBuffer.timeUs).isEqualTo(1000);
+  }
+
+  @Test
+  public void testInitBeyondCapacityReallocatesBuffer() {
+    SimpleOutputBuffer outputBuffer = new SimpleOutputBuffer(null);
+    outputBuffer.ensureSpaceForWrite(512);
+    ByteBuffer data = outputBuffer.data;
+
+    ByteBuffer initializedData = outputBuffer.init(/* timeUs= */ 0, /* size= */ 1024);
+
+    assertThat(initializedData).isNotSameAs(data);
+    assertThat(initializedData.capacity()).isEqualTo(1024);
+    assertThat(initializedData.limit()).isEqualTo(1024);
+  }
+
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright (C) 2016 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2.extractor;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.truth.Truth.assertWithMessage;
+
+import android.net.Uri;
+import com.google.android.exoplayer2.extractor.mkv.MatroskaExtractor;
+import com.google.android.exoplayer2.extractor.mp4.FragmentedMp4Extractor;
+import com.google.android.exoplayer2.extractor.mp4.Mp4Extractor;
+import com.google.android.exoplayer2.extractor.ts.AdtsExtractor;
+import com.google.android.exoplayer2.extractor.ts.TsExtractor;
+import com.google.android.exoplayer2.testutil.FakeExtractorInput;
+import com.google.android.exoplayer2.testutil.TestUtil;
+import java.io.IOException;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+/** Unit test for {@link ContainerDetector}. */
+@RunWith(RobolectricTestRunner.class)
+public final class ContainerDetectorTest {
+
+  @Test
+  public void testDetectFromHeader_detectsTestAssets() throws IOException {
+    assertHeaderType("mkv/sample.mkv", ContainerDetector.TYPE_MATROSKA);
+    assertHeaderType("mp4/sample.mp4", ContainerDetector.TYPE_MP4);
+    assertHeaderType("mp4/sample_fragmented.mp4", ContainerDetector.TYPE_MP4);
+    assertHeaderType("ts/sample.ts", ContainerDetector.TYPE_TS);
+    assertHeaderType("ts/sample.ps", ContainerDetector.TYPE_PS);
+    assertHeaderType("ts/sample.adts", ContainerDetector.TYPE_ADTS);
+    assertHeaderType("flv/sample.flv", ContainerDetector.TYPE_FLV);
+    assertHeaderType("ogg/bear_vorbis.ogg", ContainerDetector.TYPE_OGG);
+    assertHeaderType("wav/sample.wav", ContainerDetector.TYPE_WAV);
+    assertHeaderType("amr/sample_nb.amr", ContainerDetector.TYPE_AMR);
+  }
+
+  @Test
+  public void testDetectFromHeader_id3TagIsAmbiguous() throws IOException {
+    byte[] data = new byte[] {'I', 'D', '3', 4, 0, 0, 0, 0, 0, 0};
+
+    assertThat(ContainerDetector.detectFromHeader(data, data.length))
+        .isEqualTo(ContainerDetector.TYPE_UNKNOWN);
+    assertHeaderType("ts/sample.ac3", ContainerDetector.TYPE_UNKNOWN);
+  }
+
+  @Test
+  public void testDetectFromUri() {
+    assertThat(ContainerDetector.detectFromUri(Uri.parse("https://example.com/a/video.WEBM")))
+        .isEqualTo(ContainerDetector.TYPE_MATROSKA);
+    assertThat(ContainerDetector.detectFromUri(Uri.parse("https://example.com/audio.aac?x=1")))
+        .isEqualTo(ContainerDetector.TYPE_ADTS);
+    assertThat(ContainerDetector.detectFromUri(Uri.parse("https://example.com/stream")))
+        .isEqualTo(ContainerDetector.TYPE_UNKNOWN);
+  }
+
+  @Test
+  public void testRankExtractors_putsHeaderMatchesFirstInOriginalOrder() throws Exception {
+    Extractor[] extractors = new DefaultExtractorsFactory().createExtractors();
+    FakeExtractorInput input = createInput("mp4/sample.mp4");
+
+    Extractor[] rankedExtractors =
+        ContainerDetector.rankExtractors(extractors, input, Uri.parse("file:///sample.ts"));
+
+    assertThat(rankedExtractors).hasLength(extractors.length);
+    assertThat(rankedExtractors[0]).isInstanceOf(FragmentedMp4Extractor.class);
+    assertThat(rankedExtractors[1]).isInstanceOf(Mp4Extractor.class);
+    assertThat(rankedExtractors[2]).isInstanceOf(TsExtractor.class);
+    assertThat(rankedExtractors[3]).isInstanceOf(MatroskaExtractor.class);
+    assertThat(input.getPeekPosition()).isEqualTo(0);
+  }
+
+  @Test
+  public void testRankExtractors_keepsUnknownExtractorsInPlace() throws Exception {
+    Extractor[] defaultExtractors = new DefaultExtractorsFactory().createExtractors();
+    Extractor customExtractor1 = new FakeExtractor();
+    Extractor customExtractor2 = new FakeExtractor();
+    Extractor[] extractors = new Extractor[defaultExtractors.length + 2];
+    extractors[0] = customExtractor1;
+    extractors[1] = defaultExtractors[0];
+    extractors[2] = customExtractor2;
+    System.arraycopy(defaultExtractors, 1, extractors, 3, defaultExtractors.length - 1);
+    FakeExtractorInput input = createInput("mp4/sample.mp4");
+
+    Extractor[] rankedExtractors =
+        ContainerDetector.rankExtractors(extractors, input, /* uri= */ null);
+
+    assertThat(rankedExtractors).hasLength(extractors.length);
+    assertThat(rankedExtractors[0]).isSameAs(customExtractor1);
+    assertThat(rankedExtractors[1]).isInstanceOf(FragmentedMp4Extractor.class);
+    assertThat(rankedExtractors[2]).isSameAs(customExtractor2);
+    assertThat(rankedExtractors[3]).isInstanceOf(Mp4Extractor.class);
+    assertThat(rankedExtractors[4]).isInstanceOf(MatroskaExtractor.class);
+  }
+
+  @Test
+  public void testRankExtractors_usesUriForAmbiguousHeader() throws Exception {
+    Extractor[] extractors = new DefaultExtractorsFactory().createExtractors();
+    byte[] data = new byte[] {'I', 'D', '3', 4, 0, 0, 0, 0, 0, 0};
+    FakeExtractorInput input = new FakeExtractorInput.Builder().setData(data).build();
+
+    Extractor[] rankedExtractors =
+        ContainerDetector.rankExtractors(extractors, input, Uri.parse("file:///sample.aac"));
+
+    assertThat(rankedExtractors[0]).isInstanceOf(AdtsExtractor.class);
+  }
+
+  @Test
+  public void testRankExtractors_keepsOrderIfNothingDetected() throws Exception {
+    Extractor[] extractors = new DefaultExtractorsFactory().createExtractors();
+    FakeExtractorInput input =
+        new FakeExtractorInput.Builder().setData(new byte[ContainerDetector.HEADER_LENGTH]).build();
+
+    assertThat(ContainerDetector.rankExtractors(extractors, input, /* uri= */ null))
+        .isSameAs(extractors);
+  }
+
+  @Test
+  public void testRankExtractors_matchingExtractorIsSniffedFirst() throws Exception {
+    String[] assets = {
+      "mkv/sample.mkv", "mp4/sample.mp4", "mp4/sample_fragmented.mp4", "ts/sample.ts",
+      "ts/sample.ps", "ts/sample.ac3", "ts/sample.adts", "flv/sample.flv", "ogg/bear_vorbis.ogg",
+      "wav/sample.wav", "amr/sample_nb.amr"
+    };
+    for (String asset : assets) {
+      Extractor[] extractors = new DefaultExtractorsFactory().createExtractors();
+      FakeExtractorInput input = createInput(asset);
+      Uri uri = Uri.parse("file:///android_asset/" + asset);
+      Extractor[] rankedExtractors = ContainerDetector.rankExtractors(extractors, input, uri);
+      int sniffCount = 0;
+      boolean sniffed = false;
+      while (!sniffed && sniffCount < rankedExtractors.length) {
+        sniffed = rankedExtractors[sniffCount++].sniff(input);
+        input.resetPeekPosition();
+      }
+      // Only the MP4 extractors share a container type, so at most two extractors are sniffed.
+      assertWithMessage(asset).that(sniffCount).isAtMost(2);
+    }
+  }
+
+  private static void assertHeaderType(String asset, int expectedType) throws IOException {
+    byte[] data = TestUtil.getByteArray(RuntimeEnvironment.application, asset);
+    int length = Math.min(data.length, ContainerDetector.HEADER_LENGTH);
+    assertThat(ContainerDetector.detectFromHeader(data, length)).isEqualTo(expectedType);
+  }
+
+  private static FakeExtractorInput createInput(String asset) throws IOException {
+    byte[] data = TestUtil.getByteArray(RuntimeEnvironment.application, asset);
+    return new FakeExtractorInput.Builder().setData(data).build();
+  }
+
+  /** An extractor that isn't recognized by {@link ContainerDetector}. */
+  private static final class FakeExtractor implements Extractor {
+
+    @Override
+    public boolean sniff(ExtractorInput input) {
+      return false;
+    }
+
+    @Override
+    public void init(ExtractorOutput output) {}
+
+    @Override
+    public int read(ExtractorInput input, PositionHolder seekPosition) {
+      return RESULT_END_OF_INPUT;
+    }
+
+    @Override
+    public void seek(long position, long timeUs) {}
+
+    @Override
+    public void release() {}
+  }
+
+}
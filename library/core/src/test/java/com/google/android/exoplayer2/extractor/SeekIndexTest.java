@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2016 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2.extractor;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.Arrays;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+/** Unit tests for {@link SeekIndex}. */
+@RunWith(RobolectricTestRunner.class)
+public final class SeekIndexTest {
+
+  private static final SeekIndex SEEK_INDEX =
+      new SeekIndex(
+          /* timesUs= */ new long[] {0, 500_000, 1_000_000},
+          /* positions= */ new long[] {100, 8_100, 16_100},
+          /* durationUs= */ 1_200_000);
+
+  @Test
+  public void testSerialization_roundTrips() {
+    SeekIndex seekIndex = SeekIndex.fromByteArray(SEEK_INDEX.toByteArray());
+
+    assertThat(seekIndex.timesUs).isEqualTo(SEEK_INDEX.timesUs);
+    assertThat(seekIndex.positions).isEqualTo(SEEK_INDEX.positions);
+    assertThat(seekIndex.getDurationUs()).isEqualTo(SEEK_INDEX.getDurationUs());
+  }
+
+  @Test
+  public void testDeserialization_rejectsTruncatedData() {
+    byte[] data = SEEK_INDEX.toByteArray();
+
+    assertThat(SeekIndex.fromByteArray(Arrays.copyOf(data, data.length - 1))).isNull();
+    assertThat(SeekIndex.fromByteArray(new byte[0])).isNull();
+  }
+
+  @Test
+  public void testGetSeekPoints_returnsSurroundingPoints() {
+    SeekMap.SeekPoints seekPoints = SEEK_INDEX.getSeekPoints(/* timeUs= */ 700_000);
+
+    assertThat(seekPoints.first).isEqualTo(new SeekPoint(500_000, 8_100));
+    assertThat(seekPoints.second).isEqualTo(new SeekPoint(1_000_000, 16_100));
+  }
+
+  @Test
+  public void testGetTimeUs_interpolatesBetweenPoints() {
+    assertThat(SEEK_INDEX.getTimeUs(/* position= */ 8_100)).isEqualTo(500_000);
+    assertThat(SEEK_INDEX.getTimeUs(/* position= */ 12_100)).isEqualTo(750_000);
+  }
+
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2016 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2.extractor.mkv;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.android.exoplayer2.extractor.SeekMap.SeekPoints;
+import com.google.android.exoplayer2.extractor.SeekPoint;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+/** Unit tests for {@link ClusterIndex}. */
+@RunWith(RobolectricTestRunner.class)
+public final class ClusterIndexTest {
+
+  private static final long DURATION_US = 10000000;
+  private static final long FIRST_CLUSTER_POSITION = 1000;
+  private static final long END_POSITION = 11000;
+
+  private ClusterIndex clusterIndex;
+
+  @Before
+  public void setUp() {
+    clusterIndex = new ClusterIndex(DURATION_US, FIRST_CLUSTER_POSITION, END_POSITION);
+  }
+
+  @Test
+  public void testGetSeekPoints_emptyIndex_estimatesFromFirstCluster() {
+    SeekPoints seekPoints = clusterIndex.getSeekPoints(5000000);
+
+    assertThat(seekPoints.first).isEqualTo(new SeekPoint(5000000, 6000));
+    assertThat(clusterIndex.getSeekPoints(0).first)
+        .isEqualTo(new SeekPoint(0, FIRST_CLUSTER_POSITION));
+    // The first cluster is known before it's indexed, so clusters can be indexed from it.
+    assertThat(clusterIndex.isClusterPosition(FIRST_CLUSTER_POSITION)).isTrue();
+  }
+
+  @Test
+  public void testGetSeekPoints_withinIndex_returnsIndexedClusters() {
+    clusterIndex.maybeAddCluster(0, 1000);
+    clusterIndex.maybeAddCluster(2000000, 1500);
+    clusterIndex.maybeAddCluster(4000000, 2500);
+
+    SeekPoints seekPoints = clusterIndex.getSeekPoints(3000000);
+
+    assertThat(seekPoints.first).isEqualTo(new SeekPoint(2000000, 1500));
+    assertThat(seekPoints.second).isEqualTo(new SeekPoint(4000000, 2500));
+    assertThat(clusterIndex.getSeekPoints(4000000).first).isEqualTo(new SeekPoint(4000000, 2500));
+  }
+
+  @Test
+  public void testGetSeekPoints_beyondIndex_estimatesFromLastCluster() {
+    clusterIndex.maybeAddCluster(0, 1000);
+    clusterIndex.maybeAddCluster(4000000, 5000);
+
+    SeekPoints seekPoints = clusterIndex.getSeekPoints(7000000);
+
+    assertThat(seekPoints.first).isEqualTo(new SeekPoint(7000000, 8000));
+    assertThat(clusterIndex.isClusterPosition(seekPoints.first.position)).isFalse();
+    assertThat(clusterIndex.getSeekPoints(DURATION_US).first.position).isLessThan(END_POSITION);
+  }
+
+  @Test
+  public void testMaybeAddCluster_ignoresClustersBeforeLastIndexedCluster() {
+    clusterIndex.maybeAddCluster(0, 1000);
+    clusterIndex.maybeAddCluster(4000000, 5000);
+    clusterIndex.maybeAddCluster(2000000, 3000);
+
+    assertThat(clusterIndex.isClusterPosition(5000)).isTrue();
+    assertThat(clusterIndex.isClusterPosition(3000)).isFalse();
+    assertThat(clusterIndex.getFloorCluster(3000000)).isEqualTo(new SeekPoint(0, 1000));
+  }
+
+  @Test
+  public void testInterpolatePosition_staysWithinBounds() {
+    assertThat(ClusterIndex.interpolatePosition(0, 1000, 100, 2000, 200)).isEqualTo(100);
+    assertThat(ClusterIndex.interpolatePosition(1500, 1000, 100, 2000, 200)).isEqualTo(150);
+    assertThat(ClusterIndex.interpolatePosition(5000, 1000, 100, 2000, 200)).isEqualTo(199);
+  }
+
+}
@@ -15,12 +15,25 @@
  */
 package com.google.android.exoplayer2.extractor.mkv;
 
+import static com.google.common.truth.Truth.assertThat;
+
 import com.google.android.exoplayer2.extractor.Extractor;
+import com.google.android.exoplayer2.extractor.PositionHolder;
+import com.google.android.exoplayer2.extractor.SeekMap;
+import com.google.android.exoplayer2.extractor.SeekPoint;
 import com.google.android.exoplayer2.testutil.ExtractorAsserts;
 import com.google.android.exoplayer2.testutil.ExtractorAsserts.ExtractorFactory;
+import com.google.android.exoplayer2.testutil.FakeExtractorInput;
+import com.google.android.exoplayer2.testutil.FakeExtractorInput.SimulatedIOException;
+import com.google.android.exoplayer2.testutil.FakeExtractorOutput;
+import com.google.android.exoplayer2.testutil.FakeTrackOutput;
+import com.google.android.exoplayer2.testutil.TestUtil;
+import com.google.android.exoplayer2.util.MimeTypes;
+import java.io.IOException;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
 
 /** Tests for {@link MatroskaExtractor}. */
 @RunWith(RobolectricTestRunner.class)
@@ -61,4 +74,133 @@ public final class MatroskaExtractorTest {
         },
         "mkv/subsample_encrypted_altref.webm");
   }
+
+  @Test
+  public void testClusterIndexSeeking_indexesClustersWhenCuesAreNotUsed() throws Exception {
+    FakeExtractorInput input = createSampleInput();
+    FakeExtractorOutput output = new FakeExtractorOutput();
+    MatroskaExtractor extractor = createClusterIndexSeekingExtractor(output);
+
+    readToEnd(extractor, input);
+
+    SeekMap seekMap = output.seekMap;
+    assertThat(seekMap).isInstanceOf(ClusterIndex.class);
+    assertThat(seekMap.isSeekable()).isTrue();
+    long seekTimeUs = seekMap.getDurationUs() / 2;
+    SeekPoint seekPoint = seekMap.getSeekPoints(seekTimeUs).first;
+    assertThat(seekPoint.timeUs).isAtMost(seekTimeUs);
+    assertThat(((ClusterIndex) seekMap).isClusterPosition(seekPoint.position)).isTrue();
+  }
+
+  @Test
+  public void testClusterIndexSeeking_seekBeyondIndexResumesFromLaterCluster() throws Exception {
+    FakeExtractorInput input = createSampleInput();
+    FakeExtractorOutput output = new FakeExtractorOutput();
+    MatroskaExtractor extractor = createClusterIndexSeekingExtractor(output);
+    // Read up to the first cluster, so that the index does not cover the seek time.
+    while (output.seekMap == null) {
+      extractor.read(input, new PositionHolder());
+    }
+    long seekTimeUs = output.seekMap.getDurationUs() / 2;
+    SeekPoint seekPoint = output.seekMap.getSeekPoints(seekTimeUs).first;
+    assertThat(seekPoint.timeUs).isEqualTo(seekTimeUs);
+
+    for (int i = 0; i < output.numberOfTracks; i++) {
+      output.trackOutputs.valueAt(i).clear();
+    }
+    extractor.seek(seekPoint.position, seekPoint.timeUs);
+    input.setPosition((int) seekPoint.position);
+    readToEnd(extractor, input);
+
+    for (int i = 0; i < output.numberOfTracks; i++) {
+      FakeTrackOutput trackOutput = output.trackOutputs.valueAt(i);
+      if (MimeTypes.isAudio(trackOutput.format.sampleMimeType)) {
+        // Reading resumed from a cluster after the start of the stream.
+        assertThat(trackOutput.getSampleCount()).isGreaterThan(0);
+        assertThat(trackOutput.getSampleTimeUs(0)).isGreaterThan(0L);
+      } else {
+        // Video is only output from a keyframe. The sample has no keyframe after the first.
+        assertThat(trackOutput.getSampleCount()).isEqualTo(0);
+      }
+    }
+  }
+
+  @Test
+  public void testClusterIndexSeeking_seekBeforeFirstIndexedClusterIndexesClusters()
+      throws Exception {
+    byte[] data = TestUtil.getByteArray(RuntimeEnvironment.application, "mkv/sample.mkv");
+    FakeExtractorInput input =
+        new FakeExtractorInput.Builder().setData(data).setSimulateIOErrors(true).build();
+    FakeExtractorOutput output = new FakeExtractorOutput();
+    MatroskaExtractor extractor = createClusterIndexSeekingExtractor(output);
+    // Read up to the start of the first cluster. The simulated IO error that follows interrupts
+    // reading before the timecode of the cluster, so that no cluster has been indexed yet.
+    while (output.seekMap == null) {
+      try {
+        extractor.read(input, new PositionHolder());
+      } catch (SimulatedIOException e) {
+        // Retry.
+      }
+    }
+    SeekPoint seekPoint = output.seekMap.getSeekPoints(/* timeUs= */ 0).first;
+
+    for (int i = 0; i < output.numberOfTracks; i++) {
+      output.trackOutputs.valueAt(i).clear();
+    }
+    extractor.seek(seekPoint.position, seekPoint.timeUs);
+    input.setPosition((int) seekPoint.position);
+    readToEnd(extractor, input);
+
+    // Reading restarted from the first cluster, so all audio samples were output again.
+    FakeExtractorOutput expectedOutput = new FakeExtractorOutput();
+    readToEnd(createClusterIndexSeekingExtractor(expectedOutput), createSampleInput());
+    for (int i = 0; i < output.numberOfTracks; i++) {
+      FakeTrackOutput trackOutput = output.trackOutputs.valueAt(i);
+      if (MimeTypes.isAudio(trackOutput.format.sampleMimeType)) {
+        FakeTrackOutput expectedTrackOutput =
+            expectedOutput.trackOutputs.get(output.trackOutputs.keyAt(i));
+        assertThat(trackOutput.getSampleCount()).isEqualTo(expectedTrackOutput.getSampleCount());
+        assertThat(trackOutput.getSampleTimeUs(0))
+            .isEqualTo(expectedTrackOutput.getSampleTimeUs(0));
+      }
+    }
+    // The clusters read after the seek were indexed.
+    long seekTimeUs = output.seekMap.getDurationUs() / 2;
+    SeekPoint indexedSeekPoint = output.seekMap.getSeekPoints(seekTimeUs).first;
+    assertThat(indexedSeekPoint.timeUs).isLessThan(seekTimeUs);
+    assertThat(((ClusterIndex) output.seekMap).isClusterPosition(indexedSeekPoint.position))
+        .isTrue();
+  }
+
+  private static FakeExtractorInput createSampleInput() throws IOException {
+    byte[] data = TestUtil.getByteArray(RuntimeEnvironment.application, "mkv/sample.mkv");
+    return new FakeExtractorInput.Builder().setData(data).build();
+  }
+
+  private static MatroskaExtractor createClusterIndexSeekingExtractor(FakeExtractorOutput output) {
+    MatroskaExtractor extractor =
+        new MatroskaExtractor(
+            MatroskaExtractor.FLAG_DISABLE_SEEK_FOR_CUES
+                | MatroskaExtractor.FLAG_ENABLE_CLUSTER_INDEX_SEEKING);
+    extractor.init(output);
+    return extractor;
+  }
+
+  private static void readToEnd(MatroskaExtractor extractor, FakeExtractorInput input)
+      throws IOException, InterruptedException {
+    PositionHolder positionHolder = new PositionHolder();
+    int result = Extractor.RESULT_CONTINUE;
+    while (result != Extractor.RESULT_END_OF_INPUT) {
+      try {
+        result = extractor.read(input, positionHolder);
+      } catch (SimulatedIOException e) {
+        // Retry.
+        continue;
+      }
+      if (result == Extractor.RESULT_SEEK) {
+        input.setPosition((int) positionHolder.position);
+      }
+    }
+  }
+
 }
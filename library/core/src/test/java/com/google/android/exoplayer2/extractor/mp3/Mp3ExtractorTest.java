@@ -15,12 +15,22 @@
  */
 package com.google.android.exoplayer2.extractor.mp3;
 
+import static com.google.common.truth.Truth.assertThat;
+
 import com.google.android.exoplayer2.extractor.Extractor;
+import com.google.android.exoplayer2.extractor.PositionHolder;
+import com.google.android.exoplayer2.extractor.SeekIndex;
+import com.google.android.exoplayer2.extractor.SeekMap.SeekPoints;
 import com.google.android.exoplayer2.testutil.ExtractorAsserts;
 import com.google.android.exoplayer2.testutil.ExtractorAsserts.ExtractorFactory;
+import com.google.android.exoplayer2.testutil.FakeExtractorInput;
+import com.google.android.exoplayer2.testutil.FakeExtractorOutput;
+import com.google.android.exoplayer2.testutil.TestUtil;
+import java.io.IOException;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
 
 /** Unit test for {@link Mp3Extractor}. */
 @RunWith(RobolectricTestRunner.class)
@@ -49,4 +59,59 @@ public final class Mp3ExtractorTest {
         },
         "mp3/play-trimmed.mp3");
   }
+
+  @Test
+  public void testIndexSeeking_buildsCompleteIndexOnContiguousRead() throws Exception {
+    Mp3Extractor extractor = new Mp3Extractor(Mp3Extractor.FLAG_ENABLE_INDEX_SEEKING);
+    FakeExtractorOutput output = readToEnd(extractor, /* seekIndex= */ null);
+
+    SeekIndex seekIndex = extractor.getSeekIndex();
+    assertThat(seekIndex).isNotNull();
+    assertThat(seekIndex.length).isGreaterThan(1);
+    assertThat(seekIndex.timesUs[0]).isEqualTo(0);
+    // Seek points within the index map to the exact timestamps of the extracted samples.
+    SeekPoints seekPoints = seekIndex.getSeekPoints(seekIndex.timesUs[1]);
+    assertThat(seekPoints.first.timeUs).isEqualTo(seekIndex.timesUs[1]);
+    assertThat(output.trackOutputs.get(0).getSampleTimeUs(0)).isEqualTo(0);
+  }
+
+  @Test
+  public void testIndexSeeking_seekMapDurationDoesNotChangeWhenIndexCompletes() throws Exception {
+    FakeExtractorOutput fallbackOutput = readToEnd(new Mp3Extractor(), /* seekIndex= */ null);
+    Mp3Extractor extractor = new Mp3Extractor(Mp3Extractor.FLAG_ENABLE_INDEX_SEEKING);
+    FakeExtractorOutput output = readToEnd(extractor, /* seekIndex= */ null);
+
+    assertThat(extractor.getSeekIndex()).isNotNull();
+    assertThat(output.seekMap.getDurationUs()).isEqualTo(fallbackOutput.seekMap.getDurationUs());
+    assertThat(output.seekMap.isSeekable()).isEqualTo(fallbackOutput.seekMap.isSeekable());
+  }
+
+  @Test
+  public void testIndexSeeking_restoredIndexIsUsedAsSeekMap() throws Exception {
+    Mp3Extractor extractor = new Mp3Extractor(Mp3Extractor.FLAG_ENABLE_INDEX_SEEKING);
+    readToEnd(extractor, /* seekIndex= */ null);
+    SeekIndex seekIndex = SeekIndex.fromByteArray(extractor.getSeekIndex().toByteArray());
+
+    FakeExtractorOutput output = readToEnd(new Mp3Extractor(), seekIndex);
+
+    assertThat(output.seekMap.isSeekable()).isTrue();
+    assertThat(output.seekMap.getDurationUs()).isEqualTo(seekIndex.getDurationUs());
+    assertThat(output.seekMap.getSeekPoints(seekIndex.timesUs[1]).first.position)
+        .isEqualTo(seekIndex.positions[1]);
+  }
+
+  private static FakeExtractorOutput readToEnd(Mp3Extractor extractor, SeekIndex seekIndex)
+      throws IOException, InterruptedException {
+    byte[] data = TestUtil.getByteArray(RuntimeEnvironment.application, "mp3/bear.mp3");
+    FakeExtractorInput input = new FakeExtractorInput.Builder().setData(data).build();
+    FakeExtractorOutput output = new FakeExtractorOutput();
+    extractor.init(output);
+    if (seekIndex != null) {
+      extractor.setSeekIndex(seekIndex);
+    }
+    extractor.seek(/* position= */ 0, /* timeUs= */ 0);
+    PositionHolder positionHolder = new PositionHolder();
+    while (extractor.read(input, positionHolder) != Extractor.RESULT_END_OF_INPUT) {}
+    return output;
+  }
 }
@@ -17,6 +17,8 @@ package com.google.android.exoplayer2.extractor.mp4;
 
 import static com.google.common.truth.Truth.assertThat;
 
+import com.google.android.exoplayer2.Format;
+import com.google.android.exoplayer2.util.MimeTypes;
 import com.google.android.exoplayer2.util.ParsableByteArray;
 import com.google.android.exoplayer2.util.Util;
 import org.junit.Test;
@@ -37,6 +39,16 @@ public final class AtomParsersTest {
       + SAMPLE_COUNT + "01020304");
   private static final byte[] SIXTEEN_BIT_STZ2 = Util.getBytesFromHexString(ATOM_HEADER + "00000010"
       + SAMPLE_COUNT + "0001000200030004");
+  private static final String MHA1_CONFIG = "11BF6100";
+  private static final byte[] MHA1_STSD = Util.getBytesFromHexString(
+      "00000045" + "73747364" + "00000000" + "00000001" // size, 'stsd', version/flags, count
+      + "00000035" + "6D686131" // size, 'mha1'
+      + "000000000000" + "0001" // reserved, data reference index
+      + "0000000000000000" // reserved
+      + "0006" + "0010" + "00000000" + "BB800000" // channels, sample size, reserved, rate
+      + "00000011" + "6D686143" // size, 'mhaC'
+      + "01" + "0D" + "06" + "0004" // version, profile and level, layout, config length
+      + MHA1_CONFIG);
 
   @Test
   public void testParseCommonEncryptionSinfFromParentIgnoresUnknownSchemeType() {
@@ -63,6 +75,26 @@ public final class AtomParsersTest {
     verifyStz2Parsing(new Atom.LeafAtom(Atom.TYPE_stsz, new ParsableByteArray(SIXTEEN_BIT_STZ2)));
   }
 
+  @Test
+  public void testParseStsdMha1() throws Exception {
+    AtomParsers.StsdData stsdData =
+        AtomParsers.parseStsd(
+            new ParsableByteArray(MHA1_STSD),
+            /* trackId= */ 1,
+            /* rotationDegrees= */ 0,
+            /* language= */ null,
+            /* drmInitData= */ null,
+            /* isQuickTime= */ false);
+
+    Format format = stsdData.format;
+    assertThat(format.sampleMimeType).isEqualTo(MimeTypes.AUDIO_MPEGH_MHA1);
+    assertThat(format.channelCount).isEqualTo(2);
+    assertThat(format.sampleRate).isEqualTo(48000);
+    assertThat(format.initializationData).hasSize(1);
+    assertThat(format.initializationData.get(0))
+        .isEqualTo(Util.getBytesFromHexString(MHA1_CONFIG));
+  }
+
   private static void verifyStz2Parsing(Atom.LeafAtom stz2Atom) {
     AtomParsers.Stz2SampleSizeBox box = new AtomParsers.Stz2SampleSizeBox(stz2Atom);
     assertThat(box.getSampleCount()).isEqualTo(4);
@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2016 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2.extractor.mp4;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.util.ParsableByteArray;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+/** Unit tests for {@link CompactTrackSampleTable}. */
+@RunWith(RobolectricTestRunner.class)
+public final class CompactTrackSampleTableTest {
+
+  private static final long TIMESCALE = 1000;
+
+  private CompactTrackSampleTable.Boxes boxes;
+
+  @Before
+  public void setUp() {
+    // Six samples in two chunks of two and four samples.
+    Atom.LeafAtom stsz =
+        new Atom.LeafAtom(Atom.TYPE_stsz, fullBox(0, 6, 10, 20, 30, 40, 50, 60));
+    ParsableByteArray stco = fullBox(2, 1000, 2000);
+    ParsableByteArray stsc = fullBox(2, 1, 2, 1, 2, 4, 1);
+    ParsableByteArray stts = fullBox(2, 4, 100, 2, 200);
+    ParsableByteArray ctts = fullBox(3, 2, 50, 0, 7, 4, 0);
+    ParsableByteArray stss = fullBox(2, 1, 4);
+    boxes =
+        CompactTrackSampleTable.Boxes.parse(
+            /* trackId= */ 1,
+            stsz,
+            stco,
+            /* chunkOffsetsAreLongs= */ false,
+            stsc,
+            stts,
+            ctts,
+            stss);
+  }
+
+  @Test
+  public void testParse_resolvesSampleProperties() {
+    TrackSampleTable sampleTable = createSampleTable(/* firstSampleIndex= */ 0, 6, 0);
+
+    assertThat(sampleTable.sampleCount).isEqualTo(6);
+    assertThat(sampleTable.maximumSize).isEqualTo(60);
+    long[] expectedOffsets = new long[] {1000, 1010, 2000, 2030, 2070, 2120};
+    long[] expectedTimestampsUs = new long[] {50000, 150000, 200000, 300000, 400000, 600000};
+    for (int i = 0; i < 6; i++) {
+      assertThat(sampleTable.getOffset(i)).isEqualTo(expectedOffsets[i]);
+      assertThat(sampleTable.getSize(i)).isEqualTo((i + 1) * 10);
+      assertThat(sampleTable.getTimestampUs(i)).isEqualTo(expectedTimestampsUs[i]);
+      assertThat(sampleTable.getFlags(i))
+          .isEqualTo(i == 0 || i == 3 ? C.BUFFER_FLAG_KEY_FRAME : 0);
+    }
+    assertThat(boxes.getDuration()).isEqualTo(800);
+  }
+
+  @Test
+  public void testGetOffset_isIndependentOfLookupOrder() {
+    TrackSampleTable sampleTable = createSampleTable(/* firstSampleIndex= */ 0, 6, 0);
+
+    assertThat(sampleTable.getOffset(5)).isEqualTo(2120);
+    assertThat(sampleTable.getOffset(1)).isEqualTo(1010);
+    assertThat(sampleTable.getOffset(2)).isEqualTo(2000);
+    assertThat(sampleTable.getOffset(4)).isEqualTo(2070);
+    assertThat(sampleTable.getOffset(4)).isEqualTo(2070);
+  }
+
+  @Test
+  public void testSynchronizationSampleLookup() {
+    TrackSampleTable sampleTable = createSampleTable(/* firstSampleIndex= */ 0, 6, 0);
+
+    assertThat(sampleTable.getIndexOfEarlierOrEqualSynchronizationSample(250000)).isEqualTo(0);
+    assertThat(sampleTable.getIndexOfEarlierOrEqualSynchronizationSample(300000)).isEqualTo(3);
+    assertThat(sampleTable.getIndexOfEarlierOrEqualSynchronizationSample(0))
+        .isEqualTo(C.INDEX_UNSET);
+    assertThat(sampleTable.getIndexOfLaterOrEqualSynchronizationSample(100000)).isEqualTo(3);
+    assertThat(sampleTable.getIndexOfLaterOrEqualSynchronizationSample(500000))
+        .isEqualTo(C.INDEX_UNSET);
+  }
+
+  @Test
+  public void testEditedRange_offsetsIndicesAndTimestamps() {
+    int startIndex = boxes.binarySearchCeilTimestamp(200, true, true);
+    TrackSampleTable sampleTable =
+        createSampleTable(startIndex, /* sampleCount= */ 3, /* timeOffset= */ 200);
+
+    assertThat(startIndex).isEqualTo(2);
+    assertThat(sampleTable.maximumSize).isEqualTo(50);
+    assertThat(sampleTable.getOffset(0)).isEqualTo(2000);
+    assertThat(sampleTable.getTimestampUs(0)).isEqualTo(0);
+    assertThat(sampleTable.getTimestampUs(2)).isEqualTo(200000);
+    assertThat(sampleTable.getIndexOfEarlierOrEqualSynchronizationSample(50000))
+        .isEqualTo(C.INDEX_UNSET);
+    assertThat(sampleTable.getIndexOfLaterOrEqualSynchronizationSample(50000)).isEqualTo(1);
+  }
+
+  @Test
+  public void testParse_returnsNullForInsufficientChunks() {
+    ParsableByteArray stsc = fullBox(1, 1, 2, 1);
+
+    assertThat(
+            CompactTrackSampleTable.Boxes.parse(
+                /* trackId= */ 1,
+                new Atom.LeafAtom(Atom.TYPE_stsz, fullBox(10, 6)),
+                fullBox(2, 1000, 2000),
+                /* chunkOffsetsAreLongs= */ false,
+                stsc,
+                fullBox(1, 6, 100),
+                /* ctts= */ null,
+                /* stss= */ null))
+        .isNull();
+  }
+
+  private TrackSampleTable createSampleTable(int firstSampleIndex, int sampleCount,
+      long timeOffset) {
+    return new CompactTrackSampleTable(
+        boxes, firstSampleIndex, sampleCount, timeOffset, TIMESCALE, /* durationUs= */ 800000);
+  }
+
+  /** Returns the data of a full box with the given 32-bit fields following its header. */
+  private static ParsableByteArray fullBox(int... fields) {
+    ParsableByteArray data = new ParsableByteArray(Atom.FULL_HEADER_SIZE + fields.length * 4);
+    data.setPosition(Atom.FULL_HEADER_SIZE);
+    for (int field : fields) {
+      data.data[data.getPosition()] = (byte) (field >> 24);
+      data.data[data.getPosition() + 1] = (byte) (field >> 16);
+      data.data[data.getPosition() + 2] = (byte) (field >> 8);
+      data.data[data.getPosition() + 3] = (byte) field;
+      data.skipBytes(4);
+    }
+    data.setPosition(0);
+    return data;
+  }
+
+}
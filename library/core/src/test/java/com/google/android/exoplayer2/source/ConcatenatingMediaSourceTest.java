@@ -873,6 +873,33 @@ public final class ConcatenatingMediaSourceTest {
     unpreparedChildSource.assertReleased();
   }
 
+  @Test
+  public void testBatchedPlaylistChangesAfterPreparation()
+      throws IOException, InterruptedException {
+    final FakeMediaSource[] childSources = createMediaSources(/* count= */ 5);
+    mediaSource.addMediaSource(childSources[0]);
+    mediaSource.addMediaSource(childSources[1]);
+    testRunner.prepareSource();
+
+    // Changes made on the playback thread are all handled before the listener is notified.
+    testRunner.runOnPlaybackThread(
+        new Runnable() {
+          @Override
+          public void run() {
+            mediaSource.addMediaSource(/* index= */ 1, childSources[2]);
+            mediaSource.addMediaSource(/* index= */ 1, childSources[3]);
+            mediaSource.moveMediaSource(/* currentIndex= */ 3, /* newIndex= */ 0);
+            mediaSource.removeMediaSource(/* index= */ 2);
+            mediaSource.addMediaSource(/* index= */ 2, childSources[4]);
+          }
+        });
+
+    Timeline timeline = testRunner.assertTimelineChangeBlocking();
+    TimelineAsserts.assertPeriodCounts(timeline, 2, 1, 5, 3);
+    TimelineAsserts.assertWindowTags(timeline, 222, 111, 555, 333);
+    testRunner.assertPrepareAndReleaseAllPeriods();
+  }
+
   @Test
   public void testReleaseAndReprepareSource() throws IOException {
     Period period = new Period();
@@ -913,6 +940,59 @@ public final class ConcatenatingMediaSourceTest {
         new MediaPeriodId(/* periodIndex= */ 0, /* windowSequenceNumber= */ 0));
   }
 
+  @Test
+  public void testLazyPreparationOnlyPreparesChildSourcesAroundPlayingSource()
+      throws IOException {
+    FakeMediaSource[] childSources = createMediaSources(/* count= */ 6);
+    setUpLazyMediaSource(
+        /* preparationWindowRadius= */ 1, /* maxConcurrentPreparations= */ 6, childSources);
+
+    Timeline timeline = testRunner.prepareSource();
+    TimelineAsserts.assertPeriodCounts(timeline, 1, 2, 1, 1, 1, 1);
+    childSources[0].assertPrepared();
+    childSources[1].assertPrepared();
+    for (int i = 2; i < childSources.length; i++) {
+      childSources[i].assertReleased();
+    }
+
+    // Creating a period in the placeholder for the fourth source moves the preparation window.
+    MediaPeriod mediaPeriod =
+        testRunner.createPeriod(
+            new MediaPeriodId(/* periodIndex= */ 4, /* windowSequenceNumber= */ 0));
+    timeline = testRunner.assertTimelineChangeBlocking();
+    TimelineAsserts.assertPeriodCounts(timeline, 1, 2, 3, 4, 5, 1);
+    childSources[0].assertReleased();
+    childSources[1].assertReleased();
+    childSources[2].assertPrepared();
+    childSources[3].assertPrepared();
+    childSources[4].assertPrepared();
+    childSources[5].assertReleased();
+    childSources[3].assertMediaPeriodCreated(
+        new MediaPeriodId(/* periodIndex= */ 0, /* windowSequenceNumber= */ 0));
+    testRunner.releasePeriod(mediaPeriod);
+  }
+
+  @Test
+  public void testLazyPreparationLimitsConcurrentPreparations() throws IOException {
+    FakeMediaSource[] childSources = new FakeMediaSource[4];
+    for (int i = 0; i < childSources.length; i++) {
+      childSources[i] = new FakeMediaSource(/* timeline= */ null, /* manifest= */ null);
+    }
+    setUpLazyMediaSource(
+        /* preparationWindowRadius= */ 3, /* maxConcurrentPreparations= */ 2, childSources);
+
+    testRunner.prepareSource();
+    childSources[0].assertPrepared();
+    childSources[1].assertPrepared();
+    childSources[2].assertReleased();
+    childSources[3].assertReleased();
+
+    childSources[0].setNewSourceInfo(createFakeTimeline(/* index= */ 0), /* newManifest= */ null);
+    testRunner.assertTimelineChangeBlocking();
+    childSources[2].assertPrepared();
+    childSources[3].assertReleased();
+  }
+
   private void assertCompletedAllMediaPeriodLoads(Timeline timeline) {
     Timeline.Period period = new Timeline.Period();
     Timeline.Window window = new Timeline.Window();
@@ -936,6 +1016,19 @@ public final class ConcatenatingMediaSourceTest {
         expectedMediaPeriodIds.toArray(new MediaPeriodId[0]));
   }
 
+  private void setUpLazyMediaSource(
+      int preparationWindowRadius, int maxConcurrentPreparations, MediaSource... mediaSources) {
+    testRunner.release();
+    mediaSource =
+        new ConcatenatingMediaSource(
+            /* isAtomic= */ false,
+            new FakeShuffleOrder(0),
+            preparationWindowRadius,
+            maxConcurrentPreparations,
+            mediaSources);
+    testRunner = new MediaSourceTestRunner(mediaSource, null);
+  }
+
   private static FakeMediaSource[] createMediaSources(int count) {
     FakeMediaSource[] sources = new FakeMediaSource[count];
     for (int i = 0; i < count; i++) {
@@ -108,6 +108,88 @@ public final class AdaptiveTrackSelectionTest {
     assertThat(adaptiveTrackSelection.getSelectionReason()).isEqualTo(C.SELECTION_REASON_INITIAL);
   }
 
+  @Test
+  public void testFastStartSelectsLowestBitrateUntilNewBandwidthEstimate() {
+    Format format1 = videoFormat(/* bitrate= */ 500, /* width= */ 320, /* height= */ 240);
+    Format format2 = videoFormat(/* bitrate= */ 1000, /* width= */ 640, /* height= */ 480);
+    Format format3 = videoFormat(/* bitrate= */ 2000, /* width= */ 960, /* height= */ 720);
+    TrackGroup trackGroup = new TrackGroup(format1, format2, format3);
+
+    when(mockBandwidthMeter.getBitrateEstimate()).thenReturn(1000L, 1000L, 2000L);
+    adaptiveTrackSelection = adaptiveTrackSelectionWithFastStart(trackGroup);
+
+    assertThat(adaptiveTrackSelection.getSelectedFormat()).isEqualTo(format1);
+    assertThat(adaptiveTrackSelection.getSelectionReason()).isEqualTo(C.SELECTION_REASON_INITIAL);
+
+    // The estimate is unchanged, so the selection keeps the lowest bitrate.
+    adaptiveTrackSelection.updateSelectedTrack(
+        /* playbackPositionUs= */ 0,
+        /* bufferedDurationUs= */ 10_000_000,
+        /* availableDurationUs= */ C.TIME_UNSET);
+    assertThat(adaptiveTrackSelection.getSelectedFormat()).isEqualTo(format1);
+
+    // A new estimate of 2000L arrived, so the selection switches up once enough is buffered.
+    adaptiveTrackSelection.updateSelectedTrack(
+        /* playbackPositionUs= */ 0,
+        /* bufferedDurationUs= */ 10_000_000,
+        /* availableDurationUs= */ C.TIME_UNSET);
+    assertThat(adaptiveTrackSelection.getSelectedFormat()).isEqualTo(format3);
+    assertThat(adaptiveTrackSelection.getSelectionReason()).isEqualTo(C.SELECTION_REASON_ADAPTIVE);
+  }
+
+  @Test
+  public void testFastStartEndsAfterMaxDurationIfEstimateIsUnchanged() {
+    Format format1 = videoFormat(/* bitrate= */ 500, /* width= */ 320, /* height= */ 240);
+    Format format2 = videoFormat(/* bitrate= */ 1000, /* width= */ 640, /* height= */ 480);
+    Format format3 = videoFormat(/* bitrate= */ 2000, /* width= */ 960, /* height= */ 720);
+    TrackGroup trackGroup = new TrackGroup(format1, format2, format3);
+
+    when(mockBandwidthMeter.getBitrateEstimate()).thenReturn(1000L);
+    adaptiveTrackSelection = adaptiveTrackSelectionWithFastStart(trackGroup);
+    assertThat(adaptiveTrackSelection.getSelectedFormat()).isEqualTo(format1);
+
+    fakeClock.advanceTime(AdaptiveTrackSelection.FAST_START_MAX_DURATION_MS);
+    adaptiveTrackSelection.updateSelectedTrack(
+        /* playbackPositionUs= */ 0,
+        /* bufferedDurationUs= */ 10_000_000,
+        /* availableDurationUs= */ C.TIME_UNSET);
+
+    assertThat(adaptiveTrackSelection.getSelectedFormat()).isEqualTo(format2);
+  }
+
+  @Test
+  public void testFastStartOnlyAppliesToSelectionsAtStartOfPlayback() {
+    Format format1 = videoFormat(/* bitrate= */ 500, /* width= */ 320, /* height= */ 240);
+    Format format2 = videoFormat(/* bitrate= */ 1000, /* width= */ 640, /* height= */ 480);
+    Format format3 = videoFormat(/* bitrate= */ 2000, /* width= */ 960, /* height= */ 720);
+    TrackGroup trackGroup = new TrackGroup(format1, format2, format3);
+    AdaptiveTrackSelection.Factory factory =
+        new AdaptiveTrackSelection.Factory(
+            mockBandwidthMeter,
+            AdaptiveTrackSelection.DEFAULT_MIN_DURATION_FOR_QUALITY_INCREASE_MS,
+            AdaptiveTrackSelection.DEFAULT_MAX_DURATION_FOR_QUALITY_DECREASE_MS,
+            AdaptiveTrackSelection.DEFAULT_MIN_DURATION_TO_RETAIN_AFTER_DISCARD_MS,
+            /* bandwidthFraction= */ 1.0f,
+            AdaptiveTrackSelection.DEFAULT_BUFFERED_FRACTION_TO_LIVE_EDGE_FOR_QUALITY_INCREASE,
+            AdaptiveTrackSelection.DEFAULT_MIN_TIME_BETWEEN_BUFFER_REEVALUTATION_MS,
+            /* fastStart= */ true,
+            fakeClock);
+
+    when(mockBandwidthMeter.getBitrateEstimate()).thenReturn(1000L, 2000L);
+    AdaptiveTrackSelection initialSelection =
+        factory.createTrackSelection(trackGroup, selectedAllTracksInGroup(trackGroup));
+    assertThat(initialSelection.getSelectedFormat()).isEqualTo(format1);
+    initialSelection.updateSelectedTrack(
+        /* playbackPositionUs= */ 0,
+        /* bufferedDurationUs= */ 0,
+        /* availableDurationUs= */ C.TIME_UNSET);
+
+    // Fast start ended with the new estimate, so a later selection uses the estimate immediately.
+    AdaptiveTrackSelection laterSelection =
+        factory.createTrackSelection(trackGroup, selectedAllTracksInGroup(trackGroup));
+    assertThat(laterSelection.getSelectedFormat()).isEqualTo(format3);
+  }
+
   @Test
   public void testUpdateSelectedTrackSwitchUpIfBufferedEnough() {
     Format format1 = videoFormat(/* bitrate= */ 500, /* width= */ 320, /* height= */ 240);
@@ -301,6 +383,21 @@ public final class AdaptiveTrackSelectionTest {
         fakeClock);
   }
 
+  private AdaptiveTrackSelection adaptiveTrackSelectionWithFastStart(TrackGroup trackGroup) {
+    return new AdaptiveTrackSelection(
+        trackGroup,
+        selectedAllTracksInGroup(trackGroup),
+        mockBandwidthMeter,
+        AdaptiveTrackSelection.DEFAULT_MIN_DURATION_FOR_QUALITY_INCREASE_MS,
+        AdaptiveTrackSelection.DEFAULT_MAX_DURATION_FOR_QUALITY_DECREASE_MS,
+        AdaptiveTrackSelection.DEFAULT_MIN_DURATION_TO_RETAIN_AFTER_DISCARD_MS,
+        /* bandwidthFraction= */ 1.0f,
+        AdaptiveTrackSelection.DEFAULT_BUFFERED_FRACTION_TO_LIVE_EDGE_FOR_QUALITY_INCREASE,
+        AdaptiveTrackSelection.DEFAULT_MIN_TIME_BETWEEN_BUFFER_REEVALUTATION_MS,
+        /* fastStart= */ true,
+        fakeClock);
+  }
+
   private AdaptiveTrackSelection adaptiveTrackSelectionWithMinDurationForQualityIncreaseMs(
       TrackGroup trackGroup, long minDurationForQualityIncreaseMs) {
     return new AdaptiveTrackSelection(
@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2.upstream;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+/** Unit tests for {@link LoaderExecutor}. */
+@RunWith(RobolectricTestRunner.class)
+public final class LoaderExecutorTest {
+
+  private static final long TIMEOUT_MS = 10000;
+
+  private List<String> executedTasks;
+
+  @Before
+  public void setUp() {
+    executedTasks = Collections.synchronizedList(new ArrayList<String>());
+  }
+
+  @Test
+  public void testPendingTasksAreExecutedInPriorityOrder() throws Exception {
+    LoaderExecutor loaderExecutor = new LoaderExecutor("Test", /* threadCount= */ 1);
+    Executor blockingExecutor = loaderExecutor.createSerialExecutor(LoaderExecutor.PRIORITY_NORMAL);
+    Executor lowPriorityExecutor = loaderExecutor.createSerialExecutor(LoaderExecutor.PRIORITY_LOW);
+    Executor normalPriorityExecutor =
+        loaderExecutor.createSerialExecutor(LoaderExecutor.PRIORITY_NORMAL);
+    Executor highPriorityExecutor =
+        loaderExecutor.createSerialExecutor(LoaderExecutor.PRIORITY_HIGH);
+    CountDownLatch unblock = new CountDownLatch(1);
+    CountDownLatch finished = new CountDownLatch(5);
+
+    blockingExecutor.execute(createTask("blocking", unblock, finished));
+    lowPriorityExecutor.execute(createTask("low", /* waitFor= */ null, finished));
+    normalPriorityExecutor.execute(createTask("normal1", /* waitFor= */ null, finished));
+    highPriorityExecutor.execute(createTask("high", /* waitFor= */ null, finished));
+    normalPriorityExecutor.execute(createTask("normal2", /* waitFor= */ null, finished));
+    unblock.countDown();
+
+    assertThat(finished.await(TIMEOUT_MS, TimeUnit.MILLISECONDS)).isTrue();
+    assertThat(executedTasks)
+        .containsExactly("blocking", "high", "normal1", "normal2", "low")
+        .inOrder();
+    loaderExecutor.release();
+  }
+
+  @Test
+  public void testTasksOfSerialExecutorAreNotExecutedConcurrently() throws Exception {
+    LoaderExecutor loaderExecutor = new LoaderExecutor("Test", /* threadCount= */ 4);
+    Executor executor = loaderExecutor.createSerialExecutor(LoaderExecutor.PRIORITY_NORMAL);
+    final AtomicInteger runningTaskCount = new AtomicInteger();
+    final AtomicInteger maxRunningTaskCount = new AtomicInteger();
+    final CountDownLatch finished = new CountDownLatch(20);
+
+    for (int i = 0; i < 20; i++) {
+      final String name = Integer.toString(i);
+      executor.execute(
+          new Runnable() {
+            @Override
+            public void run() {
+              int count = runningTaskCount.incrementAndGet();
+              maxRunningTaskCount.set(Math.max(maxRunningTaskCount.get(), count));
+              executedTasks.add(name);
+              runningTaskCount.decrementAndGet();
+              finished.countDown();
+            }
+          });
+    }
+
+    assertThat(finished.await(TIMEOUT_MS, TimeUnit.MILLISECONDS)).isTrue();
+    assertThat(maxRunningTaskCount.get()).isEqualTo(1);
+    for (int i = 0; i < 20; i++) {
+      assertThat(executedTasks.get(i)).isEqualTo(Integer.toString(i));
+    }
+    loaderExecutor.release();
+  }
+
+  private Runnable createTask(
+      final String name, final CountDownLatch waitFor, final CountDownLatch finished) {
+    return new Runnable() {
+      @Override
+      public void run() {
+        executedTasks.add(name);
+        if (waitFor != null) {
+          try {
+            waitFor.await();
+          } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+          }
+        }
+        finished.countDown();
+      }
+    };
+  }
+
+}
@@ -541,4 +541,44 @@ public final class ParsableByteArrayTest {
     assertThat(parser.readLine()).isNull();
   }
 
+  @Test
+  public void testReadUtf8EncodedLong() {
+    ParsableByteArray parser = new ParsableByteArray(new byte[] {
+      0x42,
+      (byte) 0xC3, (byte) 0xA9,
+      (byte) 0xE2, (byte) 0x82, (byte) 0xAC,
+      (byte) 0xFE, (byte) 0x83, (byte) 0xBF, (byte) 0xBF, (byte) 0xBF, (byte) 0xBF, (byte) 0xBF
+    });
+    assertThat(parser.readUtf8EncodedLong()).isEqualTo(0x42);
+    assertThat(parser.readUtf8EncodedLong()).isEqualTo(0xE9);
+    assertThat(parser.readUtf8EncodedLong()).isEqualTo(0x20AC);
+    assertThat(parser.readUtf8EncodedLong()).isEqualTo(0xFFFFFFFFL);
+    assertThat(parser.getPosition()).isEqualTo(13);
+  }
+
+  @Test
+  public void testReadUtf8EncodedLongWithInvalidFirstByteThrows() {
+    byte[][] invalidSequences = new byte[][] {{(byte) 0x80, 0x00}, {(byte) 0xFF, 0x00}};
+    for (byte[] invalidSequence : invalidSequences) {
+      try {
+        new ParsableByteArray(invalidSequence).readUtf8EncodedLong();
+        fail();
+      } catch (NumberFormatException e) {
+        // Expected.
+      }
+    }
+  }
+
+  @Test
+  public void testReadUtf8EncodedLongWithInvalidContinuationByteThrows() {
+    ParsableByteArray parser = new ParsableByteArray(new byte[] {(byte) 0xC3, 0x29});
+    try {
+      parser.readUtf8EncodedLong();
+      fail();
+    } catch (NumberFormatException e) {
+      // Expected.
+    }
+    assertThat(parser.getPosition()).isEqualTo(0);
+  }
+
 }
@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2.util;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+/** Unit tests for {@link TraceUtil}. */
+@RunWith(RobolectricTestRunner.class)
+public final class TraceUtilTest {
+
+  @After
+  public void tearDown() {
+    TraceUtil.setEnabled(true);
+    TraceUtil.setCountersEnabled(false);
+  }
+
+  @Test
+  public void testTracingIsEnabledAndCountersAreDisabledByDefault() {
+    assertThat(TraceUtil.isEnabled()).isTrue();
+    assertThat(TraceUtil.areCountersEnabled()).isFalse();
+  }
+
+  @Test
+  public void testCountersAreOnlyEnabledWhileTracingIsEnabled() {
+    TraceUtil.setCountersEnabled(true);
+    assertThat(TraceUtil.areCountersEnabled()).isTrue();
+
+    TraceUtil.setEnabled(false);
+    assertThat(TraceUtil.isEnabled()).isFalse();
+    assertThat(TraceUtil.areCountersEnabled()).isFalse();
+  }
+
+  @Test
+  public void testSectionsStayBalancedWhenTracingIsSwitched() {
+    startTrackingSections();
+    TraceUtil.beginSection("outer");
+    TraceUtil.setEnabled(false);
+    TraceUtil.beginSection("inner");
+    assertThat(TraceUtil.getOpenSectionCount()).isEqualTo(1);
+
+    // Ending the inner section doesn't end the outer one, which was begun while enabled.
+    TraceUtil.setEnabled(true);
+    TraceUtil.endSection();
+    assertThat(TraceUtil.getOpenSectionCount()).isEqualTo(1);
+    TraceUtil.endSection();
+    assertThat(TraceUtil.getOpenSectionCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void testUntrackedEndSectionDoesNotEndTrackedSections() {
+    startTrackingSections();
+    TraceUtil.endSection();
+    TraceUtil.beginSection("section");
+    assertThat(TraceUtil.getOpenSectionCount()).isEqualTo(1);
+
+    TraceUtil.endSection();
+    assertThat(TraceUtil.getOpenSectionCount()).isEqualTo(0);
+  }
+
+  private static void startTrackingSections() {
+    // Sections are tracked once tracing has been disabled.
+    TraceUtil.setEnabled(false);
+    TraceUtil.setEnabled(true);
+  }
+
+}
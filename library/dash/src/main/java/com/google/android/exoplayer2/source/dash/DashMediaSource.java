@@ -44,6 +44,7 @@ import com.google.android.exoplayer2.upstream.Allocator;
 import com.google.android.exoplayer2.upstream.DataSource;
 import com.google.android.exoplayer2.upstream.Loader;
 import com.google.android.exoplayer2.upstream.LoaderErrorThrower;
+import com.google.android.exoplayer2.upstream.LoaderExecutor;
 import com.google.android.exoplayer2.upstream.ParsingLoadable;
 import com.google.android.exoplayer2.util.Assertions;
 import com.google.android.exoplayer2.util.Util;
@@ -78,6 +79,7 @@ public final class DashMediaSource extends BaseMediaSource {
     private long livePresentationDelayMs;
     private boolean isCreateCalled;
     private @Nullable Object tag;
+    private @Nullable LoaderExecutor loaderExecutor;
 
     /**
      * Creates a new factory for {@link DashMediaSource}s.
@@ -178,6 +180,20 @@ public final class DashMediaSource extends BaseMediaSource {
       return this;
     }
 
+    /**
+     * Sets the {@link LoaderExecutor} on which created media sources load their manifests and
+     * chunks, or null to use a dedicated thread for each load queue. The default value is null.
+     *
+     * @param loaderExecutor A shared {@link LoaderExecutor}, or null.
+     * @return This factory, for convenience.
+     * @throws IllegalStateException If one of the {@code create} methods has already been called.
+     */
+    public Factory setLoaderExecutor(@Nullable LoaderExecutor loaderExecutor) {
+      Assertions.checkState(!isCreateCalled);
+      this.loaderExecutor = loaderExecutor;
+      return this;
+    }
+
     /**
      * Returns a new {@link DashMediaSource} using the current parameters and the specified
      * sideloaded manifest.
@@ -198,7 +214,8 @@ public final class DashMediaSource extends BaseMediaSource {
           compositeSequenceableLoaderFactory,
           minLoadableRetryCount,
           livePresentationDelayMs,
-          tag);
+          tag,
+          loaderExecutor);
     }
 
     /**
@@ -238,7 +255,8 @@ public final class DashMediaSource extends BaseMediaSource {
           compositeSequenceableLoaderFactory,
           minLoadableRetryCount,
           livePresentationDelayMs,
-          tag);
+          tag,
+          loaderExecutor);
     }
 
     /**
@@ -309,6 +327,7 @@ public final class DashMediaSource extends BaseMediaSource {
   private final PlayerEmsgCallback playerEmsgCallback;
   private final LoaderErrorThrower manifestLoadErrorThrower;
   private final @Nullable Object tag;
+  private final @Nullable LoaderExecutor loaderExecutor;
 
   private DataSource dataSource;
   private Loader loader;
@@ -375,7 +394,8 @@ public final class DashMediaSource extends BaseMediaSource {
         new DefaultCompositeSequenceableLoaderFactory(),
         minLoadableRetryCount,
         DEFAULT_LIVE_PRESENTATION_DELAY_PREFER_MANIFEST_MS,
-        /* tag= */ null);
+        /* tag= */ null,
+        /* loaderExecutor= */ null);
     if (eventHandler != null && eventListener != null) {
       addEventListener(eventHandler, eventListener);
     }
@@ -472,7 +492,8 @@ public final class DashMediaSource extends BaseMediaSource {
         new DefaultCompositeSequenceableLoaderFactory(),
         minLoadableRetryCount,
         livePresentationDelayMs,
-        /* tag= */ null);
+        /* tag= */ null,
+        /* loaderExecutor= */ null);
     if (eventHandler != null && eventListener != null) {
       addEventListener(eventHandler, eventListener);
     }
@@ -487,7 +508,8 @@ public final class DashMediaSource extends BaseMediaSource {
       CompositeSequenceableLoaderFactory compositeSequenceableLoaderFactory,
       int minLoadableRetryCount,
       long livePresentationDelayMs,
-      @Nullable Object tag) {
+      @Nullable Object tag,
+      @Nullable LoaderExecutor loaderExecutor) {
     this.initialManifestUri = manifestUri;
     this.manifest = manifest;
     this.manifestUri = manifestUri;
@@ -498,6 +520,7 @@ public final class DashMediaSource extends BaseMediaSource {
     this.livePresentationDelayMs = livePresentationDelayMs;
     this.compositeSequenceableLoaderFactory = compositeSequenceableLoaderFactory;
     this.tag = tag;
+    this.loaderExecutor = loaderExecutor;
     sideloadedManifest = manifest != null;
     manifestEventDispatcher = createEventDispatcher(/* mediaPeriodId= */ null);
     manifestUriLock = new Object();
@@ -548,7 +571,9 @@ public final class DashMediaSource extends BaseMediaSource {
       processManifest(false);
     } else {
       dataSource = manifestDataSourceFactory.createDataSource();
-      loader = new Loader("Loader:DashMediaSource");
+      loader =
+          new Loader(
+              "Loader:DashMediaSource", loaderExecutor, LoaderExecutor.PRIORITY_HIGH);
       handler = new Handler();
       startLoadingManifest();
     }
@@ -576,7 +601,8 @@ public final class DashMediaSource extends BaseMediaSource {
             manifestLoadErrorThrower,
             allocator,
             compositeSequenceableLoaderFactory,
-            playerEmsgCallback);
+            playerEmsgCallback,
+            loaderExecutor);
     periodsById.put(mediaPeriod.id, mediaPeriod);
     return mediaPeriod;
   }
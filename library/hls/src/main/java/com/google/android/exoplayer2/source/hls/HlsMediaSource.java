@@ -39,6 +39,7 @@ import com.google.android.exoplayer2.source.hls.playlist.HlsPlaylistParser;
 import com.google.android.exoplayer2.source.hls.playlist.HlsPlaylistTracker;
 import com.google.android.exoplayer2.upstream.Allocator;
 import com.google.android.exoplayer2.upstream.DataSource;
+import com.google.android.exoplayer2.upstream.LoaderExecutor;
 import com.google.android.exoplayer2.upstream.ParsingLoadable;
 import com.google.android.exoplayer2.util.Assertions;
 import java.io.IOException;
@@ -65,6 +66,7 @@ public final class HlsMediaSource extends BaseMediaSource
     private boolean allowChunklessPreparation;
     private boolean isCreateCalled;
     private @Nullable Object tag;
+    private @Nullable LoaderExecutor loaderExecutor;
 
     /**
      * Creates a new factory for {@link HlsMediaSource}s.
@@ -202,6 +204,21 @@ public final class HlsMediaSource extends BaseMediaSource
       return this;
     }
 
+    /**
+     * Sets the {@link LoaderExecutor} on which created media sources load their chunks, or null to
+     * use a dedicated thread for each load queue. The default value is null. Unless a playlist
+     * tracker is set with {@link #setPlaylistTracker}, playlists are loaded on the executor too.
+     *
+     * @param loaderExecutor A shared {@link LoaderExecutor}, or null.
+     * @return This factory, for convenience.
+     * @throws IllegalStateException If one of the {@code create} methods has already been called.
+     */
+    public Factory setLoaderExecutor(@Nullable LoaderExecutor loaderExecutor) {
+      Assertions.checkState(!isCreateCalled);
+      this.loaderExecutor = loaderExecutor;
+      return this;
+    }
+
     /**
      * Returns a new {@link HlsMediaSource} using the current parameters.
      *
@@ -215,7 +232,8 @@ public final class HlsMediaSource extends BaseMediaSource
             new DefaultHlsPlaylistTracker(
                 hlsDataSourceFactory,
                 minLoadableRetryCount,
-                playlistParser != null ? playlistParser : new HlsPlaylistParser());
+                playlistParser != null ? playlistParser : new HlsPlaylistParser(),
+                loaderExecutor);
       }
       return new HlsMediaSource(
           playlistUri,
@@ -225,7 +243,8 @@ public final class HlsMediaSource extends BaseMediaSource
           minLoadableRetryCount,
           playlistTracker,
           allowChunklessPreparation,
-          tag);
+          tag,
+          loaderExecutor);
     }
 
     /**
@@ -263,6 +282,7 @@ public final class HlsMediaSource extends BaseMediaSource
   private final boolean allowChunklessPreparation;
   private final HlsPlaylistTracker playlistTracker;
   private final @Nullable Object tag;
+  private final @Nullable LoaderExecutor loaderExecutor;
 
   /**
    * @param manifestUri The {@link Uri} of the HLS manifest.
@@ -342,7 +362,8 @@ public final class HlsMediaSource extends BaseMediaSource
         new DefaultHlsPlaylistTracker(
             dataSourceFactory, minLoadableRetryCount, new HlsPlaylistParser()),
         /* allowChunklessPreparation= */ false,
-        /* tag= */ null);
+        /* tag= */ null,
+        /* loaderExecutor= */ null);
     if (eventHandler != null && eventListener != null) {
       addEventListener(eventHandler, eventListener);
     }
@@ -356,7 +377,8 @@ public final class HlsMediaSource extends BaseMediaSource
       int minLoadableRetryCount,
       HlsPlaylistTracker playlistTracker,
       boolean allowChunklessPreparation,
-      @Nullable Object tag) {
+      @Nullable Object tag,
+      @Nullable LoaderExecutor loaderExecutor) {
     this.manifestUri = manifestUri;
     this.dataSourceFactory = dataSourceFactory;
     this.extractorFactory = extractorFactory;
@@ -365,6 +387,7 @@ public final class HlsMediaSource extends BaseMediaSource
     this.playlistTracker = playlistTracker;
     this.allowChunklessPreparation = allowChunklessPreparation;
     this.tag = tag;
+    this.loaderExecutor = loaderExecutor;
   }
 
   @Override
@@ -390,7 +413,8 @@ public final class HlsMediaSource extends BaseMediaSource
         eventDispatcher,
         allocator,
         compositeSequenceableLoaderFactory,
-        allowChunklessPreparation);
+        allowChunklessPreparation,
+        loaderExecutor);
   }
 
   @Override
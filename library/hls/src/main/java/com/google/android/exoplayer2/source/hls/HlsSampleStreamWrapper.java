@@ -17,6 +17,7 @@ package com.google.android.exoplayer2.source.hls;
 
 import android.os.Handler;
 import android.support.annotation.IntDef;
+import android.support.annotation.Nullable;
 import android.util.Log;
 import com.google.android.exoplayer2.C;
 import com.google.android.exoplayer2.Format;
@@ -40,6 +41,7 @@ import com.google.android.exoplayer2.source.hls.playlist.HlsMasterPlaylist.HlsUr
 import com.google.android.exoplayer2.trackselection.TrackSelection;
 import com.google.android.exoplayer2.upstream.Allocator;
 import com.google.android.exoplayer2.upstream.Loader;
+import com.google.android.exoplayer2.upstream.LoaderExecutor;
 import com.google.android.exoplayer2.util.Assertions;
 import com.google.android.exoplayer2.util.MimeTypes;
 import com.google.android.exoplayer2.util.Util;
@@ -147,10 +149,12 @@ import java.util.Arrays;
    * @param minLoadableRetryCount The minimum number of times that the source should retry a load
    *     before propagating an error.
    * @param eventDispatcher A dispatcher to notify of events.
+   * @param loaderExecutor A shared {@link LoaderExecutor} on which chunks are loaded, or null to
+   *     load them on a dedicated thread.
    */
   public HlsSampleStreamWrapper(int trackType, Callback callback, HlsChunkSource chunkSource,
       Allocator allocator, long positionUs, Format muxedAudioFormat, int minLoadableRetryCount,
-      EventDispatcher eventDispatcher) {
+      EventDispatcher eventDispatcher, @Nullable LoaderExecutor loaderExecutor) {
     this.trackType = trackType;
     this.callback = callback;
     this.chunkSource = chunkSource;
@@ -158,7 +162,13 @@ import java.util.Arrays;
     this.muxedAudioFormat = muxedAudioFormat;
     this.minLoadableRetryCount = minLoadableRetryCount;
     this.eventDispatcher = eventDispatcher;
-    loader = new Loader("Loader:HlsSampleStreamWrapper");
+    loader =
+        new Loader(
+            "Loader:HlsSampleStreamWrapper",
+            loaderExecutor,
+            trackType == C.TRACK_TYPE_TEXT
+                ? LoaderExecutor.PRIORITY_LOW
+                : LoaderExecutor.PRIORITY_NORMAL);
     nextChunkHolder = new HlsChunkSource.HlsChunkHolder();
     sampleQueueTrackIds = new int[0];
     audioSampleQueueIndex = C.INDEX_UNSET;
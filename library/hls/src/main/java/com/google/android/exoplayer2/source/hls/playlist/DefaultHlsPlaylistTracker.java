@@ -18,6 +18,7 @@ package com.google.android.exoplayer2.source.hls.playlist;
 import android.net.Uri;
 import android.os.Handler;
 import android.os.SystemClock;
+import android.support.annotation.Nullable;
 import com.google.android.exoplayer2.C;
 import com.google.android.exoplayer2.ParserException;
 import com.google.android.exoplayer2.source.MediaSourceEventListener.EventDispatcher;
@@ -27,6 +28,7 @@ import com.google.android.exoplayer2.source.hls.playlist.HlsMasterPlaylist.HlsUr
 import com.google.android.exoplayer2.source.hls.playlist.HlsMediaPlaylist.Segment;
 import com.google.android.exoplayer2.upstream.DataSource;
 import com.google.android.exoplayer2.upstream.Loader;
+import com.google.android.exoplayer2.upstream.LoaderExecutor;
 import com.google.android.exoplayer2.upstream.ParsingLoadable;
 import com.google.android.exoplayer2.util.Assertions;
 import com.google.android.exoplayer2.util.UriUtil;
@@ -50,6 +52,7 @@ public final class DefaultHlsPlaylistTracker
   private final int minRetryCount;
   private final IdentityHashMap<HlsUrl, MediaPlaylistBundle> playlistBundles;
   private final List<PlaylistEventListener> listeners;
+  private final @Nullable LoaderExecutor loaderExecutor;
 
   private EventDispatcher eventDispatcher;
   private Loader initialPlaylistLoader;
@@ -72,9 +75,27 @@ public final class DefaultHlsPlaylistTracker
       HlsDataSourceFactory dataSourceFactory,
       int minRetryCount,
       ParsingLoadable.Parser<HlsPlaylist> playlistParser) {
+    this(dataSourceFactory, minRetryCount, playlistParser, /* loaderExecutor= */ null);
+  }
+
+  /**
+   * @param dataSourceFactory A factory for {@link DataSource} instances.
+   * @param minRetryCount The minimum number of times loads must be retried before {@link
+   *     #maybeThrowPlaylistRefreshError(HlsUrl)} and {@link
+   *     #maybeThrowPrimaryPlaylistRefreshError()} propagate any loading errors.
+   * @param playlistParser A {@link ParsingLoadable.Parser} for HLS playlists.
+   * @param loaderExecutor A shared {@link LoaderExecutor} on which playlists are loaded, or null to
+   *     load them on dedicated threads.
+   */
+  public DefaultHlsPlaylistTracker(
+      HlsDataSourceFactory dataSourceFactory,
+      int minRetryCount,
+      ParsingLoadable.Parser<HlsPlaylist> playlistParser,
+      @Nullable LoaderExecutor loaderExecutor) {
     this.dataSourceFactory = dataSourceFactory;
     this.minRetryCount = minRetryCount;
     this.playlistParser = playlistParser;
+    this.loaderExecutor = loaderExecutor;
     listeners = new ArrayList<>();
     playlistBundles = new IdentityHashMap<>();
     initialStartTimeUs = C.TIME_UNSET;
@@ -97,7 +118,11 @@ public final class DefaultHlsPlaylistTracker
             C.DATA_TYPE_MANIFEST,
             playlistParser);
     Assertions.checkState(initialPlaylistLoader == null);
-    initialPlaylistLoader = new Loader("DefaultHlsPlaylistTracker:MasterPlaylist");
+    initialPlaylistLoader =
+        new Loader(
+            "DefaultHlsPlaylistTracker:MasterPlaylist",
+            loaderExecutor,
+            LoaderExecutor.PRIORITY_HIGH);
     long elapsedRealtime =
         initialPlaylistLoader.startLoading(masterPlaylistLoadable, this, minRetryCount);
     eventDispatcher.loadStarted(
@@ -400,7 +425,11 @@ public final class DefaultHlsPlaylistTracker
 
     public MediaPlaylistBundle(HlsUrl playlistUrl) {
       this.playlistUrl = playlistUrl;
-      mediaPlaylistLoader = new Loader("DefaultHlsPlaylistTracker:MediaPlaylist");
+      mediaPlaylistLoader =
+          new Loader(
+              "DefaultHlsPlaylistTracker:MediaPlaylist",
+              loaderExecutor,
+              LoaderExecutor.PRIORITY_HIGH);
       mediaPlaylistLoadable =
           new ParsingLoadable<>(
               dataSourceFactory.createDataSource(C.DATA_TYPE_MANIFEST),
@@ -33,6 +33,7 @@ import com.google.android.exoplayer2.source.smoothstreaming.manifest.SsManifest.
 import com.google.android.exoplayer2.trackselection.TrackSelection;
 import com.google.android.exoplayer2.upstream.Allocator;
 import com.google.android.exoplayer2.upstream.LoaderErrorThrower;
+import com.google.android.exoplayer2.upstream.LoaderExecutor;
 import java.io.IOException;
 import java.util.ArrayList;
 
@@ -52,6 +53,7 @@ import java.util.ArrayList;
   private final TrackGroupArray trackGroups;
   private final TrackEncryptionBox[] trackEncryptionBoxes;
   private final CompositeSequenceableLoaderFactory compositeSequenceableLoaderFactory;
+  private final @Nullable LoaderExecutor loaderExecutor;
 
   private @Nullable Callback callback;
   private SsManifest manifest;
@@ -62,13 +64,15 @@ import java.util.ArrayList;
   public SsMediaPeriod(SsManifest manifest, SsChunkSource.Factory chunkSourceFactory,
       CompositeSequenceableLoaderFactory compositeSequenceableLoaderFactory,
       int minLoadableRetryCount, EventDispatcher eventDispatcher,
-      LoaderErrorThrower manifestLoaderErrorThrower, Allocator allocator) {
+      LoaderErrorThrower manifestLoaderErrorThrower, Allocator allocator,
+      @Nullable LoaderExecutor loaderExecutor) {
     this.chunkSourceFactory = chunkSourceFactory;
     this.manifestLoaderErrorThrower = manifestLoaderErrorThrower;
     this.minLoadableRetryCount = minLoadableRetryCount;
     this.eventDispatcher = eventDispatcher;
     this.allocator = allocator;
     this.compositeSequenceableLoaderFactory = compositeSequenceableLoaderFactory;
+    this.loaderExecutor = loaderExecutor;
 
     trackGroups = buildTrackGroups(manifest);
     ProtectionElement protectionElement = manifest.protectionElement;
@@ -225,7 +229,8 @@ import java.util.ArrayList;
         allocator,
         positionUs,
         minLoadableRetryCount,
-        eventDispatcher);
+        eventDispatcher,
+        loaderExecutor);
   }
 
   private static TrackGroupArray buildTrackGroups(SsManifest manifest) {
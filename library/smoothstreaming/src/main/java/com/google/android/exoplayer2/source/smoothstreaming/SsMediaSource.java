@@ -42,6 +42,7 @@ import com.google.android.exoplayer2.upstream.Allocator;
 import com.google.android.exoplayer2.upstream.DataSource;
 import com.google.android.exoplayer2.upstream.Loader;
 import com.google.android.exoplayer2.upstream.LoaderErrorThrower;
+import com.google.android.exoplayer2.upstream.LoaderExecutor;
 import com.google.android.exoplayer2.upstream.ParsingLoadable;
 import com.google.android.exoplayer2.util.Assertions;
 import java.io.IOException;
@@ -67,6 +68,7 @@ public final class SsMediaSource extends BaseMediaSource
     private long livePresentationDelayMs;
     private boolean isCreateCalled;
     private @Nullable Object tag;
+    private @Nullable LoaderExecutor loaderExecutor;
 
     /**
      * Creates a new factory for {@link SsMediaSource}s.
@@ -163,6 +165,20 @@ public final class SsMediaSource extends BaseMediaSource
       return this;
     }
 
+    /**
+     * Sets the {@link LoaderExecutor} on which created media sources load their manifests and
+     * chunks, or null to use a dedicated thread for each load queue. The default value is null.
+     *
+     * @param loaderExecutor A shared {@link LoaderExecutor}, or null.
+     * @return This factory, for convenience.
+     * @throws IllegalStateException If one of the {@code create} methods has already been called.
+     */
+    public Factory setLoaderExecutor(@Nullable LoaderExecutor loaderExecutor) {
+      Assertions.checkState(!isCreateCalled);
+      this.loaderExecutor = loaderExecutor;
+      return this;
+    }
+
     /**
      * Returns a new {@link SsMediaSource} using the current parameters and the specified sideloaded
      * manifest.
@@ -183,7 +199,8 @@ public final class SsMediaSource extends BaseMediaSource
           compositeSequenceableLoaderFactory,
           minLoadableRetryCount,
           livePresentationDelayMs,
-          tag);
+          tag,
+          loaderExecutor);
     }
 
     /**
@@ -223,7 +240,8 @@ public final class SsMediaSource extends BaseMediaSource
           compositeSequenceableLoaderFactory,
           minLoadableRetryCount,
           livePresentationDelayMs,
-          tag);
+          tag,
+          loaderExecutor);
     }
 
     /**
@@ -279,6 +297,7 @@ public final class SsMediaSource extends BaseMediaSource
   private final ParsingLoadable.Parser<? extends SsManifest> manifestParser;
   private final ArrayList<SsMediaPeriod> mediaPeriods;
   private final @Nullable Object tag;
+  private final @Nullable LoaderExecutor loaderExecutor;
 
   private DataSource manifestDataSource;
   private Loader manifestLoader;
@@ -334,7 +353,8 @@ public final class SsMediaSource extends BaseMediaSource
         new DefaultCompositeSequenceableLoaderFactory(),
         minLoadableRetryCount,
         DEFAULT_LIVE_PRESENTATION_DELAY_MS,
-        /* tag= */ null);
+        /* tag= */ null,
+        /* loaderExecutor= */ null);
     if (eventHandler != null && eventListener != null) {
       addEventListener(eventHandler, eventListener);
     }
@@ -427,7 +447,8 @@ public final class SsMediaSource extends BaseMediaSource
         new DefaultCompositeSequenceableLoaderFactory(),
         minLoadableRetryCount,
         livePresentationDelayMs,
-        /* tag= */ null);
+        /* tag= */ null,
+        /* loaderExecutor= */ null);
     if (eventHandler != null && eventListener != null) {
       addEventListener(eventHandler, eventListener);
     }
@@ -442,7 +463,8 @@ public final class SsMediaSource extends BaseMediaSource
       CompositeSequenceableLoaderFactory compositeSequenceableLoaderFactory,
       int minLoadableRetryCount,
       long livePresentationDelayMs,
-      @Nullable Object tag) {
+      @Nullable Object tag,
+      @Nullable LoaderExecutor loaderExecutor) {
     Assertions.checkState(manifest == null || !manifest.isLive);
     this.manifest = manifest;
     this.manifestUri = manifestUri == null ? null : SsUtil.fixManifestUri(manifestUri);
@@ -454,6 +476,7 @@ public final class SsMediaSource extends BaseMediaSource
     this.livePresentationDelayMs = livePresentationDelayMs;
     this.manifestEventDispatcher = createEventDispatcher(/* mediaPeriodId= */ null);
     this.tag = tag;
+    this.loaderExecutor = loaderExecutor;
     sideloadedManifest = manifest != null;
     mediaPeriods = new ArrayList<>();
   }
@@ -467,7 +490,8 @@ public final class SsMediaSource extends BaseMediaSource
       processManifest();
     } else {
       manifestDataSource = manifestDataSourceFactory.createDataSource();
-      manifestLoader = new Loader("Loader:Manifest");
+      manifestLoader =
+          new Loader("Loader:Manifest", loaderExecutor, LoaderExecutor.PRIORITY_HIGH);
       manifestLoaderErrorThrower = manifestLoader;
       manifestRefreshHandler = new Handler();
       startLoadingManifest();
@@ -485,7 +509,7 @@ public final class SsMediaSource extends BaseMediaSource
     EventDispatcher eventDispatcher = createEventDispatcher(id);
     SsMediaPeriod period = new SsMediaPeriod(manifest, chunkSourceFactory,
         compositeSequenceableLoaderFactory, minLoadableRetryCount, eventDispatcher,
-        manifestLoaderErrorThrower, allocator);
+        manifestLoaderErrorThrower, allocator, loaderExecutor);
     mediaPeriods.add(period);
     return period;
   }
@@ -30,6 +30,7 @@ import com.google.android.exoplayer2.Format;
 import com.google.android.exoplayer2.Player;
 import com.google.android.exoplayer2.RenderersFactory;
 import com.google.android.exoplayer2.SimpleExoPlayer;
+import com.google.android.exoplayer2.audio.AudioProcessorStats;
 import com.google.android.exoplayer2.audio.AudioRendererEventListener;
 import com.google.android.exoplayer2.audio.DefaultAudioSink;
 import com.google.android.exoplayer2.decoder.DecoderCounters;
@@ -48,6 +49,7 @@ import com.google.android.exoplayer2.util.Clock;
 import com.google.android.exoplayer2.util.HandlerWrapper;
 import com.google.android.exoplayer2.util.Util;
 import com.google.android.exoplayer2.video.VideoRendererEventListener;
+import java.util.Arrays;
 
 /**
  * A {@link HostedTest} for {@link ExoPlayer} playback tests.
@@ -292,6 +294,16 @@ public abstract class ExoHostedTest extends Player.DefaultEventListener implemen
         + elapsedSinceLastFeedMs + "]", null);
   }
 
+  @Override
+  public void onAudioProcessorStats(AudioProcessorStats[] stats) {
+    Log.d(tag, "audioProcessorStats " + Arrays.toString(stats));
+  }
+
+  @Override
+  public void onAudioSilenceSkipped(long skippedDurationUs) {
+    Log.d(tag, "audioSilenceSkipped [" + skippedDurationUs + "]");
+  }
+
   // VideoRendererEventListener
 
   @Override
@@ -138,7 +138,8 @@ public class FakeAdaptiveMediaPeriod extends FakeMediaPeriod
         allocator,
         0,
         3,
-        eventDispatcher);
+        eventDispatcher,
+        /* loaderExecutor= */ null);
   }
 
   @Override
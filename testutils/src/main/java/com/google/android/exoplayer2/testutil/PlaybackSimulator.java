@@ -0,0 +1,208 @@
+/*
+ * Copyright (C) 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2.testutil;
+
+import android.net.Uri;
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.Format;
+import com.google.android.exoplayer2.LoadControl;
+import com.google.android.exoplayer2.trackselection.TrackSelection;
+import com.google.android.exoplayer2.upstream.DataSpec;
+import com.google.android.exoplayer2.upstream.TransferListener;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Deterministic simulation of the startup and steady state of an adaptive playback on a simulated
+ * network, used to measure the time to the first frame and the rebuffers caused by a {@link
+ * LoadControl} and {@link TrackSelection}.
+ *
+ * <p>The media is loaded chunk by chunk, at the bitrate of the selected format and the throughput
+ * of the simulated network. The bytes are reported to a {@link TransferListener}, which is
+ * typically the {@link com.google.android.exoplayer2.upstream.DefaultBandwidthMeter} used by the
+ * track selection and load control. The bandwidth meter must use the same {@link FakeClock} as the
+ * simulation. Playback consumes buffered media in real time. Time advances in steps of {@link
+ * #STEP_MS}.
+ */
+public final class PlaybackSimulator {
+
+  /** The result of a simulation. */
+  public static final class Result {
+
+    /** The time from the start of the simulation until playback started, in milliseconds. */
+    public final long timeToFirstFrameMs;
+    /** The times at which rebuffers started, relative to the start of the simulation. */
+    public final List<Long> rebufferTimesMs;
+    /** The total duration of all rebuffers, in milliseconds. */
+    public final long totalRebufferTimeMs;
+    /** The mean bitrate of all loaded chunks, in bits per second. */
+    public final long meanChunkBitrate;
+
+    private Result(
+        long timeToFirstFrameMs,
+        List<Long> rebufferTimesMs,
+        long totalRebufferTimeMs,
+        long meanChunkBitrate) {
+      this.timeToFirstFrameMs = timeToFirstFrameMs;
+      this.rebufferTimesMs = rebufferTimesMs;
+      this.totalRebufferTimeMs = totalRebufferTimeMs;
+      this.meanChunkBitrate = meanChunkBitrate;
+    }
+
+    /**
+     * Returns the number of rebuffers that started before the specified time.
+     *
+     * @param timeMs The time relative to the start of the simulation, in milliseconds.
+     */
+    public int getRebufferCount(long timeMs) {
+      int rebufferCount = 0;
+      for (long rebufferTimeMs : rebufferTimesMs) {
+        if (rebufferTimeMs < timeMs) {
+          rebufferCount++;
+        }
+      }
+      return rebufferCount;
+    }
+  }
+
+  /** The simulation time step, in milliseconds. */
+  public static final int STEP_MS = 10;
+
+  private static final float PLAYBACK_SPEED = 1f;
+  private static final DataSpec DATA_SPEC = new DataSpec(Uri.EMPTY);
+
+  private final LoadControl loadControl;
+  private final TrackSelection trackSelection;
+  private final TransferListener<Object> transferListener;
+  private final FakeClock clock;
+  private final long chunkDurationMs;
+  private final long[] networkBitrates;
+
+  /**
+   * @param loadControl The {@link LoadControl} to simulate.
+   * @param trackSelection The {@link TrackSelection} choosing the format of each chunk.
+   * @param transferListener The {@link TransferListener} to which the loaded bytes are reported.
+   * @param clock The {@link FakeClock} advanced by the simulation.
+   * @param chunkDurationMs The duration of each chunk, in milliseconds.
+   * @param networkBitrates The throughput of the simulated network in bits per second, for each
+   *     consecutive second. The sequence is repeated if the simulation lasts longer.
+   */
+  public PlaybackSimulator(
+      LoadControl loadControl,
+      TrackSelection trackSelection,
+      TransferListener<Object> transferListener,
+      FakeClock clock,
+      long chunkDurationMs,
+      long... networkBitrates) {
+    this.loadControl = loadControl;
+    this.trackSelection = trackSelection;
+    this.transferListener = transferListener;
+    this.clock = clock;
+    this.chunkDurationMs = chunkDurationMs;
+    this.networkBitrates = networkBitrates;
+  }
+
+  /**
+   * Simulates the playback of media with the specified duration.
+   *
+   * @param mediaDurationMs The duration of the media, in milliseconds.
+   * @return The {@link Result} of the simulation.
+   */
+  public Result simulate(long mediaDurationMs) {
+    long startTimeMs = clock.elapsedRealtime();
+    long timeToFirstFrameMs = C.TIME_UNSET;
+    List<Long> rebufferTimesMs = new ArrayList<>();
+    long totalRebufferTimeMs = 0;
+    long chunkBitrateSum = 0;
+    int chunkCount = 0;
+
+    long loadedDurationMs = 0;
+    long playedDurationMs = 0;
+    long remainingChunkBytes = 0;
+    double transferredBytes = 0;
+    boolean isLoading = false;
+    boolean isPlaying = false;
+    boolean isRebuffering = false;
+    loadControl.onPrepared();
+    while (playedDurationMs < mediaDurationMs) {
+      long elapsedMs = clock.elapsedRealtime() - startTimeMs;
+      long bufferedDurationUs = C.msToUs(loadedDurationMs - playedDurationMs);
+
+      // Start loading the next chunk if requested by the load control.
+      boolean continueLoading =
+          loadControl.shouldContinueLoading(bufferedDurationUs, PLAYBACK_SPEED);
+      if (continueLoading && !isLoading && loadedDurationMs < mediaDurationMs) {
+        trackSelection.updateSelectedTrack(
+            C.msToUs(playedDurationMs),
+            bufferedDurationUs,
+            /* availableDurationUs= */ C.TIME_UNSET);
+        Format format = trackSelection.getSelectedFormat();
+        remainingChunkBytes = format.bitrate * chunkDurationMs / 8000;
+        chunkBitrateSum += format.bitrate;
+        chunkCount++;
+        isLoading = true;
+        transferListener.onTransferStart(this, DATA_SPEC);
+      }
+
+      // Start or resume playback if allowed by the load control.
+      if (!isPlaying
+          && (loadedDurationMs == mediaDurationMs
+              || loadControl.shouldStartPlayback(
+                  bufferedDurationUs, PLAYBACK_SPEED, isRebuffering))) {
+        isPlaying = true;
+        isRebuffering = false;
+        if (timeToFirstFrameMs == C.TIME_UNSET) {
+          timeToFirstFrameMs = elapsedMs;
+        }
+      }
+
+      clock.advanceTime(STEP_MS);
+
+      if (isLoading) {
+        long networkBitrate = networkBitrates[(int) ((elapsedMs / 1000) % networkBitrates.length)];
+        transferredBytes += networkBitrate * STEP_MS / 8000d;
+        int bytes = (int) Math.min(remainingChunkBytes, (long) transferredBytes);
+        transferredBytes -= bytes;
+        remainingChunkBytes -= bytes;
+        transferListener.onBytesTransferred(this, bytes);
+        if (remainingChunkBytes == 0) {
+          transferListener.onTransferEnd(this);
+          transferredBytes = 0;
+          isLoading = false;
+          loadedDurationMs = Math.min(loadedDurationMs + chunkDurationMs, mediaDurationMs);
+        }
+      }
+
+      if (isPlaying) {
+        playedDurationMs += Math.min(STEP_MS, loadedDurationMs - playedDurationMs);
+        if (playedDurationMs == loadedDurationMs && playedDurationMs < mediaDurationMs) {
+          isPlaying = false;
+          isRebuffering = true;
+          rebufferTimesMs.add(clock.elapsedRealtime() - startTimeMs);
+        }
+      } else if (isRebuffering) {
+        totalRebufferTimeMs += STEP_MS;
+      }
+    }
+    loadControl.onStopped();
+    return new Result(
+        timeToFirstFrameMs,
+        rebufferTimesMs,
+        totalRebufferTimeMs,
+        chunkCount == 0 ? 0 : chunkBitrateSum / chunkCount);
+  }
+
+}
@@ -149,6 +149,16 @@ public abstract class StubExoPlayer implements ExoPlayer {
     throw new UnsupportedOperationException();
   }
 
+  @Override
+  public void setDynamicSchedulingEnabled(boolean dynamicSchedulingEnabled) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void setPreloadDurationMs(long preloadDurationMs) {
+    throw new UnsupportedOperationException();
+  }
+
   @Override
   public @Nullable Object getCurrentTag() {
     throw new UnsupportedOperationException();